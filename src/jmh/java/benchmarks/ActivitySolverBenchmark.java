@@ -0,0 +1,77 @@
+package benchmarks;
+
+import model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Choosing tutorials and labs for a whole cohort taking six courses each, every course needing
+ * two tutorials and a lab out of several. Solving chooses activities in the store, so each
+ * measurement is one run on a freshly enrolled cohort.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Dtinylog.level=off")
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class ActivitySolverBenchmark {
+
+    private static final int COURSES = 60;
+    private static final int COURSES_PER_STUDENT = 6;
+    private static final int TUTORIALS = 5;
+    private static final int LABS = 3;
+
+    @Param({"1000", "5000"})
+    public int students;
+
+    private SharedContext context;
+    private List<String> cohort;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        Random random = new Random(SyntheticData.SEED);
+        context = SyntheticData.session(new SharedStore());
+        CourseManager courseManager = context.getCourseManager();
+        // Enough seats on each course for everyone taking it, so students are only left out by clashes
+        int seats = students * COURSES_PER_STUDENT / COURSES;
+        for (int c = 0; c < COURSES; c++) {
+            String code = SyntheticData.courseCode(c);
+            courseManager.addCourse(code, "Course " + code, "Synthetic course " + c, false,
+                    "Dr. Organiser", "organiser@hindeburg.ac.nz", "Ms. Secretary", "secretary@hindeburg.ac.nz",
+                    2, 1, SyntheticData.ADMIN_EMAIL);
+            for (int id = 1; id <= TUTORIALS + LABS; id++) {
+                LocalTime start = LocalTime.of(9 + random.nextInt(8), 0);
+                DayOfWeek day = DayOfWeek.of(1 + random.nextInt(5));
+                courseManager.addActivityToCourse(code, id <= TUTORIALS
+                        ? new Tutorial(id, SyntheticData.TERM_START, start, SyntheticData.TERM_END,
+                                start.plusMinutes(50), "Room " + id, day, seats)
+                        : new Lab(id, SyntheticData.TERM_START, start, SyntheticData.TERM_END,
+                                start.plusMinutes(110), "Lab " + id, day, seats));
+            }
+        }
+
+        cohort = new ArrayList<>(students);
+        List<CohortEnrolment.Request> requests = new ArrayList<>();
+        for (int s = 0; s < students; s++) {
+            cohort.add(SyntheticData.studentEmail(s));
+            Set<Integer> courses = new LinkedHashSet<>();
+            while (courses.size() < COURSES_PER_STUDENT) {
+                courses.add(random.nextInt(COURSES));
+            }
+            for (int c : courses) {
+                requests.add(new CohortEnrolment.Request(cohort.get(s), SyntheticData.courseCode(c)));
+            }
+        }
+        new CohortEnrolment(courseManager).enrol(requests, SyntheticData.ADMIN_EMAIL);
+    }
+
+    @Benchmark
+    public AssignmentReport assignCohort() {
+        return new ActivitySolver(context).assignCohort(cohort, SyntheticData.ADMIN_EMAIL);
+    }
+}
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import util.AuditLog;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost to the calling thread of logging one user action: the original timestamp formatting and
+ * String.format() done on every call, against recording a structured event in AuditLog.
+ * Run with several threads (-t) to see how recording holds up when sessions log at once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Dtinylog.level=off")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AuditLogBenchmark {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private AuditLog log;
+
+    @Setup
+    public void setUp() {
+        log = new AuditLog(Writer.nullWriter());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        log.close();
+    }
+
+    @Benchmark
+    public String formatOnCaller() {
+        String timestamp = FORMATTER.format(LocalDateTime.now());
+        return String.format("%s - %s - %s - %s - %s", timestamp, "student@hindeburg.ac.nz",
+                "addCourseToStudentTimetable", "CSC1001", "FAILURE (Course does not exist)");
+    }
+
+    @Benchmark
+    public void recordEvent() {
+        log.log("student@hindeburg.ac.nz", "addCourseToStudentTimetable", "CSC1001",
+                AuditLog.Outcome.FAILURE, "Course does not exist");
+    }
+
+    @Benchmark
+    public void recordEventWithFields() {
+        log.log("admin@hindeburg.ac.nz", "addCourse",
+                AuditLog.fields("code", "CSC1001", "name", "Computer Science", "requiresComputers", true),
+                AuditLog.Outcome.SUCCESS, null);
+    }
+}
@@ -0,0 +1,81 @@
+package benchmarks;
+
+import model.CourseCode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Checking course codes and finding courses by code: the original String.matches() check and
+ * upper-cased string keys, a precompiled pattern, and interned CourseCode keys.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CourseCodeBenchmark {
+
+    private static final int COURSES = 1000;
+    private static final Pattern COURSE_CODE = Pattern.compile("^[A-Z]{3}[0-9]{4}$");
+
+    private Map<String, Integer> byString;
+    private Map<CourseCode, Integer> byCode;
+    private String[] typedCodes;
+    private CourseCode[] codes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        byString = new HashMap<>();
+        byCode = new HashMap<>();
+        typedCodes = new String[COURSES];
+        codes = new CourseCode[COURSES];
+        for (int c = 0; c < COURSES; c++) {
+            String code = String.format("BEN%04d", c);
+            byString.put(code, c);
+            byCode.put(CourseCode.of(code), c);
+            // Every other one in lower case, as a user might type it
+            typedCodes[c] = c % 2 == 0 ? code : code.toLowerCase();
+            codes[c] = CourseCode.of(code);
+        }
+    }
+
+    private int nextIndex() {
+        return next++ % COURSES;
+    }
+
+    @Benchmark
+    public boolean validateMatches() {
+        return typedCodes[nextIndex()].matches("^[A-Z]{3}[0-9]{4}$");
+    }
+
+    @Benchmark
+    public boolean validatePrecompiled() {
+        return COURSE_CODE.matcher(typedCodes[nextIndex()]).matches();
+    }
+
+    @Benchmark
+    public boolean validateHandRolled() {
+        return CourseCode.isValid(typedCodes[nextIndex()]);
+    }
+
+    @Benchmark
+    public Integer lookupTypedString() {
+        return byString.get(typedCodes[nextIndex()].trim().toUpperCase());
+    }
+
+    @Benchmark
+    public Integer lookupTypedCode() {
+        return byCode.get(CourseCode.lookup(typedCodes[nextIndex()]));
+    }
+
+    @Benchmark
+    public Integer lookupCode() {
+        return byCode.get(codes[nextIndex()]);
+    }
+}
@@ -0,0 +1,65 @@
+package benchmarks;
+
+import model.CourseManager;
+import model.SharedStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adding a course, adding one to a student's timetable, and removing one, against stores with
+ * different numbers of courses. Each of these changes the store, so every measurement is a
+ * batch of operations on a freshly generated store rather than a steady-state loop.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Dtinylog.level=off")
+@Warmup(iterations = 5, batchSize = CourseManagerBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = CourseManagerBenchmark.BATCH)
+public class CourseManagerBenchmark {
+
+    static final int BATCH = 100;
+    private static final int STUDENTS = 1_000;
+    private static final int COURSES_PER_STUDENT = 3;
+
+    @Param({"100", "1000", "10000"})
+    public int courses;
+
+    private CourseManager courseManager;
+    private Random random;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        random = new Random(SyntheticData.SEED);
+        courseManager = SyntheticData.session(new SharedStore()).getCourseManager();
+        SyntheticData.addCourses(courseManager, 0, courses, random);
+        SyntheticData.enrolStudents(courseManager, STUDENTS, COURSES_PER_STUDENT, courses, random);
+        next = 0;
+    }
+
+    @Benchmark
+    public boolean addCourse() {
+        // Numbered after the existing courses, so each is new
+        String code = SyntheticData.courseCode(courses + next++);
+        return courseManager.addCourse(code, "New course", "Added by the benchmark", false,
+                "Dr. Organiser", "organiser@hindeburg.ac.nz", "Ms. Secretary", "secretary@hindeburg.ac.nz",
+                0, 0, SyntheticData.ADMIN_EMAIL).success;
+    }
+
+    @Benchmark
+    public boolean addCourseToStudentTimetable() {
+        // A student with no courses yet, so the course is always added
+        String student = SyntheticData.studentEmail(STUDENTS + next++);
+        return courseManager.addCourseToStudentTimetable(student,
+                SyntheticData.courseCode(random.nextInt(courses)));
+    }
+
+    @Benchmark
+    public String[] removeCourse() {
+        // Every course has students enrolled when there are few enough courses
+        return courseManager.removeCourse(SyntheticData.courseCode(next++ % courses));
+    }
+}
@@ -0,0 +1,70 @@
+package benchmarks;
+
+import controller.InquirerController;
+import external.MockAuthenticationService;
+import external.MockEmailService;
+import model.SharedContext;
+import model.SharedStore;
+import org.openjdk.jmh.annotations.*;
+import view.TextUserInterface;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A guest browsing the FAQ through the menus: open a topic, open one of its subsections, then
+ * go back out. The FAQ has ten subsections per topic and the number of topics and items varies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Dtinylog.level=off")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FAQNavigationBenchmark {
+
+    private static final int SUBSECTIONS_PER_TOPIC = 10;
+    private static final int SCRIPTS = 64;
+
+    @Param({"10", "100", "1000"})
+    public int topics;
+
+    @Param({"10", "100"})
+    public int itemsPerSubsection;
+
+    private SharedStore store;
+    private MockAuthenticationService auth;
+    private MockEmailService email;
+    private byte[][] scripts;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        store = new SharedStore();
+        SyntheticData.addFAQ(store.getFAQManager(), topics, SUBSECTIONS_PER_TOPIC, itemsPerSubsection);
+        auth = new MockAuthenticationService();
+        email = new MockEmailService();
+
+        // No course filter, open a topic and a subsection, then back to the top and out
+        Random random = new Random(SyntheticData.SEED);
+        scripts = new byte[SCRIPTS][];
+        for (int i = 0; i < SCRIPTS; i++) {
+            String script = "n\n" + random.nextInt(topics) + "\n" + random.nextInt(SUBSECTIONS_PER_TOPIC)
+                    + "\n-1\n-1\n-1\n";
+            scripts[i] = script.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public SharedContext browseTopic() {
+        TextUserInterface view = new TextUserInterface(new ByteArrayInputStream(scripts[next++ & (SCRIPTS - 1)]),
+                new PrintStream(OutputStream.nullOutputStream()));
+        SharedContext context = new SharedContext(view, store);
+        new InquirerController(context, view, auth, email).consultFAQ();
+        return context;
+    }
+}
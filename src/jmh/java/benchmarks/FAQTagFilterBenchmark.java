@@ -0,0 +1,109 @@
+package benchmarks;
+
+import model.FAQItem;
+import model.FAQManager;
+import model.FAQSection;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Course filtering over a 50,000-item FAQ: scanning items with FAQItem.hasTag, as consultFAQ
+ * used to, against the course-tag index kept by FAQManager.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FAQTagFilterBenchmark {
+
+    private static final int TOPICS = 50;
+    private static final int SUBSECTIONS_PER_TOPIC = 10;
+    private static final int ITEMS_PER_SUBSECTION = 100;
+    private static final int COURSES = 200;
+
+    private FAQManager faqManager;
+    private List<FAQSection> allSections;
+    private String[] courseCodes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        faqManager = new FAQManager();
+        allSections = new ArrayList<>();
+        courseCodes = new String[COURSES];
+        for (int c = 0; c < COURSES; c++) {
+            courseCodes[c] = String.format("BEN%04d", c);
+        }
+
+        int itemNo = 0;
+        for (int t = 0; t < TOPICS; t++) {
+            faqManager.addSection("Topic " + t);
+            FAQSection topic = faqManager.getSections().get(t);
+            allSections.add(topic);
+            for (int s = 0; s < SUBSECTIONS_PER_TOPIC; s++) {
+                FAQSection subsection = new FAQSection("Topic " + t + "." + s);
+                topic.addSubsection(subsection);
+                allSections.add(subsection);
+                for (int i = 0; i < ITEMS_PER_SUBSECTION; i++, itemNo++) {
+                    subsection.addItem("Question " + itemNo, "Answer " + itemNo, courseCodes[itemNo % COURSES]);
+                }
+            }
+        }
+    }
+
+    private String nextCode() {
+        return courseCodes[next++ % COURSES];
+    }
+
+    private FAQSection nextSection() {
+        return allSections.get(1 + (next % (allSections.size() - 1)));
+    }
+
+    @Benchmark
+    public int filterSectionScan() {
+        FAQSection section = nextSection();
+        String code = nextCode();
+        List<FAQItem> relevant = new ArrayList<>();
+        for (FAQItem item : section.getItems()) {
+            if (item.hasTag(code)) {
+                relevant.add(item);
+            }
+        }
+        return relevant.size();
+    }
+
+    @Benchmark
+    public int filterSectionIndexed() {
+        FAQSection section = nextSection();
+        return section.getTaggedItems(nextCode()).size();
+    }
+
+    @Benchmark
+    public int allForCourseScan() {
+        String code = nextCode();
+        int count = 0;
+        for (FAQSection section : allSections) {
+            for (FAQItem item : section.getItems()) {
+                if (item.hasTag(code)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int allForCourseIndexed() {
+        int count = 0;
+        for (Map.Entry<FAQSection, List<FAQItem>> entry : faqManager.getAllItemsByTag(nextCode()).entrySet()) {
+            count += entry.getValue().size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,59 @@
+package benchmarks;
+
+import external.MockAuthenticationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MockAuthenticationService.login for a correct password, a wrong one and an unknown user,
+ * with different numbers of registered users.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LoginBenchmark {
+
+    private static final int PROBES = 1024;
+
+    @Param({"10", "1000", "100000"})
+    public int users;
+
+    private MockAuthenticationService auth;
+    private String[] usernames;
+    private String[] passwords;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        auth = new MockAuthenticationService(new StringReader(SyntheticData.userData(users)));
+        usernames = new String[PROBES];
+        passwords = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            int user = (int) ((long) i * 7919 % users);
+            usernames[i] = "user" + user;
+            passwords[i] = "user" + user + "pass";
+        }
+    }
+
+    @Benchmark
+    public String loginSuccess() {
+        int i = next++ & (PROBES - 1);
+        return auth.login(usernames[i], passwords[i]);
+    }
+
+    @Benchmark
+    public String loginWrongPassword() {
+        int i = next++ & (PROBES - 1);
+        return auth.login(usernames[i], "wrong");
+    }
+
+    @Benchmark
+    public String loginUnknownUser() {
+        return auth.login("nobody", "nobody");
+    }
+}
@@ -0,0 +1,67 @@
+package benchmarks;
+
+import model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checking a whole catalogue for double-booked rooms, and checking one new activity's room.
+ * Each course has six activities, spread over the rooms and the teaching week at random.
+ * The audit of 5,000 courses over 300 rooms is expected to take well under a second.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Dtinylog.level=off")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RoomAuditBenchmark {
+
+    private static final int ACTIVITIES_PER_COURSE = 6;
+
+    @Param({"5000"})
+    public int courses;
+
+    @Param({"300"})
+    public int rooms;
+
+    private CourseManager courseManager;
+    private Activity probe;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SyntheticData.SEED);
+        courseManager = SyntheticData.session(new SharedStore()).getCourseManager();
+        for (int c = 0; c < courses; c++) {
+            String code = SyntheticData.courseCode(c);
+            courseManager.addCourse(code, "Course " + code, "Synthetic course " + c, false,
+                    "Dr. Organiser", "organiser@hindeburg.ac.nz", "Ms. Secretary", "secretary@hindeburg.ac.nz",
+                    0, 0, SyntheticData.ADMIN_EMAIL);
+            for (int id = 1; id <= ACTIVITIES_PER_COURSE; id++) {
+                courseManager.addActivityToCourse(code, activity(id, random));
+            }
+        }
+        probe = activity(ACTIVITIES_PER_COURSE + 1, random);
+    }
+
+    private Activity activity(int id, Random random) {
+        LocalTime start = LocalTime.of(9 + random.nextInt(9), 0);
+        return new ConcreteActivity(id, SyntheticData.TERM_START, start, SyntheticData.TERM_END,
+                start.plusMinutes(50), "Room " + random.nextInt(rooms), DayOfWeek.of(1 + random.nextInt(5)));
+    }
+
+    @Benchmark
+    public List<RoomBookings.Clash> auditCatalogue() {
+        return courseManager.auditRoomBookings();
+    }
+
+    @Benchmark
+    public List<RoomBookings.Booking> checkOneActivity() {
+        return courseManager.findRoomClashes(SyntheticData.courseCode(0), probe);
+    }
+}
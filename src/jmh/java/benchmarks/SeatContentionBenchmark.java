@@ -0,0 +1,73 @@
+package benchmarks;
+
+import model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * A whole cohort choosing the same lab at once, from as many threads as there are cores. Only
+ * the lab's seats can be taken and everyone else is waitlisted, so each measurement is one rush
+ * on a freshly enrolled cohort.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Dtinylog.level=off")
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class SeatContentionBenchmark {
+
+    private static final String COURSE = SyntheticData.courseCode(0);
+    private static final int LAB = 1;
+    private static final int SEATS = 200;
+
+    @Param({"10000"})
+    public int students;
+
+    private CourseManager courseManager;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void startExecutor() {
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void stopExecutor() {
+        executor.shutdown();
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        courseManager = SyntheticData.session(new SharedStore()).getCourseManager();
+        courseManager.addCourse(COURSE, "Course " + COURSE, "Synthetic course", false,
+                "Dr. Organiser", "organiser@hindeburg.ac.nz", "Ms. Secretary", "secretary@hindeburg.ac.nz",
+                0, 1, SyntheticData.ADMIN_EMAIL);
+        courseManager.addActivityToCourse(COURSE, new Lab(LAB, SyntheticData.TERM_START, LocalTime.of(14, 0),
+                SyntheticData.TERM_END, LocalTime.of(16, 0), "Lab 1", DayOfWeek.TUESDAY, SEATS));
+        for (int s = 0; s < students; s++) {
+            courseManager.addCourseToStudentTimetable(SyntheticData.studentEmail(s), COURSE);
+        }
+    }
+
+    @Benchmark
+    public int chooseSameLab() throws Exception {
+        List<Future<Boolean>> futures = new ArrayList<>(students);
+        for (int s = 0; s < students; s++) {
+            String email = SyntheticData.studentEmail(s);
+            futures.add(executor.submit(() -> courseManager.chooseActivityForCourse(email, COURSE, LAB)));
+        }
+        int chosen = 0;
+        for (Future<Boolean> future : futures) {
+            if (future.get()) {
+                chosen++;
+            }
+        }
+        return chosen;
+    }
+}
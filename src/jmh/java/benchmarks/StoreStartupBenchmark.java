@@ -0,0 +1,136 @@
+package benchmarks;
+
+import model.*;
+import org.openjdk.jmh.annotations.*;
+import view.TextUserInterface;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time to reopen a DurableStore holding 100,000 students with three courses each, either by
+ * replaying the whole write-ahead log or by loading a compacted snapshot.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Dtinylog.level=off")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class StoreStartupBenchmark {
+
+    private static final int STUDENTS = 100_000;
+    private static final int COURSES = 50;
+    private static final int COURSES_PER_STUDENT = 3;
+    private static final int FAQ_ITEMS = 1000;
+    private static final int INQUIRIES = 1000;
+    // Enough concurrent sessions for group commit to keep setting up the data quick
+    private static final int WRITERS = 64;
+    private static final LocalDate TERM_START = LocalDate.of(2025, 1, 13);
+    private static final LocalDate TERM_END = LocalDate.of(2025, 4, 7);
+
+    @Param({"log", "snapshot"})
+    public String recoverFrom;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("store-startup");
+        try (DurableStore durableStore = DurableStore.open(directory)) {
+            SharedStore store = durableStore.getStore();
+            CourseManager admin = session(store).getCourseManager();
+            for (int c = 0; c < COURSES; c++) {
+                addCourse(admin, courseCode(c), DayOfWeek.of(c % 5 + 1), c / 5);
+            }
+
+            FAQSection section = store.getFAQManager().addSection("Courses");
+            for (int i = 0; i < FAQ_ITEMS; i++) {
+                section.addItem("Question " + i, "Answer " + i);
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    SharedContext session = session(store);
+                    for (int s = writer; s < STUDENTS; s += WRITERS) {
+                        String email = "student" + s + "@hindeburg.ac.nz";
+                        for (int c = 0; c < COURSES_PER_STUDENT; c++) {
+                            session.getCourseManager().addCourseToStudentTimetable(email,
+                                    courseCode((s + c * 7) % COURSES));
+                        }
+                        if (s < INQUIRIES) {
+                            session.addInquiry(new Inquiry(email, "Question " + s, "Inquiry text " + s));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            if (recoverFrom.equals("snapshot")) {
+                durableStore.compact();
+            }
+        }
+    }
+
+    private static SharedContext session(SharedStore store) {
+        return new SharedContext(new TextUserInterface(InputStream.nullInputStream(),
+                new PrintStream(OutputStream.nullOutputStream())), store);
+    }
+
+    private static String courseCode(int c) {
+        return String.format("BEN%04d", c);
+    }
+
+    private static void addCourse(CourseManager courseManager, String code, DayOfWeek day, int slot) {
+        courseManager.addCourse(code, "Course " + code, "Benchmark course", false,
+                "Dr. Organiser", "organiser@hindeburg.ac.nz", "Ms. Secretary", "secretary@hindeburg.ac.nz",
+                1, 1, "admin1@hindeburg.ac.nz");
+        LocalTime start = LocalTime.of(9 + slot % 8, 0);
+        courseManager.addActivityToCourse(code, new Lecture(1, TERM_START, start,
+                TERM_END, start.plusMinutes(50), "Lecture Theatre", day, true));
+        courseManager.addActivityToCourse(code, new Tutorial(2, TERM_START, start.plusHours(1),
+                TERM_END, start.plusMinutes(110), "Room 1", day, 30));
+        courseManager.addActivityToCourse(code, new Tutorial(3, TERM_START, start.plusHours(1),
+                TERM_END, start.plusMinutes(110), "Room 2", day.plus(1), 30));
+        courseManager.addActivityToCourse(code, new Lab(4, TERM_START, start,
+                TERM_END, start.plusHours(2), "Lab 1", day.plus(2), 20));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public SharedStore open() throws IOException {
+        try (DurableStore durableStore = DurableStore.open(directory)) {
+            return durableStore.getStore();
+        }
+    }
+}
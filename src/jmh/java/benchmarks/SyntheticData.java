@@ -0,0 +1,162 @@
+package benchmarks;
+
+import model.*;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import view.TextUserInterface;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Random;
+
+/**
+ * Builds courses, timetables, FAQs and user data of any size for the benchmarks. Everything is
+ * generated from a fixed seed, so two runs measure exactly the same data and results taken
+ * before and after a change can be compared.
+ */
+final class SyntheticData {
+
+    static final long SEED = 42;
+    static final LocalDate TERM_START = LocalDate.of(2025, 1, 13);
+    static final LocalDate TERM_END = LocalDate.of(2025, 4, 7);
+    static final String ADMIN_EMAIL = "admin1@hindeburg.ac.nz";
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Returns a distinct course code for each number up to 26^3 * 10,000, starting at BAA0000.
+     */
+    static String courseCode(int n) {
+        int letters = 26 * 26 + n / 10_000;
+        return "" + (char) ('A' + letters / (26 * 26) % 26) + (char) ('A' + letters / 26 % 26)
+                + (char) ('A' + letters % 26) + String.format("%04d", n % 10_000);
+    }
+
+    static String studentEmail(int n) {
+        return "student" + n + "@hindeburg.ac.nz";
+    }
+
+    /**
+     * Returns a session on the store whose view reads nothing and discards what is shown.
+     */
+    static SharedContext session(SharedStore store) {
+        return new SharedContext(new TextUserInterface(InputStream.nullInputStream(),
+                new PrintStream(OutputStream.nullOutputStream())), store);
+    }
+
+    /**
+     * Adds courses numbered from first to last - 1, each with a recorded lecture, a tutorial
+     * and a lab at random times in the working week.
+     */
+    static void addCourses(CourseManager courseManager, int first, int last, Random random) {
+        for (int c = first; c < last; c++) {
+            String code = courseCode(c);
+            courseManager.addCourse(code, "Course " + code, "Synthetic course " + c, random.nextBoolean(),
+                    "Dr. Organiser", "organiser" + c % 100 + "@hindeburg.ac.nz",
+                    "Ms. Secretary", "secretary@hindeburg.ac.nz", 1, 1, ADMIN_EMAIL);
+            // Recorded, so a clash never stops a student adding the course
+            courseManager.addActivityToCourse(code, lecture(1, random));
+            courseManager.addActivityToCourse(code, tutorial(2, random));
+            courseManager.addActivityToCourse(code, lab(3, random));
+        }
+    }
+
+    /**
+     * Adds coursesPerStudent random courses, out of the first courseCount, to each student's timetable.
+     */
+    static void enrolStudents(CourseManager courseManager, int students, int coursesPerStudent,
+                              int courseCount, Random random) {
+        for (int s = 0; s < students; s++) {
+            for (int c = 0; c < coursesPerStudent; c++) {
+                courseManager.addCourseToStudentTimetable(studentEmail(s), courseCode(random.nextInt(courseCount)));
+            }
+        }
+    }
+
+    /**
+     * Returns a timetable holding a lecture, tutorial and lab for each of the courses.
+     */
+    static Timetable timetable(String studentEmail, int courses, Random random) {
+        Timetable timetable = new Timetable(studentEmail);
+        for (int c = 0; c < courses; c++) {
+            String code = courseCode(c);
+            for (Activity activity : new Activity[]{lecture(1, random), tutorial(2, random), lab(3, random)}) {
+                timetable.addTimeSlot(activity.getDay(), activity.getStartDate(), activity.getStartTime(),
+                        activity.getEndDate(), activity.getEndTime(), code, activity.getId(),
+                        activity instanceof Lecture ? TimeSlotStatus.CHOSEN : TimeSlotStatus.UNCHOSEN);
+            }
+        }
+        return timetable;
+    }
+
+    /**
+     * Adds topics, each with subsections holding items. Every fourth item is tagged with a course.
+     */
+    static void addFAQ(FAQManager faqManager, int topics, int subsectionsPerTopic, int itemsPerSubsection) {
+        int itemNo = 0;
+        for (int t = 0; t < topics; t++) {
+            FAQSection topic = faqManager.addSection("Topic " + t);
+            for (int s = 0; s < subsectionsPerTopic; s++) {
+                FAQSection subsection = new FAQSection("Topic " + t + "." + s);
+                topic.addSubsection(subsection);
+                for (int i = 0; i < itemsPerSubsection; i++, itemNo++) {
+                    String question = "How do I do task " + itemNo + " for topic " + t + "?";
+                    String answer = "Follow steps " + itemNo + " and " + (itemNo + 1) + " in the handbook.";
+                    if (itemNo % 4 == 0) {
+                        subsection.addItem(question, answer, courseCode(itemNo % 100));
+                    } else {
+                        subsection.addItem(question, answer);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns user data in the format of MockUserData.json, with users user0 to user(count - 1)
+     * whose passwords are user0pass and so on.
+     */
+    @SuppressWarnings("unchecked")
+    static String userData(int count) {
+        String[] roles = {"Student", "TeachingStaff", "AdminStaff"};
+        JSONArray users = new JSONArray();
+        for (int u = 0; u < count; u++) {
+            JSONObject user = new JSONObject();
+            user.put("username", "user" + u);
+            user.put("password", "user" + u + "pass");
+            user.put("email", "user" + u + "@hindeburg.ac.nz");
+            user.put("role", roles[u % roles.length]);
+            users.add(user);
+        }
+        return users.toJSONString();
+    }
+
+    private static LocalTime startTime(Random random) {
+        return LocalTime.of(9 + random.nextInt(8), random.nextBoolean() ? 0 : 30);
+    }
+
+    private static DayOfWeek weekday(Random random) {
+        return DayOfWeek.of(1 + random.nextInt(5));
+    }
+
+    private static Lecture lecture(int id, Random random) {
+        LocalTime start = startTime(random);
+        return new Lecture(id, TERM_START, start, TERM_END, start.plusMinutes(50), "Lecture Theatre",
+                weekday(random), true);
+    }
+
+    private static Tutorial tutorial(int id, Random random) {
+        LocalTime start = startTime(random);
+        return new Tutorial(id, TERM_START, start, TERM_END, start.plusMinutes(50), "Room 1", weekday(random), 30);
+    }
+
+    private static Lab lab(int id, Random random) {
+        LocalTime start = startTime(random);
+        return new Lab(id, TERM_START, start, TERM_END, start.plusMinutes(110), "Lab 1", weekday(random), 20);
+    }
+}
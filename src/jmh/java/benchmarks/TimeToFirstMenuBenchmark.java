@@ -0,0 +1,147 @@
+package benchmarks;
+
+import controller.MenuController;
+import external.MockAuthenticationService;
+import external.MockEmailService;
+import model.*;
+import org.openjdk.jmh.annotations.*;
+import view.TextUserInterface;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time from starting up to showing the first menu, for stores holding different numbers of
+ * student timetables. Startup maps the store's snapshot rather than reading it, so this should
+ * stay about the same however many timetables there are.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Dtinylog.level=off")
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class TimeToFirstMenuBenchmark {
+
+    private static final int COURSES = 50;
+    private static final int COURSES_PER_STUDENT = 3;
+    // Students are added this many at a time, compacting in between, so setting up a large
+    // store never needs all of it in memory at once
+    private static final int STUDENTS_PER_BATCH = 100_000;
+    private static final int WRITERS = 64;
+    private static final LocalDate TERM_START = LocalDate.of(2025, 1, 13);
+    private static final LocalDate TERM_END = LocalDate.of(2025, 4, 7);
+    // Picks Exit from the guest menu
+    private static final byte[] EXIT = "-1\n".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"1000", "100000", "1000000"})
+    public int students;
+
+    private Path directory;
+    private MockAuthenticationService auth;
+    private MockEmailService email;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        auth = new MockAuthenticationService();
+        email = new MockEmailService();
+        directory = Files.createTempDirectory("first-menu");
+        try (DurableStore durableStore = DurableStore.open(directory)) {
+            CourseManager admin = session(durableStore.getStore()).getCourseManager();
+            for (int c = 0; c < COURSES; c++) {
+                addCourse(admin, courseCode(c), DayOfWeek.of(c % 5 + 1), c / 5);
+            }
+        }
+        for (int first = 0; first < students; first += STUDENTS_PER_BATCH) {
+            addStudents(first, Math.min(students, first + STUDENTS_PER_BATCH));
+        }
+    }
+
+    /**
+     * Adds a range of students to the store and compacts it, leaving only a snapshot behind.
+     */
+    private void addStudents(int first, int last) throws Exception {
+        try (DurableStore durableStore = DurableStore.open(directory)) {
+            SharedStore store = durableStore.getStore();
+            ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    CourseManager courseManager = session(store).getCourseManager();
+                    for (int s = first + writer; s < last; s += WRITERS) {
+                        String email = "student" + s + "@hindeburg.ac.nz";
+                        for (int c = 0; c < COURSES_PER_STUDENT; c++) {
+                            courseManager.addCourseToStudentTimetable(email, courseCode((s + c * 7) % COURSES));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+            durableStore.compact();
+        }
+    }
+
+    private static SharedContext session(SharedStore store) {
+        return new SharedContext(new TextUserInterface(InputStream.nullInputStream(),
+                new PrintStream(OutputStream.nullOutputStream())), store);
+    }
+
+    private static String courseCode(int c) {
+        return String.format("BEN%04d", c);
+    }
+
+    private static void addCourse(CourseManager courseManager, String code, DayOfWeek day, int slot) {
+        courseManager.addCourse(code, "Course " + code, "Benchmark course", false,
+                "Dr. Organiser", "organiser@hindeburg.ac.nz", "Ms. Secretary", "secretary@hindeburg.ac.nz",
+                1, 1, "admin1@hindeburg.ac.nz");
+        LocalTime start = LocalTime.of(9 + slot % 8, 0);
+        courseManager.addActivityToCourse(code, new Lecture(1, TERM_START, start,
+                TERM_END, start.plusMinutes(50), "Lecture Theatre", day, true));
+        courseManager.addActivityToCourse(code, new Tutorial(2, TERM_START, start.plusHours(1),
+                TERM_END, start.plusMinutes(110), "Room 1", day, 30));
+        courseManager.addActivityToCourse(code, new Lab(3, TERM_START, start,
+                TERM_END, start.plusHours(2), "Lab 1", day.plus(2), 20));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public SharedStore firstMenu() throws IOException {
+        try (DurableStore durableStore = DurableStore.open(directory)) {
+            SharedStore store = durableStore.getStore();
+            TextUserInterface view = new TextUserInterface(new ByteArrayInputStream(EXIT),
+                    new PrintStream(OutputStream.nullOutputStream()));
+            new MenuController(new SharedContext(view, store), view, auth, email).mainMenu();
+            return store;
+        }
+    }
+}
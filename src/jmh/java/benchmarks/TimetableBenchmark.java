@@ -0,0 +1,65 @@
+package benchmarks;
+
+import model.Timetable;
+import org.openjdk.jmh.annotations.*;
+import util.EpochMinutes;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conflict checks and rendering the working week for timetables holding different numbers of
+ * courses, each with a lecture, tutorial and lab running every week of the term. Conflicts are
+ * checked both for a one-hour activity every week and for one continuous stretch of the term.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TimetableBenchmark {
+
+    private static final int PROBES = 1024;
+
+    @Param({"5", "50", "500"})
+    public int courses;
+
+    private Timetable timetable;
+    private LocalTime[] probeStarts;
+    private DayOfWeek[] probeDays;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(SyntheticData.SEED);
+        timetable = SyntheticData.timetable("bench@hindeburg.ac.nz", courses, random);
+        probeStarts = new LocalTime[PROBES];
+        probeDays = new DayOfWeek[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probeStarts[i] = LocalTime.of(8 + random.nextInt(10), random.nextBoolean() ? 0 : 30);
+            probeDays[i] = DayOfWeek.of(1 + random.nextInt(5));
+        }
+    }
+
+    @Benchmark
+    public String[] checkWeeklyConflicts() {
+        int i = next++ & (PROBES - 1);
+        LocalTime start = probeStarts[i];
+        return timetable.checkConflicts(probeDays[i], EpochMinutes.of(SyntheticData.TERM_START, start),
+                EpochMinutes.of(SyntheticData.TERM_END, start.plusHours(1)));
+    }
+
+    @Benchmark
+    public String[] checkConflicts() {
+        LocalTime start = probeStarts[next++ & (PROBES - 1)];
+        return timetable.checkConflicts(SyntheticData.TERM_START, start, SyntheticData.TERM_END, start.plusHours(1));
+    }
+
+    @Benchmark
+    public String toWorkingWeekString() {
+        return timetable.toWorkingWeekString();
+    }
+}
@@ -0,0 +1,95 @@
+package benchmarks;
+
+import model.TimeSlot;
+import model.TimeSlotStatus;
+import model.Timetable;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original linear conflict scan against the time grid now kept by Timetable.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TimetableConflictBenchmark {
+
+    private static final int PROBES = 1024;
+    private static final LocalDate TERM_START = LocalDate.of(2025, 1, 13);
+
+    @Param({"10", "100", "10000"})
+    public int slotCount;
+
+    private Timetable timetable;
+    private List<TimeSlot> slots;
+    private LocalDate[] probeDates;
+    private LocalTime[] probeStarts;
+    private LocalTime[] probeEnds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        timetable = new Timetable("bench@hindeburg.ac.nz");
+        slots = new ArrayList<>(slotCount);
+
+        // Short one-off activities spread over a year, so the number of overlaps per probe stays small
+        for (int i = 0; i < slotCount; i++) {
+            LocalDate date = TERM_START.plusDays(random.nextInt(365));
+            LocalTime start = LocalTime.of(8 + random.nextInt(10), random.nextBoolean() ? 0 : 30);
+            LocalTime end = start.plusMinutes(50);
+            String course = String.format("BEN%04d", i % 50);
+            timetable.addTimeSlot(date.getDayOfWeek(), date, start, date, end, course, i, TimeSlotStatus.UNCHOSEN);
+            slots.add(new TimeSlot(date.getDayOfWeek(), date, start, date, end, course, i));
+        }
+
+        probeDates = new LocalDate[PROBES];
+        probeStarts = new LocalTime[PROBES];
+        probeEnds = new LocalTime[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probeDates[i] = TERM_START.plusDays(random.nextInt(365));
+            probeStarts[i] = LocalTime.of(8 + random.nextInt(10), 0);
+            probeEnds[i] = probeStarts[i].plusHours(1);
+        }
+    }
+
+    @Benchmark
+    public String[] linearScan() {
+        int i = next++ & (PROBES - 1);
+        return linearCheckConflicts(slots, probeDates[i], probeStarts[i], probeDates[i], probeEnds[i]);
+    }
+
+    @Benchmark
+    public String[] timeGrid() {
+        int i = next++ & (PROBES - 1);
+        return timetable.checkConflicts(probeDates[i], probeStarts[i], probeDates[i], probeEnds[i]);
+    }
+
+    /**
+     * The conflict check as Timetable implemented it before the index was introduced.
+     */
+    private static String[] linearCheckConflicts(List<TimeSlot> timeSlots, LocalDate startDate, LocalTime startTime,
+                                                 LocalDate endDate, LocalTime endTime) {
+        LocalDateTime newStart = LocalDateTime.of(startDate, startTime);
+        LocalDateTime newEnd = LocalDateTime.of(endDate, endTime);
+
+        for (TimeSlot slot : timeSlots) {
+            LocalDateTime slotStart = LocalDateTime.of(slot.getStartDate(), slot.getStartTime());
+            LocalDateTime slotEnd = LocalDateTime.of(slot.getEndDate(), slot.getEndTime());
+            if (newStart.isBefore(slotEnd) && newEnd.isAfter(slotStart)) {
+                return new String[]{slot.getCourseCode(), String.valueOf(slot.getActivityId())};
+            }
+        }
+        return null;
+    }
+}
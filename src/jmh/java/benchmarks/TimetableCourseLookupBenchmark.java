@@ -0,0 +1,116 @@
+package benchmarks;
+
+import model.TimeSlot;
+import model.TimeSlotStatus;
+import model.Timetable;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-course operations on a 50-course timetable: the original full-list scans against the
+ * course-code and activity-ID maps now kept by Timetable.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TimetableCourseLookupBenchmark {
+
+    private static final int COURSES = 50;
+    private static final int ACTIVITIES_PER_COURSE = 8;
+
+    private Timetable timetable;
+    private List<TimeSlot> slots;
+    // Whether each slot in the list is chosen, for the scans
+    private boolean[] chosen;
+    private String[] lookupCodes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        timetable = new Timetable("bench@hindeburg.ac.nz");
+        slots = new ArrayList<>();
+        chosen = new boolean[COURSES * ACTIVITIES_PER_COURSE];
+        LocalDate start = LocalDate.of(2025, 1, 13);
+        LocalDate end = LocalDate.of(2025, 4, 7);
+
+        for (int c = 0; c < COURSES; c++) {
+            String code = String.format("BEN%04d", c);
+            for (int a = 0; a < ACTIVITIES_PER_COURSE; a++) {
+                DayOfWeek day = DayOfWeek.of(1 + a % 5);
+                LocalTime time = LocalTime.of(9 + a, 0);
+                TimeSlotStatus status = a == 0 ? TimeSlotStatus.CHOSEN : TimeSlotStatus.UNCHOSEN;
+                timetable.addTimeSlot(day, start, time, end, time.plusHours(1), code, a, status);
+                chosen[slots.size()] = status == TimeSlotStatus.CHOSEN;
+                slots.add(new TimeSlot(day, start, time, end, time.plusHours(1), code, a));
+            }
+        }
+
+        // Look up in lower case, as a student would type it
+        lookupCodes = new String[COURSES];
+        for (int c = 0; c < COURSES; c++) {
+            lookupCodes[c] = String.format("ben%04d", c);
+        }
+    }
+
+    private String nextCode() {
+        return lookupCodes[next++ % COURSES];
+    }
+
+    @Benchmark
+    public boolean hasSlotsForCourseScan() {
+        String normalizedCode = nextCode().trim().toUpperCase();
+        return slots.stream()
+                .anyMatch(slot -> slot.getCourseCode() != null &&
+                        slot.getCourseCode().toUpperCase().equals(normalizedCode));
+    }
+
+    @Benchmark
+    public boolean hasSlotsForCourseIndexed() {
+        return timetable.hasSlotsForCourse(nextCode());
+    }
+
+    @Benchmark
+    public int numChosenActivitiesScan() {
+        String code = nextCode();
+        int count = 0;
+        for (int i = 0; i < slots.size(); i++) {
+            if (slots.get(i).hasCourseCode(code) && chosen[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int numChosenActivitiesIndexed() {
+        return timetable.numChosenActivities(nextCode());
+    }
+
+    @Benchmark
+    public boolean chooseActivityScan() {
+        String code = nextCode();
+        int activityId = ACTIVITIES_PER_COURSE - 1;
+        for (int i = 0; i < slots.size(); i++) {
+            TimeSlot slot = slots.get(i);
+            if (slot.hasCourseCode(code) && slot.hasActivityId(activityId)) {
+                chosen[i] = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean chooseActivityIndexed() {
+        return timetable.chooseActivity(nextCode(), ACTIVITIES_PER_COURSE - 1);
+    }
+}
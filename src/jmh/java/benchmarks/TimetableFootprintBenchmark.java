@@ -0,0 +1,65 @@
+package benchmarks;
+
+import model.SharedStore;
+import model.TimeSlotStatus;
+import model.Timetable;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The memory taken by one student's timetable: four courses out of a hundred, each with thirty
+ * activities. The courses' slots are shared and made up front, so each operation only builds
+ * the timetable itself, and its entry in the store.
+ *
+ * Run with -prof gc: gc.alloc.rate.norm is the bytes allocated per timetable, an upper bound on
+ * what it keeps. Copying every slot into every timetable took about 19KB per student; with the
+ * slots shared it should stay under 2KB.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TimetableFootprintBenchmark {
+
+    private static final int COURSES = 100;
+    private static final int ACTIVITIES_PER_COURSE = 30;
+    private static final int COURSES_PER_STUDENT = 4;
+
+    private SharedStore store;
+    private Random random;
+    private int students;
+
+    @Setup
+    public void setUp() {
+        store = new SharedStore();
+        random = new Random(SyntheticData.SEED);
+        Timetable setup = store.getOrCreateTimetable("setup@hindeburg.ac.nz");
+        for (int c = 0; c < COURSES; c++) {
+            addCourse(setup, c);
+        }
+    }
+
+    private static void addCourse(Timetable timetable, int course) {
+        String code = SyntheticData.courseCode(course);
+        for (int a = 0; a < ACTIVITIES_PER_COURSE; a++) {
+            LocalTime start = LocalTime.of(9 + (course + a) % 8, 0);
+            timetable.addTimeSlot(DayOfWeek.of(1 + a % 5), SyntheticData.TERM_START, start, SyntheticData.TERM_END,
+                    start.plusMinutes(50), code, a, a == 0 ? TimeSlotStatus.CHOSEN : TimeSlotStatus.UNCHOSEN);
+        }
+    }
+
+    @Benchmark
+    public Timetable buildStudentTimetable() {
+        Timetable timetable = store.getOrCreateTimetable(SyntheticData.studentEmail(students++));
+        for (int c = 0; c < COURSES_PER_STUDENT; c++) {
+            addCourse(timetable, random.nextInt(COURSES));
+        }
+        return timetable;
+    }
+}
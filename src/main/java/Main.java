@@ -1,27 +1,134 @@
+import model.DurableStore;
+import model.FAQPageLoader;
 import model.SharedContext;
+import model.SharedStore;
 import controller.MenuController;
+import external.AsyncEmailService;
 import external.AuthenticationService;
-import external.EmailService;
 import external.MockAuthenticationService;
 import external.MockEmailService;
 import org.json.simple.parser.ParseException;
+import org.tinylog.Logger;
+import server.PortalServer;
+import util.ActionMetrics;
+import util.AuditLog;
 import view.TextUserInterface;
 import view.View;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
+    private static final int DEFAULT_PORT = 8080;
+    private static final String HELP_PAGES_DIRECTORY = "sample_pages";
+    private static final String HELP_PAGES_TOPIC = "Help Desk Articles";
+    private static final String DATA_DIRECTORY = "data";
+    private static final String AUDIT_LOG_FILE = "audit.jsonl";
+    private static final String METRICS_FILE = "metrics.txt";
+    // How long Ctrl-C waits for the store, audit log and email queue to be closed
+    private static final long SHUTDOWN_WAIT_SECONDS = 30;
+
+    /**
+     * Runs the portal on this terminal, or with "--serve [port]" as a TCP server
+     * that handles many sessions at once.
+     */
     public static void main(String[] args) {
         View view = new TextUserInterface();
+        int port = DEFAULT_PORT;
+        if (args.length > 0 && args[0].equals("--serve")) {
+            port = args.length > 1 ? parsePort(args[1]) : DEFAULT_PORT;
+            if (port < 0) {
+                view.displayError("Usage: --serve [port], where port is a number from 0 to 65535.");
+                return;
+            }
+        }
+        CountDownLatch exited = new CountDownLatch(1);
         try {
             AuthenticationService auth = new MockAuthenticationService();
-            EmailService email = new MockEmailService();
-            SharedContext sharedContext = new SharedContext(view);
-            MenuController menus = new MenuController(sharedContext, view, auth, email);
-            menus.mainMenu();
+            // Emails are queued and sent in the background; close() delivers anything still queued
+            // What users do is written to data/audit.jsonl in the background, one JSON object per line
+            try (AsyncEmailService email = new AsyncEmailService(new MockEmailService(),
+                    MockEmailService::checkAddresses);
+                 AuditLog audit = AuditLog.open(Paths.get(DATA_DIRECTORY, AUDIT_LOG_FILE))) {
+                AuditLog previous = AuditLog.install(audit);
+                try {
+                    run(args, port, view, auth, email, exited);
+                } finally {
+                    AuditLog.install(previous);
+                }
+            }
+            // Latencies and error rates for this run, including the last emails sent on close
+            ActionMetrics.global().writeTo(Paths.get(DATA_DIRECTORY, METRICS_FILE));
         } catch (URISyntaxException | IOException | ParseException | NullPointerException e) {
             view.displayException(e);
+        } finally {
+            exited.countDown();
+        }
+    }
+
+    /**
+     * Returns the port number, or -1 if the text isn't one.
+     */
+    private static int parsePort(String text) {
+        try {
+            int port = Integer.parseInt(text.trim());
+            return port >= 0 && port <= 65535 ? port : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void run(String[] args, int port, View view, AuthenticationService auth,
+                            AsyncEmailService email, CountDownLatch exited) throws IOException {
+        // Everything sessions change is saved under data/ and restored on the next run
+        try (DurableStore durableStore = DurableStore.open(Paths.get(DATA_DIRECTORY))) {
+            SharedStore store = durableStore.getStore();
+            if (store.getFAQManager().getSection(HELP_PAGES_TOPIC) == null) {
+                loadHelpPages(store);
+            }
+            if (args.length > 0 && args[0].equals("--serve")) {
+                try (PortalServer server = new PortalServer(port, store, auth, email)) {
+                    // The server only stops when it is closed, so Ctrl-C or SIGTERM closes it and waits
+                    // for main() to close the store, audit log and email queue and write the metrics
+                    Thread shutdown = new Thread(() -> {
+                        try {
+                            server.close();
+                            exited.await(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+                        } catch (IOException e) {
+                            Logger.warn(e, "Could not close the portal server");
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }, "portal-shutdown");
+                    Runtime.getRuntime().addShutdownHook(shutdown);
+                    server.serve();
+                    try {
+                        Runtime.getRuntime().removeShutdownHook(shutdown);
+                    } catch (IllegalStateException e) {
+                        // Already shutting down: the hook is waiting for main() to finish
+                    }
+                }
+                return;
+            }
+            SharedContext sharedContext = new SharedContext(view, store);
+            MenuController menus = new MenuController(sharedContext, view, auth, email);
+            menus.mainMenu();
+        }
+    }
+
+    /**
+     * Adds the help-desk articles shipped in sample_pages to the FAQ, if the directory is present.
+     * Only needed on the first run; after that they are restored with the rest of the store.
+     */
+    private static void loadHelpPages(SharedStore store) throws IOException {
+        Path pages = Paths.get(HELP_PAGES_DIRECTORY);
+        if (Files.isDirectory(pages)) {
+            new FAQPageLoader().load(pages, store.getFAQManager(), HELP_PAGES_TOPIC);
         }
     }
 }
@@ -2,12 +2,10 @@ package controller;
 
 import external.EmailService;
 import model.*;
-import util.LogUtil;
 import view.View;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -94,22 +92,16 @@ public class AdminController {
                 if (conflict) {
                     view.displayWarning("This activity overlaps with an existing one. Skipped.");
                 } else {
-                    course.addActivity(newActivity);
+                    courseManager.addActivityToCourse(courseCode, newActivity);
                     view.displaySuccess("Activity added.");
                 }
-                course.addActivity(newActivity);
 
             } catch (Exception e) {
                 view.displayError("Invalid activity input. Please try again.");
             }
         }
 
-        // --- Step 4: Final success message, log, and email ---
-        LogUtil.logAction(
-                LocalDateTime.now(), addedBy, "addCourse", courseCode,
-                "SUCCESS (New course added)"
-        );
-
+        // --- Step 4: Final success message and email; the course manager logged the addition ---
         view.displaySuccess("Course has been successfully created.");
 
         int status = emailService.sendEmail(
@@ -161,7 +153,6 @@ public class AdminController {
         view.displayInfo("=== Delete Course ===");
 
         String courseCode = view.getInput("Enter course code to delete: ");
-        String currentUserEmail = sharedContext.getCurrentUserEmail();
 
         String[] emailsToNotify = courseManager.removeCourse(courseCode);
 
@@ -170,15 +161,7 @@ public class AdminController {
             return;
         }
 
-        // Log
-        LogUtil.logAction(
-                LocalDateTime.now(),
-                currentUserEmail,
-                "removeCourse",
-                courseCode,
-                "SUCCESS"
-        );
-
+        // The course manager logged the removal
         view.displaySuccess("Course " + courseCode + " removed successfully.");
 
         for (String email : emailsToNotify) {
@@ -7,21 +7,28 @@ import org.tinylog.Logger;
 import external.AuthenticationService;
 import external.EmailService;
 import model.*;
-import util.LogUtil;
+import util.ActionMetrics;
+import util.AuditLog;
 import view.TextUserInterface;
 import view.View;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 public class AdminStaffController extends StaffController {
+    private static final int MAX_IMPORT_ERRORS_SHOWN = 20;
+    private static final int MAX_CLASHES_SHOWN = 20;
+
     private final CourseManager courseManager;
 
     public AdminStaffController(SharedContext sharedContext, View view, AuthenticationService auth, EmailService email) {
@@ -85,25 +92,20 @@ public class AdminStaffController extends StaffController {
             FAQSection newSection = new FAQSection(newTopic);
 
             if (currentSection == null) {
-                if (sharedContext.getFAQManager().getSections().stream().anyMatch(section -> section.getTopic().equals(newTopic))) {
+                FAQSection existing = sharedContext.getFAQManager().getSection(newTopic);
+                if (existing != null) {
                     view.displayWarning("Topic '" + newTopic + "' already exists!");
-                    newSection = sharedContext.getFAQManager().getSections().stream().filter(section -> section.getTopic().equals(newTopic)).findFirst().orElseThrow();
+                    newSection = existing;
                 } else {
-                    sharedContext.getFAQManager().addSection(newTopic);
-
-                    // Find the section that was just added to the FAQ manager
-                    // This ensures we're working with the actual section object in the FAQ structure
-                    // rather than a disconnected local object that isn't part of the persistent hierarchy
-                    newSection = sharedContext.getFAQManager().getSections().stream()
-                            .filter(section -> section.getTopic().equals(newTopic))
-                            .findFirst()
-                            .orElseThrow();
+                    // Use the section object the FAQ manager created, so it is part of the FAQ hierarchy
+                    newSection = sharedContext.getFAQManager().addSection(newTopic);
                     view.displayInfo("Created topic '" + newTopic + "'");
                 }
             } else {
-                if (currentSection.getSubsections().stream().anyMatch(section -> section.getTopic().equals(newTopic))) {
+                FAQSection existing = currentSection.getSubsection(newTopic);
+                if (existing != null) {
                     view.displayWarning("Topic '" + newTopic + "' already exists under '" + currentSection.getTopic() + "'!");
-                    newSection = currentSection.getSubsections().stream().filter(section -> section.getTopic().equals(newTopic)).findFirst().orElseThrow();
+                    newSection = existing;
                 } else {
                     currentSection.addSubsection(newSection);
                     view.displayInfo("Created topic '" + newTopic + "' under '" + currentSection.getTopic() + "'");
@@ -123,26 +125,16 @@ public class AdminStaffController extends StaffController {
         // get question
         String question = view.getInput("Enter the question for new FAQ item: ");
         if (question.isBlank()) {
-            LogUtil.logAction(
-                    LocalDateTime.now(),
-                    currentUserEmail,
-                    "addFAQItem",
-                    sectionTopic,
-                    "FAILURE (Error: the question cannot be empty)"
-            );
+            AuditLog.record(currentUserEmail, "addFAQItem", sectionTopic,
+                    AuditLog.Outcome.FAILURE, "the question cannot be empty");
             view.displayError("The question cannot be empty");
             return;
         }
         String answer = view.getInput("Enter the answer for new FAQ item: ");
 
         if (answer.isBlank()) {
-            LogUtil.logAction(
-                    LocalDateTime.now(),
-                    currentUserEmail,
-                    "addFAQItem",
-                    sectionTopic,
-                    "FAILURE (Error: the answer cannot be empty)"
-            );
+            AuditLog.record(currentUserEmail, "addFAQItem", sectionTopic,
+                    AuditLog.Outcome.FAILURE, "the answer cannot be empty");
             view.displayError("The answer cannot be empty");
             return;
         }
@@ -184,13 +176,8 @@ public class AdminStaffController extends StaffController {
 
                 // validate input
                 if (!courseManager.hasCourse(courseTag)) {
-                    LogUtil.logAction(
-                            LocalDateTime.now(),
-                            currentUserEmail,
-                            "addFAQItem",
-                            sectionTopic,
-                            "FAILURE (Error: The tag must correspond to a course code)"
-                    );
+                    AuditLog.record(currentUserEmail, "addFAQItem", sectionTopic,
+                            AuditLog.Outcome.FAILURE, "The tag must correspond to a course code");
                     view.displayError("The tag must correspond to a course code");
                     return; // Exit method
                 }
@@ -202,20 +189,17 @@ public class AdminStaffController extends StaffController {
             currentSection.addItem(question, answer);
         }
 
-        LogUtil.logAction(
-                LocalDateTime.now(),
-                currentUserEmail,
-                "addFAQItem",
-                sectionTopic,
-                "SUCCESS (A new FAQ item was added)"
-        );
+        AuditLog.record(currentUserEmail, "addFAQItem", sectionTopic,
+                AuditLog.Outcome.SUCCESS, "A new FAQ item was added");
         view.displaySuccess("Created new FAQ item");
     }
 
 
 
     public void manageInquiries() {
-        String[] inquiryTitles = getInquiryTitles(sharedContext.inquiries);
+        // Work from a snapshot so the titles and selection stay in step while other sessions add inquiries
+        List<Inquiry> pendingInquiries = new ArrayList<>(sharedContext.getInquiries());
+        String[] inquiryTitles = getInquiryTitles(pendingInquiries);
 
         while (true) {
             view.displayInfo("Pending inquiries");
@@ -223,7 +207,7 @@ public class AdminStaffController extends StaffController {
             if (selection == -1) {
                 return;
             }
-            Inquiry selectedInquiry = sharedContext.inquiries.get(selection);
+            Inquiry selectedInquiry = pendingInquiries.get(selection);
 
             while (true) {
                 view.displayDivider();
@@ -238,7 +222,8 @@ public class AdminStaffController extends StaffController {
                     redirectInquiry(selectedInquiry);
                 } else if (followUpOptions[followUpSelection].equals("Respond to inquiry")) {
                     respondToInquiry(selectedInquiry);
-                    inquiryTitles = getInquiryTitles(sharedContext.inquiries); // required to remove responded inquiry from titles
+                    pendingInquiries = new ArrayList<>(sharedContext.getInquiries());
+                    inquiryTitles = getInquiryTitles(pendingInquiries); // required to remove responded inquiry from titles
                     break;
                 }
             }
@@ -246,7 +231,7 @@ public class AdminStaffController extends StaffController {
     }
 
     private void redirectInquiry(Inquiry inquiry) {
-        inquiry.setAssignedTo(view.getInput("Enter assignee email: "));
+        sharedContext.assignInquiry(inquiry, view.getInput("Enter assignee email: "));
         email.sendEmail(
                 SharedContext.ADMIN_STAFF_EMAIL,
                 inquiry.getAssignedTo(),
@@ -267,6 +252,8 @@ public class AdminStaffController extends StaffController {
             view.displayInfo("[1] Add Course");
             view.displayInfo("[2] View Courses");
             view.displayInfo("[3] Remove Course");
+            view.displayInfo("[4] Import Courses from File");
+            view.displayInfo("[5] Check Room Bookings");
             view.displayInfo("[0] Back to Main Menu");
 
             int choice = view.getIntegerInput("Enter your choice: ");
@@ -281,6 +268,12 @@ public class AdminStaffController extends StaffController {
                 case 3:
                     removeCourse();
                     break;
+                case 4:
+                    importCourses();
+                    break;
+                case 5:
+                    auditRoomBookings();
+                    break;
                 case 0:
                     exit = true;
                     break;
@@ -345,19 +338,20 @@ public class AdminStaffController extends StaffController {
                 DayOfWeek day = DayOfWeek.valueOf(view.getInput("Enter day of week (e.g., MONDAY): ").toUpperCase());
 
                 Activity activity = new ConcreteActivity(id, startDate, startTime, endDate, endTime, location, day);
-                course.addActivity(activity);
+                List<RoomBookings.Booking> clashes = courseManager.findRoomClashes(courseCode, activity);
+                if (!clashes.isEmpty()) {
+                    view.displayWarning(location.trim() + " is already booked at that time for " + clashes.get(0)
+                            + ". Skipped.");
+                    continue;
+                }
+                courseManager.addActivityToCourse(courseCode, activity);
 
             } catch (Exception e) {
                 view.displayError("Invalid activity input. Please try again.");
             }
         }
 
-        // --- Step 4: Final success message, log, and email ---
-        LogUtil.logAction(
-                LocalDateTime.now(), addedBy, "addCourse", courseCode,
-                "SUCCESS (New course added)"
-        );
-
+        // --- Step 4: Final success message and email; the course manager logged the addition ---
         view.displaySuccess("Course has been successfully created.");
 
         int status = email.sendEmail(
@@ -374,6 +368,79 @@ public class AdminStaffController extends StaffController {
         }
     }
 
+    /**
+     * Lists every room booked by two activities at once.
+     */
+    public void auditRoomBookings() {
+        view.displayInfo("=== Room Bookings ===");
+
+        List<RoomBookings.Clash> clashes = courseManager.auditRoomBookings();
+        if (clashes.isEmpty()) {
+            view.displaySuccess("No room is double-booked.");
+            return;
+        }
+        for (int i = 0; i < Math.min(clashes.size(), MAX_CLASHES_SHOWN); i++) {
+            view.displayWarning(clashes.get(i).toString());
+        }
+        if (clashes.size() > MAX_CLASHES_SHOWN) {
+            view.displayWarning("... and " + (clashes.size() - MAX_CLASHES_SHOWN) + " more clashes.");
+        }
+        view.displayError(clashes.size() + (clashes.size() == 1 ? " room clash" : " room clashes") + " found.");
+    }
+
+    /**
+     * Import courses and their activities from a CSV or JSON file (see CourseImporter for the format).
+     * Each organiser gets one email listing all of their new courses.
+     */
+    public void importCourses() {
+        view.displayInfo("=== Import Courses ===");
+
+        String fileName = view.getInput("Enter path of CSV or JSON file: ").trim();
+        CourseImporter.ImportReport report;
+        try {
+            report = new CourseImporter().importFile(Paths.get(fileName), courseManager,
+                    sharedContext.getCurrentUserEmail());
+        } catch (IOException | InvalidPathException e) {
+            view.displayError("Could not import courses: " + e.getMessage());
+            return;
+        }
+
+        List<String> problems = new ArrayList<>(report.getErrors());
+        problems.addAll(report.getRoomClashes());
+        for (int i = 0; i < Math.min(problems.size(), MAX_IMPORT_ERRORS_SHOWN); i++) {
+            view.displayWarning(problems.get(i));
+        }
+        if (problems.size() > MAX_IMPORT_ERRORS_SHOWN) {
+            view.displayWarning("... and " + (problems.size() - MAX_IMPORT_ERRORS_SHOWN) + " more problems.");
+        }
+        view.displaySuccess(report.getAdded().size() + " of " + report.getCoursesRead() + " courses imported.");
+
+        Map<String, List<Course>> byOrganiser = report.getAddedByOrganiser();
+        int failedEmails = 0;
+        for (Map.Entry<String, List<Course>> organiser : byOrganiser.entrySet()) {
+            List<Course> courses = organiser.getValue();
+            StringBuilder body = new StringBuilder("The following courses have been created:");
+            for (Course course : courses) {
+                body.append("\n\n").append(course);
+            }
+            int status = email.sendEmail(
+                    "noreply@hindeburg.ac.nz",
+                    organiser.getKey(),
+                    "Courses Created - " + courses.size() + (courses.size() == 1 ? " course" : " courses"),
+                    body.toString()
+            );
+            if (status != EmailService.STATUS_SUCCESS) {
+                failedEmails++;
+            }
+        }
+        if (failedEmails > 0) {
+            view.displayWarning("Failed to send " + failedEmails + " confirmation emails.");
+        } else if (!report.getAdded().isEmpty()) {
+            view.displaySuccess("Confirmation emails sent to " + byOrganiser.size()
+                    + " course organisers.");
+        }
+    }
+
     /**
      * View all courses in the system.
      */
@@ -401,6 +468,18 @@ public class AdminStaffController extends StaffController {
         }
     }
 
+    /**
+     * Shows how many times each action has been done since startup, how often it failed,
+     * and how long it took.
+     */
+    public void viewMetrics() {
+        view.displayInfo("=== Action Metrics ===");
+        String report = ActionMetrics.global().report();
+        for (String line : report.split(System.lineSeparator())) {
+            view.displayInfo(line);
+        }
+    }
+
     /**
      * Delete a course from the system.
      */
@@ -409,7 +488,6 @@ public class AdminStaffController extends StaffController {
         view.displayInfo("=== Delete Course ===");
 
         String courseCode = view.getInput("Enter course code to delete: ");
-        String currentUserEmail = sharedContext.getCurrentUserEmail();
 
         String[] emailsToNotify = courseManager.removeCourse(courseCode);
 
@@ -418,15 +496,7 @@ public class AdminStaffController extends StaffController {
             return;
         }
 
-        // Log
-        LogUtil.logAction(
-                LocalDateTime.now(),
-                currentUserEmail,
-                "removeCourse",
-                courseCode,
-                "SUCCESS"
-        );
-
+        // The course manager logged the removal
         view.displaySuccess("Course " + courseCode + " removed successfully.");
 
         for (String emailAddress : emailsToNotify) {
@@ -7,6 +7,7 @@ import model.SharedContext;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import util.ActionMetrics;
 import view.View;
 
 public class GuestController extends Controller {
@@ -17,6 +18,12 @@ public class GuestController extends Controller {
     public void login() {
         String username = view.getInput("Enter your username: ");
         String password = view.getInput("Enter your password: ");
+        long startNanos = System.nanoTime();
+        logIn(username, password);
+        ActionMetrics.record("login", startNanos, sharedContext.currentUser instanceof AuthenticatedUser);
+    }
+
+    private void logIn(String username, String password) {
         String response = auth.login(username, password);
 
         JSONParser parser = new JSONParser();
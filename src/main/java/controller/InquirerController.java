@@ -6,18 +6,21 @@ import model.*;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
 import org.tinylog.Logger;
-import util.LogUtil;
+import util.ActionMetrics;
+import util.AuditLog;
 import view.View;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class InquirerController extends Controller {
+    private static final int MAX_SEARCH_RESULTS = 10;
+
     public InquirerController(SharedContext sharedContext, View view, AuthenticationService auth, EmailService email) {
         super(sharedContext, view, auth, email);
     }
@@ -43,14 +46,8 @@ public class InquirerController extends Controller {
                 CourseManager courseManager = sharedContext.getCourseManager();
                 if (!courseManager.hasCourse(courseTag)) {
                     view.displayError("Course with code " + courseTag + " does not exist. Showing all FAQ items");
-                    String actionDetails = "consultFAQ - filter by course - " + courseTag;
-                    LogUtil.logAction(
-                            LocalDateTime.now(),
-                            userEmail != null ? userEmail : "Guest",
-                            "consultFAQ",
-                            actionDetails,
-                            "FAILURE (Error: the question cannot be empty)"
-                    );
+                    AuditLog.record(userEmail != null ? userEmail : "Guest", "consultFAQ",
+                            AuditLog.fields("courseTag", courseTag), AuditLog.Outcome.FAILURE, "Course does not exist");
                             courseTag = null;
                 }
             }
@@ -58,25 +55,26 @@ public class InquirerController extends Controller {
 
         int optionNo = 0;
         while (currentSection != null || optionNo != -1) {
+            long startNanos = System.nanoTime();
             if (currentSection == null) {
                 // display top-level FAQ sections
                 view.displayFAQ(sharedContext.getFAQManager());
+                view.displayInfo("[S] Search the FAQ");
+                if (courseTag != null) {
+                    view.displayInfo("[A] Show all questions for " + courseTag);
+                }
                 view.displayInfo("[-1] Return to main menu");
             } else {
                 view.displayInfo(currentSection.getTopic() + (courseTag != null ? " (Filtered by  " + courseTag  + ")" : ""));
                 view.displayDivider();
 
                 // Find items matching course tag if filtering is active
-                List<FAQItem> relevantItems = new ArrayList<>();
+                List<FAQItem> relevantItems;
                 if (courseTag != null) {
-                    for (FAQItem item : currentSection.getItems()) {
-                        if (item.hasTag(courseTag)) {
-                            relevantItems.add(item);
-                        }
-                    }
+                    relevantItems = currentSection.getTaggedItems(courseTag);
                 } else {
                     // if no tag, it will just display all (no filter)
-                    relevantItems.addAll(currentSection.getItems());
+                    relevantItems = currentSection.getItems();
                 }
 
                 // Display items or notification if no matches
@@ -108,9 +106,20 @@ public class InquirerController extends Controller {
                 view.displayInfo("[-1] Return to " + (currentSection.getParent() == null ? "FAQ" : currentSection.getParent().getTopic()));
 
             }
+            // Each page shown counts as one consultFAQ, timed up to the prompt so reading time is left out
+            ActionMetrics.record("consultFAQ", startNanos, true);
 
             String input = view.getInput("Please choose an option: ");
 
+            if (currentSection == null && input.trim().equalsIgnoreCase("S")) {
+                searchFAQ(courseTag, userEmail);
+                continue;
+            }
+            if (currentSection == null && courseTag != null && input.trim().equalsIgnoreCase("A")) {
+                showAllForCourse(courseTag);
+                continue;
+            }
+
             try {
                 optionNo = Integer.parseInt(input);
 
@@ -134,17 +143,72 @@ public class InquirerController extends Controller {
             }
         }
 
-        // Log successful completion using LogUtil instead of direct TinyLog call
-        String inputDetails = courseTag != null ? "courseTag=" + courseTag : "-";
-        LogUtil.logAction(
-                LocalDateTime.now(),
-                userEmail,
-                "consultFAQ",
-                inputDetails,
-                "SUCCESS"
-        );
+        AuditLog.record(userEmail, "consultFAQ", AuditLog.fields("courseTag", courseTag), AuditLog.Outcome.SUCCESS);
     }
 
+    /**
+     * Shows every FAQ item tagged with the course, whichever section it is in.
+     */
+    private void showAllForCourse(String courseTag) {
+        Map<FAQSection, List<FAQItem>> itemsBySection = sharedContext.getFAQManager().getAllItemsByTag(courseTag);
+        view.displayInfo("All questions for " + courseTag);
+        view.displayDivider();
+        if (itemsBySection.isEmpty()) {
+            view.displayInfo("There are no questions for course '" + courseTag + "'.");
+            return;
+        }
+        for (Map.Entry<FAQSection, List<FAQItem>> entry : itemsBySection.entrySet()) {
+            for (FAQItem item : entry.getValue()) {
+                view.displayInfo("[" + entry.getKey().getTopic() + "] " + item.getId() + " " + item.getQuestion());
+                view.displayInfo("> " + item.getAnswer());
+                view.displayDivider();
+            }
+        }
+    }
+
+    /**
+     * Searches every FAQ item for the user's search terms and shows the best matches,
+     * with the matching words marked.
+     */
+    private void searchFAQ(String courseTag, String userEmail) {
+        String query = view.getInput("Enter search terms: ");
+        if (query.isBlank()) {
+            view.displayError("Search terms cannot be empty");
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        List<FAQSearchResult> results;
+        try {
+            results = sharedContext.getFAQManager().search(query, courseTag, MAX_SEARCH_RESULTS);
+        } catch (ParseException | IOException | InvalidTokenOffsetsException e) {
+            view.displayException(e);
+            AuditLog.record(userEmail != null ? userEmail : "Guest", "searchFAQ", query,
+                    AuditLog.Outcome.FAILURE, e.getMessage());
+            ActionMetrics.record("searchFAQ", startNanos, false);
+            return;
+        }
+
+        view.displayInfo("Search results for '" + query + "'" + (courseTag != null ? " (Filtered by " + courseTag + ")" : ""));
+        view.displayDivider();
+        if (results.isEmpty()) {
+            view.displayInfo("No FAQ items match your search.");
+        }
+        for (FAQSearchResult result : results) {
+            FAQItem item = result.getItem();
+            view.displayInfo("[" + result.getSection().getTopic() + "] " + item.getId() + " " + result.getQuestionSnippet());
+            view.displayInfo("> " + result.getAnswerSnippet());
+            if (courseTag == null && item.getCourseTag() != null && !item.getCourseTag().isEmpty()) {
+                view.displayInfo("> " + item.getCourseTag());
+            }
+            view.displayDivider();
+        }
+
+        AuditLog.record(userEmail != null ? userEmail : "Guest", "searchFAQ",
+                AuditLog.fields("query", query, "courseTag", courseTag), AuditLog.Outcome.SUCCESS,
+                AuditLog.fields("results", results.size()));
+        ActionMetrics.record("searchFAQ", startNanos, true);
+    }
 
     public void contactStaff() {
         String inquirerEmail;
@@ -173,7 +237,7 @@ public class InquirerController extends Controller {
         }
 
         Inquiry inquiry = new Inquiry(inquirerEmail, subject, text);
-        sharedContext.inquiries.add(inquiry);
+        sharedContext.addInquiry(inquiry);
 
         email.sendEmail(
                 SharedContext.ADMIN_STAFF_EMAIL,
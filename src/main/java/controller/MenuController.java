@@ -43,7 +43,8 @@ public class MenuController extends Controller {
         MANAGE_FAQ,
         MANAGE_COURSES,
         VIEW_COURSES,
-        VIEW_SPECIFIC_COURSE
+        VIEW_SPECIFIC_COURSE,
+        VIEW_METRICS
     }
 
     public void mainMenu() {
@@ -158,6 +159,8 @@ public class MenuController extends Controller {
                     adminStaffController.manageInquiries();
             case MANAGE_COURSES ->
                     adminStaffController.manageCourses();
+            case VIEW_METRICS ->
+                    adminStaffController.viewMetrics();
             case VIEW_COURSES ->
                     new ViewerController(sharedContext, view, auth, email).viewCourses();
             case VIEW_SPECIFIC_COURSE -> {
@@ -29,7 +29,7 @@ public class StaffController extends Controller {
         String response = view.getInput("Enter response:\n");
         String currentEmail = ((AuthenticatedUser) sharedContext.currentUser).getEmail();
         email.sendEmail(currentEmail, inquiry.getInquirerEmail(), subject, response);
-        sharedContext.inquiries.remove(inquiry);
+        sharedContext.removeInquiry(inquiry);
         view.displaySuccess("Email response sent!");
     }
 }
@@ -2,13 +2,17 @@ package controller;
 
 import external.AuthenticationService;
 import external.EmailService;
+import model.ActivitySolver;
+import model.AssignmentReport;
 import model.AuthenticatedUser;
 import model.SharedContext;
 import model.Timetable;
-import util.LogUtil;
+import util.ActionMetrics;
+import util.AuditLog;
 import view.View;
 
-import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
 
 public class StudentController extends Controller {
 
@@ -28,6 +32,7 @@ public class StudentController extends Controller {
             view.displayInfo("[1] Add course to timetable");
             view.displayInfo("[2] View timetable");
             view.displayInfo("[3] Choose tutorial/lab for course");
+            view.displayInfo("[4] Choose all tutorials/labs automatically");
             view.displayInfo("[0] Exit");
 
             int choice = view.getIntegerInput("Enter your choice: ");
@@ -42,6 +47,9 @@ public class StudentController extends Controller {
                 case 3:
                     chooseActivityForCourse();
                     break;
+                case 4:
+                    chooseActivitiesAutomatically();
+                    break;
                 case 0:
                     exit = true;
                     break;
@@ -71,23 +79,31 @@ public class StudentController extends Controller {
     public void removeCourseFromTimetable() {
         String courseCode = view.getInput("Enter the course code to remove from your timetable: ");
         String studentEmail = ((AuthenticatedUser) sharedContext.currentUser).getEmail();
+        long startNanos = System.nanoTime();
+
+        Lock lock = sharedContext.timetableLock(studentEmail);
+        lock.lock();
+        try {
+            Timetable timetable = sharedContext.getOrCreateTimetable(studentEmail);
+
+            // Check if the student's timetable contains the course.
+            if (!timetable.hasSlotsForCourse(courseCode)) {
+                view.displayError("Course " + courseCode + " is not in your timetable.");
+                AuditLog.record(studentEmail, "removeCourseFromTimetable", courseCode,
+                        AuditLog.Outcome.FAILURE, "Course not in timetable");
+                ActionMetrics.record("removeCourseFromTimetable", startNanos, false);
+                return;
+            }
 
-        Timetable timetable = sharedContext.getOrCreateTimetable(studentEmail);
-
-        // Check if the student's timetable contains the course.
-        if (!timetable.hasSlotsForCourse(courseCode)) {
-            view.displayError("Course " + courseCode + " is not in your timetable.");
-            LogUtil.logAction(LocalDateTime.now(), studentEmail, "removeCourseFromTimetable", courseCode,
-                    "FAILURE (Course not in timetable)");
-            return;
+            // Remove all time slots for the course.
+            sharedContext.removeCourseFromTimetable(studentEmail, courseCode);
+        } finally {
+            lock.unlock();
         }
 
-        // Remove all time slots for the course.
-        timetable.removeSlotsForCourse(courseCode);
-
         view.displaySuccess("Course " + courseCode + " removed from your timetable.");
-        LogUtil.logAction(LocalDateTime.now(), studentEmail, "removeCourseFromTimetable", courseCode,
-                "SUCCESS");
+        AuditLog.record(studentEmail, "removeCourseFromTimetable", courseCode, AuditLog.Outcome.SUCCESS);
+        ActionMetrics.record("removeCourseFromTimetable", startNanos, true);
     }
 
 
@@ -96,8 +112,14 @@ public class StudentController extends Controller {
      */
     public void viewTimetable() {
         String studentEmail = ((AuthenticatedUser) sharedContext.currentUser).getEmail();
-        Timetable timetable = sharedContext.getOrCreateTimetable(studentEmail);
-        String workingWeekTimetable = timetable.toWorkingWeekString();
+        String workingWeekTimetable;
+        Lock lock = sharedContext.timetableLock(studentEmail);
+        lock.lock();
+        try {
+            workingWeekTimetable = sharedContext.getOrCreateTimetable(studentEmail).toWorkingWeekString();
+        } finally {
+            lock.unlock();
+        }
         view.displayInfo(workingWeekTimetable);
     }
 
@@ -116,4 +138,25 @@ public class StudentController extends Controller {
             view.displayError("Failed to choose activity " + activityId + " for course " + courseCode + ".");
         }
     }
+
+    /**
+     * Chooses tutorials and labs for every course in the student's timetable at once, keeping
+     * any already chosen.
+     */
+    public void chooseActivitiesAutomatically() {
+        String studentEmail = ((AuthenticatedUser) sharedContext.currentUser).getEmail();
+        AssignmentReport.StudentResult result = new ActivitySolver(sharedContext).assign(studentEmail, List.of());
+        switch (result.getOutcome()) {
+            case ASSIGNED:
+                for (String[] chosen : result.getChosen()) {
+                    view.displaySuccess("Activity " + chosen[1] + " for course " + chosen[0] + " chosen successfully.");
+                }
+                break;
+            case ALREADY_COMPLETE:
+                view.displayInfo("You have already chosen all required tutorials/labs.");
+                break;
+            default:
+                view.displayError("Could not choose tutorials/labs automatically: " + result.getReason() + ".");
+        }
+    }
 }
\ No newline at end of file
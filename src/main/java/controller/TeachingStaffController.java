@@ -18,7 +18,7 @@ public class TeachingStaffController extends StaffController {
     public void manageReceivedInquiries() {
         String userEmail = ((AuthenticatedUser) sharedContext.currentUser).getEmail();
         List<Inquiry> assignedInquiries = new ArrayList<>();
-        for (Inquiry inquiry : sharedContext.inquiries) {
+        for (Inquiry inquiry : sharedContext.getInquiries()) {
             if (userEmail.equals(inquiry.getAssignedTo())) {
                 assignedInquiries.add(inquiry);
             }
@@ -44,7 +44,7 @@ public class TeachingStaffController extends StaffController {
                     break;
                 } else if (followUpOptions[followUpSelection].equals("Respond to inquiry")) {
                     respondToInquiry(selectedInquiry);
-                    inquiryTitles = getInquiryTitles(sharedContext.inquiries); // required to remove responded inquiry from titles
+                    inquiryTitles = getInquiryTitles(sharedContext.getInquiries()); // required to remove responded inquiry from titles
                     break;
                 }
             }
@@ -0,0 +1,324 @@
+package external;
+
+import org.tinylog.Logger;
+import util.ActionMetrics;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An EmailService decorator that queues messages and delivers them from a pool of worker
+ * threads, so callers are not held up by the Email Service Provider.
+ *
+ * Addresses are left to the provider to check, unless an AddressValidator for its rules is
+ * given, in which case a bad address is reported to the caller straight away without the
+ * message being queued. Workers drain the queue in batches, and messages that fail with
+ * STATUS_UNKNOWN_ERROR are requeued after a delay that doubles with each attempt, until they
+ * have been tried maxAttempts times. If the queue is full, the message is delivered on the
+ * caller's thread instead, which slows producers down rather than dropping mail.
+ */
+public class AsyncEmailService implements EmailService, Closeable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    public static final int DEFAULT_WORKERS = 4;
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_RETRY_DELAY_MILLIS = 200;
+
+    /**
+     * Checks the addresses on an email the way the provider will.
+     */
+    @FunctionalInterface
+    public interface AddressValidator {
+        /**
+         * Returns the status the provider would reject the addresses with, or STATUS_SUCCESS.
+         */
+        int check(String sender, String recipient);
+    }
+
+    private static final AddressValidator PROVIDER_CHECKS_ADDRESSES = (sender, recipient) -> STATUS_SUCCESS;
+
+    private final EmailService delegate;
+    private final AddressValidator addressValidator;
+    private final BlockingQueue<PendingEmail> queue;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService retries;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryDelayMillis;
+    private volatile boolean running = true;
+
+    // Messages accepted but not yet delivered or given up on, including any being retried
+    private final Set<CompletableFuture<Integer>> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong deliveredOnCaller = new AtomicLong();
+
+    public AsyncEmailService(EmailService delegate) {
+        this(delegate, PROVIDER_CHECKS_ADDRESSES);
+    }
+
+    public AsyncEmailService(EmailService delegate, AddressValidator addressValidator) {
+        this(delegate, DEFAULT_QUEUE_CAPACITY, DEFAULT_WORKERS, DEFAULT_BATCH_SIZE, DEFAULT_MAX_ATTEMPTS,
+                DEFAULT_RETRY_DELAY_MILLIS, addressValidator);
+    }
+
+    public AsyncEmailService(EmailService delegate, int queueCapacity, int workerCount,
+                             int batchSize, int maxAttempts) {
+        this(delegate, queueCapacity, workerCount, batchSize, maxAttempts, DEFAULT_RETRY_DELAY_MILLIS);
+    }
+
+    /**
+     * @param retryDelayMillis how long to wait before the first retry; each later retry waits twice as long
+     */
+    public AsyncEmailService(EmailService delegate, int queueCapacity, int workerCount,
+                             int batchSize, int maxAttempts, long retryDelayMillis) {
+        this(delegate, queueCapacity, workerCount, batchSize, maxAttempts, retryDelayMillis,
+                PROVIDER_CHECKS_ADDRESSES);
+    }
+
+    /**
+     * @param retryDelayMillis how long to wait before the first retry; each later retry waits twice as long
+     * @param addressValidator checks addresses before an email is queued, with the provider's rules
+     */
+    public AsyncEmailService(EmailService delegate, int queueCapacity, int workerCount,
+                             int batchSize, int maxAttempts, long retryDelayMillis,
+                             AddressValidator addressValidator) {
+        this.delegate = delegate;
+        this.addressValidator = addressValidator;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMillis = retryDelayMillis;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "email-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::deliverLoop);
+        }
+        this.retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues the email, returning STATUS_SUCCESS once it has been accepted, or the status it was
+     * rejected with if the address validator finds an invalid address. An email delivered on this
+     * thread because the queue was full returns the provider's status. Callers that need to know
+     * whether a queued email arrived should use submit().
+     */
+    @Override
+    public int sendEmail(String sender, String recipient, String subject, String content) {
+        CompletableFuture<Integer> status = submit(sender, recipient, subject, content);
+        return status.isDone() ? status.join() : STATUS_SUCCESS;
+    }
+
+    /**
+     * Queues the email and returns a future completed with the provider's final status code.
+     * An email the address validator rejects is not queued, and its future is already complete.
+     */
+    public CompletableFuture<Integer> submit(String sender, String recipient, String subject, String content) {
+        long startNanos = System.nanoTime();
+        submitted.incrementAndGet();
+        int addressStatus = addressValidator.check(sender, recipient);
+        if (addressStatus != STATUS_SUCCESS) {
+            ActionMetrics.record("sendEmail", startNanos, false);
+            failed.incrementAndGet();
+            Logger.warn("Not sending email to {}, status {}", recipient, addressStatus);
+            return CompletableFuture.completedFuture(addressStatus);
+        }
+        PendingEmail email = new PendingEmail(sender, recipient, subject, content);
+        inFlight.add(email.status);
+        if (!running || !queue.offer(email)) {
+            deliveredOnCaller.incrementAndGet();
+            deliver(email, false);
+        }
+        return email.status;
+    }
+
+    private void deliverLoop() {
+        List<PendingEmail> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEmail first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                batches.incrementAndGet();
+                for (PendingEmail email : batch) {
+                    deliver(email, true);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliver(PendingEmail email, boolean mayRequeue) {
+        int status;
+        long startNanos = System.nanoTime();
+        try {
+            status = delegate.sendEmail(email.sender, email.recipient, email.subject, email.content);
+        } catch (RuntimeException e) {
+            Logger.error(e, "Email delivery to {} failed", email.recipient);
+            status = STATUS_UNKNOWN_ERROR;
+        }
+        // Each attempt is timed separately, as that is what the provider's latency is
+        ActionMetrics.record("sendEmail", startNanos, status == STATUS_SUCCESS);
+        email.attempts++;
+
+        if (status == STATUS_UNKNOWN_ERROR && email.attempts < maxAttempts) {
+            retried.incrementAndGet();
+            long delayMillis = retryDelayMillis << (email.attempts - 1);
+            if (mayRequeue && running) {
+                // Workers are only stopped after the queue is drained, and retries after the workers
+                retries.schedule(() -> requeue(email), delayMillis, TimeUnit.MILLISECONDS);
+                return;
+            }
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            deliver(email, false);
+            return;
+        }
+
+        if (status == STATUS_SUCCESS) {
+            delivered.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+            Logger.warn("Giving up on email to {} after {} attempt(s), status {}",
+                    email.recipient, email.attempts, status);
+        }
+        inFlight.remove(email.status);
+        email.status.complete(status);
+    }
+
+    private void requeue(PendingEmail email) {
+        if (!running || !queue.offer(email)) {
+            deliver(email, false);
+        }
+    }
+
+    /**
+     * Waits until every email accepted before the call has been delivered or given up on.
+     *
+     * @return true if they were all done before the timeout
+     */
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        CompletableFuture<?>[] accepted = inFlight.toArray(new CompletableFuture<?>[0]);
+        try {
+            CompletableFuture.allOf(accepted).get(timeout, unit);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            // Statuses are only ever completed normally
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public DeliveryMetrics getMetrics() {
+        return new DeliveryMetrics(submitted.get(), delivered.get(), failed.get(), retried.get(),
+                batches.get(), deliveredOnCaller.get(), queue.size(), inFlight.size());
+    }
+
+    /**
+     * Stops accepting work for the queue, delivers what is already queued or waiting to be
+     * retried, then stops the workers.
+     */
+    @Override
+    public void close() {
+        running = false;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+                Logger.warn("Email workers did not finish; {} email(s) still queued", queue.size());
+                workers.shutdownNow();
+            }
+            // Retries already scheduled still run, delivering on the retry thread
+            retries.shutdown();
+            if (!retries.awaitTermination(30, TimeUnit.SECONDS)) {
+                Logger.warn("Email retries did not finish");
+                retries.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            retries.shutdownNow();
+            Thread.currentThread().interrupt();
+            return;
+        }
+        // A retry may have been requeued just as the workers stopped
+        for (PendingEmail email = queue.poll(); email != null; email = queue.poll()) {
+            deliver(email, false);
+        }
+    }
+
+    private static final class PendingEmail {
+        final String sender;
+        final String recipient;
+        final String subject;
+        final String content;
+        final CompletableFuture<Integer> status = new CompletableFuture<>();
+        int attempts;
+
+        PendingEmail(String sender, String recipient, String subject, String content) {
+            this.sender = sender;
+            this.recipient = recipient;
+            this.subject = subject;
+            this.content = content;
+        }
+    }
+
+    /**
+     * A point-in-time snapshot of delivery counters.
+     */
+    public static final class DeliveryMetrics {
+        public final long submitted;
+        public final long delivered;
+        public final long failed;
+        public final long retried;
+        public final long batches;
+        public final long deliveredOnCaller;
+        public final int queued;
+        public final int inFlight;
+
+        DeliveryMetrics(long submitted, long delivered, long failed, long retried, long batches,
+                        long deliveredOnCaller, int queued, int inFlight) {
+            this.submitted = submitted;
+            this.delivered = delivered;
+            this.failed = failed;
+            this.retried = retried;
+            this.batches = batches;
+            this.deliveredOnCaller = deliveredOnCaller;
+            this.queued = queued;
+            this.inFlight = inFlight;
+        }
+
+        @Override
+        public String toString() {
+            return "submitted=" + submitted + ", delivered=" + delivered + ", failed=" + failed
+                    + ", retried=" + retried + ", batches=" + batches
+                    + ", deliveredOnCaller=" + deliveredOnCaller + ", queued=" + queued + ", inFlight=" + inFlight;
+        }
+    }
+}
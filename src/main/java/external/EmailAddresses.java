@@ -0,0 +1,28 @@
+package external;
+
+import java.util.regex.Pattern;
+
+/**
+ * Checks the addresses on an email the way the Email Service Provider does, so a bad address
+ * can be reported before the email is handed over.
+ */
+final class EmailAddresses {
+    // From https://owasp.org/www-community/OWASP_Validation_Regex_Repository
+    private static final Pattern OWASP_EMAIL_PATTERN = Pattern.compile("^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$");
+
+    private EmailAddresses() {
+    }
+
+    /**
+     * Returns the status the provider would reject the addresses with, or STATUS_SUCCESS if both are valid.
+     */
+    static int check(String sender, String recipient) {
+        if (sender == null || !OWASP_EMAIL_PATTERN.matcher(sender).matches()) {
+            return EmailService.STATUS_INVALID_SENDER_EMAIL;
+        }
+        if (recipient == null || !OWASP_EMAIL_PATTERN.matcher(recipient).matches()) {
+            return EmailService.STATUS_INVALID_RECIPIENT_EMAIL;
+        }
+        return EmailService.STATUS_SUCCESS;
+    }
+}
@@ -8,6 +8,7 @@ import org.json.simple.parser.ParseException;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Paths;
@@ -43,8 +44,23 @@ public class MockAuthenticationService implements AuthenticationService {
         Objects.requireNonNull(dataPath);
         File dataFile = Paths.get(dataPath.toURI()).toFile();
 
+        try (Reader userData = new FileReader(dataFile)) {
+            loadUsers(userData);
+        }
+    }
+
+    /**
+     * Load data about all users from a JSON array of user objects, as in MockUserData.json
+     * @throws IOException occurs if the data cannot be read
+     * @throws ParseException occurs if the data is not valid JSON
+     */
+    public MockAuthenticationService(Reader userData) throws IOException, ParseException {
+        loadUsers(userData);
+    }
+
+    private void loadUsers(Reader reader) throws IOException, ParseException {
         JSONParser parser = new JSONParser();
-        JSONArray userDataArray = (JSONArray) parser.parse(new FileReader(dataFile));
+        JSONArray userDataArray = (JSONArray) parser.parse(reader);
         for (Object userData: userDataArray) {
             JSONObject user = (JSONObject) userData;
             String username = (String) user.get("username");
@@ -1,7 +1,5 @@
 package external;
 
-import java.util.regex.Pattern;
-
 /**
  * A mock Email Service Provider implementation for testing.
  * This does not actually send any emails, just prints email data to standard output.
@@ -10,22 +8,28 @@ public class MockEmailService implements EmailService {
     // Color codes from https://stackoverflow.com/questions/4842424/list-of-ansi-color-escape-sequences
     private static final String ANSI_CYAN = "\u001B[36m";
     private static final String ANSI_RESET = "\u001B[0m";
-    // From https://owasp.org/www-community/OWASP_Validation_Regex_Repository
-    private static final Pattern OWASP_EMAIL_PATTERN = Pattern.compile("^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$");
+
+    /**
+     * Checks addresses the way this provider does, so an AsyncEmailService can reject a bad one
+     * before queueing it.
+     */
+    public static int checkAddresses(String sender, String recipient) {
+        return EmailAddresses.check(sender, recipient);
+    }
 
     @Override
     public int sendEmail(String sender, String recipient, String subject, String content) {
-        if (sender == null || !OWASP_EMAIL_PATTERN.matcher(sender).matches()) {
-            return STATUS_INVALID_SENDER_EMAIL;
-        }
-        if (recipient == null || !OWASP_EMAIL_PATTERN.matcher(recipient).matches()) {
-            return STATUS_INVALID_RECIPIENT_EMAIL;
+        int addressStatus = EmailAddresses.check(sender, recipient);
+        if (addressStatus != STATUS_SUCCESS) {
+            return addressStatus;
         }
-        System.out.print(ANSI_CYAN);
-        System.out.println("Email from " + sender + " to " + recipient);
-        System.out.println(subject);
-        System.out.println(content);
-        System.out.print(ANSI_RESET);
+        // One print call per email, so emails sent from several threads don't interleave
+        String separator = System.lineSeparator();
+        System.out.print(ANSI_CYAN
+                + "Email from " + sender + " to " + recipient + separator
+                + subject + separator
+                + content + separator
+                + ANSI_RESET);
         return STATUS_SUCCESS;
     }
 }
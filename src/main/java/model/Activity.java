@@ -5,26 +5,27 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Objects;
+import util.EpochMinutes;
+import util.TimeGrid;
 
 /**
  * Represents a general activity in a course (abstract class).
+ * Start and end are stored as epoch minutes; the java.time getters are derived on demand.
  */
 public abstract class Activity {
     protected int id;
-    protected LocalDate startDate;
-    protected LocalTime startTime;
-    protected LocalDate endDate;
-    protected LocalTime endTime;
+    protected long startMinute;
+    protected long endMinute;
     protected String location;
     protected DayOfWeek day;
+    // Compiled on first use, unsynchronised (see TimeGrid)
+    private TimeGrid timeGrid;
 
     public Activity(int id, LocalDate startDate, LocalTime startTime,
                     LocalDate endDate, LocalTime endTime, String location, DayOfWeek day) {
         this.id = id;
-        this.startDate = startDate;
-        this.startTime = startTime;
-        this.endDate = endDate;
-        this.endTime = endTime;
+        this.startMinute = EpochMinutes.of(startDate, startTime);
+        this.endMinute = EpochMinutes.of(endDate, endTime);
         this.location = location;
         this.day = day;
     }
@@ -38,19 +39,27 @@ public abstract class Activity {
     }
 
     public LocalDate getStartDate() {
-        return startDate;
+        return EpochMinutes.toDate(startMinute);
     }
 
     public LocalTime getStartTime() {
-        return startTime;
+        return EpochMinutes.toTime(startMinute);
     }
 
     public LocalDate getEndDate() {
-        return endDate;
+        return EpochMinutes.toDate(endMinute);
     }
 
     public LocalTime getEndTime() {
-        return endTime;
+        return EpochMinutes.toTime(endMinute);
+    }
+
+    public long getStartMinute() {
+        return startMinute;
+    }
+
+    public long getEndMinute() {
+        return endMinute;
     }
 
     public String getLocation() {
@@ -63,34 +72,40 @@ public abstract class Activity {
 
     public abstract String getType();
 
+    /**
+     * Returns the times the activity takes up: its day of every week from its start date to
+     * its end date, from its start time to its end time.
+     */
+    public TimeGrid getTimeGrid() {
+        TimeGrid grid = timeGrid;
+        if (grid == null) {
+            grid = TimeGrid.weekly(day, startMinute, endMinute);
+            timeGrid = grid;
+        }
+        return grid;
+    }
+
     public LocalDateTime getStartDateTime() {
-        return LocalDateTime.of(startDate, startTime);
+        return LocalDateTime.of(getStartDate(), getStartTime());
     }
 
     
     public LocalDateTime getEndDateTime() {
-        return LocalDateTime.of(endDate, endTime);
+        return LocalDateTime.of(getEndDate(), getEndTime());
     }
 
     public boolean overlapsWith(Activity other) {
-        if (!this.day.equals(other.day)) return false;
-
-        LocalDateTime thisStart = LocalDateTime.of(this.startDate, this.startTime);
-        LocalDateTime thisEnd = LocalDateTime.of(this.endDate, this.endTime);
+        if (this.day != other.day) return false;
 
-        LocalDateTime otherStart = LocalDateTime.of(other.startDate, other.startTime);
-        LocalDateTime otherEnd = LocalDateTime.of(other.endDate, other.endTime);
-
-        return thisStart.isBefore(otherEnd) && thisEnd.isAfter(otherStart);
+        return getTimeGrid().intersects(other.getTimeGrid());
     }
 
     @Override
     public String toString() {
         return "[" + getType() + " #" + id + "] "
-                + day + " " + startTime + "-" + endTime + " "
-                + location + " from " + startDate + " to " + endDate;
+                + day + " " + getStartTime() + "-" + getEndTime() + " "
+                + location + " from " + getStartDate() + " to " + getEndDate();
     }
-
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
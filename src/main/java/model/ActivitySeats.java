@@ -0,0 +1,324 @@
+package model;
+
+import util.AuditLog;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * The seats on every tutorial and lab in the store, and their waitlists.
+ *
+ * A seat is taken with compare-and-set on the activity's count, so however many students choose
+ * the same lab at once, no more seats are taken than it has and nobody waits on a lock to find
+ * out. A student who finds it full can join its waitlist. A released seat passes straight to
+ * the first student waiting, and the activity is chosen in their timetable; it is only free for
+ * anyone to take when nobody is waiting.
+ *
+ * A course's counts are worked out when its seats are first used, from the choices already in
+ * its students' timetables, so nothing is counted at startup. Waitlists are kept in memory only,
+ * so a restart empties them.
+ */
+public final class ActivitySeats {
+    private final SharedStore store;
+    private final ConcurrentHashMap<CourseCode, CourseSeats> byCourse = new ConcurrentHashMap<>();
+
+    ActivitySeats(SharedStore store) {
+        this.store = store;
+    }
+
+    /**
+     * The seats on one activity.
+     */
+    public static final class Seats {
+        private final CourseCode courseCode;
+        private final int activityId;
+        private final int capacity;
+        private final AtomicInteger taken = new AtomicInteger();
+        // Guarded by this. A seat is only released while it's held, so it can pass to the first in line
+        private final Set<String> waitlist = new LinkedHashSet<>();
+
+        Seats(CourseCode courseCode, int activityId, int capacity) {
+            this.courseCode = courseCode;
+            this.activityId = activityId;
+            this.capacity = capacity;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public int getTaken() {
+            return taken.get();
+        }
+
+        public int getFree() {
+            return Math.max(0, capacity - taken.get());
+        }
+
+        /**
+         * Takes a seat, returning false if there are none free.
+         */
+        public boolean tryTake() {
+            int current;
+            do {
+                current = taken.get();
+                if (current >= capacity) {
+                    return false;
+                }
+            } while (!taken.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        /**
+         * Takes a seat for the student or, if there are none free, adds them to the end of the
+         * waitlist.
+         *
+         * @return 0 if a seat was taken, otherwise the student's place on the waitlist, from 1
+         */
+        public synchronized int takeOrWait(String studentEmail) {
+            if (tryTake()) {
+                return 0;
+            }
+            waitlist.add(studentEmail);
+            return waitlistPosition(studentEmail);
+        }
+
+        /**
+         * Returns the student's place on the waitlist, from 1, or 0 if they aren't on it.
+         */
+        public synchronized int waitlistPosition(String studentEmail) {
+            int position = 1;
+            for (String waiting : waitlist) {
+                if (waiting.equals(studentEmail)) {
+                    return position;
+                }
+                position++;
+            }
+            return 0;
+        }
+
+        public synchronized List<String> getWaitlist() {
+            return new ArrayList<>(waitlist);
+        }
+
+        synchronized boolean leaveWaitlist(String studentEmail) {
+            return waitlist.remove(studentEmail);
+        }
+
+        /**
+         * Gives up a seat. If anyone is waiting the seat stays taken, now for them.
+         *
+         * @return the student the seat passed to, or null if it was freed
+         */
+        synchronized String release() {
+            if (waitlist.isEmpty()) {
+                taken.decrementAndGet();
+                return null;
+            }
+            String next = waitlist.iterator().next();
+            waitlist.remove(next);
+            return next;
+        }
+
+        @Override
+        public String toString() {
+            return courseCode + " activity " + activityId + ": " + taken.get() + "/" + capacity
+                    + " taken, " + getWaitlist().size() + " waiting";
+        }
+    }
+
+    /**
+     * The seats on one course's activities, counted from its students' timetables on first use.
+     */
+    private final class CourseSeats {
+        final Course course;
+        final ConcurrentHashMap<Integer, Seats> byActivity = new ConcurrentHashMap<>();
+        // Students whose choices have been counted while counting is under way; null once it's done
+        volatile Set<String> counted = ConcurrentHashMap.newKeySet();
+
+        CourseSeats(Course course) {
+            this.course = course;
+        }
+
+        /**
+         * Counts the seats already taken, if that hasn't been done. Each student is counted under
+         * their timetable lock, so a student's release is only applied if they have been counted.
+         */
+        synchronized void count() {
+            if (counted == null) {
+                return;
+            }
+            for (String studentEmail : store.getEnrolledStudents(course.getCourseCode())) {
+                Lock lock = store.timetableLock(studentEmail);
+                lock.lock();
+                try {
+                    Timetable timetable = store.getTimetable(studentEmail);
+                    if (timetable != null) {
+                        for (TimeSlot slot : chosenSlots(timetable, course.getCode())) {
+                            Seats seats = get(slot.getActivityId());
+                            if (seats != null) {
+                                seats.taken.incrementAndGet();
+                            }
+                        }
+                    }
+                    counted.add(studentEmail);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            counted = null;
+        }
+
+        boolean isCounted(String studentEmail) {
+            Set<String> students = counted;
+            return students == null || students.contains(studentEmail);
+        }
+
+        Seats get(int activityId) {
+            Seats seats = byActivity.get(activityId);
+            if (seats != null) {
+                return seats;
+            }
+            for (Activity activity : course.getActivities()) {
+                int capacity = capacity(activity);
+                if (activity.getId() == activityId && capacity >= 0) {
+                    return byActivity.computeIfAbsent(activityId,
+                            id -> new Seats(course.getCode(), activityId, capacity));
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Returns the activity's capacity, or -1 if it has no limit.
+     */
+    static int capacity(Activity activity) {
+        if (activity instanceof Tutorial) {
+            return ((Tutorial) activity).getCapacity();
+        }
+        if (activity instanceof Lab) {
+            return ((Lab) activity).getCapacity();
+        }
+        return -1;
+    }
+
+    private static List<TimeSlot> chosenSlots(Timetable timetable, CourseCode courseCode) {
+        List<TimeSlot> chosen = new ArrayList<>();
+        for (TimeSlot slot : timetable.getTimeSlots()) {
+            if (slot.getCode() == courseCode && timetable.isChosen(slot)) {
+                chosen.add(slot);
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Returns the seats on the course's activity, or null if it has no limit on numbers.
+     * The first use of a course counts its seats, locking its students' timetables one at a
+     * time, so don't call this while holding a timetable lock.
+     */
+    public Seats of(Course course, int activityId) {
+        return forCourse(course).get(activityId);
+    }
+
+    private CourseSeats forCourse(Course course) {
+        CourseSeats seats = byCourse.compute(course.getCode(), (code, existing) ->
+                existing != null && existing.course == course ? existing : new CourseSeats(course));
+        if (seats.counted != null) {
+            seats.count();
+        }
+        return seats;
+    }
+
+    /**
+     * Gives up a seat, choosing the activity for the first student waiting if there is one.
+     */
+    public void release(Seats seats) {
+        String next = seats.release();
+        if (next != null) {
+            promote(seats, next);
+        }
+    }
+
+    /**
+     * Releases the seats the student holds on the course's activities and takes them off its
+     * waitlists. Call with the student's timetable lock held, before the course's slots are
+     * removed from the timetable.
+     */
+    void courseLeft(String studentEmail, Timetable timetable, CourseCode courseCode) {
+        CourseSeats course = courseCode == null ? null : byCourse.get(courseCode);
+        if (course == null) {
+            return;
+        }
+        for (Seats seats : course.byActivity.values()) {
+            seats.leaveWaitlist(studentEmail);
+        }
+        // Not counted yet, so the count will find their seats already gone
+        if (timetable == null || !course.isCounted(studentEmail)) {
+            return;
+        }
+        for (TimeSlot slot : chosenSlots(timetable, courseCode)) {
+            Seats seats = course.get(slot.getActivityId());
+            if (seats != null) {
+                release(seats);
+            }
+        }
+    }
+
+    /**
+     * Forgets the course's seats and waitlists, once it has been removed from the store.
+     */
+    void courseRemoved(CourseCode courseCode) {
+        if (courseCode != null) {
+            byCourse.remove(courseCode);
+        }
+    }
+
+    /**
+     * Chooses the activity for a student who has been given a seat off its waitlist. Their
+     * timetable is locked without waiting, as the caller may hold another student's lock; if
+     * it's busy, the promotion is finished on another thread.
+     */
+    private void promote(Seats seats, String studentEmail) {
+        Lock lock = store.timetableLock(studentEmail);
+        if (lock.tryLock()) {
+            try {
+                seat(seats, studentEmail);
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+        ForkJoinPool.commonPool().execute(() -> {
+            lock.lock();
+            try {
+                seat(seats, studentEmail);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    private void seat(Seats seats, String studentEmail) {
+        Timetable timetable = store.getTimetable(studentEmail);
+        TimeSlotStatus status = timetable == null ? null
+                : timetable.getActivityStatus(seats.courseCode, seats.activityId);
+        if (status != TimeSlotStatus.UNCHOSEN) {
+            // They have left the course or already have a seat, so pass this one on
+            release(seats);
+            return;
+        }
+        String courseCode = seats.courseCode.toString();
+        timetable.chooseActivity(courseCode, seats.activityId);
+        store.journal().activityChosen(studentEmail, courseCode, seats.activityId);
+        AuditLog.record(studentEmail, "promoteFromWaitlist", AuditLog.fields("courseCode", courseCode,
+                "activityId", seats.activityId), AuditLog.Outcome.SUCCESS);
+    }
+}
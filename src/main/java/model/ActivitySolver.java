@@ -0,0 +1,597 @@
+package model;
+
+import util.ActionMetrics;
+import util.AuditLog;
+import util.TimeGrid;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Chooses tutorials and labs for students: for each of their courses, as many tutorials and
+ * labs as the course requires, none clashing with each other, with anything the student has
+ * already chosen or with an unrecorded lecture, and none that is already full.
+ *
+ * Each student is solved by a backtracking search. The candidates of a set of courses are
+ * numbered once, and each gets a bitset of the candidates it clashes with, so a pick rules out
+ * everything it clashes with in one OR, and whether each course still has enough candidates
+ * left is a popcount. The picks are made course by course, fewest candidates first.
+ *
+ * Students are shared out across a fork-join pool, as in CohortEnrolment. When there are fewer
+ * students than threads, the first pick of each search is also tried in parallel.
+ *
+ * Seats are the store's (see ActivitySeats), so they are shared with students choosing for
+ * themselves. A student's picks take their seats with compare-and-set once the search is done;
+ * if one of the seats has gone since it started, the student is solved again without it.
+ * The search runs outside the student's timetable lock, and if their timetable has changed by
+ * the time the picks are made, they are solved again from the new one.
+ */
+public class ActivitySolver {
+    private static final int TUTORIAL = 0;
+    private static final int LAB = 1;
+
+    private final SharedContext sharedContext;
+    private final ForkJoinPool pool;
+
+    public ActivitySolver(SharedContext sharedContext) {
+        this(sharedContext, ForkJoinPool.commonPool());
+    }
+
+    public ActivitySolver(SharedContext sharedContext, ForkJoinPool pool) {
+        this.sharedContext = sharedContext;
+        this.pool = pool;
+    }
+
+    /**
+     * Chooses tutorials and labs for the given courses in the student's timetable, or for every
+     * course in it if none are given.
+     */
+    public AssignmentReport.StudentResult assign(String studentEmail, Collection<String> courseCodes) {
+        long startNanos = System.nanoTime();
+        Map<String, Collection<String>> request = Collections.singletonMap(studentEmail, courseCodes);
+        AssignmentReport.StudentResult result = run(request).get(0);
+
+        boolean complete = result.getOutcome().isComplete();
+        AuditLog.record(studentEmail, "assignActivities", AuditLog.fields("courses", courseCodes),
+                complete ? AuditLog.Outcome.SUCCESS : AuditLog.Outcome.FAILURE, result);
+        ActionMetrics.record("assignActivities", startNanos, complete);
+        return result;
+    }
+
+    /**
+     * Chooses tutorials and labs for every course in each student's timetable.
+     */
+    public AssignmentReport assignCohort(Collection<String> studentEmails, String requestedByEmail) {
+        long startNanos = System.nanoTime();
+        Map<String, Collection<String>> request = new LinkedHashMap<>();
+        for (String studentEmail : studentEmails) {
+            request.put(studentEmail, List.of());
+        }
+        List<AssignmentReport.StudentResult> results = run(request);
+
+        AssignmentReport report = new AssignmentReport(results, System.nanoTime() - startNanos);
+        AuditLog.record(requestedByEmail, "assignCohortActivities", AuditLog.fields("students", request.size()),
+                AuditLog.Outcome.SUCCESS, report);
+        ActionMetrics.record("assignCohortActivities", startNanos, true);
+        return report;
+    }
+
+    private List<AssignmentReport.StudentResult> run(Map<String, Collection<String>> coursesByStudent) {
+        List<Map.Entry<String, Collection<String>>> students = new ArrayList<>(coursesByStudent.entrySet());
+        Run run = new Run(students.size() < pool.getParallelism());
+
+        // Work out every student's courses first, so their seats can be looked up outside any timetable lock
+        List<List<Course>> courses = inPool(() -> students.parallelStream()
+                .map(student -> coursesOf(student.getKey(), student.getValue()))
+                .collect(Collectors.toList()));
+        Set<Course> allCourses = new HashSet<>();
+        for (List<Course> studentCourses : courses) {
+            for (Course course : studentCourses) {
+                if (course != null) {
+                    allCourses.add(course);
+                }
+            }
+        }
+        run.findSeats(allCourses);
+
+        return inPool(() -> {
+            List<AssignmentReport.StudentResult> results = new ArrayList<>(Collections.nCopies(students.size(), null));
+            IntStream.range(0, students.size()).parallel().forEach(i ->
+                    results.set(i, solve(run, students.get(i).getKey(), courses.get(i))));
+            return results;
+        });
+    }
+
+    private <T> T inPool(Callable<T> task) {
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while choosing activities", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Could not choose activities", cause);
+        }
+    }
+
+    /**
+     * Returns the courses to solve for the student, in code order, with null for any code that
+     * isn't a course. No codes means every course in the student's timetable.
+     */
+    private List<Course> coursesOf(String studentEmail, Collection<String> courseCodes) {
+        CourseManager courseManager = sharedContext.getCourseManager();
+        Set<String> codes = new TreeSet<>();
+        if (courseCodes.isEmpty()) {
+            Lock lock = sharedContext.timetableLock(studentEmail);
+            lock.lock();
+            try {
+                Timetable timetable = sharedContext.getTimetable(studentEmail);
+                if (timetable != null) {
+                    for (TimeSlot slot : timetable.getTimeSlots()) {
+                        if (slot.getCode() != null) {
+                            codes.add(slot.getCourseCode());
+                        }
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        } else {
+            for (String code : courseCodes) {
+                CourseCode key = code == null ? null : CourseCode.lookup(code);
+                codes.add(key == null ? String.valueOf(code) : key.toString());
+            }
+        }
+
+        List<Course> courses = new ArrayList<>(codes.size());
+        for (String code : codes) {
+            courses.add(courseManager.getCourse(code));
+        }
+        return courses;
+    }
+
+    private AssignmentReport.StudentResult solve(Run run, String studentEmail, List<Course> courses) {
+        Lock lock = sharedContext.timetableLock(studentEmail);
+        Problem problem = null;
+        int[] picks = null;
+        while (true) {
+            // The search runs without the lock: it may fork, and a thread joining forked work can
+            // pick up another student's solve() and wait for a lock held by a thread doing the same
+            lock.lock();
+            try {
+                Timetable timetable = sharedContext.getTimetable(studentEmail);
+                if (timetable == null || courses.isEmpty()) {
+                    return new AssignmentReport.StudentResult(studentEmail, AssignmentReport.Outcome.NOT_ENROLLED,
+                            "No courses in the timetable");
+                }
+                for (Course course : courses) {
+                    if (course == null || !timetable.hasSlotsForCourse(course.getCode())) {
+                        return new AssignmentReport.StudentResult(studentEmail, AssignmentReport.Outcome.NOT_ENROLLED,
+                                (course == null ? "A course" : course.getCourseCode()) + " is not in the timetable");
+                    }
+                }
+
+                Catalogue catalogue = run.catalogue(courses);
+                Problem current = new Problem(catalogue, timetable, sharedContext.getCourseManager());
+                if (current.total == 0) {
+                    return new AssignmentReport.StudentResult(studentEmail, AssignmentReport.Outcome.ALREADY_COMPLETE,
+                            null);
+                }
+                // The picks still hold if the timetable hasn't changed since they were searched for
+                if (picks != null && current.sameTimetable(problem)) {
+                    int full = catalogue.reserve(picks, sharedContext.getStore().getSeats());
+                    if (full < 0) {
+                        return choose(studentEmail, timetable, catalogue, picks);
+                    }
+                    // Taken by another student since the search started
+                    current.remove(full);
+                }
+                problem = current;
+            } finally {
+                lock.unlock();
+            }
+
+            String shortfall = problem.shortfall();
+            picks = shortfall == null ? search(run, problem) : null;
+            if (picks == null) {
+                return new AssignmentReport.StudentResult(studentEmail, AssignmentReport.Outcome.INFEASIBLE,
+                        shortfall != null ? shortfall : "No choice of tutorials and labs avoids every clash");
+            }
+        }
+    }
+
+    /**
+     * Marks the picks chosen in the timetable, their seats already taken. Hold the student's lock.
+     */
+    private AssignmentReport.StudentResult choose(String studentEmail, Timetable timetable, Catalogue catalogue,
+                                                  int[] picks) {
+        List<String[]> chosen = new ArrayList<>(picks.length);
+        for (int pick : picks) {
+            String courseCode = catalogue.courses[catalogue.courseOf[pick]].getCourseCode();
+            int activityId = catalogue.candidates[pick].getId();
+            timetable.chooseActivity(courseCode, activityId);
+            sharedContext.getStore().journal().activityChosen(studentEmail, courseCode, activityId);
+            chosen.add(new String[]{courseCode, String.valueOf(activityId)});
+        }
+        return new AssignmentReport.StudentResult(studentEmail, AssignmentReport.Outcome.ASSIGNED, chosen, null);
+    }
+
+    private static int[] search(Run run, Problem problem) {
+        int[] picks = new int[problem.total];
+        long[] excluded = new long[problem.catalogue.words];
+        if (!run.forkBranches) {
+            return search(problem, 0, picks, excluded);
+        }
+        return new Branch(problem, picks, excluded).invoke();
+    }
+
+    /**
+     * Makes picks depth onwards, given the picks before it and every candidate they rule out.
+     *
+     * @return the picks, or null if there is no way to make the rest
+     */
+    private static int[] search(Problem problem, int depth, int[] picks, long[] excluded) {
+        if (depth == picks.length) {
+            return picks.clone();
+        }
+        Catalogue catalogue = problem.catalogue;
+        long[] members = catalogue.members[problem.groupAt[depth]];
+        for (int c = problem.next(members, excluded, problem.firstCandidate(depth, picks));
+             c >= 0; c = problem.next(members, excluded, c + 1)) {
+            long[] next = or(excluded, catalogue.clashes[c]);
+            if (problem.canFinish(depth + 1, c, next)) {
+                picks[depth] = c;
+                int[] found = search(problem, depth + 1, picks, next);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static long[] or(long[] a, long[] b) {
+        long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[i] | b[i];
+        }
+        return result;
+    }
+
+    /**
+     * Tries each possible first pick of a search in parallel, and the rest of each sequentially.
+     * The result is the same as a sequential search's.
+     */
+    private static final class Branch extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final Problem problem;
+        private final int[] picks;
+        private final long[] excluded;
+
+        Branch(Problem problem, int[] picks, long[] excluded) {
+            this.problem = problem;
+            this.picks = picks;
+            this.excluded = excluded;
+        }
+
+        @Override
+        protected int[] compute() {
+            long[] members = problem.catalogue.members[problem.groupAt[0]];
+            List<RecursiveTask<int[]>> branches = new ArrayList<>();
+            for (int c = problem.next(members, excluded, 0); c >= 0; c = problem.next(members, excluded, c + 1)) {
+                long[] next = or(excluded, problem.catalogue.clashes[c]);
+                if (problem.canFinish(1, c, next)) {
+                    int[] first = picks.clone();
+                    first[0] = c;
+                    branches.add(new RecursiveTask<int[]>() {
+                        @Override
+                        protected int[] compute() {
+                            return search(problem, 1, first, next);
+                        }
+                    });
+                }
+            }
+            invokeAll(branches);
+            for (RecursiveTask<int[]> branch : branches) {
+                int[] found = branch.join();
+                if (found != null) {
+                    return found;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * State shared by the students of one run: the seats on each activity, and the catalogue
+     * of each set of courses solved so far.
+     */
+    private final class Run {
+        final boolean forkBranches;
+        final Map<CourseCode, Map<Integer, ActivitySeats.Seats>> seats = new HashMap<>();
+        final Map<List<CourseCode>, Catalogue> catalogues = new ConcurrentHashMap<>();
+
+        Run(boolean forkBranches) {
+            this.forkBranches = forkBranches;
+        }
+
+        /**
+         * Looks up the seats on the courses' tutorials and labs. Only called before any student
+         * is solved, and without holding a timetable lock, as the store may count them first.
+         */
+        void findSeats(Set<Course> courses) {
+            ActivitySeats activitySeats = sharedContext.getStore().getSeats();
+            for (Course course : courses) {
+                Map<Integer, ActivitySeats.Seats> courseSeats = new HashMap<>();
+                for (Activity activity : course.getActivities()) {
+                    ActivitySeats.Seats onActivity = activitySeats.of(course, activity.getId());
+                    if (onActivity != null) {
+                        courseSeats.put(activity.getId(), onActivity);
+                    }
+                }
+                seats.put(course.getCode(), courseSeats);
+            }
+        }
+
+        Catalogue catalogue(List<Course> courses) {
+            List<CourseCode> key = new ArrayList<>(courses.size());
+            for (Course course : courses) {
+                key.add(course.getCode());
+            }
+            return catalogues.computeIfAbsent(key, k -> new Catalogue(courses, seats));
+        }
+    }
+
+    /**
+     * The tutorials and labs of a set of courses, numbered, with which clash with which. Group
+     * 2c holds the tutorials of course c and group 2c + 1 its labs.
+     */
+    private static final class Catalogue {
+        final Course[] courses;
+        final Activity[] candidates;
+        final int[] courseOf;
+        final int[] groupOf;
+        final ActivitySeats.Seats[] seats;
+        final int words;
+        final long[][] members;
+        final long[][] clashes;
+        // Per course, candidate number by activity ID
+        final List<Map<Integer, Integer>> byId = new ArrayList<>();
+
+        Catalogue(List<Course> courseList, Map<CourseCode, Map<Integer, ActivitySeats.Seats>> seatsByCourse) {
+            courses = courseList.toArray(new Course[0]);
+            List<Activity> all = new ArrayList<>();
+            List<Integer> groups = new ArrayList<>();
+            for (int c = 0; c < courses.length; c++) {
+                Map<Integer, Integer> ids = new HashMap<>();
+                for (Activity activity : courses[c].getActivities()) {
+                    if (ActivitySeats.capacity(activity) >= 0 && !ids.containsKey(activity.getId())) {
+                        ids.put(activity.getId(), all.size());
+                        all.add(activity);
+                        groups.add(2 * c + (activity instanceof Lab ? LAB : TUTORIAL));
+                    }
+                }
+                byId.add(ids);
+            }
+
+            int n = all.size();
+            candidates = all.toArray(new Activity[0]);
+            courseOf = new int[n];
+            groupOf = new int[n];
+            seats = new ActivitySeats.Seats[n];
+            words = Math.max(1, (n + 63) >>> 6);
+            members = new long[2 * courses.length][words];
+            clashes = new long[n][words];
+            for (int i = 0; i < n; i++) {
+                groupOf[i] = groups.get(i);
+                courseOf[i] = groupOf[i] / 2;
+                members[groupOf[i]][i >>> 6] |= 1L << i;
+                // Null for activities added since the seats were looked up, which aren't offered
+                seats[i] = seatsByCourse.get(courses[courseOf[i]].getCode()).get(candidates[i].getId());
+                TimeGrid grid = candidates[i].getTimeGrid();
+                for (int j = 0; j < i; j++) {
+                    if (grid.intersects(candidates[j].getTimeGrid())) {
+                        clashes[i][j >>> 6] |= 1L << j;
+                        clashes[j][i >>> 6] |= 1L << i;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Takes a seat on each pick.
+         *
+         * @return -1 if every seat was taken, otherwise the first pick that had none left, in
+         * which case no seats are taken
+         */
+        int reserve(int[] picks, ActivitySeats activitySeats) {
+            for (int i = 0; i < picks.length; i++) {
+                if (!seats[picks[i]].tryTake()) {
+                    for (int j = 0; j < i; j++) {
+                        activitySeats.release(seats[picks[j]]);
+                    }
+                    return picks[i];
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * One student's search: which candidates are open to them, and the picks to make. Picks
+     * are made group by group, so groupAt[d] is the group of the d'th pick, and within a group
+     * in increasing candidate order so each set of picks is only tried once.
+     */
+    private static final class Problem {
+        final Catalogue catalogue;
+        // In the timetable, not chosen, and not clashing with anything fixed
+        final long[] fits;
+        // Those of them with seats left
+        final long[] open;
+        final int[] need;
+        final int[] groupAt;
+        final int total;
+
+        Problem(Catalogue catalogue, Timetable timetable, CourseManager courseManager) {
+            this.catalogue = catalogue;
+            fits = new long[catalogue.words];
+            open = new long[catalogue.words];
+            need = new int[catalogue.members.length];
+            for (int c = 0; c < catalogue.courses.length; c++) {
+                need[2 * c + TUTORIAL] = catalogue.courses[c].getRequiredTutorials();
+                need[2 * c + LAB] = catalogue.courses[c].getRequiredLabs();
+            }
+
+            // The student must already be at their chosen activities and unrecorded lectures
+            TimeGrid.Union fixed = new TimeGrid.Union();
+            long[] inTimetable = new long[catalogue.words];
+            Map<CourseCode, Integer> courseIndex = new HashMap<>();
+            for (int c = 0; c < catalogue.courses.length; c++) {
+                courseIndex.put(catalogue.courses[c].getCode(), c);
+            }
+            for (TimeSlot slot : timetable.getTimeSlots()) {
+                boolean chosen = timetable.isChosen(slot);
+                Integer c = courseIndex.get(slot.getCode());
+                Integer candidate = c == null ? null : catalogue.byId.get(c).get(slot.getActivityId());
+                if (candidate != null) {
+                    if (chosen) {
+                        need[catalogue.groupOf[candidate]]--;
+                    } else {
+                        inTimetable[candidate >>> 6] |= 1L << candidate;
+                    }
+                }
+                if (chosen || isUnrecordedLecture(slot, courseManager)) {
+                    fixed.add(slot.getTimeGrid());
+                }
+            }
+            for (int i = 0; i < catalogue.candidates.length; i++) {
+                if ((inTimetable[i >>> 6] & (1L << i)) != 0
+                        && !fixed.intersects(catalogue.candidates[i].getTimeGrid())) {
+                    fits[i >>> 6] |= 1L << i;
+                    if (catalogue.seats[i] != null && catalogue.seats[i].getFree() > 0) {
+                        open[i >>> 6] |= 1L << i;
+                    }
+                }
+            }
+
+            // Fewest candidates first, as those are the likeliest to run out
+            List<Integer> order = new ArrayList<>();
+            int picks = 0;
+            for (int g = 0; g < need.length; g++) {
+                need[g] = Math.max(0, need[g]);
+                if (need[g] > 0) {
+                    order.add(g);
+                    picks += need[g];
+                }
+            }
+            order.sort(Comparator.comparingInt(g -> count(catalogue.members[g], new long[catalogue.words], 0)));
+            total = picks;
+            groupAt = new int[total];
+            int d = 0;
+            for (int g : order) {
+                for (int k = 0; k < need[g]; k++) {
+                    groupAt[d++] = g;
+                }
+            }
+        }
+
+        private static boolean isUnrecordedLecture(TimeSlot slot, CourseManager courseManager) {
+            Course course = slot.getCode() == null ? null : courseManager.getCourse(slot.getCourseCode());
+            return course != null && course.isUnrecordedLecture(slot.getActivityId());
+        }
+
+        /**
+         * Returns whether the other problem was built from the same courses and the same timetable,
+         * whatever the seats left on each activity.
+         */
+        boolean sameTimetable(Problem other) {
+            return other != null && catalogue == other.catalogue && Arrays.equals(fits, other.fits)
+                    && Arrays.equals(need, other.need);
+        }
+
+        void remove(int candidate) {
+            open[candidate >>> 6] &= ~(1L << candidate);
+        }
+
+        /**
+         * Returns why a group can't be filled however the others are, or null if each can.
+         */
+        String shortfall() {
+            long[] none = new long[catalogue.words];
+            for (int g = 0; g < need.length; g++) {
+                int open = count(catalogue.members[g], none, 0);
+                if (open < need[g]) {
+                    return catalogue.courses[g / 2].getCourseCode() + " needs " + need[g]
+                            + (g % 2 == TUTORIAL ? " tutorial(s)" : " lab(s)") + " but only " + open
+                            + " have seats and fit the timetable";
+                }
+            }
+            return null;
+        }
+
+        int firstCandidate(int depth, int[] picks) {
+            return depth > 0 && groupAt[depth - 1] == groupAt[depth] ? picks[depth - 1] + 1 : 0;
+        }
+
+        /**
+         * Returns the first open candidate in the group from `from` on that isn't excluded, or -1.
+         */
+        int next(long[] members, long[] excluded, int from) {
+            for (int w = from >>> 6; w < open.length; w++) {
+                long bits = members[w] & open[w] & ~excluded[w];
+                if (w == from >>> 6) {
+                    bits &= -1L << from;
+                }
+                if (bits != 0) {
+                    return (w << 6) + Long.numberOfTrailingZeros(bits);
+                }
+            }
+            return -1;
+        }
+
+        private int count(long[] members, long[] excluded, int from) {
+            int count = 0;
+            for (int w = from >>> 6; w < open.length; w++) {
+                long bits = members[w] & open[w] & ~excluded[w];
+                if (w == from >>> 6) {
+                    bits &= -1L << from;
+                }
+                count += Long.bitCount(bits);
+            }
+            return count;
+        }
+
+        /**
+         * Returns whether every group still has enough candidates left for picks depth onwards,
+         * the last pick having been `last`.
+         */
+        boolean canFinish(int depth, int last, long[] excluded) {
+            int d = depth;
+            while (d < total) {
+                int group = groupAt[d];
+                int end = d;
+                while (end < total && groupAt[end] == group) {
+                    end++;
+                }
+                // Later picks in the last pick's group must come after it
+                int from = d > 0 && groupAt[d - 1] == group ? last + 1 : 0;
+                if (count(catalogue.members[group], excluded, from) < end - d) {
+                    return false;
+                }
+                d = end;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of an ActivitySolver run: for each student, which tutorials and labs were chosen
+ * for them, or why none could be. Results are in the order the students were given.
+ */
+public class AssignmentReport {
+
+    /**
+     * What happened to one student.
+     */
+    public enum Outcome {
+        // Tutorials and labs were chosen to meet every course's requirements
+        ASSIGNED,
+        // Every course's requirements were already met, so nothing was chosen
+        ALREADY_COMPLETE,
+        // A course to be solved doesn't exist or isn't in the student's timetable
+        NOT_ENROLLED,
+        // No clash-free choice with free seats meets every course's requirements
+        INFEASIBLE;
+
+        public boolean isComplete() {
+            return this == ASSIGNED || this == ALREADY_COMPLETE;
+        }
+    }
+
+    public static class StudentResult {
+        private final String studentEmail;
+        private final Outcome outcome;
+        private final List<String[]> chosen;
+        private final String reason;
+
+        StudentResult(String studentEmail, Outcome outcome, String reason) {
+            this(studentEmail, outcome, List.of(), reason);
+        }
+
+        StudentResult(String studentEmail, Outcome outcome, List<String[]> chosen, String reason) {
+            this.studentEmail = studentEmail;
+            this.outcome = outcome;
+            this.chosen = chosen;
+            this.reason = reason;
+        }
+
+        public String getStudentEmail() {
+            return studentEmail;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * Returns the activities chosen for the student, each as {course code, activity ID}.
+         */
+        public List<String[]> getChosen() {
+            return chosen;
+        }
+
+        /**
+         * Returns why the student's courses couldn't be solved, or null if they were.
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(studentEmail + ": " + outcome);
+            for (String[] activity : chosen) {
+                sb.append(" (").append(activity[0]).append(" activity ").append(activity[1]).append(')');
+            }
+            if (reason != null) {
+                sb.append(" - ").append(reason);
+            }
+            return sb.toString();
+        }
+    }
+
+    private final List<StudentResult> students;
+    private final long elapsedNanos;
+
+    AssignmentReport(List<StudentResult> students, long elapsedNanos) {
+        this.students = Collections.unmodifiableList(students);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public List<StudentResult> getStudents() {
+        return students;
+    }
+
+    /**
+     * Returns the students for whom no feasible choice exists.
+     */
+    public List<StudentResult> getInfeasible() {
+        List<StudentResult> infeasible = new ArrayList<>();
+        for (StudentResult student : students) {
+            if (student.outcome == Outcome.INFEASIBLE) {
+                infeasible.add(student);
+            }
+        }
+        return infeasible;
+    }
+
+    /**
+     * Returns how many students had each outcome.
+     */
+    public Map<Outcome, Integer> countByOutcome() {
+        Map<Outcome, Integer> counts = new EnumMap<>(Outcome.class);
+        for (StudentResult student : students) {
+            counts.merge(student.outcome, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d students, %s, %.1f ms", students.size(), countByOutcome(), elapsedNanos / 1e6);
+    }
+}
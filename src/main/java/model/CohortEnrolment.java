@@ -0,0 +1,100 @@
+package model;
+
+import util.ActionMetrics;
+import util.AuditLog;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Adds courses to many students' timetables at once, such as a whole cohort onto a compulsory
+ * course at the start of term.
+ *
+ * Requests are grouped by student and the students are shared out across a fork-join pool, so
+ * each timetable is worked on by one thread, under its lock, once. Clashes are checked the same
+ * way as when a student adds a course themselves, but nothing is shown to anyone: each student
+ * gets a result per course in the returned report, and the batch is logged once.
+ */
+public class CohortEnrolment {
+    private final CourseManager courseManager;
+    private final ForkJoinPool pool;
+
+    public CohortEnrolment(CourseManager courseManager) {
+        this(courseManager, ForkJoinPool.commonPool());
+    }
+
+    public CohortEnrolment(CourseManager courseManager, ForkJoinPool pool) {
+        this.courseManager = courseManager;
+        this.pool = pool;
+    }
+
+    /**
+     * A student to be enrolled on a course.
+     */
+    public static class Request {
+        private final String studentEmail;
+        private final String courseCode;
+
+        public Request(String studentEmail, String courseCode) {
+            this.studentEmail = studentEmail;
+            this.courseCode = courseCode;
+        }
+
+        public String getStudentEmail() {
+            return studentEmail;
+        }
+
+        public String getCourseCode() {
+            return courseCode;
+        }
+    }
+
+    /**
+     * Enrols every student on the course.
+     */
+    public EnrolmentReport enrolCohort(Collection<String> studentEmails, String courseCode, String requestedByEmail) {
+        List<Request> requests = new ArrayList<>(studentEmails.size());
+        for (String studentEmail : studentEmails) {
+            requests.add(new Request(studentEmail, courseCode));
+        }
+        return enrol(requests, requestedByEmail);
+    }
+
+    /**
+     * Enrols each request's student on its course. A student's courses are added in the order
+     * they appear in the requests.
+     */
+    public EnrolmentReport enrol(List<Request> requests, String requestedByEmail) {
+        long startNanos = System.nanoTime();
+
+        Map<String, List<String>> coursesByStudent = new LinkedHashMap<>();
+        for (Request request : requests) {
+            coursesByStudent.computeIfAbsent(request.studentEmail, email -> new ArrayList<>()).add(request.courseCode);
+        }
+        List<Map.Entry<String, List<String>>> students = new ArrayList<>(coursesByStudent.entrySet());
+
+        List<EnrolmentReport.StudentResult> results;
+        try {
+            results = pool.submit(() -> students.parallelStream()
+                    .map(student -> courseManager.enrolStudent(student.getKey(), student.getValue()))
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while enrolling students", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Could not enrol students", cause);
+        }
+
+        EnrolmentReport report = new EnrolmentReport(results, System.nanoTime() - startNanos);
+        AuditLog.record(requestedByEmail, "enrolCohort", AuditLog.fields("enrolments", requests.size()),
+                AuditLog.Outcome.SUCCESS, report);
+        ActionMetrics.record("enrolCohort", startNanos, true);
+        return report;
+    }
+}
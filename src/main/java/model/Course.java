@@ -1,14 +1,14 @@
 package model;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a university course, including metadata and a list of activities.
  */
 public class Course {
-    private String courseCode;
+    private CourseCode courseCode;
     private String name;
     private String description;
     private boolean requiresComputers;
@@ -28,7 +28,7 @@ public class Course {
                   String courseOrganiserName, String courseOrganiserEmail,
                   String courseSecretaryName, String courseSecretaryEmail,
                   int requiredTutorials, int requiredLabs) {
-        this.courseCode = courseCode;
+        this.courseCode = CourseCode.of(courseCode);
         this.name = name;
         this.description = description;
         this.requiresComputers = requiresComputers;
@@ -38,10 +38,15 @@ public class Course {
         this.courseSecretaryEmail = courseSecretaryEmail;
         this.requiredTutorials = requiredTutorials;
         this.requiredLabs = requiredLabs;
-        this.activities = new ArrayList<>();
+        // Copy-on-write: students read the activity list while admins may still be appending to it
+        this.activities = new CopyOnWriteArrayList<>();
     }
 
     public String getCourseCode() {
+        return courseCode == null ? null : courseCode.toString();
+    }
+
+    public CourseCode getCode() {
         return courseCode;
     }
 
@@ -94,7 +99,7 @@ public class Course {
     }
 
     public boolean hasCode(String code) {
-        return this.courseCode.equals(code);
+        return courseCode != null && courseCode == CourseCode.lookup(code);
     }
 
     public boolean hasActivityWithId(int id) {
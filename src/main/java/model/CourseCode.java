@@ -0,0 +1,143 @@
+package model;
+
+import java.lang.ref.WeakReference;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A course code such as CSC1001, in canonical form: trimmed and upper case.
+ *
+ * Codes are interned, so there is only ever one CourseCode for a course. Maps keyed by them
+ * compare references and read a cached hash, instead of upper-casing and comparing strings on
+ * every lookup. Text typed by users is converted once, on the way in.
+ */
+public final class CourseCode implements Comparable<CourseCode> {
+    private static final ConcurrentHashMap<String, CourseCode> INTERNED = new ConcurrentHashMap<>();
+    // Snapshots that stores are reading from, whose codes aren't interned until a course is loaded.
+    // Read without locking on every lookup of a new code; added to only when a store is opened
+    private static final CopyOnWriteArrayList<WeakReference<MappedSnapshot>> SNAPSHOTS =
+            new CopyOnWriteArrayList<>();
+
+    private final String value;
+    private final int hash;
+
+    private CourseCode(String value) {
+        this.value = value;
+        // Same as the string's, so tables keyed by the code's text can be probed with either
+        this.hash = value.hashCode();
+    }
+
+    /**
+     * Returns whether the text is a well-formed course code: three capital letters, then four digits.
+     */
+    public static boolean isValid(String code) {
+        if (code == null || code.length() != 7) {
+            return false;
+        }
+        for (int i = 0; i < 3; i++) {
+            char c = code.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return false;
+            }
+        }
+        for (int i = 3; i < 7; i++) {
+            char c = code.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the interned code for the text, creating it if needed, or null if the text is
+     * null or blank. Use this for codes being stored.
+     */
+    public static CourseCode of(String code) {
+        if (code == null) {
+            return null;
+        }
+        CourseCode interned = INTERNED.get(code);
+        if (interned != null) {
+            return interned;
+        }
+        String canonical = canonicalise(code);
+        return canonical.isEmpty() ? null : INTERNED.computeIfAbsent(canonical, CourseCode::new);
+    }
+
+    /**
+     * Returns the code to look up for the text, or null if nothing can be stored under it.
+     * Unlike of(), a code is only found if it is already in use, so lookups of mistyped or
+     * guessed codes don't add to the interned set.
+     */
+    public static CourseCode lookup(String code) {
+        if (code == null) {
+            return null;
+        }
+        CourseCode interned = INTERNED.get(code);
+        if (interned != null) {
+            return interned;
+        }
+        String canonical = canonicalise(code);
+        interned = INTERNED.get(canonical);
+        if (interned != null || !isValid(canonical)) {
+            return interned;
+        }
+        // A well-formed code may belong to a course not loaded from a snapshot yet
+        for (WeakReference<MappedSnapshot> reference : SNAPSHOTS) {
+            MappedSnapshot snapshot = reference.get();
+            if (snapshot != null && snapshot.hasCourseCode(canonical)) {
+                return of(canonical);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Makes lookup() find the codes in the snapshot, for as long as the snapshot is in use.
+     */
+    static void addSnapshot(MappedSnapshot snapshot) {
+        // Snapshots no store reads from any more are dropped once collected
+        SNAPSHOTS.removeIf(reference -> reference.get() == null);
+        SNAPSHOTS.add(new WeakReference<>(snapshot));
+    }
+
+    /**
+     * Returns the code for canonical text if it has been interned, or null, without interning it.
+     */
+    static CourseCode interned(String canonical) {
+        return INTERNED.get(canonical);
+    }
+
+    private static String canonicalise(String code) {
+        String trimmed = code.trim();
+        for (int i = 0; i < trimmed.length(); i++) {
+            if (Character.isLowerCase(trimmed.charAt(i))) {
+                return trimmed.toUpperCase(Locale.ROOT);
+            }
+        }
+        return trimmed;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        // Interned, so equal codes are the same object
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public int compareTo(CourseCode other) {
+        return value.compareTo(other.value);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -0,0 +1,574 @@
+package model;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import util.ActionMetrics;
+import util.AuditLog;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Imports a catalogue of courses and their activities from a CSV or JSON file.
+ *
+ * The file is read in one pass, then each course is parsed and checked in parallel on a
+ * fork-join pool: the code format, codes already in use or repeated in the file, activity dates
+ * and times, and activities of the same course that clash. Courses that pass are added to the
+ * CourseManager in batches; the others are reported with their problems and nothing of them
+ * is added. The import is logged once, not once per course.
+ *
+ * A CSV file has one row per course and one per activity, in any order:
+ * <pre>
+ * course,CSC1001,Programming,"Variables, loops and functions",true,Dr. A,a@hindeburg.ac.nz,Ms. B,b@hindeburg.ac.nz,1,1
+ * activity,CSC1001,lecture,1,MONDAY,2025-01-13,09:00,2025-04-07,10:00,Lecture Theatre,true
+ * activity,CSC1001,tutorial,2,TUESDAY,2025-01-13,11:00,2025-04-07,12:00,Room 2,30
+ * </pre>
+ * Course columns are code, name, description, requires computers, organiser name and email,
+ * secretary name and email, and the numbers of required tutorials and labs. Activity columns are
+ * the course code, type (lecture, tutorial, lab or activity), ID, day, start date and time, end
+ * date and time, location, and then whether a lecture is recorded or a tutorial or lab's
+ * capacity. Fields may be quoted with double quotes; blank lines and lines starting with # are
+ * skipped.
+ *
+ * A JSON file is an array of course objects with the fields code, name, description,
+ * requiresComputers, organiserName, organiserEmail, secretaryName, secretaryEmail,
+ * requiredTutorials and requiredLabs, and an "activities" array of objects with the fields type,
+ * id, day, startDate, startTime, endDate, endTime, location, and recorded or capacity.
+ */
+public class CourseImporter {
+    private static final String[] COURSE_FIELDS = {"code", "name", "description", "requiresComputers",
+            "organiserName", "organiserEmail", "secretaryName", "secretaryEmail",
+            "requiredTutorials", "requiredLabs"};
+    private static final String[] ACTIVITY_FIELDS = {"type", "id", "day", "startDate", "startTime",
+            "endDate", "endTime", "location"};
+
+    private final ForkJoinPool pool;
+
+    public CourseImporter() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public CourseImporter(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Imports every valid course in the file into the course manager.
+     *
+     * @throws IOException if the file can't be read, or isn't a .csv or .json file
+     */
+    public ImportReport importFile(Path file, CourseManager courseManager, String addedByEmail) throws IOException {
+        long startNanos = System.nanoTime();
+
+        List<String> errors = new ArrayList<>();
+        List<Entry> entries;
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            entries = readCsv(file, errors);
+        } else if (name.endsWith(".json")) {
+            entries = readJson(file, errors);
+        } else {
+            throw new IOException("Unsupported file type, expected .csv or .json: " + file);
+        }
+        long readNanos = System.nanoTime();
+
+        List<Checked> checked;
+        try {
+            checked = pool.submit(() -> entries.parallelStream()
+                    .map(entry -> check(entry, courseManager))
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while importing courses from " + file, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not import courses from " + file, e.getCause());
+        }
+        List<Course> valid = new ArrayList<>();
+        for (Checked result : checked) {
+            if (result.errors.isEmpty()) {
+                valid.add(result.course);
+            } else {
+                errors.addAll(result.errors);
+            }
+        }
+        long checkedNanos = System.nanoTime();
+
+        List<String> roomClashes = new ArrayList<>();
+        List<Course> added = courseManager.addCourses(valid, roomClashes);
+        if (added.size() < valid.size()) {
+            // Added by another admin since they were checked
+            Set<Course> addedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+            addedSet.addAll(added);
+            for (Course course : valid) {
+                if (!addedSet.contains(course)) {
+                    errors.add("Course " + course.getCourseCode() + " already exists.");
+                }
+            }
+        }
+        long endNanos = System.nanoTime();
+
+        ImportReport report = new ImportReport(entries.size(), added, errors, roomClashes,
+                readNanos - startNanos, checkedNanos - readNanos, endNanos - checkedNanos);
+        boolean failed = added.isEmpty() && !errors.isEmpty();
+        AuditLog.record(addedByEmail, "importCourses", file.getFileName(),
+                failed ? AuditLog.Outcome.FAILURE : AuditLog.Outcome.SUCCESS, report);
+        ActionMetrics.record("importCourses", startNanos, !failed);
+        return report;
+    }
+
+    /**
+     * Reads the course and activity rows of a CSV file, grouping activities with their course.
+     */
+    private static List<Entry> readCsv(Path file, List<String> errors) throws IOException {
+        Map<String, Entry> courses = new LinkedHashMap<>();
+        Map<String, List<Row>> activities = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String source = "Line " + lineNumber;
+                List<String> fields = splitCsvLine(line);
+                if (fields == null) {
+                    errors.add(source + ": unterminated quoted field.");
+                    continue;
+                }
+                String kind = fields.get(0).toLowerCase(Locale.ROOT);
+                if (kind.equals("course")) {
+                    Entry entry = new Entry(source, fields.subList(1, fields.size()).toArray(new String[0]));
+                    Entry previous = courses.putIfAbsent(entry.code(), entry);
+                    if (previous != null) {
+                        errors.add(source + ": course " + entry.code() + " is already in the file ("
+                                + previous.source.toLowerCase(Locale.ROOT) + ").");
+                    }
+                } else if (kind.equals("activity") && fields.size() > 1) {
+                    activities.computeIfAbsent(fields.get(1), code -> new ArrayList<>())
+                            .add(new Row(source, fields.subList(2, fields.size()).toArray(new String[0])));
+                } else {
+                    errors.add(source + ": expected a course or activity row.");
+                }
+            }
+        }
+
+        for (Map.Entry<String, List<Row>> courseActivities : activities.entrySet()) {
+            Entry entry = courses.get(courseActivities.getKey());
+            if (entry != null) {
+                entry.activities.addAll(courseActivities.getValue());
+            } else {
+                for (Row row : courseActivities.getValue()) {
+                    errors.add(row.source + ": activity for course " + courseActivities.getKey()
+                            + ", which is not in the file.");
+                }
+            }
+        }
+        return new ArrayList<>(courses.values());
+    }
+
+    /**
+     * Splits a CSV line into fields, or returns null if a quoted field isn't closed.
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        while (true) {
+            while (i < line.length() && line.charAt(i) == ' ') {
+                i++;
+            }
+            if (i < line.length() && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= line.length()) {
+                        return null;
+                    }
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                while (i < line.length() && line.charAt(i) != ',') {
+                    i++;
+                }
+                fields.add(field.toString());
+            } else {
+                int end = line.indexOf(',', i);
+                if (end < 0) {
+                    end = line.length();
+                }
+                fields.add(line.substring(i, end).trim());
+                i = end;
+            }
+            field.setLength(0);
+            if (i >= line.length()) {
+                return fields;
+            }
+            i++; // the comma
+        }
+    }
+
+    private static List<Entry> readJson(Path file, List<String> errors) throws IOException {
+        Object parsed;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            parsed = new JSONParser().parse(reader);
+        } catch (ParseException e) {
+            throw new IOException("Not a valid JSON file: " + file + " (" + e + ")", e);
+        }
+        if (!(parsed instanceof JSONArray)) {
+            throw new IOException("Expected a JSON array of courses: " + file);
+        }
+
+        Map<String, Entry> courses = new LinkedHashMap<>();
+        JSONArray array = (JSONArray) parsed;
+        for (int i = 0; i < array.size(); i++) {
+            String source = "Course " + (i + 1);
+            if (!(array.get(i) instanceof JSONObject)) {
+                errors.add(source + ": expected a JSON object.");
+                continue;
+            }
+            JSONObject object = (JSONObject) array.get(i);
+            Entry entry = new Entry(source, jsonFields(object, COURSE_FIELDS, null));
+            Object activities = object.get("activities");
+            if (activities instanceof JSONArray) {
+                int number = 0;
+                for (Object activity : (JSONArray) activities) {
+                    number++;
+                    String activitySource = source + ", activity " + number;
+                    if (activity instanceof JSONObject) {
+                        JSONObject activityObject = (JSONObject) activity;
+                        String extra = activityObject.containsKey("recorded") ? "recorded" : "capacity";
+                        entry.activities.add(new Row(activitySource, jsonFields(activityObject, ACTIVITY_FIELDS, extra)));
+                    } else {
+                        errors.add(activitySource + ": expected a JSON object.");
+                    }
+                }
+            } else if (activities != null) {
+                errors.add(source + ": \"activities\" should be an array.");
+            }
+
+            Entry previous = courses.putIfAbsent(entry.code(), entry);
+            if (previous != null) {
+                errors.add(source + ": course " + entry.code() + " is already in the file ("
+                        + previous.source.toLowerCase(Locale.ROOT) + ").");
+            }
+        }
+        return new ArrayList<>(courses.values());
+    }
+
+    private static String[] jsonFields(JSONObject object, String[] names, String extraName) {
+        String[] fields = new String[names.length + (extraName == null ? 0 : 1)];
+        for (int i = 0; i < names.length; i++) {
+            Object value = object.get(names[i]);
+            fields[i] = value == null ? "" : value.toString().trim();
+        }
+        if (extraName != null) {
+            Object value = object.get(extraName);
+            fields[names.length] = value == null ? "" : value.toString().trim();
+        }
+        return fields;
+    }
+
+    /**
+     * Builds a course and its activities from an entry, collecting every problem found.
+     */
+    private static Checked check(Entry entry, CourseManager courseManager) {
+        List<String> errors = new ArrayList<>();
+        String[] fields = entry.fields;
+        if (fields.length != COURSE_FIELDS.length) {
+            errors.add(entry.source + ": expected " + COURSE_FIELDS.length + " course fields but found "
+                    + fields.length + ".");
+            return new Checked(null, errors);
+        }
+
+        String code = fields[0];
+        if (!CourseManager.checkCourseCode(code)) {
+            errors.add(entry.source + ": course code '" + code + "' is invalid.");
+        } else if (courseManager.hasCode(code)) {
+            errors.add(entry.source + ": course " + code + " already exists.");
+        }
+        if (fields[1].isEmpty()) {
+            errors.add(entry.source + ": course name is missing.");
+        }
+        if (fields[5].isEmpty()) {
+            errors.add(entry.source + ": organiser email is missing.");
+        }
+        Boolean requiresComputers = parseBoolean(fields[3]);
+        if (requiresComputers == null) {
+            errors.add(entry.source + ": requiresComputers should be true or false, not '" + fields[3] + "'.");
+        }
+        int requiredTutorials = parseCount(fields[8], entry.source, "requiredTutorials", errors);
+        int requiredLabs = parseCount(fields[9], entry.source, "requiredLabs", errors);
+
+        List<Activity> activities = new ArrayList<>();
+        Set<Integer> ids = new HashSet<>();
+        for (Row row : entry.activities) {
+            Activity activity = parseActivity(row, errors);
+            if (activity == null) {
+                continue;
+            }
+            if (!ids.add(activity.getId())) {
+                errors.add(row.source + ": activity ID " + activity.getId() + " is used twice in course " + code + ".");
+                continue;
+            }
+            for (Activity other : activities) {
+                String clash = clash(other, activity);
+                if (clash != null) {
+                    errors.add(row.source + ": activity " + activity.getId() + " overlaps activity "
+                            + other.getId() + " of course " + code + " " + clash + ".");
+                }
+            }
+            activities.add(activity);
+        }
+
+        if (!errors.isEmpty()) {
+            return new Checked(null, errors);
+        }
+        Course course = new Course(code, fields[1], fields[2], requiresComputers,
+                fields[4], fields[5], fields[6], fields[7], requiredTutorials, requiredLabs);
+        for (Activity activity : activities) {
+            course.addActivity(activity);
+        }
+        return new Checked(course, errors);
+    }
+
+    private static Activity parseActivity(Row row, List<String> errors) {
+        String[] fields = row.fields;
+        if (fields.length != ACTIVITY_FIELDS.length && fields.length != ACTIVITY_FIELDS.length + 1) {
+            errors.add(row.source + ": expected " + (ACTIVITY_FIELDS.length + 1) + " activity fields but found "
+                    + fields.length + ".");
+            return null;
+        }
+        int errorCount = errors.size();
+        String type = fields[0].toLowerCase(Locale.ROOT);
+        int id = 0;
+        try {
+            id = Integer.parseInt(fields[1]);
+        } catch (NumberFormatException e) {
+            errors.add(row.source + ": activity ID '" + fields[1] + "' is not a number.");
+        }
+        DayOfWeek day = null;
+        try {
+            day = DayOfWeek.valueOf(fields[2].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            errors.add(row.source + ": '" + fields[2] + "' is not a day of the week.");
+        }
+        LocalDate startDate = null;
+        LocalDate endDate = null;
+        LocalTime startTime = null;
+        LocalTime endTime = null;
+        try {
+            startDate = LocalDate.parse(fields[3]);
+            startTime = LocalTime.parse(fields[4]);
+            endDate = LocalDate.parse(fields[5]);
+            endTime = LocalTime.parse(fields[6]);
+        } catch (DateTimeParseException e) {
+            errors.add(row.source + ": '" + e.getParsedString() + "' is not a valid date or time.");
+        }
+        if (endTime != null && !startTime.isBefore(endTime)) {
+            errors.add(row.source + ": activity starts at " + startTime + " but ends at " + endTime + ".");
+        }
+        if (endDate != null && endDate.isBefore(startDate)) {
+            errors.add(row.source + ": activity runs from " + startDate + " to the earlier date " + endDate + ".");
+        }
+        String location = fields[7];
+        String extra = fields.length > ACTIVITY_FIELDS.length ? fields[8] : "";
+
+        Activity activity = null;
+        switch (type) {
+            case "lecture" -> {
+                Boolean recorded = parseBoolean(extra);
+                if (recorded == null) {
+                    errors.add(row.source + ": a lecture should be marked recorded true or false, not '" + extra + "'.");
+                } else if (errors.size() == errorCount) {
+                    activity = new Lecture(id, startDate, startTime, endDate, endTime, location, day, recorded);
+                }
+            }
+            case "tutorial", "lab" -> {
+                int capacity = parseCount(extra, row.source, "capacity", errors);
+                if (capacity == 0 && errors.size() == errorCount) {
+                    errors.add(row.source + ": a " + type + " needs a capacity of at least 1.");
+                } else if (errors.size() == errorCount) {
+                    activity = type.equals("lab")
+                            ? new Lab(id, startDate, startTime, endDate, endTime, location, day, capacity)
+                            : new Tutorial(id, startDate, startTime, endDate, endTime, location, day, capacity);
+                }
+            }
+            case "activity" -> {
+                if (errors.size() == errorCount) {
+                    activity = new ConcreteActivity(id, startDate, startTime, endDate, endTime, location, day);
+                }
+            }
+            default -> errors.add(row.source + ": unknown activity type '" + fields[0] + "'.");
+        }
+        return activity;
+    }
+
+    /**
+     * Describes how two activities of one course clash, or returns null if they don't. They clash
+     * when they meet at the same time on some day and either is a lecture, which every student
+     * attends, or both are in the same room. Tutorials or labs at the same time in different rooms
+     * are alternatives, so they are fine.
+     */
+    private static String clash(Activity a, Activity b) {
+        if (a.getDay() != b.getDay()
+                || a.getEndDate().isBefore(b.getStartDate()) || b.getEndDate().isBefore(a.getStartDate())
+                || !a.getStartTime().isBefore(b.getEndTime()) || !b.getStartTime().isBefore(a.getEndTime())) {
+            return null;
+        }
+        if (a instanceof Lecture || b instanceof Lecture) {
+            return "on " + a.getDay();
+        }
+        if (a.getLocation().equalsIgnoreCase(b.getLocation())) {
+            return "in " + a.getLocation() + " on " + a.getDay();
+        }
+        return null;
+    }
+
+    private static Boolean parseBoolean(String value) {
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "y":
+                return true;
+            case "false", "no", "n":
+                return false;
+            default:
+                return null;
+        }
+    }
+
+    private static int parseCount(String value, String source, String field, List<String> errors) {
+        try {
+            int count = Integer.parseInt(value);
+            if (count >= 0) {
+                return count;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        errors.add(source + ": " + field + " should be a whole number of at least 0, not '" + value + "'.");
+        return 0;
+    }
+
+    /**
+     * A course as read from the file, before its fields are parsed.
+     */
+    private static final class Entry {
+        final String source;
+        final String[] fields;
+        final List<Row> activities = new ArrayList<>();
+
+        Entry(String source, String[] fields) {
+            this.source = source;
+            this.fields = fields;
+        }
+
+        String code() {
+            return fields.length > 0 ? fields[0] : "";
+        }
+    }
+
+    /**
+     * An activity as read from the file.
+     */
+    private static final class Row {
+        final String source;
+        final String[] fields;
+
+        Row(String source, String[] fields) {
+            this.source = source;
+            this.fields = fields;
+        }
+    }
+
+    private static final class Checked {
+        final Course course;
+        final List<String> errors;
+
+        Checked(Course course, List<String> errors) {
+            this.course = course;
+            this.errors = errors;
+        }
+    }
+
+    /**
+     * Which courses were imported, what was wrong with the others, and how long it took.
+     */
+    public static class ImportReport {
+        private final int coursesRead;
+        private final List<Course> added;
+        private final List<String> errors;
+        private final List<String> roomClashes;
+        private final long readNanos;
+        private final long checkNanos;
+        private final long insertNanos;
+
+        ImportReport(int coursesRead, List<Course> added, List<String> errors, List<String> roomClashes,
+                     long readNanos, long checkNanos, long insertNanos) {
+            this.coursesRead = coursesRead;
+            this.added = added;
+            this.errors = errors;
+            this.roomClashes = roomClashes;
+            this.readNanos = readNanos;
+            this.checkNanos = checkNanos;
+            this.insertNanos = insertNanos;
+        }
+
+        public int getCoursesRead() {
+            return coursesRead;
+        }
+
+        public List<Course> getAdded() {
+            return added;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        /**
+         * Returns a line for each imported activity whose room was already booked at that time.
+         * The activities are still added, as when an admin adds one themselves.
+         */
+        public List<String> getRoomClashes() {
+            return roomClashes;
+        }
+
+        /**
+         * Returns the added courses grouped by organiser email, in the order they were added.
+         */
+        public Map<String, List<Course>> getAddedByOrganiser() {
+            return added.stream().collect(Collectors.groupingBy(Course::getCourseOrganiserEmail,
+                    LinkedHashMap::new, Collectors.toList()));
+        }
+
+        public long getTotalNanos() {
+            return readNanos + checkNanos + insertNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d/%d courses added, %d problems, %d room clashes, read %.1f ms, check %.1f ms, "
+                            + "insert %.1f ms", added.size(), coursesRead, errors.size(), roomClashes.size(),
+                    readNanos / 1e6, checkNanos / 1e6, insertNanos / 1e6);
+        }
+    }
+}
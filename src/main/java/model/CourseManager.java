@@ -1,23 +1,29 @@
 package model;
 
 import java.util.*;
-import util.LogUtil;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.Lock;
+import util.ActionMetrics;
+import util.AuditLog;
 import view.View;
 
-import java.time.LocalDateTime;
-
 /**
  * Manages all courses in the system.
+ * Each session has its own CourseManager (bound to that session's view), while the course
+ * map itself is shared through the SharedStore.
  */
 public class CourseManager {
+    // Courses added together by addCourses share one journal record
+    static final int IMPORT_BATCH_SIZE = 500;
+
 
-    private final Map<String, Course> courseMap;
+    private final Map<CourseCode, Course> courseMap;
     private View view;
     private SharedContext sharedContext;
 
 
     public CourseManager(View view, SharedContext sharedContext) {
-        this.courseMap = new HashMap<>();
+        this.courseMap = sharedContext.getStore().getCourses();
         this.view = view;
         this.sharedContext = sharedContext;
     }
@@ -29,41 +35,47 @@ public class CourseManager {
                                      String coName, String coEmail, String csName, String csEmail,
                                      int requiredTutorials, int requiredLabs,
                                      String addedByEmail) {
+        long startNanos = System.nanoTime();
+        AddCourseResult result = createCourse(code, name, description, requiresComputers, coName, coEmail,
+                csName, csEmail, requiredTutorials, requiredLabs, addedByEmail);
+        ActionMetrics.record("addCourse", startNanos, result.success);
+        return result;
+    }
+
+    private AddCourseResult createCourse(String code, String name, String description, boolean requiresComputers,
+                                         String coName, String coEmail, String csName, String csEmail,
+                                         int requiredTutorials, int requiredLabs,
+                                         String addedByEmail) {
 
-        String inputSummary = String.format("code=%s, name=%s, requiresComputers=%s", code, name, requiresComputers);
+        AuditLog.Fields inputSummary = AuditLog.fields("code", code, "name", name,
+                "requiresComputers", requiresComputers);
 
         if (code == null || code.trim().isEmpty()) {
-            LogUtil.logAction(
-                    LocalDateTime.now(), addedByEmail, "addCourse", inputSummary,
-                    "FAILURE (Error: Required course info not provided)"
-            );
+            AuditLog.record(addedByEmail, "addCourse", inputSummary,
+                    AuditLog.Outcome.FAILURE, "Required course info not provided");
             return new AddCourseResult(false, "Required course info not provided.");
         }
 
         if (!checkCourseCode(code)) {
-            LogUtil.logAction(
-                    LocalDateTime.now(), addedByEmail, "addCourse", inputSummary,
-                    "FAILURE (Error: Provided courseCode is invalid)"
-            );
+            AuditLog.record(addedByEmail, "addCourse", inputSummary,
+                    AuditLog.Outcome.FAILURE, "Provided courseCode is invalid");
             return new AddCourseResult(false, "Provided courseCode is invalid.");
         }
 
-        if (hasCode(code)) {
-            LogUtil.logAction(
-                    LocalDateTime.now(), addedByEmail, "addCourse", inputSummary,
-                    "FAILURE (Error: Course with that code already exists)"
-            );
-            return new AddCourseResult(false, "Course with that code already exists.");
-        }
-
         Course newCourse = new Course(code, name, description, requiresComputers,
                 coName, coEmail, csName, csEmail, requiredTutorials, requiredLabs);
-        courseMap.put(code, newCourse);
+        // Held until the course is journaled, so no activity added to it is journaled first
+        synchronized (newCourse) {
+            // putIfAbsent, so two admins adding the same code at once cannot both succeed
+            if (courseMap.putIfAbsent(newCourse.getCode(), newCourse) != null) {
+                AuditLog.record(addedByEmail, "addCourse", inputSummary,
+                        AuditLog.Outcome.FAILURE, "Course with that code already exists");
+                return new AddCourseResult(false, "Course with that code already exists.");
+            }
+            sharedContext.getStore().journal().courseAdded(newCourse);
+        }
 
-        LogUtil.logAction(
-                LocalDateTime.now(), addedByEmail, "addCourse", inputSummary,
-                "SUCCESS"
-        );
+        AuditLog.record(addedByEmail, "addCourse", inputSummary, AuditLog.Outcome.SUCCESS);
 
         return new AddCourseResult(true, "Course added successfully.");
     }
@@ -71,15 +83,69 @@ public class CourseManager {
     /**
      * Validates course code format: three uppercase letters followed by four digits.
      */
-    private boolean checkCourseCode(String code) {
-        return code != null && code.matches("^[A-Z]{3}[0-9]{4}$");
+    static boolean checkCourseCode(String code) {
+        return CourseCode.isValid(code);
+    }
+
+    /**
+     * Adds courses that were built and checked elsewhere (see CourseImporter), with their
+     * activities already attached. They are added and journaled a batch at a time, and nothing
+     * is logged per course, so the caller logs the whole import once.
+     *
+     * @param roomClashes has a line added for each activity whose room was already booked at the time
+     * @return the courses that were added; the others had codes already in use
+     */
+    List<Course> addCourses(List<Course> courses, List<String> roomClashes) {
+        List<Course> added = new ArrayList<>(courses.size());
+        sharedContext.getStore().getRoomBookings().ensureBuilt();
+        for (int first = 0; first < courses.size(); first += IMPORT_BATCH_SIZE) {
+            List<Course> candidates = courses.subList(first, Math.min(courses.size(), first + IMPORT_BATCH_SIZE));
+            List<Course> batch = new ArrayList<>(candidates.size());
+            whileLocked(candidates, 0, () -> {
+                for (Course course : candidates) {
+                    if (courseMap.putIfAbsent(course.getCode(), course) == null) {
+                        batch.add(course);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    sharedContext.getStore().journal().coursesAdded(batch);
+                }
+            });
+            for (Course course : batch) {
+                for (Activity activity : course.getActivities()) {
+                    List<RoomBookings.Booking> clashes =
+                            sharedContext.getStore().getRoomBookings().add(course.getCode(), activity);
+                    if (!clashes.isEmpty()) {
+                        roomClashes.add(course.getCourseCode() + " " + activity.getType() + " #" + activity.getId()
+                                + ": " + describeRoomClash(activity, clashes));
+                    }
+                }
+            }
+            added.addAll(batch);
+        }
+        return added;
     }
 
     /**
      * Returns whether a course with the given code exists.
      */
     public boolean hasCode(String code) {
-        return courseMap.containsKey(code);
+        CourseCode key = CourseCode.lookup(code);
+        return key != null && courseMap.containsKey(key);
+    }
+
+    /**
+     * Runs the action holding the monitor of every course from the index on, as createCourse
+     * holds a single course's, so no activity is journaled for them before they are.
+     */
+    private static void whileLocked(List<Course> courses, int from, Runnable action) {
+        if (from == courses.size()) {
+            action.run();
+            return;
+        }
+        synchronized (courses.get(from)) {
+            whileLocked(courses, from + 1, action);
+        }
     }
 
     /**
@@ -89,37 +155,51 @@ public class CourseManager {
      * @return list of email addresses to notify or null if course not found.
      */
     public String[] removeCourse(String courseCode) {
-        Course removed = courseMap.remove(courseCode);
+        long startNanos = System.nanoTime();
+        String[] emailsToNotify = deleteCourse(courseCode);
+        ActionMetrics.record("removeCourse", startNanos, emailsToNotify != null);
+        return emailsToNotify;
+    }
+
+    private String[] deleteCourse(String courseCode) {
+        CourseCode key = CourseCode.lookup(courseCode);
+        Course removed = key == null ? null : courseMap.remove(key);
         String userEmail = sharedContext.getCurrentUserEmail();
 
         if (removed == null) {
-            LogUtil.logAction(
-                    java.time.LocalDateTime.now(),
-                    userEmail,
-                    "removeCourse",
-                    courseCode,
-                    "FAILURE (Course not found)"
-            );
+            AuditLog.record(userEmail, "removeCourse", courseCode,
+                    AuditLog.Outcome.FAILURE, "Course not found");
             return null;
         }
+        // After any activity being added to it has been journaled
+        synchronized (removed) {
+            sharedContext.getStore().journal().courseRemoved(courseCode);
+        }
+        sharedContext.getStore().getSeats().courseRemoved(key);
+        sharedContext.getStore().getRoomBookings().courseRemoved(removed);
 
         List<String> emailsToNotify = new ArrayList<>();
         emailsToNotify.add(removed.getCourseOrganiserEmail());
 
-        for (Timetable timetable : sharedContext.getAllTimetables()) {
-            if (timetable.hasSlotsForCourse(courseCode)) {
-                emailsToNotify.add(timetable.getStudentEmail());
-                timetable.removeSlotsForCourse(courseCode);
+        // Only visit the timetables of students enrolled on the course
+        for (String studentEmail : sharedContext.removeCourseEnrolments(courseCode)) {
+            Lock lock = sharedContext.timetableLock(studentEmail);
+            lock.lock();
+            try {
+                Timetable timetable = sharedContext.getTimetable(studentEmail);
+                if (timetable != null && timetable.hasSlotsForCourse(courseCode)) {
+                    emailsToNotify.add(studentEmail);
+                    timetable.removeSlotsForCourse(courseCode);
+                }
+            } finally {
+                lock.unlock();
             }
         }
 
-        LogUtil.logAction(
-                java.time.LocalDateTime.now(),
-                userEmail,
-                "removeCourse",
-                courseCode,
-                "SUCCESS"
-        );
+        // Once no timetable holds them, so adding the code again starts afresh
+        sharedContext.getStore().getCourseSlots().remove(key);
+
+        AuditLog.record(userEmail, "removeCourse", courseCode, AuditLog.Outcome.SUCCESS);
 
         return emailsToNotify.toArray(new String[0]);
     }
@@ -143,27 +223,69 @@ public class CourseManager {
      * Returns a string of detailed course info.
      */
     public String viewCourse(String code) {
-        Course course = courseMap.get(code);
+        Course course = getCourse(code);
         return course != null ? course.toString() : null;
     }
 
     /**
      * Adds a constructed activity (Lecture, Tutorial, or Lab) to a given course.
+     * If its room is already booked at the time, it is still added but a warning is shown;
+     * use findRoomClashes first to refuse it instead.
      *
      * @return true if successful, false if course not found.
      */
     public boolean addActivityToCourse(String courseCode, Activity activity) {
-        Course course = courseMap.get(courseCode);
+        Course course = getCourse(courseCode);
         if (course == null) return false;
-        course.addActivity(activity);
+        sharedContext.getStore().getRoomBookings().ensureBuilt();
+        // Journaled in the same order as the course being added or removed; see createCourse
+        synchronized (course) {
+            if (courseMap.get(course.getCode()) != course) {
+                // Removed by another session since the lookup above
+                return false;
+            }
+            course.addActivity(activity);
+            sharedContext.getStore().journal().activityAdded(course.getCourseCode(), activity);
+        }
+
+        List<RoomBookings.Booking> clashes = sharedContext.getStore().getRoomBookings().add(course.getCode(), activity);
+        if (!clashes.isEmpty()) {
+            view.displayWarning(describeRoomClash(activity, clashes));
+        }
         return true;
     }
 
+    private static String describeRoomClash(Activity activity, List<RoomBookings.Booking> clashes) {
+        return activity.getLocation().trim() + " is already booked at that time for "
+                + clashes.get(0) + (clashes.size() > 1 ? " and " + (clashes.size() - 1) + " more" : "") + ".";
+    }
+
+    /**
+     * Returns the bookings of the activity's room that it would clash with if it were added
+     * to the course.
+     */
+    public List<RoomBookings.Booking> findRoomClashes(String courseCode, Activity activity) {
+        return sharedContext.getStore().getRoomBookings().findClashes(courseCode, activity);
+    }
+
+    /**
+     * Finds every room booked by two activities at once, across the whole catalogue.
+     */
+    public List<RoomBookings.Clash> auditRoomBookings() {
+        long startNanos = System.nanoTime();
+        List<RoomBookings.Clash> clashes = sharedContext.getStore().getRoomBookings().audit(ForkJoinPool.commonPool());
+        AuditLog.record(sharedContext.getCurrentUserEmail(), "auditRoomBookings", AuditLog.fields("clashes", clashes.size()),
+                clashes.isEmpty() ? AuditLog.Outcome.SUCCESS : AuditLog.Outcome.WARNING);
+        ActionMetrics.record("auditRoomBookings", startNanos, true);
+        return clashes;
+    }
+
     /**
      * Returns the Course object if found.
      */
     public Course getCourse(String code) {
-        return courseMap.get(code);
+        CourseCode key = CourseCode.lookup(code);
+        return key == null ? null : courseMap.get(key);
     }
 
     /**
@@ -184,7 +306,7 @@ public class CourseManager {
      * Checks if a course with the given tag exists.
      */
     public boolean hasCourse(String courseTag) {
-        return courseMap.containsKey(courseTag);
+        return hasCode(courseTag);
     }
 
     /**
@@ -195,100 +317,201 @@ public class CourseManager {
      * @return true if the course was added successfully, false otherwise
      */
     public boolean addCourseToStudentTimetable(String studentEmail, String courseCode) {
-        if (!isValidCourseCode(courseCode, studentEmail)) {
+        long startNanos = System.nanoTime();
+        boolean added = addToTimetable(studentEmail, courseCode);
+        ActionMetrics.record("addCourseToStudentTimetable", startNanos, added);
+        return added;
+    }
+
+    private boolean addToTimetable(String studentEmail, String courseCode) {
+        if (courseCode == null || courseCode.trim().isEmpty()) {
             view.displayError("Invalid course code.");
-            LogUtil.logAction(LocalDateTime.now(), studentEmail, "addCourseToStudentTimetable", courseCode,
-                    "FAILURE (Invalid input)");
+            AuditLog.record(studentEmail, "addCourseToStudentTimetable", courseCode,
+                    AuditLog.Outcome.FAILURE, "Invalid input");
             return false;
         }
-        if (!courseExists(courseCode, studentEmail)) {
+        if (!hasCode(courseCode)) {
             view.displayError("Course " + courseCode + " does not exist.");
-            LogUtil.logAction(LocalDateTime.now(), studentEmail, "addCourseToStudentTimetable", courseCode,
-                    "FAILURE (Course does not exist)");
+            AuditLog.record(studentEmail, "addCourseToStudentTimetable", courseCode,
+                    AuditLog.Outcome.FAILURE, "Course does not exist");
             return false;
         }
 
         Course course = getCourse(courseCode);
-        Timetable timetable = sharedContext.getOrCreateTimetable(studentEmail);
-
-        if (!processActivities(course, timetable, studentEmail)) {
+        if (course == null) {
+            // Removed by another session since the check above
+            view.displayError("Course " + courseCode + " does not exist.");
             return false;
         }
 
-        postAdditionCheck(course, timetable, studentEmail);
+        Lock lock = sharedContext.timetableLock(studentEmail);
+        lock.lock();
+        try {
+            Timetable timetable = sharedContext.getOrCreateTimetable(studentEmail);
+
+            if (!processActivities(course, timetable, studentEmail)) {
+                return false;
+            }
+
+            // The enrolment is recorded before this check, so if an admin removes the course
+            // concurrently, either they see the enrolment or we see the removal and undo it.
+            if (courseMap.get(course.getCode()) != course) {
+                sharedContext.removeCourseFromTimetable(studentEmail, courseCode);
+                view.displayError("Course " + courseCode + " does not exist.");
+                AuditLog.record(studentEmail, "addCourseToStudentTimetable", courseCode,
+                        AuditLog.Outcome.FAILURE, "Course does not exist");
+                return false;
+            }
+
+            postAdditionCheck(course, timetable, studentEmail);
+        } finally {
+            lock.unlock();
+        }
 
         view.displaySuccess("Course " + courseCode + " added to your timetable.");
-        LogUtil.logAction(LocalDateTime.now(), studentEmail, "addCourseToStudentTimetable",
-                courseCode, "SUCCESS");
+        AuditLog.record(studentEmail, "addCourseToStudentTimetable", courseCode, AuditLog.Outcome.SUCCESS);
         return true;
     }
 
-    private boolean isValidCourseCode(String courseCode, String studentEmail) {
-        if (courseCode == null || courseCode.trim().isEmpty()) {
-            view.displayError("Invalid course code.");
-            LogUtil.logAction(LocalDateTime.now(), studentEmail, "addCourseToStudentTimetable", courseCode,
-                    "FAILURE (Invalid input)");
-            return false;
+    private boolean processActivities(Course course, Timetable timetable, String studentEmail) {
+        List<TimeSlot> added = new ArrayList<>();
+        List<String[]> conflicts = new ArrayList<>();
+        String[] blockingConflict;
+        try {
+            blockingConflict = addActivitySlots(course, timetable, studentEmail, added, conflicts);
+        } finally {
+            // Slots added before a failure stay in the timetable, so they are journaled either way
+            if (!added.isEmpty()) {
+                sharedContext.getStore().journal().slotsAdded(timetable, added);
+            }
         }
-        return true;
-    }
 
-    private boolean courseExists(String courseCode, String studentEmail) {
-        if (!hasCode(courseCode)) {
-            view.displayError("Course " + courseCode + " does not exist.");
-            LogUtil.logAction(LocalDateTime.now(), studentEmail, "addCourseToStudentTimetable", courseCode,
-                    "FAILURE (Course does not exist)");
+        for (String[] conflict : conflicts) {
+            view.displayWarning("Warning: Conflict detected with course "
+                    + conflict[0] + " (Activity ID: " + conflict[1] + "). Adding course anyway.");
+            AuditLog.record(studentEmail, "addCourseToStudentTimetable", course.getCourseCode(),
+                    AuditLog.Outcome.WARNING, "Conflict with another activity");
+        }
+        if (blockingConflict != null) {
+            view.displayError("Cannot add course due to conflict with unrecorded lecture from course "
+                    + blockingConflict[0] + " (Activity ID: " + blockingConflict[1] + ").");
+            AuditLog.record(studentEmail, "addCourseToStudentTimetable", course.getCourseCode(),
+                    AuditLog.Outcome.FAILURE, "Unrecorded lecture conflict");
             return false;
         }
         return true;
     }
 
-    private boolean processActivities(Course course, Timetable timetable, String studentEmail) {
-        for (Activity activity : course.getActivities()) {
-            String[] conflict = timetable.checkConflicts(
-                    activity.getStartDate(), activity.getStartTime(),
-                    activity.getEndDate(), activity.getEndTime()
-            );
-
-            if (conflict != null) {
-                if (course.isUnrecordedLecture(activity.getId())) {
-                    view.displayError("Cannot add course due to conflict with unrecorded lecture from course "
-                            + conflict[0] + " (Activity ID: " + conflict[1] + ").");
-                    LogUtil.logAction(LocalDateTime.now(), studentEmail, "addCourseToStudentTimetable",
-                            course.getCourseCode(), "FAILURE (Unrecorded lecture conflict)");
-                    return false;
-                } else {
-                    view.displayWarning("Warning: Conflict detected with course "
-                            + conflict[0] + " (Activity ID: " + conflict[1] + "). Adding course anyway.");
-                    LogUtil.logAction(LocalDateTime.now(), studentEmail, "addCourseToStudentTimetable",
-                            course.getCourseCode(), "WARNING (Conflict with another activity)");
+    /**
+     * Adds the course's activities to the timetable, stopping at the first unrecorded lecture
+     * that clashes with something. Other clashes are allowed and added to conflicts.
+     *
+     * @return the clash that stopped it, as {course code, activity ID}, or null if all were added
+     */
+    private String[] addActivitySlots(Course course, Timetable timetable, String studentEmail,
+                                      List<TimeSlot> added, List<String[]> conflicts) {
+        int firstAdded = added.size();
+        try {
+            for (Activity activity : course.getActivities()) {
+                String[] conflict = timetable.checkConflicts(activity.getTimeGrid());
+
+                if (conflict != null) {
+                    if (course.isUnrecordedLecture(activity.getId())) {
+                        return conflict;
+                    }
+                    conflicts.add(conflict);
                 }
+
+                TimeSlotStatus status = "Lecture".equals(activity.getType()) ?
+                        TimeSlotStatus.CHOSEN : TimeSlotStatus.UNCHOSEN;
+                added.add(timetable.addTimeSlot(
+                        activity.getDay(),
+                        activity.getStartMinute(),
+                        activity.getEndMinute(),
+                        course.getCode(),
+                        activity.getId(),
+                        status
+                ));
+            }
+            return null;
+        } finally {
+            // Once for the course, if any of its slots went in
+            if (added.size() > firstAdded) {
+                sharedContext.recordEnrolment(course.getCode(), studentEmail);
+            }
+        }
+    }
+
+    /**
+     * Adds courses to one student's timetable for CohortEnrolment, without any view output or
+     * per-course logging. A course that can't be added is left out of the timetable entirely.
+     */
+    EnrolmentReport.StudentResult enrolStudent(String studentEmail, List<String> courseCodes) {
+        List<EnrolmentReport.CourseResult> results = new ArrayList<>(courseCodes.size());
+        Lock lock = sharedContext.timetableLock(studentEmail);
+        lock.lock();
+        try {
+            Timetable timetable = sharedContext.getOrCreateTimetable(studentEmail);
+            for (String courseCode : courseCodes) {
+                results.add(enrolCourse(studentEmail, timetable, courseCode));
             }
+        } finally {
+            lock.unlock();
+        }
+        return new EnrolmentReport.StudentResult(studentEmail, results);
+    }
 
-            TimeSlotStatus status = "Lecture".equals(activity.getType()) ?
-                    TimeSlotStatus.CHOSEN : TimeSlotStatus.UNCHOSEN;
-            timetable.addTimeSlot(
-                    activity.getDay(),
-                    activity.getStartDate(),
-                    activity.getStartTime(),
-                    activity.getEndDate(),
-                    activity.getEndTime(),
-                    course.getCourseCode(),
-                    activity.getId(),
-                    status
-            );
+    private EnrolmentReport.CourseResult enrolCourse(String studentEmail, Timetable timetable, String courseCode) {
+        if (courseCode == null || courseCode.trim().isEmpty()) {
+            return new EnrolmentReport.CourseResult(courseCode, EnrolmentReport.Outcome.INVALID_COURSE_CODE);
         }
-        return true;
+        Course course = getCourse(courseCode);
+        if (course == null) {
+            return new EnrolmentReport.CourseResult(courseCode, EnrolmentReport.Outcome.NO_SUCH_COURSE);
+        }
+        if (timetable.hasSlotsForCourse(courseCode)) {
+            return new EnrolmentReport.CourseResult(courseCode, EnrolmentReport.Outcome.ALREADY_ENROLLED);
+        }
+
+        List<TimeSlot> added = new ArrayList<>();
+        List<String[]> conflicts = new ArrayList<>();
+        String[] blockingConflict = null;
+        try {
+            blockingConflict = addActivitySlots(course, timetable, studentEmail, added, conflicts);
+        } finally {
+            // Journaled before the check below, as in processActivities, so a concurrent removal
+            // of the course is either journaled after these slots or seen and undone here
+            if (blockingConflict == null && !added.isEmpty()) {
+                sharedContext.getStore().journal().slotsAdded(timetable, added);
+            }
+        }
+        if (blockingConflict != null) {
+            // Undo the slots already added, so the course is either wholly in the timetable or not at all
+            if (!added.isEmpty()) {
+                timetable.removeSlotsForCourse(course.getCode());
+                sharedContext.removeEnrolment(course.getCode(), studentEmail);
+            }
+            return new EnrolmentReport.CourseResult(courseCode, EnrolmentReport.Outcome.UNRECORDED_LECTURE_CLASH,
+                    Collections.singletonList(blockingConflict));
+        }
+        if (courseMap.get(course.getCode()) != course) {
+            sharedContext.removeCourseFromTimetable(studentEmail, course.getCourseCode());
+            return new EnrolmentReport.CourseResult(courseCode, EnrolmentReport.Outcome.NO_SUCH_COURSE);
+        }
+        // Clashes between the course's own activities are the same for every student, so leave them out
+        conflicts.removeIf(conflict -> conflict[0].equals(course.getCourseCode()));
+        return new EnrolmentReport.CourseResult(courseCode, conflicts.isEmpty()
+                ? EnrolmentReport.Outcome.ENROLLED : EnrolmentReport.Outcome.ENROLLED_WITH_CLASHES, conflicts);
     }
 
     private void postAdditionCheck(Course course, Timetable timetable, String studentEmail) {
-        int chosenCount = timetable.numChosenActivities(course.getCourseCode());
+        int chosenCount = timetable.numChosenActivities(course.getCode());
         int requiredSelections = course.getRequiredTutorials() + course.getRequiredLabs();
         if (chosenCount < requiredSelections) {
             view.displayWarning("You have not yet chosen all required tutorials/labs. ("
                     + chosenCount + "/" + requiredSelections + ")");
-            LogUtil.logAction(LocalDateTime.now(), studentEmail, "addCourseToStudentTimetable",
-                    course.getCourseCode(), "WARNING (Incomplete lab/tutorial selection)");
+            AuditLog.record(studentEmail, "addCourseToStudentTimetable", course.getCourseCode(),
+                    AuditLog.Outcome.WARNING, "Incomplete lab/tutorial selection");
         }
     }
 
@@ -301,38 +524,71 @@ public class CourseManager {
      * @return true if the activity was marked as chosen successfully, false otherwise
      */
     public boolean chooseActivityForCourse(String studentEmail, String courseCode, int activityId) {
+        long startNanos = System.nanoTime();
+        boolean chosen = chooseActivity(studentEmail, courseCode, activityId);
+        ActionMetrics.record("chooseActivityForCourse", startNanos, chosen);
+        return chosen;
+    }
+
+    private boolean chooseActivity(String studentEmail, String courseCode, int activityId) {
         // Validate that the course exists.
-        if (!hasCode(courseCode)) {
+        Course course = getCourse(courseCode);
+        if (course == null) {
             view.displayError("Course " + courseCode + " does not exist.");
-            LogUtil.logAction(LocalDateTime.now(), studentEmail, "chooseActivityForCourse", courseCode,
-                    "FAILURE (Course does not exist)");
+            AuditLog.record(studentEmail, "chooseActivityForCourse", courseCode,
+                    AuditLog.Outcome.FAILURE, "Course does not exist");
             return false;
         }
+        // Before locking the timetable, as the course's seats may need counting from other timetables
+        ActivitySeats.Seats seats = sharedContext.getStore().getSeats().of(course, activityId);
+
+        Lock lock = sharedContext.timetableLock(studentEmail);
+        lock.lock();
+        boolean chosen;
+        int waitlistPosition = 0;
+        try {
+            // Retrieve the student's timetable (create if it doesn't exist)
+            Timetable timetable = sharedContext.getOrCreateTimetable(studentEmail);
+
+            // Ensure that the timetable has at least one timeslot for the specified course.
+            if (!timetable.hasSlotsForCourse(courseCode)) {
+                view.displayError("Course " + courseCode + " is not in your timetable.");
+                AuditLog.record(studentEmail, "chooseActivityForCourse", courseCode,
+                        AuditLog.Outcome.FAILURE, "Course not in timetable");
+                return false;
+            }
 
-        // Retrieve the student's timetable (create if it doesn't exist)
-        Timetable timetable = sharedContext.getOrCreateTimetable(studentEmail);
+            // Take a seat unless the activity is already chosen, which keeps the one it has
+            TimeSlotStatus status = timetable.getActivityStatus(courseCode, activityId);
+            if (status == TimeSlotStatus.UNCHOSEN && seats != null) {
+                waitlistPosition = seats.takeOrWait(studentEmail);
+            }
 
-        // Ensure that the timetable has at least one timeslot for the specified course.
-        if (!timetable.hasSlotsForCourse(courseCode)) {
-            view.displayError("Course " + courseCode + " is not in your timetable.");
-            LogUtil.logAction(LocalDateTime.now(), studentEmail, "chooseActivityForCourse", courseCode,
-                    "FAILURE (Course not in timetable)");
+            // Attempt to mark the activity as chosen.
+            chosen = status != null && waitlistPosition == 0 && timetable.chooseActivity(courseCode, activityId);
+            if (chosen) {
+                sharedContext.getStore().journal().activityChosen(studentEmail, courseCode, activityId);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (waitlistPosition > 0) {
+            view.displayWarning("Activity " + activityId + " for course " + courseCode + " is full. You are number "
+                    + waitlistPosition + " on its waitlist, and it will be chosen for you when a seat is free.");
+            AuditLog.record(studentEmail, "chooseActivityForCourse", courseCode,
+                    AuditLog.Outcome.WARNING, "Activity full, added to waitlist");
             return false;
         }
-
-        // Attempt to mark the activity as chosen.
-        boolean chosen = timetable.chooseActivity(courseCode, activityId);
         if (!chosen) {
             view.displayError("Activity with ID " + activityId + " for course " + courseCode + " not found in your timetable.");
-            LogUtil.logAction(LocalDateTime.now(), studentEmail, "chooseActivityForCourse", courseCode,
-                    "FAILURE (Activity not found in timetable)");
+            AuditLog.record(studentEmail, "chooseActivityForCourse", courseCode,
+                    AuditLog.Outcome.FAILURE, "Activity not found in timetable");
             return false;
         }
 
         // Log success and notify the user.
         view.displaySuccess("Activity " + activityId + " for course " + courseCode + " has been chosen successfully.");
-        LogUtil.logAction(LocalDateTime.now(), studentEmail, "chooseActivityForCourse", courseCode,
-                "SUCCESS");
+        AuditLog.record(studentEmail, "chooseActivityForCourse", courseCode, AuditLog.Outcome.SUCCESS);
         return true;
     }
 }
\ No newline at end of file
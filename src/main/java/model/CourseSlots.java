@@ -0,0 +1,118 @@
+package model;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The time slots of one course, shared by every timetable the course is in.
+ *
+ * A timetable refers to a slot by its index here, so a slot's day, times and activity ID are
+ * stored once however many students take the course. Slots are only ever appended, so an index
+ * stays valid for as long as any timetable holds it. Each append publishes a new immutable
+ * table, so readers never lock.
+ *
+ * Each SharedStore has its own Registry of them, so stores don't share slots, and a course's
+ * slots are dropped from the registry when it is removed.
+ */
+final class CourseSlots {
+    private final CourseCode code;
+    private volatile Table table = Table.EMPTY;
+
+    private CourseSlots(CourseCode code) {
+        this.code = code;
+    }
+
+    /**
+     * The slots of every course in a store.
+     */
+    static final class Registry {
+        private final ConcurrentHashMap<CourseCode, CourseSlots> byCourse = new ConcurrentHashMap<>();
+        // Slots without a course code
+        private final CourseSlots noCourse = new CourseSlots(null);
+
+        CourseSlots of(CourseCode code) {
+            if (code == null) {
+                return noCourse;
+            }
+            CourseSlots slots = byCourse.get(code);
+            return slots != null ? slots : byCourse.computeIfAbsent(code, CourseSlots::new);
+        }
+
+        /**
+         * Drops a removed course's slots. Timetables still holding them keep their own reference,
+         * and if the code is used again the new course starts with no slots.
+         */
+        void remove(CourseCode code) {
+            if (code != null) {
+                byCourse.remove(code);
+            }
+        }
+    }
+
+    Table table() {
+        return table;
+    }
+
+    /**
+     * Returns the index of the slot with these times and activity ID, adding it if there is none.
+     */
+    int indexOf(DayOfWeek day, long startMinute, long endMinute, int activityId) {
+        int index = table.find(day, startMinute, endMinute, activityId);
+        if (index >= 0) {
+            return index;
+        }
+        synchronized (this) {
+            Table current = table;
+            index = current.find(day, startMinute, endMinute, activityId);
+            if (index < 0) {
+                index = current.slots.length;
+                table = current.with(new TimeSlot(day, startMinute, endMinute, code, activityId));
+            }
+            return index;
+        }
+    }
+
+    /**
+     * An immutable snapshot of a course's slots.
+     */
+    static final class Table {
+        static final Table EMPTY = new Table(new TimeSlot[0]);
+
+        // By index, in the order they were first added
+        final TimeSlot[] slots;
+
+        private Table(TimeSlot[] slots) {
+            this.slots = slots;
+        }
+
+        private Table with(TimeSlot slot) {
+            TimeSlot[] grown = Arrays.copyOf(slots, slots.length + 1);
+            grown[slots.length] = slot;
+            return new Table(grown);
+        }
+
+        private int find(DayOfWeek day, long startMinute, long endMinute, int activityId) {
+            for (int i = 0; i < slots.length; i++) {
+                TimeSlot slot = slots[i];
+                if (slot.getActivityId() == activityId && slot.getStartMinute() == startMinute
+                        && slot.getEndMinute() == endMinute && slot.getDay() == day) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns the index of the slot, compared by identity, or -1 if it isn't one of these.
+         */
+        int indexOf(TimeSlot slot) {
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] == slot) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.tinylog.Logger;
+import util.WriteAheadLog;
+
+/**
+ * Keeps a SharedStore on disk, so courses, timetables, the FAQ and inquiries survive a restart.
+ *
+ * Every change to the store is appended to a write-ahead log before the session that made it
+ * carries on. Once the log has grown past a threshold it is compacted in the background: the
+ * log is rolled, the latest snapshot plus the rolled segments are replayed into a scratch store,
+ * and that store is written out as a new snapshot. Sessions keep running throughout, since the
+ * live store is never read for the snapshot. Opening the directory maps the newest snapshot
+ * (see MappedSnapshot) and replays the log records after it, so startup time depends on the
+ * length of the log rather than the size of the store. The live store goes on reading entries
+ * from the snapshot it was opened with, so that file is kept until the store is closed, even
+ * once newer snapshots replace it.
+ */
+public class DurableStore implements Closeable {
+
+    public static final long DEFAULT_COMPACTION_BYTES = 64L * 1024 * 1024;
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private final Path directory;
+    private final SharedStore store;
+    private final WriteAheadLog log;
+    private final long compactionBytes;
+    private final ExecutorService compactor;
+    private final AtomicBoolean compactionQueued = new AtomicBoolean();
+
+    private DurableStore(Path directory, long compactionBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.compactionBytes = compactionBytes;
+        deleteUnfinishedSnapshots(directory);
+        // Left behind by a store that couldn't delete them when it closed
+        deleteSnapshotsBefore(directory, latestSnapshotSequence(directory));
+
+        MappedSnapshot snapshot = latestSnapshot(directory);
+        SharedStore recovered = snapshot == null ? new SharedStore() : new SharedStore(snapshot);
+        long snapshotSequence = snapshot == null ? 0 : snapshot.sequence();
+        this.log = new WriteAheadLog(directory, snapshotSequence,
+                (sequence, payload) -> StoreCodec.apply(recovered, payload));
+        this.store = recovered;
+        // Only now, so replaying the log doesn't write it out again
+        store.setJournal(new Journal());
+
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "store-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens the store kept in the directory, creating an empty one if there is none.
+     */
+    public static DurableStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_COMPACTION_BYTES);
+    }
+
+    /**
+     * Opens the store, compacting the log whenever its newest segment reaches the given size.
+     */
+    public static DurableStore open(Path directory, long compactionBytes) throws IOException {
+        return new DurableStore(directory, compactionBytes);
+    }
+
+    public SharedStore getStore() {
+        return store;
+    }
+
+    /**
+     * Writes a snapshot of everything logged so far and deletes the log segments it replaces.
+     */
+    public synchronized void compact() throws IOException {
+        long snapshotSequence = latestSnapshotSequence(directory);
+        if (log.nextSequence() == snapshotSequence) {
+            return;
+        }
+        long upTo = log.roll();
+
+        MappedSnapshot previous = latestSnapshot(directory);
+        SharedStore scratch = previous == null ? new SharedStore() : new SharedStore(previous);
+        try {
+            long from = previous == null ? 0 : previous.sequence();
+            WriteAheadLog.read(directory, from, upTo, (sequence, payload) -> StoreCodec.apply(scratch, payload));
+            writeSnapshot(scratch, upTo);
+        } finally {
+            scratch.getFAQManager().getSearchIndex().close();
+        }
+
+        // Anything before the new snapshot is now redundant, except the one the live store reads from
+        MappedSnapshot live = store.snapshot();
+        Path mapped = live == null ? null : snapshotPath(directory, live.sequence());
+        for (Path snapshot : listSnapshots(directory)) {
+            if (snapshotSequence(snapshot) < upTo && !snapshot.equals(mapped)) {
+                Files.deleteIfExists(snapshot);
+            }
+        }
+        log.deleteSegmentsBefore(upTo);
+    }
+
+    private void append(byte[] record) {
+        try {
+            log.append(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save change to " + directory, e);
+        }
+        if (log.currentSegmentBytes() >= compactionBytes && compactionQueued.compareAndSet(false, true)) {
+            compactor.execute(() -> {
+                try {
+                    compact();
+                } catch (IOException | RuntimeException e) {
+                    Logger.error(e, "Compacting the store in {} failed", directory);
+                } finally {
+                    compactionQueued.set(false);
+                }
+            });
+        }
+    }
+
+    private void writeSnapshot(SharedStore snapshot, long sequence) throws IOException {
+        Path target = snapshotPath(directory, sequence);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        MappedSnapshot.write(temporary, snapshot, sequence);
+        // A crash leaves either the old snapshot or the complete new one, never half of it
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Maps the newest snapshot in the directory, or returns null if there is none.
+     */
+    private static MappedSnapshot latestSnapshot(Path directory) throws IOException {
+        List<Path> snapshots = listSnapshots(directory);
+        return snapshots.isEmpty() ? null : MappedSnapshot.open(snapshots.get(snapshots.size() - 1));
+    }
+
+    /**
+     * Deletes snapshots a crash stopped half way through writing.
+     */
+    private static void deleteUnfinishedSnapshots(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX + ".tmp")) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the snapshots older than the given sequence, logging any that can't be deleted yet.
+     */
+    private static void deleteSnapshotsBefore(Path directory, long sequence) throws IOException {
+        for (Path snapshot : listSnapshots(directory)) {
+            if (snapshotSequence(snapshot) < sequence) {
+                try {
+                    Files.deleteIfExists(snapshot);
+                } catch (IOException e) {
+                    Logger.warn(e, "Could not delete old snapshot {}", snapshot);
+                }
+            }
+        }
+    }
+
+    private static long latestSnapshotSequence(Path directory) throws IOException {
+        List<Path> snapshots = listSnapshots(directory);
+        return snapshots.isEmpty() ? 0 : snapshotSequence(snapshots.get(snapshots.size() - 1));
+    }
+
+    private static List<Path> listSnapshots(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+            }).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static long snapshotSequence(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+
+    private static Path snapshotPath(Path directory, long sequence) {
+        // Zero-padded so snapshots sort by name in sequence order
+        return directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+    }
+
+    /**
+     * Waits for any compaction in progress, then closes the log and deletes the snapshots a
+     * newer one has replaced. Every change made before the call is on disk when it returns.
+     */
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            if (!compactor.awaitTermination(1, TimeUnit.MINUTES)) {
+                Logger.warn("Store compaction did not finish before shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        store.setJournal(StoreJournal.NONE);
+        log.close();
+        deleteSnapshotsBefore(directory, latestSnapshotSequence(directory));
+    }
+
+    /**
+     * Turns each change to the store into a log record.
+     */
+    private final class Journal implements StoreJournal {
+
+        @Override
+        public void courseAdded(Course course) {
+            append(StoreCodec.courseAdded(course));
+        }
+
+        @Override
+        public void coursesAdded(List<Course> courses) {
+            append(StoreCodec.coursesAdded(courses));
+        }
+
+        @Override
+        public void activityAdded(String courseCode, Activity activity) {
+            append(StoreCodec.activityAdded(courseCode, activity));
+        }
+
+        @Override
+        public void courseRemoved(String courseCode) {
+            append(StoreCodec.courseRemoved(courseCode));
+        }
+
+        @Override
+        public void slotsAdded(Timetable timetable, List<TimeSlot> slots) {
+            append(StoreCodec.slotsAdded(timetable, slots));
+        }
+
+        @Override
+        public void activityChosen(String studentEmail, String courseCode, int activityId) {
+            append(StoreCodec.activityChosen(studentEmail, courseCode, activityId));
+        }
+
+        @Override
+        public void timetableCourseRemoved(String studentEmail, String courseCode) {
+            append(StoreCodec.timetableCourseRemoved(studentEmail, courseCode));
+        }
+
+        @Override
+        public void faqSectionAdded(FAQSection section) {
+            append(StoreCodec.faqSectionAdded(store.getFAQManager(), section));
+        }
+
+        @Override
+        public void faqItemsAdded(FAQSection section, List<FAQItem> items) {
+            append(StoreCodec.faqItemsAdded(store.getFAQManager(), section, items));
+        }
+
+        @Override
+        public void faqItemRemoved(FAQSection section, int itemId) {
+            append(StoreCodec.faqItemRemoved(store.getFAQManager(), section, itemId));
+        }
+
+        @Override
+        public void inquiryAdded(Inquiry inquiry) {
+            append(StoreCodec.inquiryAdded(inquiry));
+        }
+
+        @Override
+        public void inquiryRemoved(Inquiry inquiry) {
+            append(StoreCodec.inquiryRemoved(inquiry));
+        }
+
+        @Override
+        public void inquiryAssigned(Inquiry inquiry) {
+            append(StoreCodec.inquiryAssigned(inquiry));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of a CohortEnrolment: for each student, what happened to each course they were
+ * to be enrolled on. Results are in the order the students first appeared in the request.
+ */
+public class EnrolmentReport {
+
+    /**
+     * What happened to one (student, course) pair.
+     */
+    public enum Outcome {
+        ENROLLED,
+        // Added, but some activities clash with the student's other activities
+        ENROLLED_WITH_CLASHES,
+        ALREADY_ENROLLED,
+        INVALID_COURSE_CODE,
+        NO_SUCH_COURSE,
+        // Not added: one of the course's unrecorded lectures clashes with the timetable
+        UNRECORDED_LECTURE_CLASH;
+
+        public boolean isEnrolled() {
+            return this == ENROLLED || this == ENROLLED_WITH_CLASHES;
+        }
+    }
+
+    public static class CourseResult {
+        private final String courseCode;
+        private final Outcome outcome;
+        private final List<String[]> clashes;
+
+        CourseResult(String courseCode, Outcome outcome) {
+            this(courseCode, outcome, List.of());
+        }
+
+        CourseResult(String courseCode, Outcome outcome, List<String[]> clashes) {
+            this.courseCode = courseCode;
+            this.outcome = outcome;
+            this.clashes = clashes;
+        }
+
+        public String getCourseCode() {
+            return courseCode;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * Returns the timetable activities the course clashes with, each as {course code, activity ID}.
+         */
+        public List<String[]> getClashes() {
+            return clashes;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(courseCode + ": " + outcome);
+            for (String[] clash : clashes) {
+                sb.append(" (").append(clash[0]).append(" activity ").append(clash[1]).append(')');
+            }
+            return sb.toString();
+        }
+    }
+
+    public static class StudentResult {
+        private final String studentEmail;
+        private final List<CourseResult> courses;
+
+        StudentResult(String studentEmail, List<CourseResult> courses) {
+            this.studentEmail = studentEmail;
+            this.courses = courses;
+        }
+
+        public String getStudentEmail() {
+            return studentEmail;
+        }
+
+        public List<CourseResult> getCourses() {
+            return courses;
+        }
+
+        @Override
+        public String toString() {
+            return studentEmail + " " + courses;
+        }
+    }
+
+    private final List<StudentResult> students;
+    private final long elapsedNanos;
+
+    EnrolmentReport(List<StudentResult> students, long elapsedNanos) {
+        this.students = Collections.unmodifiableList(students);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public List<StudentResult> getStudents() {
+        return students;
+    }
+
+    /**
+     * Returns the results that weren't successful enrolments.
+     */
+    public List<StudentResult> getFailures() {
+        List<StudentResult> failures = new ArrayList<>();
+        for (StudentResult student : students) {
+            for (CourseResult course : student.courses) {
+                if (!course.outcome.isEnrolled()) {
+                    failures.add(student);
+                    break;
+                }
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Returns how many (student, course) pairs had each outcome.
+     */
+    public Map<Outcome, Integer> countByOutcome() {
+        Map<Outcome, Integer> counts = new EnumMap<>(Outcome.class);
+        for (StudentResult student : students) {
+            for (CourseResult course : student.courses) {
+                counts.merge(course.outcome, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d students, %s, %.1f ms", students.size(), countByOutcome(), elapsedNanos / 1e6);
+    }
+}
@@ -1,10 +1,10 @@
 package model;
 
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class FAQ {
-    private final List<FAQSection> sections = new LinkedList<>();
+    private final List<FAQSection> sections = new CopyOnWriteArrayList<>();
 
     public void addSection(FAQSection section) {
         sections.add(section);
@@ -4,7 +4,7 @@ public class FAQItem {
     private final int id;
     private final String question;
     private final String answer;
-    private final String courseTag;
+    private final CourseCode courseTag;
 
     public FAQItem(int id, String question, String answer) {
         this.id = id;
@@ -17,7 +17,7 @@ public class FAQItem {
         this.id = id;
         this.question = question;
         this.answer = answer;
-        this.courseTag = courseTag;
+        this.courseTag = CourseCode.of(courseTag);
     }
 
     public int getId() {
@@ -33,11 +33,15 @@ public class FAQItem {
     }
 
     public String getCourseTag() {
+        return courseTag == null ? null : courseTag.toString();
+    }
+
+    public CourseCode getTag() {
         return courseTag;
     }
 
     public boolean hasTag(String courseTag) {
-        return this.courseTag != null && this.courseTag.equals(courseTag);
+        return this.courseTag != null && this.courseTag == CourseCode.lookup(courseTag);
     }
 }
 
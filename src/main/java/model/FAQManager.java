@@ -1,24 +1,48 @@
 package model;
 
+import java.io.IOException;
 import java.util.*;
+import util.IndexedList;
 import model.*;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
 import view.View;
 
 public class FAQManager {
     private final FAQ faq;
-    private final List<FAQSection> sections = new LinkedList<>();
+    // Top-level sections by position and by topic; browsed by many sessions and added rarely
+    private final IndexedList<String, FAQSection> sections = new IndexedList<>(FAQSection::getTopic);
     private final View view;
     private SharedContext sharedContext;
+    private final FAQSearchIndex searchIndex = new FAQSearchIndex();
+    private final FAQTagIndex tagIndex = new FAQTagIndex();
+    private volatile StoreJournal journal = StoreJournal.NONE;
+
+    public FAQManager() {
+        this(null);
+    }
 
     public FAQManager(View view) {
         this.faq = new FAQ();
         this.view = view;
     }
 
-    public void addSection(String topic){
+    public FAQSection addSection(String topic){
         FAQSection section = new FAQSection(topic);
-        sections.add(section);
+        // One at a time, so sections are journaled in the order they appear in the list
+        synchronized (sections) {
+            sections.add(section);
+        }
         section.setParent(null);
+        section.attachTo(this);
+        return section;
+    }
+
+    /**
+     * Returns the first top-level section with the topic, or null if there is none.
+     */
+    public FAQSection getSection(String topic) {
+        return sections.getByKey(topic);
     }
 
     // dont think i need to implement this since team size of 3
@@ -35,6 +59,62 @@ public class FAQManager {
         return sections;
     }
 
+    void setJournal(StoreJournal journal) {
+        this.journal = journal;
+    }
+
+    void sectionAttached(FAQSection section) {
+        journal.faqSectionAdded(section);
+    }
+
+    void itemAdded(FAQSection section, FAQItem item) {
+        tagIndex.add(section, item);
+        searchIndex.add(section, item);
+        journal.faqItemsAdded(section, Collections.singletonList(item));
+    }
+
+    void itemsAdded(FAQSection section, List<FAQItem> items) {
+        for (FAQItem item : items) {
+            tagIndex.add(section, item);
+        }
+        searchIndex.addAll(section, items);
+        journal.faqItemsAdded(section, items);
+    }
+
+    void itemRemoved(FAQSection section, FAQItem item) {
+        tagIndex.remove(section, item);
+        searchIndex.remove(item);
+        journal.faqItemRemoved(section, item.getId());
+    }
+
+    /**
+     * Returns the section's items tagged with the course code.
+     */
+    public List<FAQItem> getItemsByTag(FAQSection section, String courseTag) {
+        return tagIndex.get(section, courseTag);
+    }
+
+    /**
+     * Returns every item in the FAQ tagged with the course code, grouped by section.
+     */
+    public Map<FAQSection, List<FAQItem>> getAllItemsByTag(String courseTag) {
+        return tagIndex.getAll(courseTag);
+    }
+
+    /**
+     * Searches the question, answer and topic of every FAQ item and returns the best matches.
+     *
+     * @param courseTag if not null, only items tagged with this course are returned
+     */
+    public List<FAQSearchResult> search(String query, String courseTag, int maxResults)
+            throws IOException, ParseException, InvalidTokenOffsetsException {
+        return searchIndex.search(query, courseTag, maxResults);
+    }
+
+    public FAQSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
     public FAQ getFAQ() {
         return this.faq;
     }
@@ -0,0 +1,148 @@
+package model;
+
+import org.tinylog.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Loads a directory of help-desk pages into the FAQ, such as the ones in sample_pages.
+ * Each page is a .txt file whose name is the question and whose contents are the answer.
+ *
+ * Pages are read and parsed in parallel on a fork-join pool, then added to one FAQ section
+ * in a single batch, so they go through the FAQ's one index writer together.
+ */
+public class FAQPageLoader {
+    private static final String PAGE_EXTENSION = ".txt";
+
+    private final ForkJoinPool pool;
+
+    public FAQPageLoader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public FAQPageLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Loads every page in the directory into a new top-level section of the FAQ with the given topic.
+     * If the FAQ already has a top-level section with that topic, the pages are added to it instead.
+     */
+    public LoadReport load(Path directory, FAQManager faqManager, String topic) throws IOException {
+        long startNanos = System.nanoTime();
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                    .filter(Files::isRegularFile)
+                    .filter(file -> file.getFileName().toString().endsWith(PAGE_EXTENSION))
+                    .collect(Collectors.toList());
+        }
+
+        AtomicInteger failures = new AtomicInteger();
+        List<String[]> pages;
+        try {
+            pages = pool.submit(() -> files.parallelStream()
+                    .map(file -> {
+                        try {
+                            return parse(file);
+                        } catch (IOException | UncheckedIOException e) {
+                            Logger.warn(e, "Could not read FAQ page {}", file);
+                            failures.incrementAndGet();
+                            return null;
+                        }
+                    })
+                    .filter(page -> page != null && !page[1].isEmpty())
+                    // Same order on every run, whatever order the directory lists in
+                    .sorted(Comparator.comparing((String[] page) -> page[0]))
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading FAQ pages from " + directory, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not load FAQ pages from " + directory, e.getCause());
+        }
+        long parsedNanos = System.nanoTime();
+
+        FAQSection section = findOrAddSection(faqManager, topic);
+        section.addItems(pages);
+        long endNanos = System.nanoTime();
+
+        LoadReport report = new LoadReport(files.size(), pages.size(), failures.get(),
+                parsedNanos - startNanos, endNanos - parsedNanos);
+        Logger.info("Loaded FAQ pages from {}: {}", directory, report);
+        return report;
+    }
+
+    /**
+     * Reads a page, returning its question and answer.
+     */
+    static String[] parse(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        String question = name.substring(0, name.length() - PAGE_EXTENSION.length()).trim();
+        String answer = Files.readString(file, StandardCharsets.UTF_8).strip();
+        return new String[]{question, answer};
+    }
+
+    private static FAQSection findOrAddSection(FAQManager faqManager, String topic) {
+        FAQSection section = faqManager.getSection(topic);
+        return section != null ? section : faqManager.addSection(topic);
+    }
+
+    /**
+     * How many pages were loaded and how long it took.
+     */
+    public static class LoadReport {
+        private final int filesFound;
+        private final int pagesLoaded;
+        private final int failures;
+        private final long parseNanos;
+        private final long indexNanos;
+
+        LoadReport(int filesFound, int pagesLoaded, int failures, long parseNanos, long indexNanos) {
+            this.filesFound = filesFound;
+            this.pagesLoaded = pagesLoaded;
+            this.failures = failures;
+            this.parseNanos = parseNanos;
+            this.indexNanos = indexNanos;
+        }
+
+        public int getFilesFound() {
+            return filesFound;
+        }
+
+        public int getPagesLoaded() {
+            return pagesLoaded;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        public long getTotalNanos() {
+            return parseNanos + indexNanos;
+        }
+
+        public double pagesPerSecond() {
+            long total = getTotalNanos();
+            return total == 0 ? 0 : pagesLoaded * 1_000_000_000.0 / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d/%d pages loaded, %d failed, parse %.1f ms, index %.1f ms, %.0f pages/s",
+                    pagesLoaded, filesFound, failures, parseNanos / 1e6, indexNanos / 1e6, pagesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package model;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.*;
+import org.apache.lucene.search.highlight.*;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full-text index over the question, answer and section topic of every FAQ item.
+ * Sections attached to an index keep it up to date as items are added and removed,
+ * so a search only looks at matching documents instead of walking the whole FAQ tree.
+ */
+public class FAQSearchIndex implements Closeable {
+    private static final String KEY = "key";
+    private static final String QUESTION = "question";
+    private static final String ANSWER = "answer";
+    private static final String TOPIC = "topic";
+    private static final String COURSE_TAG = "courseTag";
+    private static final int SNIPPET_LENGTH = 120;
+    // Matches are marked with asterisks, since results are shown in a terminal
+    private static final Formatter SNIPPET_FORMATTER = new SimpleHTMLFormatter("*", "*");
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(QUESTION, 2.0f, TOPIC, 1.5f, ANSWER, 1.0f);
+
+    private final Directory directory;
+    private final Analyzer analyzer;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    // Every indexed item, by the key of its document
+    private final Map<Long, IndexedItem> items = new ConcurrentHashMap<>();
+    // FAQItem uses identity equality, so this finds the document for exactly that item
+    private final Map<FAQItem, Long> keysByItem = new ConcurrentHashMap<>();
+    private final AtomicLong nextKey = new AtomicLong();
+    // Set by every change; the next search refreshes its view of the index first
+    private volatile boolean stale;
+
+    /**
+     * Creates an index held in memory.
+     */
+    public FAQSearchIndex() {
+        this(new ByteBuffersDirectory());
+    }
+
+    public FAQSearchIndex(Directory directory) {
+        try {
+            this.directory = directory;
+            this.analyzer = new StandardAnalyzer();
+            this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+            this.searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open FAQ search index", e);
+        }
+    }
+
+    /**
+     * Indexes an item that has just been added to the section.
+     */
+    void add(FAQSection section, FAQItem item) {
+        try {
+            writer.addDocument(toDocument(section, item));
+            stale = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not index FAQ item", e);
+        }
+    }
+
+    /**
+     * Indexes many items added to the section at once. Documents are analysed in parallel
+     * through the one shared writer.
+     */
+    void addAll(FAQSection section, List<FAQItem> added) {
+        added.parallelStream().forEach(item -> {
+            try {
+                writer.addDocument(toDocument(section, item));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not index FAQ item", e);
+            }
+        });
+        stale = true;
+    }
+
+    private Document toDocument(FAQSection section, FAQItem item) {
+        long key = nextKey.getAndIncrement();
+        Document document = new Document();
+        document.add(new StringField(KEY, Long.toString(key), Field.Store.YES));
+        document.add(new TextField(QUESTION, item.getQuestion(), Field.Store.NO));
+        document.add(new TextField(ANSWER, item.getAnswer(), Field.Store.NO));
+        document.add(new TextField(TOPIC, section.getTopic(), Field.Store.NO));
+        if (item.getCourseTag() != null) {
+            document.add(new StringField(COURSE_TAG, item.getCourseTag(), Field.Store.NO));
+        }
+        items.put(key, new IndexedItem(section, item));
+        keysByItem.put(item, key);
+        return document;
+    }
+
+    /**
+     * Drops an item that has just been removed from its section.
+     */
+    void remove(FAQItem item) {
+        Long key = keysByItem.remove(item);
+        if (key == null) {
+            return;
+        }
+        items.remove(key);
+        try {
+            writer.deleteDocuments(new Term(KEY, Long.toString(key)));
+            stale = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not remove FAQ item from index", e);
+        }
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Returns the best matches for the query, most relevant first.
+     * Lucene query syntax is accepted; text that isn't valid syntax is searched for literally.
+     *
+     * @param courseTag if not null, only items tagged with this course are returned
+     */
+    public List<FAQSearchResult> search(String queryText, String courseTag, int maxResults)
+            throws IOException, ParseException, InvalidTokenOffsetsException {
+        Query query = parse(queryText);
+        Query filtered = query;
+        if (courseTag != null) {
+            // Tags are indexed in canonical form
+            CourseCode tag = CourseCode.lookup(courseTag);
+            String term = tag == null ? courseTag : tag.toString();
+            filtered = new BooleanQuery.Builder()
+                    .add(query, BooleanClause.Occur.MUST)
+                    .add(new TermQuery(new Term(COURSE_TAG, term)), BooleanClause.Occur.FILTER)
+                    .build();
+        }
+
+        Highlighter highlighter = new Highlighter(SNIPPET_FORMATTER, new QueryTermScorer(query));
+        highlighter.setTextFragmenter(new SimpleFragmenter(SNIPPET_LENGTH));
+
+        if (stale) {
+            // Cleared first, so changes made during the refresh mark it stale again
+            stale = false;
+            searcherManager.maybeRefreshBlocking();
+        }
+
+        List<FAQSearchResult> results = new ArrayList<>();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs topDocs = searcher.search(filtered, maxResults);
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                String key = searcher.storedFields().document(scoreDoc.doc).get(KEY);
+                IndexedItem indexed = items.get(Long.parseLong(key));
+                if (indexed == null) {
+                    // Removed after this searcher was opened
+                    continue;
+                }
+                FAQItem item = indexed.item;
+                results.add(new FAQSearchResult(indexed.section, item, scoreDoc.score,
+                        snippet(highlighter, QUESTION, item.getQuestion()),
+                        snippet(highlighter, ANSWER, item.getAnswer())));
+            }
+        } finally {
+            searcherManager.release(searcher);
+        }
+        return results;
+    }
+
+    private Query parse(String queryText) throws ParseException {
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(
+                new String[]{QUESTION, ANSWER, TOPIC}, analyzer, FIELD_BOOSTS);
+        try {
+            return parser.parse(queryText);
+        } catch (ParseException e) {
+            return parser.parse(QueryParser.escape(queryText));
+        }
+    }
+
+    private String snippet(Highlighter highlighter, String field, String text)
+            throws IOException, InvalidTokenOffsetsException {
+        String fragment = highlighter.getBestFragment(analyzer, field, text);
+        if (fragment != null) {
+            return fragment;
+        }
+        return text.length() <= SNIPPET_LENGTH ? text : text.substring(0, SNIPPET_LENGTH) + "...";
+    }
+
+    @Override
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private static final class IndexedItem {
+        final FAQSection section;
+        final FAQItem item;
+
+        IndexedItem(FAQSection section, FAQItem item) {
+            this.section = section;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package model;
+
+/**
+ * One FAQ item matched by a search, with the section it belongs to and highlighted snippets.
+ */
+public class FAQSearchResult {
+    private final FAQSection section;
+    private final FAQItem item;
+    private final float score;
+    private final String questionSnippet;
+    private final String answerSnippet;
+
+    public FAQSearchResult(FAQSection section, FAQItem item, float score,
+                           String questionSnippet, String answerSnippet) {
+        this.section = section;
+        this.item = item;
+        this.score = score;
+        this.questionSnippet = questionSnippet;
+        this.answerSnippet = answerSnippet;
+    }
+
+    public FAQSection getSection() {
+        return section;
+    }
+
+    public FAQItem getItem() {
+        return item;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the question with matching terms marked with asterisks.
+     */
+    public String getQuestionSnippet() {
+        return questionSnippet;
+    }
+
+    /**
+     * Returns the best-matching part of the answer with matching terms marked with asterisks.
+     */
+    public String getAnswerSnippet() {
+        return answerSnippet;
+    }
+}
@@ -1,58 +1,163 @@
 package model;
 
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import util.IndexedList;
 
 public class FAQSection {
     private final String topic;
-    private final List<FAQItem> items = new LinkedList<>();
+    // Items by position and by ID; browsed by many sessions and edited rarely
+    private final IndexedList<Integer, FAQItem> items = new IndexedList<>(FAQItem::getId);
+    // IDs are never reused, so an ID keeps referring to the same item after others are removed
+    private final AtomicInteger nextId = new AtomicInteger();
     private FAQSection parent;
-    private final List<FAQSection> subsections = new LinkedList<>();
+    private final IndexedList<String, FAQSection> subsections = new IndexedList<>(FAQSection::getTopic);
+    // Set once the section is part of an FAQ, so its items are indexed for searching and filtering
+    private volatile FAQManager owner;
 
     public FAQSection(String topic) {
         this.topic = topic;
     }
 
     public void addSubsection(FAQSection section) {
-        subsections.add(section);
-        section.parent = this;
+        // One at a time, so subsections are journaled in the order they appear in the list
+        synchronized (subsections) {
+            subsections.add(section);
+            section.parent = this;
+            if (owner != null) {
+                section.attachTo(owner);
+            }
+        }
+    }
+
+    /**
+     * Makes this section and its subsections part of the manager's FAQ. Their items are
+     * indexed now, and the manager is told about every item added or removed from now on.
+     */
+    void attachTo(FAQManager manager) {
+        if (owner == manager) {
+            return;
+        }
+        owner = manager;
+        manager.sectionAttached(this);
+        if (!items.isEmpty()) {
+            manager.itemsAdded(this, new ArrayList<>(items));
+        }
+        for (FAQSection subsection : subsections) {
+            subsection.attachTo(manager);
+        }
     }
 
     // add item without courseTag
     public void addItem(String question, String answer) {
-        int id = items.size();
-        items.add(new FAQItem(id, question, answer));
+        int id = nextId.getAndIncrement();
+        addToSection(new FAQItem(id, question, answer));
     }
 
     // add item with courseTag
     public void addItem(String question, String answer, String courseTag) {
-        int id = items.size();
-        items.add(new FAQItem(id, question, answer, courseTag));
-        System.out.println(items.size());
+        int id = nextId.getAndIncrement();
+        addToSection(new FAQItem(id, question, answer, courseTag));
+    }
+
+    /**
+     * Adds several question-answer pairs at once, without course tags.
+     * Cheaper than calling addItem for each when loading many items.
+     */
+    public void addItems(List<String[]> questionsAndAnswers) {
+        List<FAQItem> added = new ArrayList<>(questionsAndAnswers.size());
+        int id = nextId.getAndAdd(questionsAndAnswers.size());
+        for (String[] pair : questionsAndAnswers) {
+            added.add(new FAQItem(id++, pair[0], pair[1]));
+        }
+        addAllToSection(added);
+    }
+
+    /**
+     * Puts back items read from the persistent store, keeping their IDs.
+     */
+    void restoreItems(List<FAQItem> restored) {
+        for (FAQItem item : restored) {
+            nextId.accumulateAndGet(item.getId() + 1, Math::max);
+        }
+        addAllToSection(restored);
+    }
+
+    int getNextItemId() {
+        return nextId.get();
+    }
+
+    void setNextItemId(int id) {
+        nextId.set(id);
+    }
+
+    // Changes are made one at a time, so the journal sees items in the order they appear in the list
+    private synchronized void addAllToSection(List<FAQItem> added) {
+        if (added.isEmpty()) {
+            return;
+        }
+        // One copy of the backing array, however many items there are
+        items.addAll(added);
+        FAQManager manager = owner;
+        if (manager != null) {
+            manager.itemsAdded(this, added);
+        }
+    }
+
+    private synchronized void addToSection(FAQItem item) {
+        items.add(item);
+        FAQManager manager = owner;
+        if (manager != null) {
+            manager.itemAdded(this, item);
+        }
     }
 
     // removes item using the ID
-    public boolean removeItem(int itemID) {
-        Iterator<FAQItem> it = items.iterator();
-        while (it.hasNext()) {
-            if (it.next().getId() == itemID) {
-                it.remove();
-                return true;
-            }
+    public synchronized boolean removeItem(int itemID) {
+        FAQItem removed = items.removeByKey(itemID);
+        if (removed == null) {
+            return false;
         }
-        return false;
+        FAQManager manager = owner;
+        if (manager != null) {
+            manager.itemRemoved(this, removed);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the item with the ID, or null if this section has none.
+     */
+    public FAQItem getItem(int itemID) {
+        return items.getByKey(itemID);
     }
 
     public String getItemsByTag(String courseCode) {
         StringBuilder result = new StringBuilder();
+        for (FAQItem item : getTaggedItems(courseCode)) {
+            result.append(item.getQuestion()).append("\n");
+            result.append(item.getAnswer()).append("\n\n");
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns this section's items tagged with the course code, in the order they were added.
+     */
+    public List<FAQItem> getTaggedItems(String courseCode) {
+        FAQManager manager = owner;
+        if (manager != null) {
+            return manager.getItemsByTag(this, courseCode);
+        }
+        // Not part of an FAQ yet, so not indexed
+        List<FAQItem> tagged = new ArrayList<>();
         for (FAQItem item : items) {
             if (item.hasTag(courseCode)) {
-                result.append(item.getQuestion()).append("\n");
-                result.append(item.getAnswer()).append("\n\n");
+                tagged.add(item);
             }
         }
-        return result.toString();
+        return tagged;
     }
 
     public boolean hasTopic(String topic) {
@@ -63,6 +168,13 @@ public class FAQSection {
         return subsections;
     }
 
+    /**
+     * Returns the first subsection with the topic, or null if there is none.
+     */
+    public FAQSection getSubsection(String topic) {
+        return subsections.getByKey(topic);
+    }
+
     public String getTopic() {
         return topic;
     }
@@ -0,0 +1,84 @@
+package model;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Course tag -> FAQ items, across every section of an FAQ. Filtering a section by course,
+ * or listing everything for a course, is a lookup instead of a scan over every item.
+ */
+class FAQTagIndex {
+
+    private static final class TagBucket {
+        // Sections in the order they first got an item with this tag
+        final List<FAQSection> sections = new CopyOnWriteArrayList<>();
+        final Map<FAQSection, List<FAQItem>> itemsBySection = new ConcurrentHashMap<>();
+    }
+
+    private final Map<CourseCode, TagBucket> buckets = new ConcurrentHashMap<>();
+
+    void add(FAQSection section, FAQItem item) {
+        CourseCode tag = item.getTag();
+        if (tag == null) {
+            return;
+        }
+        TagBucket bucket = buckets.computeIfAbsent(tag, key -> new TagBucket());
+        synchronized (bucket) {
+            List<FAQItem> items = bucket.itemsBySection.get(section);
+            if (items == null) {
+                items = new CopyOnWriteArrayList<>();
+                bucket.itemsBySection.put(section, items);
+                bucket.sections.add(section);
+            }
+            items.add(item);
+        }
+    }
+
+    void remove(FAQSection section, FAQItem item) {
+        CourseCode tag = item.getTag();
+        TagBucket bucket = tag == null ? null : buckets.get(tag);
+        if (bucket == null) {
+            return;
+        }
+        synchronized (bucket) {
+            List<FAQItem> items = bucket.itemsBySection.get(section);
+            if (items != null && items.remove(item) && items.isEmpty()) {
+                bucket.itemsBySection.remove(section);
+                bucket.sections.remove(section);
+            }
+        }
+    }
+
+    private TagBucket bucketFor(String courseTag) {
+        CourseCode tag = CourseCode.lookup(courseTag);
+        return tag == null ? null : buckets.get(tag);
+    }
+
+    /**
+     * Returns the section's items tagged with the course, in the order they were added.
+     */
+    List<FAQItem> get(FAQSection section, String courseTag) {
+        TagBucket bucket = bucketFor(courseTag);
+        List<FAQItem> items = bucket == null ? null : bucket.itemsBySection.get(section);
+        return items == null ? Collections.emptyList() : Collections.unmodifiableList(items);
+    }
+
+    /**
+     * Returns every item tagged with the course, grouped by section.
+     */
+    Map<FAQSection, List<FAQItem>> getAll(String courseTag) {
+        TagBucket bucket = bucketFor(courseTag);
+        if (bucket == null) {
+            return Collections.emptyMap();
+        }
+        Map<FAQSection, List<FAQItem>> result = new LinkedHashMap<>();
+        for (FAQSection section : bucket.sections) {
+            List<FAQItem> items = bucket.itemsBySection.get(section);
+            if (items != null && !items.isEmpty()) {
+                result.put(section, Collections.unmodifiableList(items));
+            }
+        }
+        return result;
+    }
+}
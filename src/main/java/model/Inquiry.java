@@ -1,8 +1,11 @@
 package model;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 public class Inquiry {
+    // Identifies the inquiry in the persistent store, where object identity doesn't survive a restart
+    private final String id;
     private final LocalDateTime createdAt;
     private final String inquirerEmail;
     private final String subject;
@@ -10,12 +13,24 @@ public class Inquiry {
     private String assignedTo;
 
     public Inquiry(String inquirerEmail, String subject, String content) {
-        this.createdAt = LocalDateTime.now();
+        this(UUID.randomUUID().toString(), LocalDateTime.now(), inquirerEmail, subject, content);
+    }
+
+    /**
+     * Recreates an inquiry read back from the persistent store.
+     */
+    Inquiry(String id, LocalDateTime createdAt, String inquirerEmail, String subject, String content) {
+        this.id = id;
+        this.createdAt = createdAt;
         this.inquirerEmail = inquirerEmail;
         this.subject = subject;
         this.content = content;
     }
 
+    public String getId() {
+        return id;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,473 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import util.SnapshotBackedMap;
+
+/**
+ * A snapshot of a SharedStore, memory-mapped and read on demand.
+ *
+ * Courses, timetables and enrolments are stored as separate records, each with an open-addressing
+ * hash table from key to record, so one can be found and decoded without reading any other.
+ * Opening a snapshot reads only its header: a store built on it loads a student's timetable when
+ * they first use it, and a course when it is first looked at. The FAQ and inquiries are small and
+ * are read in full.
+ *
+ * Layout: a header (magic, version, sequence, then the positions of the three tables, the FAQ and
+ * the inquiries), the records, the FAQ, the inquiries and the tables. A record is its length
+ * followed by its encoding, which starts with its key. A table is its entry count, its size (a
+ * power of two) and one record position per slot, 0 for an empty slot.
+ */
+final class MappedSnapshot {
+
+    private static final int MAGIC = 0x53455050;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 36;
+
+    private final ByteBuffer buffer;
+    private final long sequence;
+    private final Table courses;
+    private final Table timetables;
+    private final Table enrolments;
+    private final int faqPosition;
+    private final int inquiriesPosition;
+
+    private MappedSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a store snapshot");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        this.sequence = buffer.getLong(8);
+        this.courses = new Table(buffer.getInt(16));
+        this.timetables = new Table(buffer.getInt(20));
+        this.enrolments = new Table(buffer.getInt(24));
+        this.faqPosition = buffer.getInt(28);
+        this.inquiriesPosition = buffer.getInt(32);
+    }
+
+    /**
+     * Maps the snapshot file. Keep the file until nothing reads from the snapshot any more.
+     */
+    static MappedSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + file + " is too large to map");
+            }
+            MappedByteBuffer contents = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedSnapshot(contents);
+        }
+    }
+
+    /**
+     * Returns the sequence number of the first journal record the snapshot does not include.
+     */
+    long sequence() {
+        return sequence;
+    }
+
+    Course course(CourseCode courseCode) {
+        int position = courses.find(courseCode.toString());
+        if (position == 0) {
+            return null;
+        }
+        try {
+            return StoreCodec.readCourse(reader(position + 4));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    Timetable timetable(String studentEmail, CourseSlots.Registry courseSlots) {
+        int position = timetables.find(studentEmail);
+        if (position == 0) {
+            return null;
+        }
+        try {
+            StoreCodec.Reader in = reader(position + 4);
+            Timetable timetable = new Timetable(in.readString(), courseSlots);
+            StoreCodec.readSlots(in, timetable);
+            return timetable;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    Set<String> enrolment(CourseCode courseCode) {
+        int position = enrolments.find(courseCode.toString());
+        if (position == 0) {
+            return null;
+        }
+        try {
+            StoreCodec.Reader in = reader(position + 4);
+            in.readString();
+            int count = in.readInt();
+            Set<String> students = ConcurrentHashMap.newKeySet(count);
+            for (int i = 0; i < count; i++) {
+                students.add(in.readString());
+            }
+            return students;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns whether the snapshot holds a course or an enrolment under the canonical code,
+     * without decoding either.
+     */
+    boolean hasCourseCode(String canonical) {
+        return courses.containsAscii(canonical) || enrolments.containsAscii(canonical);
+    }
+
+    int courseCount() {
+        return courses.count;
+    }
+
+    int timetableCount() {
+        return timetables.count;
+    }
+
+    int enrolmentCount() {
+        return enrolments.count;
+    }
+
+    List<CourseCode> courseCodes() {
+        return courses.keys().stream().map(CourseCode::of).collect(Collectors.toList());
+    }
+
+    List<String> studentEmails() {
+        return timetables.keys();
+    }
+
+    List<CourseCode> enrolmentCodes() {
+        return enrolments.keys().stream().map(CourseCode::of).collect(Collectors.toList());
+    }
+
+    /**
+     * Adds the snapshot's FAQ sections to the manager.
+     */
+    void readFAQ(FAQManager faqManager) throws IOException {
+        StoreCodec.readSections(reader(faqPosition), faqManager, null);
+    }
+
+    List<Inquiry> readInquiries() throws IOException {
+        StoreCodec.Reader in = reader(inquiriesPosition);
+        int count = in.readInt();
+        List<Inquiry> inquiries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            inquiries.add(StoreCodec.readInquiry(in));
+        }
+        return inquiries;
+    }
+
+    private StoreCodec.Reader reader(int position) {
+        // Each reader gets its own position, so sessions can load entries at the same time
+        return new StoreCodec.Reader(buffer.duplicate().position(position));
+    }
+
+    private String keyAt(int position) {
+        int length = buffer.getInt(position + 4);
+        byte[] bytes = new byte[length];
+        buffer.duplicate().position(position + 8).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean keyEquals(int position, byte[] key) {
+        if (buffer.getInt(position + 4) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(position + 8 + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean keyEqualsAscii(int position, String key) {
+        if (buffer.getInt(position + 4) != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (buffer.get(position + 8 + i) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int slotFor(int hash, int tableSize) {
+        return (hash ^ (hash >>> 16)) & (tableSize - 1);
+    }
+
+    /**
+     * One of the key -> record hash tables, read in place.
+     */
+    private final class Table {
+        private final int position;
+        private final int count;
+        private final int size;
+
+        Table(int position) {
+            this.position = position;
+            this.count = buffer.getInt(position);
+            this.size = buffer.getInt(position + 4);
+        }
+
+        int find(String key) {
+            if (key == null || count == 0) {
+                return 0;
+            }
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            for (int slot = slotFor(key.hashCode(), size); ; slot = (slot + 1) & (size - 1)) {
+                int record = buffer.getInt(position + 8 + slot * 4);
+                if (record == 0) {
+                    return 0;
+                }
+                if (keyEquals(record, keyBytes)) {
+                    return record;
+                }
+            }
+        }
+
+        /**
+         * Like find(), for a key made only of ASCII characters, compared in place rather than encoded.
+         */
+        boolean containsAscii(String key) {
+            if (count == 0) {
+                return false;
+            }
+            for (int slot = slotFor(key.hashCode(), size); ; slot = (slot + 1) & (size - 1)) {
+                int record = buffer.getInt(position + 8 + slot * 4);
+                if (record == 0) {
+                    return false;
+                }
+                if (keyEqualsAscii(record, key)) {
+                    return true;
+                }
+            }
+        }
+
+        List<String> keys() {
+            List<String> keys = new ArrayList<>(count);
+            for (int slot = 0; slot < size; slot++) {
+                int record = buffer.getInt(position + 8 + slot * 4);
+                if (record != 0) {
+                    keys.add(keyAt(record));
+                }
+            }
+            return keys;
+        }
+
+        String keyOf(int record) {
+            return keyAt(record);
+        }
+
+        /**
+         * Returns the whole record (length and encoding) at the position, for copying unchanged.
+         */
+        ByteBuffer recordAt(int record) {
+            int length = buffer.getInt(record);
+            return buffer.duplicate().position(record).limit(record + 4 + length).slice();
+        }
+
+        int[] records() {
+            int[] records = new int[count];
+            int next = 0;
+            for (int slot = 0; slot < size; slot++) {
+                int record = buffer.getInt(position + 8 + slot * 4);
+                if (record != 0) {
+                    records[next++] = record;
+                }
+            }
+            return records;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the store to the file. Entries the store never loaded from its own
+     * snapshot are copied across byte for byte rather than decoded and re-encoded.
+     * Sessions must not be changing the store meanwhile.
+     */
+    static void write(Path file, SharedStore store, long sequence) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence);
+            // Table, FAQ and inquiry positions are filled in once known
+            out.write(new byte[HEADER_BYTES - 16]);
+
+            MappedSnapshot previous = store.snapshot();
+            Writer writer = new Writer(out);
+            Written courses = writer.records(store.getCourses(), previous == null ? null : previous.courses,
+                    CourseCode::interned, (record, code, course) -> StoreCodec.writeCourse(record, course));
+            Written timetables = writer.records(store.getTimetableMap(),
+                    previous == null ? null : previous.timetables, Function.identity(),
+                    (record, email, timetable) -> {
+                        StoreCodec.writeString(record, email);
+                        StoreCodec.writeSlots(record, timetable, timetable.getTimeSlots());
+                    });
+            Written enrolments = writer.records(store.getEnrolmentMap(),
+                    previous == null ? null : previous.enrolments, CourseCode::interned,
+                    (record, code, students) -> {
+                        StoreCodec.writeString(record, code.toString());
+                        record.writeInt(students.size());
+                        for (String student : students) {
+                            StoreCodec.writeString(record, student);
+                        }
+                    });
+
+            int faqPosition = writer.position();
+            StoreCodec.writeSections(out, store.getFAQManager().getSections());
+            int inquiriesPosition = writer.position();
+            List<Inquiry> inquiries = new ArrayList<>(store.getInquiries());
+            out.writeInt(inquiries.size());
+            for (Inquiry inquiry : inquiries) {
+                StoreCodec.writeInquiry(out, inquiry);
+            }
+
+            int coursesTable = writer.table(courses);
+            int timetablesTable = writer.table(timetables);
+            int enrolmentsTable = writer.table(enrolments);
+            writer.position();
+            out.flush();
+
+            ByteBuffer positions = ByteBuffer.allocate(HEADER_BYTES - 16);
+            positions.putInt(coursesTable).putInt(timetablesTable).putInt(enrolmentsTable)
+                    .putInt(faqPosition).putInt(inquiriesPosition).flip();
+            while (positions.hasRemaining()) {
+                channel.write(positions, 16 + positions.position());
+            }
+            channel.force(true);
+        }
+    }
+
+    private interface Encoder<K, V> {
+        void write(DataOutputStream record, K key, V value) throws IOException;
+    }
+
+    /**
+     * The key hashes and positions of the records written for one table.
+     */
+    private static final class Written {
+        int[] hashes = new int[16];
+        int[] positions = new int[16];
+        int count;
+
+        void add(int hash, int position) {
+            if (count == hashes.length) {
+                hashes = Arrays.copyOf(hashes, count * 2);
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            hashes[count] = hash;
+            positions[count] = position;
+            count++;
+        }
+    }
+
+    private static final class Writer {
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+        private final DataOutputStream record = new DataOutputStream(recordBytes);
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        /**
+         * Returns the current write position, failing once it no longer fits the int positions
+         * the tables hold (DataOutputStream.size() stops counting at Integer.MAX_VALUE).
+         */
+        int position() throws IOException {
+            int position = out.size();
+            if (position == Integer.MAX_VALUE) {
+                throw new IOException("Snapshot would be larger than 2GB");
+            }
+            return position;
+        }
+
+        /**
+         * Writes the map's entries: those it never loaded copied from the previous table, then
+         * the ones it holds in memory.
+         *
+         * @param keyFor the map's key for a stored key, or null if the map can't hold it
+         */
+        <K, V> Written records(SnapshotBackedMap<K, V> map, Table previous, Function<String, K> keyFor,
+                               Encoder<K, V> encoder) throws IOException {
+            Written written = new Written();
+            if (previous != null) {
+                for (int position : previous.records()) {
+                    String key = previous.keyOf(position);
+                    K mapKey = keyFor.apply(key);
+                    if (mapKey == null || !map.isLoaded(mapKey)) {
+                        written.add(key.hashCode(), position());
+                        ByteBuffer raw = previous.recordAt(position);
+                        byte[] bytes = new byte[raw.remaining()];
+                        raw.get(bytes);
+                        out.write(bytes);
+                    }
+                }
+            }
+            IOException[] failure = new IOException[1];
+            map.forEachLoaded((key, value) -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                try {
+                    recordBytes.reset();
+                    encoder.write(record, key, value);
+                    // Tables are probed with the key's text
+                    written.add(key.toString().hashCode(), position());
+                    out.writeInt(recordBytes.size());
+                    recordBytes.writeTo(out);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            return written;
+        }
+
+        int table(Written written) throws IOException {
+            int size = Integer.highestOneBit(Math.max(2, written.count * 2 - 1)) << 1;
+            int[] slots = new int[size];
+            for (int i = 0; i < written.count; i++) {
+                int slot = slotFor(written.hashes[i], size);
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & (size - 1);
+                }
+                slots[slot] = written.positions[i];
+            }
+            int position = position();
+            out.writeInt(written.count);
+            out.writeInt(size);
+            for (int slot : slots) {
+                out.writeInt(slot);
+            }
+            return position;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package model;
+
+import util.EpochMinutes;
+import util.IntervalTree;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Which activities are booked into each room, and when, so two can't quietly share a room.
+ *
+ * Each room keeps an interval tree of its bookings over the minutes of the week. Bookings that
+ * overlap there are on the same day at overlapping times, and clash if their date ranges share
+ * a week too. Rooms are matched by location, ignoring case and surrounding spaces; activities
+ * without a location aren't booked.
+ *
+ * The index is built from every course the first time it is used, so nothing is read at startup;
+ * after that CourseManager keeps it up to date. Adding the same activity twice is harmless.
+ */
+public final class RoomBookings {
+    private static final int MINUTES_PER_WEEK = 7 * EpochMinutes.MINUTES_PER_DAY;
+
+    private final SharedStore store;
+    private final ConcurrentHashMap<String, Room> byRoom = new ConcurrentHashMap<>();
+    private volatile boolean built;
+
+    RoomBookings(SharedStore store) {
+        this.store = store;
+    }
+
+    /**
+     * One activity's use of a room: its day each week from its first to its last occurrence,
+     * between two minutes of that day.
+     */
+    public static final class Booking {
+        private final CourseCode courseCode;
+        private final Activity activity;
+        private final String location;
+        private final long firstDay;
+        private final long lastDay;
+        private final int fromMinute;
+        private final int toMinute;
+
+        private Booking(CourseCode courseCode, Activity activity, long firstDay, long lastDay) {
+            this.courseCode = courseCode;
+            this.activity = activity;
+            this.location = activity.getLocation().trim();
+            this.firstDay = firstDay;
+            this.lastDay = lastDay;
+            this.fromMinute = EpochMinutes.minuteOfDay(activity.getStartMinute());
+            int to = EpochMinutes.minuteOfDay(activity.getEndMinute());
+            // An end at or before the start runs to midnight, as in TimeGrid
+            this.toMinute = to <= fromMinute ? EpochMinutes.MINUTES_PER_DAY : to;
+        }
+
+        /**
+         * Returns the booking for the activity, or null if it has no location or never takes place.
+         */
+        static Booking of(CourseCode courseCode, Activity activity) {
+            if (activity.getLocation() == null || activity.getLocation().isBlank() || activity.getDay() == null) {
+                return null;
+            }
+            int day = activity.getDay().getValue() - 1;
+            long startDay = Math.floorDiv(activity.getStartMinute(), EpochMinutes.MINUTES_PER_DAY);
+            long endDay = Math.floorDiv(activity.getEndMinute(), EpochMinutes.MINUTES_PER_DAY);
+            long firstDay = startDay + Math.floorMod(day - dayOfWeek(startDay), 7);
+            long lastDay = endDay - Math.floorMod(dayOfWeek(endDay) - day, 7);
+            return firstDay > lastDay ? null : new Booking(courseCode, activity, firstDay, lastDay);
+        }
+
+        // Monday is 0; the epoch was a Thursday
+        private static int dayOfWeek(long epochDay) {
+            return (int) Math.floorMod(epochDay + 3, 7L);
+        }
+
+        public CourseCode getCourseCode() {
+            return courseCode;
+        }
+
+        public Activity getActivity() {
+            return activity;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        long weekStart() {
+            return (long) activity.getDay().ordinal() * EpochMinutes.MINUTES_PER_DAY + fromMinute;
+        }
+
+        long weekEnd() {
+            return (long) activity.getDay().ordinal() * EpochMinutes.MINUTES_PER_DAY + toMinute;
+        }
+
+        /**
+         * Whether the two take up the room at the same time in some week.
+         */
+        boolean clashesWith(Booking other) {
+            return activity.getDay() == other.activity.getDay()
+                    && EpochMinutes.overlaps(fromMinute, toMinute, other.fromMinute, other.toMinute)
+                    && Math.max(firstDay, other.firstDay) <= Math.min(lastDay, other.lastDay);
+        }
+
+        @Override
+        public String toString() {
+            DayOfWeek day = activity.getDay();
+            return courseCode + " " + activity.getType() + " #" + activity.getId() + " (" + day + " "
+                    + LocalTime.ofSecondOfDay(fromMinute * 60L) + "-"
+                    + (toMinute == EpochMinutes.MINUTES_PER_DAY ? "24:00" : LocalTime.ofSecondOfDay(toMinute * 60L))
+                    + ", " + LocalDate.ofEpochDay(firstDay) + " to " + LocalDate.ofEpochDay(lastDay) + ")";
+        }
+    }
+
+    /**
+     * Two bookings of the same room at the same time.
+     */
+    public static final class Clash {
+        private final Booking first;
+        private final Booking second;
+
+        Clash(Booking first, Booking second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        public String getLocation() {
+            return first.location;
+        }
+
+        public Booking getFirst() {
+            return first;
+        }
+
+        public Booking getSecond() {
+            return second;
+        }
+
+        @Override
+        public String toString() {
+            return first.location + ": " + first + " and " + second;
+        }
+    }
+
+    /**
+     * One room's bookings, keyed by minute of the week.
+     */
+    private static final class Room {
+        private final IntervalTree<Booking> bookings = new IntervalTree<>();
+
+        /**
+         * Books the room, unless the activity already has it, and returns the bookings it clashes with.
+         */
+        synchronized List<Booking> add(Booking booking) {
+            List<Booking> clashes = clashes(booking);
+            for (Booking clash : clashes) {
+                if (clash.activity == booking.activity) {
+                    return List.of();
+                }
+            }
+            bookings.insert(booking.weekStart(), booking.weekEnd(), booking);
+            return clashes;
+        }
+
+        synchronized List<Booking> clashes(Booking booking) {
+            List<Booking> clashes = new ArrayList<>();
+            bookings.forEachOverlap(booking.weekStart(), booking.weekEnd(), other -> {
+                if (other.clashesWith(booking)) {
+                    clashes.add(other);
+                }
+            });
+            return clashes;
+        }
+
+        synchronized void removeCourse(CourseCode courseCode) {
+            bookings.removeIf(booking -> booking.courseCode == courseCode);
+        }
+
+        synchronized List<Booking> all() {
+            List<Booking> all = new ArrayList<>(bookings.size());
+            bookings.forEachOverlap(0, MINUTES_PER_WEEK, all::add);
+            return all;
+        }
+    }
+
+    private static String roomKey(String location) {
+        return location.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Builds the index from every course, if that hasn't been done. Callers adding activities
+     * build it before the activities reach the store, so add sees them as new and reports clashes.
+     */
+    void ensureBuilt() {
+        if (built) {
+            return;
+        }
+        synchronized (this) {
+            if (built) {
+                return;
+            }
+            for (Course course : store.getCourses().values()) {
+                for (Activity activity : course.getActivities()) {
+                    Booking booking = Booking.of(course.getCode(), activity);
+                    if (booking != null) {
+                        byRoom.computeIfAbsent(roomKey(booking.location), key -> new Room()).add(booking);
+                    }
+                }
+            }
+            built = true;
+        }
+    }
+
+    /**
+     * Returns the bookings the activity would clash with if it were added, without adding it.
+     */
+    public List<Booking> findClashes(String courseCode, Activity activity) {
+        Booking booking = Booking.of(CourseCode.lookup(courseCode), activity);
+        if (booking == null) {
+            return List.of();
+        }
+        ensureBuilt();
+        Room room = byRoom.get(roomKey(booking.location));
+        return room == null ? List.of() : room.clashes(booking);
+    }
+
+    /**
+     * Books the room for an activity that has been added to the course, returning the bookings
+     * it clashes with.
+     */
+    List<Booking> add(CourseCode courseCode, Activity activity) {
+        Booking booking = Booking.of(courseCode, activity);
+        if (booking == null) {
+            return List.of();
+        }
+        ensureBuilt();
+        return byRoom.computeIfAbsent(roomKey(booking.location), key -> new Room()).add(booking);
+    }
+
+    /**
+     * Frees the rooms booked by a course that has been removed from the store.
+     */
+    void courseRemoved(Course course) {
+        if (!built) {
+            // Waits for a build under way, which may have seen the course
+            synchronized (this) {
+                if (!built) {
+                    return;
+                }
+            }
+        }
+        for (Activity activity : course.getActivities()) {
+            Room room = activity.getLocation() == null ? null : byRoom.get(roomKey(activity.getLocation()));
+            if (room != null) {
+                room.removeCourse(course.getCode());
+            }
+        }
+    }
+
+    /**
+     * Finds every pair of bookings that clash, room by room in parallel. Each room's bookings
+     * are swept in order of start, keeping those still running, so each is only compared with
+     * the bookings it overlaps in the week.
+     *
+     * @return the clashes by room, and then by time
+     */
+    public List<Clash> audit(ForkJoinPool pool) {
+        ensureBuilt();
+        List<Room> rooms = new ArrayList<>(byRoom.values());
+        List<Clash> clashes;
+        try {
+            clashes = pool.submit(() -> rooms.parallelStream()
+                    .flatMap(room -> sweep(room.all()).stream())
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while auditing room bookings", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Could not audit room bookings", cause);
+        }
+        clashes.sort(Comparator.comparing((Clash clash) -> roomKey(clash.getLocation()))
+                .thenComparingLong(clash -> clash.first.weekStart())
+                .thenComparingLong(clash -> clash.second.weekStart()));
+        return clashes;
+    }
+
+    /**
+     * Returns the clashes between one room's bookings, which come in order of start.
+     */
+    private static List<Clash> sweep(List<Booking> bookings) {
+        List<Clash> clashes = new ArrayList<>();
+        List<Booking> running = new ArrayList<>();
+        for (Booking booking : bookings) {
+            running.removeIf(earlier -> earlier.weekEnd() <= booking.weekStart());
+            for (Booking earlier : running) {
+                if (earlier.clashesWith(booking)) {
+                    clashes.add(new Clash(earlier, booking));
+                }
+            }
+            running.add(booking);
+        }
+        return clashes;
+    }
+}
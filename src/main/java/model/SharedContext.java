@@ -1,25 +1,34 @@
 package model;
 
 import java.util.*;
+import java.util.concurrent.locks.Lock;
 import view.View;
 
+/**
+ * Per-session context: the current user and the view they interact through.
+ * All data that sessions share lives in a SharedStore, so several sessions can run
+ * side by side over the same store.
+ */
 public class SharedContext {
     public static final String ADMIN_STAFF_EMAIL = "inquiries@hindeburg.ac.nz";
 
 
     private View view;
     public User currentUser;
-    public final List<Inquiry> inquiries;
-    private final FAQManager faqManager;
-    private final Map<String, Timetable> studentTimetables; // TODO: Store each student's timetable, keyed by their email
+    private final SharedStore store;
     private final CourseManager courseManager;
 
     public SharedContext(View view) {
+        this(view, new SharedStore());
+    }
+
+    /**
+     * Creates a new session over an existing store.
+     */
+    public SharedContext(View view, SharedStore store) {
         this.currentUser = new Guest();
-        this.inquiries = new ArrayList<>();
         this.view = view;
-        this.faqManager = new FAQManager(view);
-        this.studentTimetables = new HashMap<>(); // TODO: initialize timetable storage
+        this.store = store;
         //this.courseManager = new CourseManager(view); //TODO : initialize course manager
         // Pass 'this' (SharedContext) to CourseManager
         this.courseManager = new CourseManager(view, this);
@@ -27,13 +36,13 @@ public class SharedContext {
     }
 
     public FAQ getFAQ() {
-        return faqManager.getFAQ();
+        return store.getFAQManager().getFAQ();
     }
 
     //TODO : Add a method to get the course manager
 
     public FAQManager getFAQManager() {
-        return this.faqManager;
+        return store.getFAQManager();
     }
 
     public CourseManager getCourseManager() {
@@ -44,19 +53,95 @@ public class SharedContext {
         return this.view;
     }
 
+    public SharedStore getStore() {
+        return this.store;
+    }
+
+    /**
+     * Returns the lock to hold while reading or changing the student's timetable.
+     */
+    public Lock timetableLock(String studentEmail) {
+        return store.timetableLock(studentEmail);
+    }
+
     // TODO: Get the student's timetable by email. If not present, create a new one.
     public Timetable getOrCreateTimetable(String studentEmail) {
-        return studentTimetables.computeIfAbsent(studentEmail, Timetable::new);
+        return store.getOrCreateTimetable(studentEmail);
     }
 
     // TODO: Get the student's timetable if it exists, or return null
     public Timetable getTimetable(String studentEmail) {
-        return studentTimetables.get(studentEmail);
+        return store.getTimetable(studentEmail);
     }
 
     // TODO: Return all student timetables for iteration (e.g., when removing a course)
     public Collection<Timetable> getAllTimetables() {
-        return studentTimetables.values();
+        return store.getAllTimetables();
+    }
+
+    /**
+     * Records that the student's timetable contains slots for the course.
+     */
+    public void recordEnrolment(String courseCode, String studentEmail) {
+        store.recordEnrolment(courseCode, studentEmail);
+    }
+
+    public void recordEnrolment(CourseCode courseCode, String studentEmail) {
+        store.recordEnrolment(courseCode, studentEmail);
+    }
+
+    /**
+     * Records that the course has been removed from the student's timetable.
+     */
+    public void removeEnrolment(String courseCode, String studentEmail) {
+        store.removeEnrolment(courseCode, studentEmail);
+    }
+
+    public void removeEnrolment(CourseCode courseCode, String studentEmail) {
+        store.removeEnrolment(courseCode, studentEmail);
+    }
+
+    /**
+     * Returns the emails of every student with the course in their timetable.
+     */
+    public Set<String> getEnrolledStudents(String courseCode) {
+        return store.getEnrolledStudents(courseCode);
+    }
+
+    /**
+     * Drops every enrolment for the course and returns the affected student emails.
+     */
+    public Set<String> removeCourseEnrolments(String courseCode) {
+        return store.removeCourseEnrolments(courseCode);
+    }
+
+    /**
+     * Removes the course from the student's timetable. Hold the student's timetable lock.
+     */
+    public void removeCourseFromTimetable(String studentEmail, String courseCode) {
+        store.removeCourseFromTimetable(studentEmail, courseCode);
+    }
+
+    /**
+     * Returns the pending inquiries, read-only; change them through the methods below.
+     */
+    public List<Inquiry> getInquiries() {
+        return store.getInquiries();
+    }
+
+    public void addInquiry(Inquiry inquiry) {
+        store.addInquiry(inquiry);
+    }
+
+    /**
+     * Removes an answered inquiry, returning false if another session already has.
+     */
+    public boolean removeInquiry(Inquiry inquiry) {
+        return store.removeInquiry(inquiry);
+    }
+
+    public void assignInquiry(Inquiry inquiry, String assigneeEmail) {
+        store.assignInquiry(inquiry, assigneeEmail);
     }
 
     //TODO:  Add a method to get the current user's email
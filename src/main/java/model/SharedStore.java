@@ -0,0 +1,232 @@
+package model;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import util.SnapshotBackedMap;
+
+/**
+ * State shared by every session: courses, timetables, inquiries and the FAQ.
+ * Safe to use from many sessions at once. The per-session parts (current user, view)
+ * live in SharedContext, which wraps one of these.
+ */
+public class SharedStore {
+
+    // Power of two, so a stripe can be picked with a mask
+    private static final int TIMETABLE_LOCK_STRIPES = 64;
+
+    // Loaded entry by entry from the snapshot, if any, so startup doesn't grow with the data
+    private final SnapshotBackedMap<CourseCode, Course> courses;
+    private final SnapshotBackedMap<String, Timetable> studentTimetables;
+    // Reverse index: course code -> emails of students with that course in their timetable
+    private final SnapshotBackedMap<CourseCode, Set<String>> enrolledStudents;
+    private final List<Inquiry> inquiries;
+    private final FAQManager faqManager;
+    private final Lock[] timetableLocks;
+    private final ActivitySeats seats = new ActivitySeats(this);
+    private final RoomBookings roomBookings = new RoomBookings(this);
+    // The slots of each course, shared by every timetable in this store that holds it
+    private final CourseSlots.Registry courseSlots = new CourseSlots.Registry();
+    // Told about every change, so it can be made durable; see DurableStore
+    private volatile StoreJournal journal = StoreJournal.NONE;
+    private final MappedSnapshot snapshot;
+
+    public SharedStore() {
+        this.snapshot = null;
+        this.courses = new SnapshotBackedMap<>();
+        this.studentTimetables = new SnapshotBackedMap<>();
+        this.enrolledStudents = new SnapshotBackedMap<>();
+        // Inquiries are read far more often than they are added or answered
+        this.inquiries = new CopyOnWriteArrayList<>();
+        this.faqManager = new FAQManager();
+        this.timetableLocks = newLocks();
+    }
+
+    /**
+     * Creates a store holding the snapshot's contents. Courses, timetables and enrolments are
+     * read from the snapshot when first used; the FAQ and inquiries are read now.
+     */
+    SharedStore(MappedSnapshot snapshot) throws IOException {
+        this.snapshot = snapshot;
+        CourseCode.addSnapshot(snapshot);
+        this.courses = new SnapshotBackedMap<>(snapshot::course, snapshot::courseCodes, snapshot::courseCount);
+        this.studentTimetables = new SnapshotBackedMap<>(email -> snapshot.timetable(email, courseSlots),
+                snapshot::studentEmails, snapshot::timetableCount);
+        this.enrolledStudents = new SnapshotBackedMap<>(snapshot::enrolment, snapshot::enrolmentCodes,
+                snapshot::enrolmentCount);
+        this.inquiries = new CopyOnWriteArrayList<>(snapshot.readInquiries());
+        this.faqManager = new FAQManager();
+        snapshot.readFAQ(faqManager);
+        this.timetableLocks = newLocks();
+    }
+
+    private static Lock[] newLocks() {
+        Lock[] locks = new Lock[TIMETABLE_LOCK_STRIPES];
+        for (int i = 0; i < TIMETABLE_LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    /**
+     * Returns the course map shared by every session's CourseManager.
+     */
+    SnapshotBackedMap<CourseCode, Course> getCourses() {
+        return courses;
+    }
+
+    CourseSlots.Registry getCourseSlots() {
+        return courseSlots;
+    }
+
+    SnapshotBackedMap<String, Timetable> getTimetableMap() {
+        return studentTimetables;
+    }
+
+    SnapshotBackedMap<CourseCode, Set<String>> getEnrolmentMap() {
+        return enrolledStudents;
+    }
+
+    /**
+     * Returns the snapshot the store was loaded from, or null.
+     */
+    MappedSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns a read-only view of the inquiries, so every change goes through the journal.
+     */
+    public List<Inquiry> getInquiries() {
+        return Collections.unmodifiableList(inquiries);
+    }
+
+    public void addInquiry(Inquiry inquiry) {
+        inquiries.add(inquiry);
+        journal.inquiryAdded(inquiry);
+    }
+
+    /**
+     * Removes the inquiry, returning false if another session already has.
+     */
+    public boolean removeInquiry(Inquiry inquiry) {
+        if (!inquiries.remove(inquiry)) {
+            return false;
+        }
+        journal.inquiryRemoved(inquiry);
+        return true;
+    }
+
+    public void assignInquiry(Inquiry inquiry, String assigneeEmail) {
+        inquiry.setAssignedTo(assigneeEmail);
+        journal.inquiryAssigned(inquiry);
+    }
+
+    public FAQManager getFAQManager() {
+        return faqManager;
+    }
+
+    /**
+     * Returns the seats and waitlists of every tutorial and lab.
+     */
+    public ActivitySeats getSeats() {
+        return seats;
+    }
+
+    /**
+     * Returns which activities have each room booked, and when.
+     */
+    public RoomBookings getRoomBookings() {
+        return roomBookings;
+    }
+
+    /**
+     * Timetables are not thread-safe themselves; hold this lock while reading or changing a
+     * student's timetable. Students share one of a fixed set of locks, chosen by email.
+     */
+    public Lock timetableLock(String studentEmail) {
+        int hash = studentEmail == null ? 0 : studentEmail.hashCode();
+        hash ^= (hash >>> 16);
+        return timetableLocks[hash & (TIMETABLE_LOCK_STRIPES - 1)];
+    }
+
+    public Timetable getOrCreateTimetable(String studentEmail) {
+        return studentTimetables.computeIfAbsent(studentEmail, email -> new Timetable(email, courseSlots));
+    }
+
+    public Timetable getTimetable(String studentEmail) {
+        return studentTimetables.get(studentEmail);
+    }
+
+    public Collection<Timetable> getAllTimetables() {
+        return studentTimetables.values();
+    }
+
+    public void recordEnrolment(String courseCode, String studentEmail) {
+        recordEnrolment(CourseCode.of(courseCode), studentEmail);
+    }
+
+    public void recordEnrolment(CourseCode courseCode, String studentEmail) {
+        if (courseCode == null) {
+            return;
+        }
+        // compute() keeps the add atomic with respect to removeCourseEnrolments
+        enrolledStudents.compute(courseCode, (code, students) -> {
+            Set<String> result = students != null ? students : ConcurrentHashMap.newKeySet();
+            result.add(studentEmail);
+            return result;
+        });
+    }
+
+    public void removeEnrolment(String courseCode, String studentEmail) {
+        removeEnrolment(CourseCode.lookup(courseCode), studentEmail);
+    }
+
+    public void removeEnrolment(CourseCode courseCode, String studentEmail) {
+        if (courseCode == null) {
+            return;
+        }
+        enrolledStudents.computeIfPresent(courseCode, (code, students) -> {
+            students.remove(studentEmail);
+            return students.isEmpty() ? null : students;
+        });
+    }
+
+    public Set<String> getEnrolledStudents(String courseCode) {
+        Set<String> students = enrolledStudents.get(CourseCode.lookup(courseCode));
+        return students == null ? Collections.emptySet() : Collections.unmodifiableSet(students);
+    }
+
+    public Set<String> removeCourseEnrolments(String courseCode) {
+        CourseCode code = CourseCode.lookup(courseCode);
+        Set<String> students = code == null ? null : enrolledStudents.remove(code);
+        return students == null ? Collections.emptySet() : students;
+    }
+
+    /**
+     * Removes the course's slots from the student's timetable and drops the enrolment. Any
+     * seats the student held pass to students on the waitlists.
+     * Hold the student's timetable lock.
+     */
+    public void removeCourseFromTimetable(String studentEmail, String courseCode) {
+        Timetable timetable = studentTimetables.get(studentEmail);
+        seats.courseLeft(studentEmail, timetable, CourseCode.lookup(courseCode));
+        if (timetable != null) {
+            timetable.removeSlotsForCourse(courseCode);
+        }
+        removeEnrolment(courseCode, studentEmail);
+        journal.timetableCourseRemoved(studentEmail, courseCode);
+    }
+
+    StoreJournal journal() {
+        return journal;
+    }
+
+    void setJournal(StoreJournal journal) {
+        this.journal = journal;
+        faqManager.setJournal(journal);
+    }
+}
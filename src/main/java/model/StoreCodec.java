@@ -0,0 +1,533 @@
+package model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.*;
+import org.tinylog.Logger;
+import util.EpochMinutes;
+
+/**
+ * Binary encoding of SharedStore changes (journal records), and of the courses, timetables,
+ * FAQ and inquiries that MappedSnapshot writes out.
+ *
+ * A record starts with a one-byte type and is applied to a store with apply(). Strings are
+ * written as a length and UTF-8 bytes, with length -1 for null. FAQ sections are identified
+ * by their path of positions from the top of the FAQ, since topics need not be unique.
+ */
+final class StoreCodec {
+
+    private static final byte COURSE_ADDED = 1;
+    private static final byte ACTIVITY_ADDED = 2;
+    private static final byte COURSE_REMOVED = 3;
+    private static final byte SLOTS_ADDED = 4;
+    private static final byte ACTIVITY_CHOSEN = 5;
+    private static final byte TIMETABLE_COURSE_REMOVED = 6;
+    private static final byte FAQ_SECTION_ADDED = 7;
+    private static final byte FAQ_ITEMS_ADDED = 8;
+    private static final byte FAQ_ITEM_REMOVED = 9;
+    private static final byte INQUIRY_ADDED = 10;
+    private static final byte INQUIRY_REMOVED = 11;
+    private static final byte INQUIRY_ASSIGNED = 12;
+    private static final byte COURSES_ADDED = 13;
+
+    private static final byte GENERAL_ACTIVITY = 0;
+    private static final byte LECTURE = 1;
+    private static final byte TUTORIAL = 2;
+    private static final byte LAB = 3;
+
+    private StoreCodec() {
+    }
+
+    static byte[] courseAdded(Course course) {
+        return record(COURSE_ADDED, out -> writeCourse(out, course));
+    }
+
+    static byte[] coursesAdded(List<Course> courses) {
+        return record(COURSES_ADDED, out -> {
+            out.writeInt(courses.size());
+            for (Course course : courses) {
+                writeCourse(out, course);
+            }
+        });
+    }
+
+    static byte[] activityAdded(String courseCode, Activity activity) {
+        return record(ACTIVITY_ADDED, out -> {
+            writeString(out, courseCode);
+            writeActivity(out, activity);
+        });
+    }
+
+    static byte[] courseRemoved(String courseCode) {
+        return record(COURSE_REMOVED, out -> writeString(out, courseCode));
+    }
+
+    static byte[] slotsAdded(Timetable timetable, List<TimeSlot> slots) {
+        return record(SLOTS_ADDED, out -> {
+            writeString(out, timetable.getStudentEmail());
+            writeSlots(out, timetable, slots);
+        });
+    }
+
+    static byte[] activityChosen(String studentEmail, String courseCode, int activityId) {
+        return record(ACTIVITY_CHOSEN, out -> {
+            writeString(out, studentEmail);
+            writeString(out, courseCode);
+            out.writeInt(activityId);
+        });
+    }
+
+    static byte[] timetableCourseRemoved(String studentEmail, String courseCode) {
+        return record(TIMETABLE_COURSE_REMOVED, out -> {
+            writeString(out, studentEmail);
+            writeString(out, courseCode);
+        });
+    }
+
+    static byte[] faqSectionAdded(FAQManager faqManager, FAQSection section) {
+        return record(FAQ_SECTION_ADDED, out -> {
+            writePath(out, faqManager, section.getParent());
+            writeString(out, section.getTopic());
+        });
+    }
+
+    static byte[] faqItemsAdded(FAQManager faqManager, FAQSection section, List<FAQItem> items) {
+        return record(FAQ_ITEMS_ADDED, out -> {
+            writePath(out, faqManager, section);
+            writeItems(out, items);
+        });
+    }
+
+    static byte[] faqItemRemoved(FAQManager faqManager, FAQSection section, int itemId) {
+        return record(FAQ_ITEM_REMOVED, out -> {
+            writePath(out, faqManager, section);
+            out.writeInt(itemId);
+        });
+    }
+
+    static byte[] inquiryAdded(Inquiry inquiry) {
+        return record(INQUIRY_ADDED, out -> writeInquiry(out, inquiry));
+    }
+
+    static byte[] inquiryRemoved(Inquiry inquiry) {
+        return record(INQUIRY_REMOVED, out -> writeString(out, inquiry.getId()));
+    }
+
+    static byte[] inquiryAssigned(Inquiry inquiry) {
+        return record(INQUIRY_ASSIGNED, out -> {
+            writeString(out, inquiry.getId());
+            writeString(out, inquiry.getAssignedTo());
+        });
+    }
+
+    /**
+     * Makes the change described by a record. Nothing is journaled while the store is being rebuilt.
+     */
+    static void apply(SharedStore store, ByteBuffer record) throws IOException {
+        Reader in = new Reader(record);
+        byte type = in.readByte();
+        switch (type) {
+            case COURSE_ADDED -> {
+                Course course = readCourse(in);
+                store.getCourses().putIfAbsent(course.getCode(), course);
+            }
+            case COURSES_ADDED -> {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    Course course = readCourse(in);
+                    store.getCourses().putIfAbsent(course.getCode(), course);
+                }
+            }
+            case ACTIVITY_ADDED -> {
+                String courseCode = in.readString();
+                Course course = store.getCourses().get(CourseCode.lookup(courseCode));
+                Activity activity = readActivity(in);
+                if (course != null) {
+                    course.addActivity(activity);
+                } else {
+                    Logger.warn("Dropped activity {} logged for course {}, which is not in the store",
+                            activity.getId(), courseCode);
+                }
+            }
+            case COURSE_REMOVED -> {
+                String courseCode = in.readString();
+                CourseCode code = CourseCode.lookup(courseCode);
+                if (code != null) {
+                    store.getCourses().remove(code);
+                }
+                for (String studentEmail : store.removeCourseEnrolments(courseCode)) {
+                    Timetable timetable = store.getTimetable(studentEmail);
+                    if (timetable != null) {
+                        timetable.removeSlotsForCourse(courseCode);
+                    }
+                }
+                store.getCourseSlots().remove(code);
+            }
+            case SLOTS_ADDED -> {
+                String studentEmail = in.readString();
+                for (String courseCode : readSlots(in, store.getOrCreateTimetable(studentEmail))) {
+                    store.recordEnrolment(courseCode, studentEmail);
+                }
+            }
+            case ACTIVITY_CHOSEN -> {
+                Timetable timetable = store.getOrCreateTimetable(in.readString());
+                timetable.chooseActivity(in.readString(), in.readInt());
+            }
+            case TIMETABLE_COURSE_REMOVED -> {
+                String studentEmail = in.readString();
+                store.removeCourseFromTimetable(studentEmail, in.readString());
+            }
+            case FAQ_SECTION_ADDED -> {
+                FAQSection parent = readPath(in, store.getFAQManager());
+                String topic = in.readString();
+                if (parent == null) {
+                    store.getFAQManager().addSection(topic);
+                } else {
+                    parent.addSubsection(new FAQSection(topic));
+                }
+            }
+            case FAQ_ITEMS_ADDED -> {
+                FAQSection section = requireSection(readPath(in, store.getFAQManager()));
+                section.restoreItems(readItems(in));
+            }
+            case FAQ_ITEM_REMOVED -> {
+                FAQSection section = requireSection(readPath(in, store.getFAQManager()));
+                section.removeItem(in.readInt());
+            }
+            case INQUIRY_ADDED -> store.addInquiry(readInquiry(in));
+            case INQUIRY_REMOVED -> {
+                Inquiry inquiry = findInquiry(store, in.readString());
+                if (inquiry != null) {
+                    store.removeInquiry(inquiry);
+                }
+            }
+            case INQUIRY_ASSIGNED -> {
+                Inquiry inquiry = findInquiry(store, in.readString());
+                String assignee = in.readString();
+                if (inquiry != null) {
+                    store.assignInquiry(inquiry, assignee);
+                }
+            }
+            default -> throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    private interface Body {
+        void write(DataOutput out) throws IOException;
+    }
+
+    private static byte[] record(byte type, Body body) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(type);
+            body.write(out);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // Writing to memory doesn't fail
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void writeCourse(DataOutput out, Course course) throws IOException {
+        writeString(out, course.getCourseCode());
+        writeString(out, course.getName());
+        writeString(out, course.getDescription());
+        out.writeBoolean(course.requiresComputers());
+        writeString(out, course.getCourseOrganiserName());
+        writeString(out, course.getCourseOrganiserEmail());
+        writeString(out, course.getCourseSecretaryName());
+        writeString(out, course.getCourseSecretaryEmail());
+        out.writeInt(course.getRequiredTutorials());
+        out.writeInt(course.getRequiredLabs());
+        List<Activity> activities = course.getActivities();
+        out.writeInt(activities.size());
+        for (Activity activity : activities) {
+            writeActivity(out, activity);
+        }
+    }
+
+    static Course readCourse(Reader in) throws IOException {
+        Course course = new Course(in.readString(), in.readString(), in.readString(), in.readBoolean(),
+                in.readString(), in.readString(), in.readString(), in.readString(),
+                in.readInt(), in.readInt());
+        int activityCount = in.readInt();
+        for (int i = 0; i < activityCount; i++) {
+            course.addActivity(readActivity(in));
+        }
+        return course;
+    }
+
+    private static void writeActivity(DataOutput out, Activity activity) throws IOException {
+        if (activity instanceof Lecture) {
+            out.writeByte(LECTURE);
+        } else if (activity instanceof Tutorial) {
+            out.writeByte(TUTORIAL);
+        } else if (activity instanceof Lab) {
+            out.writeByte(LAB);
+        } else {
+            out.writeByte(GENERAL_ACTIVITY);
+        }
+        out.writeInt(activity.getId());
+        out.writeLong(activity.getStartMinute());
+        out.writeLong(activity.getEndMinute());
+        writeString(out, activity.getLocation());
+        out.writeByte(activity.getDay().getValue());
+        if (activity instanceof Lecture) {
+            out.writeBoolean(((Lecture) activity).isRecorded());
+        } else if (activity instanceof Tutorial) {
+            out.writeInt(((Tutorial) activity).getCapacity());
+        } else if (activity instanceof Lab) {
+            out.writeInt(((Lab) activity).getCapacity());
+        }
+    }
+
+    private static Activity readActivity(Reader in) throws IOException {
+        byte kind = in.readByte();
+        int id = in.readInt();
+        long start = in.readLong();
+        long end = in.readLong();
+        String location = in.readString();
+        DayOfWeek day = DayOfWeek.of(in.readByte());
+        switch (kind) {
+            case LECTURE:
+                return new Lecture(id, EpochMinutes.toDate(start), EpochMinutes.toTime(start),
+                        EpochMinutes.toDate(end), EpochMinutes.toTime(end), location, day, in.readBoolean());
+            case TUTORIAL:
+                return new Tutorial(id, EpochMinutes.toDate(start), EpochMinutes.toTime(start),
+                        EpochMinutes.toDate(end), EpochMinutes.toTime(end), location, day, in.readInt());
+            case LAB:
+                return new Lab(id, EpochMinutes.toDate(start), EpochMinutes.toTime(start),
+                        EpochMinutes.toDate(end), EpochMinutes.toTime(end), location, day, in.readInt());
+            case GENERAL_ACTIVITY:
+                return new ConcreteActivity(id, EpochMinutes.toDate(start), EpochMinutes.toTime(start),
+                        EpochMinutes.toDate(end), EpochMinutes.toTime(end), location, day);
+            default:
+                throw new IOException("Unknown activity kind " + kind);
+        }
+    }
+
+    static void writeSlots(DataOutput out, Timetable timetable, List<TimeSlot> slots) throws IOException {
+        out.writeInt(slots.size());
+        for (TimeSlot slot : slots) {
+            out.writeByte(slot.getDay().getValue());
+            out.writeLong(slot.getStartMinute());
+            out.writeLong(slot.getEndMinute());
+            writeString(out, slot.getCourseCode());
+            out.writeInt(slot.getActivityId());
+            out.writeBoolean(timetable.isChosen(slot));
+        }
+    }
+
+    /**
+     * Adds slots to the timetable and returns the codes of the courses they belong to.
+     */
+    static Set<String> readSlots(Reader in, Timetable timetable) throws IOException {
+        int slotCount = in.readInt();
+        Set<String> courseCodes = new LinkedHashSet<>();
+        for (int i = 0; i < slotCount; i++) {
+            DayOfWeek day = DayOfWeek.of(in.readByte());
+            long start = in.readLong();
+            long end = in.readLong();
+            String courseCode = in.readString();
+            int activityId = in.readInt();
+            TimeSlotStatus status = in.readBoolean() ? TimeSlotStatus.CHOSEN : TimeSlotStatus.UNCHOSEN;
+            timetable.addTimeSlot(day, start, end, courseCode, activityId, status);
+            courseCodes.add(courseCode);
+        }
+        return courseCodes;
+    }
+
+    static void writeSections(DataOutput out, List<FAQSection> sections) throws IOException {
+        out.writeInt(sections.size());
+        for (FAQSection section : sections) {
+            writeString(out, section.getTopic());
+            out.writeInt(section.getNextItemId());
+            writeItems(out, section.getItems());
+            writeSections(out, section.getSubsections());
+        }
+    }
+
+    static void readSections(Reader in, FAQManager faqManager, FAQSection parent) throws IOException {
+        int sectionCount = in.readInt();
+        for (int i = 0; i < sectionCount; i++) {
+            String topic = in.readString();
+            FAQSection section;
+            if (parent == null) {
+                section = faqManager.addSection(topic);
+            } else {
+                section = new FAQSection(topic);
+                parent.addSubsection(section);
+            }
+            int nextItemId = in.readInt();
+            section.restoreItems(readItems(in));
+            section.setNextItemId(nextItemId);
+            readSections(in, faqManager, section);
+        }
+    }
+
+    private static void writeItems(DataOutput out, List<FAQItem> items) throws IOException {
+        out.writeInt(items.size());
+        for (FAQItem item : items) {
+            out.writeInt(item.getId());
+            writeString(out, item.getQuestion());
+            writeString(out, item.getAnswer());
+            writeString(out, item.getCourseTag());
+        }
+    }
+
+    private static List<FAQItem> readItems(Reader in) throws IOException {
+        int itemCount = in.readInt();
+        List<FAQItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new FAQItem(in.readInt(), in.readString(), in.readString(), in.readString()));
+        }
+        return items;
+    }
+
+    /**
+     * Writes the positions leading from the top of the FAQ to the section; empty for null (the top).
+     */
+    private static void writePath(DataOutput out, FAQManager faqManager, FAQSection section) throws IOException {
+        Deque<Integer> path = new ArrayDeque<>();
+        for (FAQSection current = section; current != null; current = current.getParent()) {
+            List<FAQSection> siblings = current.getParent() == null
+                    ? faqManager.getSections() : current.getParent().getSubsections();
+            path.push(indexOf(siblings, current));
+        }
+        out.writeInt(path.size());
+        for (int position : path) {
+            out.writeInt(position);
+        }
+    }
+
+    private static FAQSection readPath(Reader in, FAQManager faqManager) throws IOException {
+        int depth = in.readInt();
+        FAQSection section = null;
+        for (int i = 0; i < depth; i++) {
+            int position = in.readInt();
+            List<FAQSection> siblings = section == null ? faqManager.getSections() : section.getSubsections();
+            if (position < 0 || position >= siblings.size()) {
+                throw new IOException("No FAQ section at position " + position);
+            }
+            section = siblings.get(position);
+        }
+        return section;
+    }
+
+    private static int indexOf(List<FAQSection> sections, FAQSection section) {
+        // Identity, not equality: sections can share a topic
+        for (int i = 0; i < sections.size(); i++) {
+            if (sections.get(i) == section) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Section " + section.getTopic() + " is not part of the FAQ");
+    }
+
+    private static FAQSection requireSection(FAQSection section) throws IOException {
+        if (section == null) {
+            throw new IOException("Record names the top of the FAQ instead of a section");
+        }
+        return section;
+    }
+
+    static void writeInquiry(DataOutput out, Inquiry inquiry) throws IOException {
+        writeString(out, inquiry.getId());
+        writeString(out, inquiry.getCreatedAt().toString());
+        writeString(out, inquiry.getInquirerEmail());
+        writeString(out, inquiry.getSubject());
+        writeString(out, inquiry.getContent());
+        writeString(out, inquiry.getAssignedTo());
+    }
+
+    static Inquiry readInquiry(Reader in) throws IOException {
+        Inquiry inquiry = new Inquiry(in.readString(), LocalDateTime.parse(in.readString()),
+                in.readString(), in.readString(), in.readString());
+        inquiry.setAssignedTo(in.readString());
+        return inquiry;
+    }
+
+    private static Inquiry findInquiry(SharedStore store, String id) {
+        for (Inquiry inquiry : store.getInquiries()) {
+            if (inquiry.getId().equals(id)) {
+                return inquiry;
+            }
+        }
+        return null;
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads the encoding straight out of a buffer, which may be a memory-mapped file.
+     */
+    static final class Reader {
+        private final ByteBuffer buffer;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        byte readByte() throws IOException {
+            try {
+                return buffer.get();
+            } catch (BufferUnderflowException e) {
+                throw truncated();
+            }
+        }
+
+        boolean readBoolean() throws IOException {
+            return readByte() != 0;
+        }
+
+        int readInt() throws IOException {
+            try {
+                return buffer.getInt();
+            } catch (BufferUnderflowException e) {
+                throw truncated();
+            }
+        }
+
+        long readLong() throws IOException {
+            try {
+                return buffer.getLong();
+            } catch (BufferUnderflowException e) {
+                throw truncated();
+            }
+        }
+
+        String readString() throws IOException {
+            int length = readInt();
+            if (length < 0) {
+                return null;
+            }
+            if (length > buffer.remaining()) {
+                throw truncated();
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private IOException truncated() {
+            return new IOException("Record ends unexpectedly");
+        }
+    }
+}
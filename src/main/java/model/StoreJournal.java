@@ -0,0 +1,53 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Told about every change to a SharedStore, after the change has been made in memory.
+ * Callers hold whatever lock guards the change (e.g. the student's timetable lock), so changes
+ * to the same data reach the journal in the order they were made.
+ */
+interface StoreJournal {
+
+    StoreJournal NONE = new StoreJournal() {
+    };
+
+    default void courseAdded(Course course) {
+    }
+
+    default void coursesAdded(List<Course> courses) {
+    }
+
+    default void activityAdded(String courseCode, Activity activity) {
+    }
+
+    default void courseRemoved(String courseCode) {
+    }
+
+    default void slotsAdded(Timetable timetable, List<TimeSlot> slots) {
+    }
+
+    default void activityChosen(String studentEmail, String courseCode, int activityId) {
+    }
+
+    default void timetableCourseRemoved(String studentEmail, String courseCode) {
+    }
+
+    default void faqSectionAdded(FAQSection section) {
+    }
+
+    default void faqItemsAdded(FAQSection section, List<FAQItem> items) {
+    }
+
+    default void faqItemRemoved(FAQSection section, int itemId) {
+    }
+
+    default void inquiryAdded(Inquiry inquiry) {
+    }
+
+    default void inquiryRemoved(Inquiry inquiry) {
+    }
+
+    default void inquiryAssigned(Inquiry inquiry) {
+    }
+}
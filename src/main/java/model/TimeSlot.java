@@ -1,79 +1,100 @@
 package model;
 
 import java.time.*;
+import util.EpochMinutes;
+import util.TimeGrid;
 
 /**
  * Represents a time slot in a student's timetable.
+ * Start and end are stored as epoch minutes; the java.time getters are derived on demand.
+ *
+ * Slots are immutable and shared by every timetable holding them; whether a student has
+ * chosen one is kept by their Timetable.
  */
 public class TimeSlot {
     private final DayOfWeek day;
-    private final LocalDate startDate;
-    private final LocalTime startTime;
-    private final LocalDate endDate;
-    private final LocalTime endTime;
-    private final String courseCode;
+    private final long startMinute;
+    private final long endMinute;
+    private final CourseCode courseCode;
     private final int activityId;
-    private TimeSlotStatus status;
+    // Compiled on first use, unsynchronised (see TimeGrid)
+    private TimeGrid timeGrid;
 
     public TimeSlot(DayOfWeek day, LocalDate startDate, LocalTime startTime,
                     LocalDate endDate, LocalTime endTime,
-                    String courseCode, int activityId, TimeSlotStatus status) {
+                    String courseCode, int activityId) {
+        this(day, EpochMinutes.of(startDate, startTime), EpochMinutes.of(endDate, endTime),
+                courseCode, activityId);
+    }
+
+    public TimeSlot(DayOfWeek day, long startMinute, long endMinute,
+                    String courseCode, int activityId) {
+        this(day, startMinute, endMinute, CourseCode.of(courseCode), activityId);
+    }
+
+    public TimeSlot(DayOfWeek day, long startMinute, long endMinute,
+                    CourseCode courseCode, int activityId) {
         this.day = day;
-        this.startDate = startDate;
-        this.startTime = startTime;
-        this.endDate = endDate;
-        this.endTime = endTime;
+        this.startMinute = startMinute;
+        this.endMinute = endMinute;
         this.courseCode = courseCode;
         this.activityId = activityId;
-        this.status = status;
     }
 
     public DayOfWeek getDay() { return day; }
-    public LocalDate getStartDate() { return startDate; }
-    public LocalDate getEndDate() { return endDate; }
-    public LocalTime getStartTime() { return startTime; }
-    public LocalTime getEndTime() { return endTime; }
-    public String getCourseCode() { return courseCode; }
+    public LocalDate getStartDate() { return EpochMinutes.toDate(startMinute); }
+    public LocalDate getEndDate() { return EpochMinutes.toDate(endMinute); }
+    public LocalTime getStartTime() { return EpochMinutes.toTime(startMinute); }
+    public LocalTime getEndTime() { return EpochMinutes.toTime(endMinute); }
+    public String getCourseCode() { return courseCode == null ? null : courseCode.toString(); }
+    public CourseCode getCode() { return courseCode; }
     public int getActivityId() { return activityId; }
+    public long getStartMinute() { return startMinute; }
+    public long getEndMinute() { return endMinute; }
 
     /**
-     * Checks if this time slot is for the given course code.
-     * Updated to be case-insensitive to make lookup more robust.
+     * Returns the times the slot takes up: its day of every week from its start date to its end date.
      */
-    public boolean hasCourseCode(String code) {
-        if (code == null || courseCode == null) {
-            return false;
+    public TimeGrid getTimeGrid() {
+        TimeGrid grid = timeGrid;
+        if (grid == null) {
+            grid = TimeGrid.weekly(day, startMinute, endMinute);
+            timeGrid = grid;
         }
-        return courseCode.equalsIgnoreCase(code.trim());
+        return grid;
     }
 
-    public boolean hasActivityId(int id) {
-        return activityId == id;
+    /**
+     * Checks if this time slot is for the given course code, ignoring case and surrounding spaces.
+     */
+    public boolean hasCourseCode(String code) {
+        return courseCode != null && courseCode == CourseCode.lookup(code);
     }
 
-    public boolean isChosen() {
-        return status == TimeSlotStatus.CHOSEN;
+    public boolean hasActivityId(int id) {
+        return activityId == id;
     }
 
-    public void setStatus(TimeSlotStatus status) {
-        this.status = status;
+    @Override
+    public String toString() {
+        return String.format("[%s - %d] %s %s-%s (%s to %s)",
+                courseCode, activityId, day, getStartTime(), getEndTime(), getStartDate(), getEndDate());
     }
 
     /**
      * Enhanced toString method to ensure courses are properly displayed in timetables.
      * Represents the time slot as a string, with clear indication of course code, activity ID, and status.
      */
-    @Override
-    public String toString() {
+    public String toString(TimeSlotStatus status) {
         return String.format("[%s - %d - %s] %s %s-%s (%s to %s) %s",
                 courseCode,
                 activityId,
                 status,
                 day,
-                startTime,
-                endTime,
-                startDate,
-                endDate,
+                getStartTime(),
+                getEndTime(),
+                getStartDate(),
+                getEndDate(),
                 (status == TimeSlotStatus.CHOSEN ? "✓" : ""));
     }
-}
\ No newline at end of file
+}
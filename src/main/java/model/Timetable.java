@@ -2,35 +2,198 @@ package model;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import util.EpochMinutes;
+import util.TimeGrid;
 
 /**
  * Represents a student's personal timetable.
+ *
+ * The slots themselves belong to their course's CourseSlots and are shared with every other
+ * timetable holding them. Per course, a timetable keeps only which of the course's slots it
+ * holds and which of those are chosen, as two bits per slot.
+ *
+ * The timetable also keeps the OR of its slots' time grids, so checking whether something
+ * clashes with any of them is one AND over the weeks they share.
  */
 public class Timetable {
 
+    private static final Enrolment[] NO_COURSES = new Enrolment[0];
+
     private final String studentEmail;
-    private final List<TimeSlot> timeSlots;
+    // Where the slots of the timetable's courses are shared from
+    private final CourseSlots.Registry courseSlots;
+    // The courses in the timetable, in the order they were added; slots without a code are under null
+    private Enrolment[] enrolments = NO_COURSES;
+    private int courseCount;
+    // Every quarter-hour taken by a slot in the timetable
+    private final TimeGrid.Union busy = new TimeGrid.Union();
 
+    /**
+     * Creates a timetable outside any store, which shares slots with no other timetable.
+     */
     public Timetable(String studentEmail) {
+        this(studentEmail, new CourseSlots.Registry());
+    }
+
+    Timetable(String studentEmail, CourseSlots.Registry courseSlots) {
         this.studentEmail = studentEmail;
-        this.timeSlots = new ArrayList<>();
+        this.courseSlots = courseSlots;
+    }
+
+    /**
+     * Which of a course's shared slots are in the timetable, and which of those are chosen.
+     * Bit i of a word stands for slot i of the course; courses with more than 64 slots keep
+     * the further words in `more`, as (present, chosen) pairs.
+     */
+    private static final class Enrolment {
+        final CourseCode code;
+        final CourseSlots slots;
+        long present;
+        long chosen;
+        long[] more;
+
+        Enrolment(CourseCode code, CourseSlots slots) {
+            this.code = code;
+            this.slots = slots;
+        }
+
+        private long word(int index, int offset) {
+            int w = index >>> 6;
+            if (w == 0) {
+                return offset == 0 ? present : chosen;
+            }
+            int i = 2 * (w - 1) + offset;
+            return more == null || i >= more.length ? 0 : more[i];
+        }
+
+        private void set(int index, int offset) {
+            int w = index >>> 6;
+            if (w == 0) {
+                if (offset == 0) {
+                    present |= 1L << index;
+                } else {
+                    chosen |= 1L << index;
+                }
+                return;
+            }
+            int i = 2 * (w - 1) + offset;
+            if (more == null || i >= more.length) {
+                more = Arrays.copyOf(more == null ? new long[0] : more, 2 * w);
+            }
+            more[i] |= 1L << index;
+        }
+
+        boolean has(int index) {
+            return (word(index, 0) & (1L << index)) != 0;
+        }
+
+        boolean isChosen(int index) {
+            return (word(index, 1) & (1L << index)) != 0;
+        }
+
+        /**
+         * Adds the slot, returning false if it was already there.
+         */
+        boolean add(int index) {
+            if (has(index)) {
+                return false;
+            }
+            set(index, 0);
+            return true;
+        }
+
+        void choose(int index) {
+            set(index, 1);
+        }
+
+        int count(int offset) {
+            int count = Long.bitCount(offset == 0 ? present : chosen);
+            if (more != null) {
+                for (int i = offset; i < more.length; i += 2) {
+                    count += Long.bitCount(more[i]);
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Returns the lowest index from `from` on whose slot is in the timetable, or -1 if none is.
+         */
+        int next(int from) {
+            int words = 1 + (more == null ? 0 : more.length / 2);
+            for (int w = from >>> 6; w < words; w++) {
+                long bits = word(w << 6, 0);
+                if (w == from >>> 6) {
+                    bits &= -1L << from;
+                }
+                if (bits != 0) {
+                    return (w << 6) + Long.numberOfTrailingZeros(bits);
+                }
+            }
+            return -1;
+        }
     }
 
     public String getStudentEmail() {
         return studentEmail;
     }
 
+    private Enrolment find(CourseCode courseCode) {
+        for (int i = 0; i < courseCount; i++) {
+            if (enrolments[i].code == courseCode) {
+                return enrolments[i];
+            }
+        }
+        return null;
+    }
+
     /**
      * Adds a time slot to the timetable.
      */
     public void addTimeSlot(DayOfWeek day, LocalDate startDate, LocalTime startTime,
                             LocalDate endDate, LocalTime endTime, String courseCode,
                             int activityId, TimeSlotStatus status) {
-        timeSlots.add(new TimeSlot(day, startDate, startTime, endDate, endTime,
-                courseCode, activityId, status));
+        addTimeSlot(day, EpochMinutes.of(startDate, startTime), EpochMinutes.of(endDate, endTime),
+                courseCode, activityId, status);
+    }
+
+    /**
+     * Adds a time slot whose start and end are given in epoch minutes.
+     *
+     * @return the slot that was added
+     */
+    public TimeSlot addTimeSlot(DayOfWeek day, long startMinute, long endMinute, String courseCode,
+                            int activityId, TimeSlotStatus status) {
+        return addTimeSlot(day, startMinute, endMinute, CourseCode.of(courseCode), activityId, status);
+    }
+
+    /**
+     * Adds a time slot, sharing it with any other timetable that holds the same one. Adding a
+     * slot that is already in the timetable only marks it chosen if the status says so.
+     *
+     * @return the slot that was added
+     */
+    public TimeSlot addTimeSlot(DayOfWeek day, long startMinute, long endMinute, CourseCode courseCode,
+                                int activityId, TimeSlotStatus status) {
+        Enrolment enrolment = find(courseCode);
+        if (enrolment == null) {
+            if (courseCount == enrolments.length) {
+                enrolments = Arrays.copyOf(enrolments, Math.max(4, courseCount * 2));
+            }
+            enrolment = new Enrolment(courseCode, courseSlots.of(courseCode));
+            enrolments[courseCount++] = enrolment;
+        }
+        int index = enrolment.slots.indexOf(day, startMinute, endMinute, activityId);
+        TimeSlot slot = enrolment.slots.table().slots[index];
+        if (enrolment.add(index)) {
+            busy.add(slot.getTimeGrid());
+        }
+        if (status == TimeSlotStatus.CHOSEN) {
+            enrolment.choose(index);
+        }
+        return slot;
     }
 
     /**
@@ -38,16 +201,11 @@ public class Timetable {
      * This method is case-insensitive to make the lookup more robust.
      */
     public boolean hasSlotsForCourse(String courseCode) {
-        if (courseCode == null || courseCode.trim().isEmpty()) {
-            return false;
-        }
-
-        // Case-insensitive comparison to be more user-friendly
-        String normalizedCode = courseCode.trim().toUpperCase();
+        return hasSlotsForCourse(CourseCode.lookup(courseCode));
+    }
 
-        return timeSlots.stream()
-                .anyMatch(slot -> slot.getCourseCode() != null &&
-                        slot.getCourseCode().toUpperCase().equals(normalizedCode));
+    public boolean hasSlotsForCourse(CourseCode courseCode) {
+        return courseCode != null && find(courseCode) != null;
     }
 
     /**
@@ -55,37 +213,52 @@ public class Timetable {
      * This method is case-insensitive to make the removal more robust.
      */
     public void removeSlotsForCourse(String courseCode) {
-        if (courseCode == null || courseCode.trim().isEmpty()) {
+        removeSlotsForCourse(CourseCode.lookup(courseCode));
+    }
+
+    public void removeSlotsForCourse(CourseCode courseCode) {
+        if (courseCode == null) {
             return;
         }
-
-        // Case-insensitive comparison to be more user-friendly
-        String normalizedCode = courseCode.trim().toUpperCase();
-
-        timeSlots.removeIf(slot -> slot.getCourseCode() != null &&
-                slot.getCourseCode().toUpperCase().equals(normalizedCode));
+        for (int i = 0; i < courseCount; i++) {
+            if (enrolments[i].code == courseCode) {
+                System.arraycopy(enrolments, i + 1, enrolments, i, courseCount - i - 1);
+                enrolments[--courseCount] = null;
+                // Bits can't be taken back out of an OR, so rebuild it from the slots left
+                busy.clear();
+                for (TimeSlot slot : getTimeSlots()) {
+                    busy.add(slot.getTimeGrid());
+                }
+                return;
+            }
+        }
     }
 
     /**
      * Returns the number of "CHOSEN" activities for a course.
      */
     public int numChosenActivities(String courseCode) {
-        int count = 0;
-        for (TimeSlot slot : timeSlots) {
-            if (slot.hasCourseCode(courseCode) && slot.isChosen()) {
-                count++;
-            }
-        }
-        return count;
+        return numChosenActivities(CourseCode.lookup(courseCode));
+    }
+
+    public int numChosenActivities(CourseCode courseCode) {
+        Enrolment enrolment = courseCode == null ? null : find(courseCode);
+        return enrolment == null ? 0 : enrolment.count(1);
     }
 
     /**
      * Sets an activity as "CHOSEN" if found. Returns true if successful.
      */
     public boolean chooseActivity(String courseCode, int activityId) {
-        for (TimeSlot slot : timeSlots) {
-            if (slot.hasCourseCode(courseCode) && slot.hasActivityId(activityId)) {
-                slot.setStatus(TimeSlotStatus.CHOSEN);
+        CourseCode code = CourseCode.lookup(courseCode);
+        Enrolment enrolment = code == null ? null : find(code);
+        if (enrolment == null) {
+            return false;
+        }
+        TimeSlot[] slots = enrolment.slots.table().slots;
+        for (int i = enrolment.next(0); i >= 0; i = enrolment.next(i + 1)) {
+            if (slots[i].getActivityId() == activityId) {
+                enrolment.choose(i);
                 return true;
             }
         }
@@ -93,25 +266,105 @@ public class Timetable {
     }
 
     /**
-     * Checks for conflicts with a proposed new activity time.
+     * Returns whether the course's activity is chosen, or null if it isn't in the timetable.
+     */
+    public TimeSlotStatus getActivityStatus(String courseCode, int activityId) {
+        return getActivityStatus(CourseCode.lookup(courseCode), activityId);
+    }
+
+    public TimeSlotStatus getActivityStatus(CourseCode courseCode, int activityId) {
+        Enrolment enrolment = courseCode == null ? null : find(courseCode);
+        if (enrolment == null) {
+            return null;
+        }
+        TimeSlot[] slots = enrolment.slots.table().slots;
+        for (int i = enrolment.next(0); i >= 0; i = enrolment.next(i + 1)) {
+            if (slots[i].getActivityId() == activityId) {
+                return enrolment.isChosen(i) ? TimeSlotStatus.CHOSEN : TimeSlotStatus.UNCHOSEN;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the slot is in the timetable and chosen.
+     */
+    public boolean isChosen(TimeSlot slot) {
+        Enrolment enrolment = find(slot.getCode());
+        if (enrolment == null) {
+            return false;
+        }
+        int index = enrolment.slots.table().indexOf(slot);
+        return index >= 0 && enrolment.has(index) && enrolment.isChosen(index);
+    }
+
+    /**
+     * Returns every slot in the timetable, grouped by course.
+     */
+    public List<TimeSlot> getTimeSlots() {
+        List<TimeSlot> all = new ArrayList<>();
+        for (int c = 0; c < courseCount; c++) {
+            Enrolment enrolment = enrolments[c];
+            TimeSlot[] slots = enrolment.slots.table().slots;
+            for (int i = enrolment.next(0); i >= 0; i = enrolment.next(i + 1)) {
+                all.add(slots[i]);
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Checks for conflicts with a proposed new activity time, taken as one continuous stretch
+     * from the start date and time to the end date and time.
      * Returns the conflicting course and activity ID if found.
      */
     public String[] checkConflicts(LocalDate startDate, LocalTime startTime,
                                    LocalDate endDate, LocalTime endTime) {
-        // Combine the dates and times into LocalDateTime objects
-        LocalDateTime newStart = LocalDateTime.of(startDate, startTime);
-        LocalDateTime newEnd = LocalDateTime.of(endDate, endTime);
+        return checkConflicts(EpochMinutes.of(startDate, startTime), EpochMinutes.of(endDate, endTime));
+    }
+
+    /**
+     * Checks for conflicts with a continuous range given in epoch minutes.
+     */
+    public String[] checkConflicts(long startMinute, long endMinute) {
+        return checkConflicts(TimeGrid.range(startMinute, endMinute));
+    }
 
-        for (TimeSlot slot : timeSlots) {
-            LocalDateTime slotStart = LocalDateTime.of(slot.getStartDate(), slot.getStartTime());
-            LocalDateTime slotEnd = LocalDateTime.of(slot.getEndDate(), slot.getEndTime());
+    /**
+     * Checks for conflicts with an activity held on the day every week between its start and
+     * end dates, from its start time to its end time.
+     */
+    public String[] checkConflicts(DayOfWeek day, long startMinute, long endMinute) {
+        return checkConflicts(TimeGrid.weekly(day, startMinute, endMinute));
+    }
 
-            // Overlap condition: newStart is before slotEnd and newEnd is after slotStart.
-            if (newStart.isBefore(slotEnd) && newEnd.isAfter(slotStart)) {
-                return new String[]{slot.getCourseCode(), String.valueOf(slot.getActivityId())};
+    /**
+     * Checks for conflicts with the times in the grid, such as an activity's.
+     * The slot reported is the one whose clash starts earliest; if there are several, the one
+     * whose first occurrence starts earliest.
+     */
+    public String[] checkConflicts(TimeGrid times) {
+        if (!busy.intersects(times)) {
+            return null;
+        }
+
+        // Something shares a quarter-hour, so check each slot to the minute
+        TimeSlot first = null;
+        long firstMinute = 0;
+        for (int c = 0; c < courseCount; c++) {
+            Enrolment enrolment = enrolments[c];
+            TimeSlot[] slots = enrolment.slots.table().slots;
+            for (int i = enrolment.next(0); i >= 0; i = enrolment.next(i + 1)) {
+                TimeSlot slot = slots[i];
+                long minute = slot.getTimeGrid().firstCommonMinute(times);
+                if (minute != TimeGrid.NO_MINUTE && (first == null || minute < firstMinute
+                        || minute == firstMinute && slot.getStartMinute() < first.getStartMinute())) {
+                    first = slot;
+                    firstMinute = minute;
+                }
             }
         }
-        return null;
+        return first == null ? null : new String[]{first.getCourseCode(), String.valueOf(first.getActivityId())};
     }
 
     /**
@@ -123,10 +376,10 @@ public class Timetable {
         sb.append("Timetable for ").append(studentEmail).append(" (Working Week):\n");
 
         // Sort time slots by day of week and start time for better readability
-        List<TimeSlot> sortedSlots = new ArrayList<>(timeSlots);
+        List<TimeSlot> sortedSlots = getTimeSlots();
         sortedSlots.sort(Comparator
                 .comparing(TimeSlot::getDay)
-                .thenComparing(TimeSlot::getStartTime));
+                .thenComparingInt(slot -> EpochMinutes.minuteOfDay(slot.getStartMinute())));
 
         boolean hasWorkingWeekSlots = false;
 
@@ -134,7 +387,7 @@ public class Timetable {
             // Check if the day is between Monday and Friday (inclusive)
             if (slot.getDay().getValue() >= DayOfWeek.MONDAY.getValue() &&
                     slot.getDay().getValue() <= DayOfWeek.FRIDAY.getValue()) {
-                sb.append(slot.toString()).append("\n");
+                sb.append(slot.toString(statusOf(slot))).append("\n");
                 hasWorkingWeekSlots = true;
             }
         }
@@ -148,7 +401,8 @@ public class Timetable {
 
     @Override
     public String toString() {
-        if (timeSlots.isEmpty()) {
+        List<TimeSlot> sortedSlots = getTimeSlots();
+        if (sortedSlots.isEmpty()) {
             return "No scheduled activities.";
         }
 
@@ -156,14 +410,17 @@ public class Timetable {
         sb.append("Timetable for ").append(studentEmail).append(":\n");
 
         // Sort time slots by day of week and start time for better readability
-        List<TimeSlot> sortedSlots = new ArrayList<>(timeSlots);
         sortedSlots.sort(Comparator
                 .comparing(TimeSlot::getDay)
-                .thenComparing(TimeSlot::getStartTime));
+                .thenComparingInt(slot -> EpochMinutes.minuteOfDay(slot.getStartMinute())));
 
         for (TimeSlot slot : sortedSlots) {
-            sb.append(slot).append("\n");
+            sb.append(slot.toString(statusOf(slot))).append("\n");
         }
         return sb.toString().trim();
     }
-}
\ No newline at end of file
+
+    private TimeSlotStatus statusOf(TimeSlot slot) {
+        return isChosen(slot) ? TimeSlotStatus.CHOSEN : TimeSlotStatus.UNCHOSEN;
+    }
+}
@@ -0,0 +1,148 @@
+package server;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens many concurrent sessions against a running PortalServer and reports how long they took.
+ * Each session views the course list, logs in as a student, views their timetable and exits.
+ *
+ * Usage: LoadTestClient [host] [port] [sessions] [concurrency]
+ */
+public class LoadTestClient {
+
+    private static final String[] STUDENT_SESSION = {
+            "3",                        // Guest: view courses
+            "0", "student1", "student1pass", // Guest: log in
+            "4",                        // Student: view timetable
+            "-1"                        // Exit
+    };
+
+    private final String host;
+    private final int port;
+
+    public LoadTestClient(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Runs one scripted session and returns everything the server sent back.
+     */
+    public String runSession(String... inputLines) throws IOException {
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+            for (String line : inputLines) {
+                out.write(line);
+                out.write('\n');
+            }
+            out.flush();
+            // Signal end of input, so a script that stops mid-menu ends the session rather than hanging
+            socket.shutdownOutput();
+
+            // The server closes the connection when the session ends, so read to the end
+            ByteArrayOutputStream response = new ByteArrayOutputStream();
+            socket.getInputStream().transferTo(response);
+            return response.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Runs the given number of sessions, at most `concurrency` at a time, and returns
+     * the latency of each successful session in nanoseconds.
+     */
+    public LoadTestResult run(int sessions, int concurrency) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch start = new CountDownLatch(1);
+        long[] latencies = new long[sessions];
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        for (int i = 0; i < sessions; i++) {
+            int session = i;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    long begin = System.nanoTime();
+                    String output = runSession(STUDENT_SESSION);
+                    if (output.contains("Bye bye!")) {
+                        latencies[completed.getAndIncrement()] = System.nanoTime() - begin;
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    failed.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - begin;
+
+        return new LoadTestResult(Arrays.copyOf(latencies, completed.get()), failed.get(), elapsed);
+    }
+
+    /**
+     * Latencies and failure count from one load-test run.
+     */
+    public static class LoadTestResult {
+        private final long[] sortedLatencies;
+        private final int failures;
+        private final long elapsedNanos;
+
+        LoadTestResult(long[] latencies, int failures, long elapsedNanos) {
+            this.sortedLatencies = latencies;
+            Arrays.sort(this.sortedLatencies);
+            this.failures = failures;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getCompleted() {
+            return sortedLatencies.length;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        public long percentileNanos(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+        }
+
+        public double sessionsPerSecond() {
+            return getCompleted() / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d sessions completed, %d failed in %.2fs (%.1f sessions/s); "
+                            + "latency p50=%.1fms p99=%.1fms max=%.1fms",
+                    getCompleted(), failures, elapsedNanos / 1e9, sessionsPerSecond(),
+                    percentileNanos(50) / 1e6, percentileNanos(99) / 1e6, percentileNanos(100) / 1e6);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        int sessions = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+
+        LoadTestResult result = new LoadTestClient(host, port).run(sessions, concurrency);
+        System.out.println(result);
+    }
+}
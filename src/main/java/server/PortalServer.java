@@ -0,0 +1,139 @@
+package server;
+
+import controller.MenuController;
+import external.AuthenticationService;
+import external.EmailService;
+import model.SharedContext;
+import model.SharedStore;
+import org.tinylog.Logger;
+import view.TextUserInterface;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves the portal over plain TCP, one line-oriented session per connection.
+ * Every connection gets its own view, SharedContext and MenuController, all backed by the
+ * same SharedStore, so a whole cohort can use one running instance.
+ */
+public class PortalServer implements Closeable {
+    private static final int ACCEPT_BACKLOG = 4096;
+
+    private final SharedStore store;
+    private final AuthenticationService auth;
+    private final EmailService email;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions;
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final AtomicLong completedSessions = new AtomicLong();
+    private volatile boolean running = true;
+
+    /**
+     * Binds the server socket. Pass port 0 to pick any free port.
+     */
+    public PortalServer(int port, SharedStore store, AuthenticationService auth, EmailService email) throws IOException {
+        this.store = store;
+        this.auth = auth;
+        this.email = email;
+        this.serverSocket = new ServerSocket(port, ACCEPT_BACKLOG);
+        // One thread per session, as sessions spend nearly all their time blocked on input.
+        // Swap for Executors.newVirtualThreadPerTaskExecutor() once the build targets Java 21.
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sessions = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "portal-session-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    public long getCompletedSessions() {
+        return completedSessions.get();
+    }
+
+    /**
+     * Accepts connections until the server is closed. Blocks the calling thread.
+     */
+    public void serve() {
+        Logger.info("Portal server listening on port {}", getPort());
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessions.execute(() -> handle(socket));
+            } catch (SocketException e) {
+                // Thrown from accept() once close() has been called
+                if (running) {
+                    Logger.error(e, "Portal server socket failed");
+                }
+                return;
+            } catch (IOException e) {
+                Logger.error(e, "Failed to accept connection");
+            }
+        }
+    }
+
+    /**
+     * Starts accepting connections on a background thread.
+     */
+    public void start() {
+        Thread acceptor = new Thread(this::serve, "portal-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    private void handle(Socket socket) {
+        activeSessions.incrementAndGet();
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            TextUserInterface view = new TextUserInterface(socket.getInputStream(),
+                    new PrintStream(new BufferedOutputStream(socket.getOutputStream())));
+            SharedContext sessionContext = new SharedContext(view, store);
+            try {
+                new MenuController(sessionContext, view, auth, email).mainMenu();
+            } catch (NoSuchElementException | UncheckedIOException e) {
+                // The client disconnected part way through a menu
+            } finally {
+                view.flush();
+            }
+        } catch (IOException e) {
+            Logger.warn(e, "Session connection failed");
+        } finally {
+            activeSessions.decrementAndGet();
+            completedSessions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Stops accepting connections and waits briefly for open sessions to finish.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        sessions.shutdown();
+        try {
+            sessions.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
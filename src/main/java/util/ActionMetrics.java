@@ -0,0 +1,92 @@
+package util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency histograms and error counts for each kind of user action, under the same action
+ * names as the audit log (addCourseToStudentTimetable, removeCourse, login, sendEmail...).
+ *
+ * An action is timed by taking System.nanoTime() when it starts and passing it to record()
+ * when it ends. Once an action has been seen, recording it allocates nothing, so the metrics
+ * are always on.
+ */
+public class ActionMetrics {
+
+    private static final ActionMetrics GLOBAL = new ActionMetrics();
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the metrics every session records into.
+     */
+    public static ActionMetrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Records an action in the global metrics.
+     *
+     * @param startNanos System.nanoTime() when the action started
+     * @param succeeded  false if the action failed, which counts towards its error rate
+     */
+    public static void record(String action, long startNanos, boolean succeeded) {
+        GLOBAL.add(action, System.nanoTime() - startNanos, succeeded);
+    }
+
+    public void add(String action, long nanos, boolean succeeded) {
+        LatencyHistogram histogram = histograms.get(action);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(action, name -> new LatencyHistogram());
+        }
+        histogram.record(nanos, !succeeded);
+    }
+
+    /**
+     * Returns a snapshot of each action's histogram, by action name.
+     */
+    public Map<String, LatencyHistogram.Snapshot> snapshot() {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+        histograms.forEach((action, histogram) -> snapshots.put(action, histogram.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * Returns a table of every action's count, error rate and latency percentiles.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-28s %8s %7s %10s %10s %10s %10s %10s %10s%n",
+                "action", "count", "errors", "mean", "p50", "p90", "p99", "p99.9", "max"));
+        for (Map.Entry<String, LatencyHistogram.Snapshot> entry : snapshot().entrySet()) {
+            LatencyHistogram.Snapshot snapshot = entry.getValue();
+            report.append(String.format("%-28s %8d %6.1f%% %10s", entry.getKey(), snapshot.getCount(),
+                    snapshot.getErrorRate() * 100, LatencyHistogram.format(snapshot.getMeanNanos())));
+            for (double percentile : PERCENTILES) {
+                report.append(String.format(" %10s", LatencyHistogram.format(snapshot.getPercentileNanos(percentile))));
+            }
+            report.append(String.format(" %10s%n", LatencyHistogram.format(snapshot.getMaxNanos())));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Writes the report to the file, replacing anything already there.
+     */
+    public void writeTo(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(report());
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package util;
+
+import org.tinylog.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records what users do as one JSON object per line, with the user, action, input, outcome
+ * and a timestamp in nanoseconds since the epoch.
+ *
+ * Recording an event only claims a slot in a ring buffer and fills in its fields; turning it
+ * into text and writing it out happens on a background thread. Slots are claimed with a single
+ * atomic increment, so sessions never wait on a lock to log. If the writer falls a whole buffer
+ * behind, callers wait for it to free a slot rather than lose events.
+ *
+ * Inputs and details may be any object and are only converted to text by the writer, so they
+ * must not change after being recorded. Use fields() for an input made of several values.
+ */
+public class AuditLog implements Closeable {
+
+    public enum Outcome { SUCCESS, WARNING, FAILURE }
+
+    public static final int DEFAULT_CAPACITY = 8192;
+    private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    // Epoch time at System.nanoTime() == 0, so timestamps need no Instant on the caller's thread
+    private static final long EPOCH_NANOS_OFFSET = epochNanosOffset();
+
+    // Until Main installs one, events are written nowhere
+    private static volatile AuditLog installed = new AuditLog(Writer.nullWriter());
+
+    private final Slot[] slots;
+    private final int mask;
+    private final Writer out;
+    private final Thread writer;
+    // Sequence of the next slot to be claimed, and of the next one the writer will read
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    // Every event before this sequence has been written and flushed
+    private volatile long flushed;
+    private final AtomicLong stalls = new AtomicLong();
+    private volatile boolean closed;
+
+    private static final class Slot {
+        // Sequence + 1 once the fields are filled in, so a new ring reads as nothing published
+        volatile long published;
+        long timestamp;
+        String user;
+        String action;
+        Object input;
+        Outcome outcome;
+        Object detail;
+    }
+
+    /**
+     * An input made of named values, written as a JSON object.
+     */
+    public static final class Fields {
+        private final Object[] namesAndValues;
+
+        private Fields(Object[] namesAndValues) {
+            this.namesAndValues = namesAndValues;
+        }
+    }
+
+    public AuditLog(Writer out) {
+        this(out, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity how many events may wait to be written; rounded up to a power of two
+     */
+    public AuditLog(Writer out, int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.out = out;
+        this.writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Opens a log that appends to the file, creating it and its directory if needed.
+     */
+    public static AuditLog open(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return new AuditLog(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+    }
+
+    /**
+     * Makes the log the one record() writes to, returning the one it replaces.
+     */
+    public static AuditLog install(AuditLog log) {
+        AuditLog previous = installed;
+        installed = log;
+        return previous;
+    }
+
+    public static AuditLog installed() {
+        return installed;
+    }
+
+    /**
+     * Records an event in the installed log.
+     *
+     * @param input  what the user asked for: a String, fields(), or anything else with a toString()
+     * @param detail why it failed, or anything else worth noting; may be null
+     */
+    public static void record(String user, String action, Object input, Outcome outcome, Object detail) {
+        installed.log(user, action, input, outcome, detail);
+    }
+
+    public static void record(String user, String action, Object input, Outcome outcome) {
+        installed.log(user, action, input, outcome, null);
+    }
+
+    /**
+     * Returns an input made of name/value pairs, e.g. fields("code", code, "name", name).
+     */
+    public static Fields fields(Object... namesAndValues) {
+        return new Fields(namesAndValues);
+    }
+
+    /**
+     * Records an event in this log.
+     */
+    public void log(String user, String action, Object input, Outcome outcome, Object detail) {
+        long timestamp = EPOCH_NANOS_OFFSET + System.nanoTime();
+        if (closed) {
+            Logger.warn("Audit log closed; dropped {} by {}", action, user);
+            return;
+        }
+        long sequence = claimed.getAndIncrement();
+        if (sequence - consumed.get() >= slots.length) {
+            awaitSlot(sequence);
+        }
+        Slot slot = slots[(int) sequence & mask];
+        slot.timestamp = timestamp;
+        slot.user = user;
+        slot.action = action;
+        slot.input = input;
+        slot.outcome = outcome;
+        slot.detail = detail;
+        slot.published = sequence + 1;
+    }
+
+    private void awaitSlot(long sequence) {
+        stalls.incrementAndGet();
+        LockSupport.unpark(writer);
+        while (sequence - consumed.get() >= slots.length) {
+            Thread.yield();
+        }
+    }
+
+    private void writeLoop() {
+        StringBuilder line = new StringBuilder(256);
+        long next = 0;
+        long idleParkNanos = 1_000;
+        boolean unflushed = false;
+        while (true) {
+            Slot slot = slots[(int) next & mask];
+            if (slot.published == next + 1) {
+                format(slot, line);
+                slot.user = null;
+                slot.action = null;
+                slot.input = null;
+                slot.detail = null;
+                consumed.set(++next);
+                write(line);
+                unflushed = true;
+                idleParkNanos = 1_000;
+                continue;
+            }
+            if (unflushed) {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    Logger.error(e, "Could not flush audit log");
+                }
+                unflushed = false;
+            }
+            flushed = next;
+            // Anything claimed but not yet published is still written before stopping
+            if (closed && next == claimed.get()) {
+                return;
+            }
+            LockSupport.parkNanos(this, idleParkNanos);
+            idleParkNanos = Math.min(idleParkNanos * 2, MAX_IDLE_PARK_NANOS);
+        }
+    }
+
+    private void write(StringBuilder line) {
+        try {
+            out.append(line);
+        } catch (IOException e) {
+            Logger.error(e, "Could not write audit event: {}", line);
+        }
+    }
+
+    private static void format(Slot slot, StringBuilder line) {
+        line.setLength(0);
+        line.append("{\"timestampNanos\":").append(slot.timestamp);
+        line.append(",\"user\":");
+        appendValue(line, slot.user);
+        line.append(",\"action\":");
+        appendValue(line, slot.action);
+        line.append(",\"input\":");
+        appendValue(line, slot.input);
+        line.append(",\"outcome\":");
+        appendValue(line, slot.outcome);
+        if (slot.detail != null) {
+            line.append(",\"detail\":");
+            appendValue(line, slot.detail);
+        }
+        line.append("}\n");
+    }
+
+    private static void appendValue(StringBuilder line, Object value) {
+        if (value == null) {
+            line.append("null");
+        } else if (value instanceof Fields) {
+            Object[] namesAndValues = ((Fields) value).namesAndValues;
+            line.append('{');
+            for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                appendString(line, String.valueOf(namesAndValues[i]));
+                line.append(':');
+                appendValue(line, namesAndValues[i + 1]);
+            }
+            line.append('}');
+        } else if (value instanceof Boolean || value instanceof Integer || value instanceof Long) {
+            line.append(value);
+        } else {
+            appendString(line, value.toString());
+        }
+    }
+
+    private static void appendString(StringBuilder line, String text) {
+        line.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    private static long epochNanosOffset() {
+        Instant now = Instant.now();
+        return TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano() - System.nanoTime();
+    }
+
+    /**
+     * Waits until every event recorded so far has been written and flushed.
+     *
+     * @return true if they were before the timeout
+     */
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        long target = claimed.get();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (flushed < target) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            LockSupport.unpark(writer);
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    /**
+     * Returns how many times a caller has had to wait for the writer to free a slot.
+     */
+    public long getStalls() {
+        return stalls.get();
+    }
+
+    /**
+     * Writes whatever is still waiting, then closes the underlying writer. Events recorded
+     * after this are dropped.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+    }
+}
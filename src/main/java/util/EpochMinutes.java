@@ -0,0 +1,40 @@
+package util;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Helpers for the primitive epoch-minute encoding used by activities and time slots.
+ * A point in time is stored as whole minutes since 1970-01-01T00:00, so ranges can be
+ * compared with plain long arithmetic instead of building LocalDateTime objects.
+ */
+public final class EpochMinutes {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private EpochMinutes() {
+    }
+
+    public static long of(LocalDate date, LocalTime time) {
+        return date.toEpochDay() * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+    }
+
+    public static LocalDate toDate(long epochMinute) {
+        return LocalDate.ofEpochDay(Math.floorDiv(epochMinute, MINUTES_PER_DAY));
+    }
+
+    public static LocalTime toTime(long epochMinute) {
+        return LocalTime.ofSecondOfDay(minuteOfDay(epochMinute) * 60L);
+    }
+
+    public static int minuteOfDay(long epochMinute) {
+        return (int) Math.floorMod(epochMinute, (long) MINUTES_PER_DAY);
+    }
+
+    /**
+     * True if the half-open ranges [startA, endA) and [startB, endB) overlap.
+     */
+    public static boolean overlaps(long startA, long endA, long startB, long endB) {
+        return startA < endB && endA > startB;
+    }
+}
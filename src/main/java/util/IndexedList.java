@@ -0,0 +1,170 @@
+package util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A list that also indexes its elements by a key, so an element can be found by key as
+ * well as by position, both in O(1). If several elements share a key, the key finds the
+ * first of them, as a front-to-back search of the list would.
+ *
+ * Reads are lock-free and iterators are snapshots, as with CopyOnWriteArrayList.
+ * Changes through any List method, including clear() and removal through subList views,
+ * keep the key index up to date.
+ */
+public class IndexedList<K, V> extends AbstractList<V> implements RandomAccess {
+
+    private final List<V> elements = new CopyOnWriteArrayList<>();
+    private final Map<K, V> index = new ConcurrentHashMap<>();
+    private final Function<? super V, ? extends K> keyOf;
+
+    public IndexedList(Function<? super V, ? extends K> keyOf) {
+        this.keyOf = keyOf;
+    }
+
+    @Override
+    public V get(int position) {
+        return elements.get(position);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    /**
+     * Returns the first element with the key, or null if there is none.
+     */
+    public V getByKey(K key) {
+        return key == null ? null : index.get(key);
+    }
+
+    public boolean containsKey(K key) {
+        return key != null && index.containsKey(key);
+    }
+
+    /**
+     * Removes the first element with the key and returns it, or null if there is none.
+     */
+    public synchronized V removeByKey(K key) {
+        V element = getByKey(key);
+        if (element != null) {
+            remove(element);
+        }
+        return element;
+    }
+
+    @Override
+    public synchronized void add(int position, V element) {
+        elements.add(position, element);
+        K key = keyOf.apply(element);
+        if (key == null) {
+            return;
+        }
+        if (position == elements.size() - 1) {
+            index.putIfAbsent(key, element);
+        } else {
+            // Inserted in front of others, so it may now be the first with its key
+            reindex(key);
+        }
+    }
+
+    @Override
+    public synchronized boolean addAll(Collection<? extends V> added) {
+        if (added.isEmpty()) {
+            return false;
+        }
+        elements.addAll(added);
+        for (V element : added) {
+            K key = keyOf.apply(element);
+            if (key != null) {
+                index.putIfAbsent(key, element);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized V set(int position, V element) {
+        V previous = elements.set(position, element);
+        unindex(previous);
+        reindex(keyOf.apply(element));
+        return previous;
+    }
+
+    @Override
+    public synchronized V remove(int position) {
+        V removed = elements.remove(position);
+        unindex(removed);
+        return removed;
+    }
+
+    @Override
+    public synchronized boolean removeIf(Predicate<? super V> filter) {
+        List<V> removed = new ArrayList<>();
+        for (V element : elements) {
+            if (filter.test(element)) {
+                removed.add(element);
+            }
+        }
+        if (removed.isEmpty()) {
+            return false;
+        }
+        elements.removeAll(removed);
+        for (V element : removed) {
+            unindex(element);
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized boolean remove(Object element) {
+        int position = elements.indexOf(element);
+        if (position < 0) {
+            return false;
+        }
+        remove(position);
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        elements.clear();
+        index.clear();
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return elements.iterator();
+    }
+
+    /**
+     * Updates the index after the element has left the list.
+     */
+    private void unindex(V element) {
+        K key = keyOf.apply(element);
+        // Only matters if it was the element the key pointed at
+        if (key != null && index.get(key) == element) {
+            reindex(key);
+        }
+    }
+
+    /**
+     * Points the key at the first element that still has it, after a change that may have moved it.
+     */
+    private void reindex(K key) {
+        if (key == null) {
+            return;
+        }
+        for (V element : elements) {
+            if (key.equals(keyOf.apply(element))) {
+                index.put(key, element);
+                return;
+            }
+        }
+        index.remove(key);
+    }
+}
@@ -0,0 +1,182 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * An augmented interval tree over half-open [start, end) ranges of primitive longs.
+ * Backed by a treap ordered by start, where every node also tracks the largest end
+ * in its subtree so overlap queries can prune whole branches.
+ *
+ * Insertion and the leftmost-overlap lookup are O(log n) expected, enumerating all
+ * overlaps is O(log n + k), and bulk removal rebuilds the tree in O(n log n).
+ */
+public class IntervalTree<T> {
+
+    private static final class Node<T> {
+        final long start;
+        final long end;
+        final T value;
+        final int priority;
+        long maxEnd;
+        Node<T> left;
+        Node<T> right;
+
+        Node(long start, long end, T value, int priority) {
+            this.start = start;
+            this.end = end;
+            this.value = value;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+    }
+
+    private final Random random = new Random(0x5EED);
+    private Node<T> root;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds the value covering [start, end).
+     */
+    public void insert(long start, long end, T value) {
+        root = insert(root, new Node<>(start, end, value, random.nextInt()));
+        size++;
+    }
+
+    /**
+     * Returns the value with the earliest start that overlaps [start, end), or null if none does.
+     */
+    public T findFirstOverlap(long start, long end) {
+        Node<T> node = root;
+        while (node != null) {
+            if (node.left != null && node.left.maxEnd > start) {
+                // If anything overlaps at all, something in the left subtree does.
+                node = node.left;
+            } else if (node.start < end && node.end > start) {
+                return node.value;
+            } else if (node.start >= end) {
+                return null;
+            } else {
+                node = node.right;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Passes every value overlapping [start, end) to the consumer, in order of start.
+     */
+    public void forEachOverlap(long start, long end, Consumer<? super T> consumer) {
+        forEachOverlap(root, start, end, consumer);
+    }
+
+    /**
+     * Removes every value matching the predicate and returns how many were removed.
+     */
+    public int removeIf(Predicate<? super T> filter) {
+        List<Node<T>> survivors = new ArrayList<>(size);
+        collect(root, filter, survivors);
+        int removed = size - survivors.size();
+        if (removed == 0) {
+            return 0;
+        }
+        root = null;
+        for (Node<T> node : survivors) {
+            node.left = null;
+            node.right = null;
+            node.maxEnd = node.end;
+            root = insert(root, node);
+        }
+        size = survivors.size();
+        return removed;
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.start < node.start) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private void forEachOverlap(Node<T> node, long start, long end, Consumer<? super T> consumer) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        forEachOverlap(node.left, start, end, consumer);
+        if (node.start >= end) {
+            return;
+        }
+        if (node.end > start) {
+            consumer.accept(node.value);
+        }
+        forEachOverlap(node.right, start, end, consumer);
+    }
+
+    private void collect(Node<T> node, Predicate<? super T> filter, List<Node<T>> survivors) {
+        if (node == null) {
+            return;
+        }
+        collect(node.left, filter, survivors);
+        if (!filter.test(node.value)) {
+            survivors.add(node);
+        }
+        collect(node.right, filter, survivors);
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(Node<T> node) {
+        long max = node.end;
+        if (node.left != null && node.left.maxEnd > max) {
+            max = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd > max) {
+            max = node.right.maxEnd;
+        }
+        node.maxEnd = max;
+    }
+}
@@ -0,0 +1,163 @@
+package util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts latencies in buckets whose width grows with the value, in the style of an HDR
+ * histogram: every power of two is split into the same number of sub-buckets, so any recorded
+ * value is reported to within about 3% whether it took microseconds or minutes.
+ *
+ * Recording is a few shifts and atomic increments into arrays allocated up front, so it can be
+ * left on everywhere. Percentiles are read from a snapshot taken while recording carries on.
+ */
+public class LatencyHistogram {
+
+    // 2^5 = 32 sub-buckets per power of two, for a relative error of at most 1/32
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values from 2^40 ns (about 18 minutes) up all go in the last bucket
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records one operation that took the given time.
+     *
+     * @param failed whether it counts towards the error rate
+     */
+    public void record(long nanos, boolean failed) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        totalNanos.add(value);
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) | subBucket;
+    }
+
+    /**
+     * Returns the largest value that falls in the bucket, which is what percentiles report.
+     */
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket & (SUB_BUCKETS - 1);
+        long lowest = (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    public Snapshot snapshot() {
+        long[] bucketCounts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            bucketCounts[i] = counts.get(i);
+            total += bucketCounts[i];
+        }
+        return new Snapshot(bucketCounts, total, errors.sum(), totalNanos.sum(), maxNanos.get());
+    }
+
+    /**
+     * The counts at one point in time.
+     */
+    public static final class Snapshot {
+        private final long[] bucketCounts;
+        private final long count;
+        private final long errors;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        Snapshot(long[] bucketCounts, long count, long errors, long totalNanos, long maxNanos) {
+            this.bucketCounts = bucketCounts;
+            this.count = count;
+            this.errors = errors;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getErrorRate() {
+            return count == 0 ? 0 : (double) errors / count;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * Returns the latency that the given percentage of operations took no longer than.
+         */
+        public long getPercentileNanos(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                seen += bucketCounts[i];
+                if (seen >= rank) {
+                    // The last bucket has no upper bound
+                    return i == BUCKETS - 1 ? maxNanos : Math.min(highestValueIn(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + ", errors=" + errors
+                    + ", p50=" + format(getPercentileNanos(50)) + ", p99=" + format(getPercentileNanos(99))
+                    + ", max=" + format(maxNanos);
+        }
+    }
+
+    /**
+     * Formats a latency with a unit that suits its size, such as "1.25ms".
+     */
+    public static String format(long nanos) {
+        if (nanos < TimeUnit.MICROSECONDS.toNanos(1)) {
+            return nanos + "ns";
+        }
+        if (nanos < TimeUnit.MILLISECONDS.toNanos(1)) {
+            return String.format("%.2fus", nanos / 1e3);
+        }
+        if (nanos < TimeUnit.SECONDS.toNanos(1)) {
+            return String.format("%.2fms", nanos / 1e6);
+        }
+        return String.format("%.2fs", nanos / 1e9);
+    }
+}
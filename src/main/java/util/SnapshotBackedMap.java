@@ -0,0 +1,315 @@
+package util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A concurrent map whose starting contents come from a snapshot and are loaded one key at a
+ * time, the first time the key is used. Creating one costs the same however big the snapshot
+ * is; only the entries actually touched are ever built.
+ *
+ * Keys removed after loading are remembered with a marker, so the snapshot doesn't bring them
+ * back. Iterating, or asking for the size, loads every entry first; asking whether the map is
+ * empty doesn't.
+ */
+public class SnapshotBackedMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+    // Stands for a key that was in the snapshot but has been removed since
+    private static final Object REMOVED = new Object();
+
+    private final ConcurrentHashMap<K, Object> entries = new ConcurrentHashMap<>();
+    private final Function<? super K, ? extends V> loader;
+    private final Supplier<? extends Iterable<? extends K>> snapshotKeys;
+    private final IntSupplier snapshotSize;
+    // What a removed key is stored as: REMOVED, or nothing at all when there is no snapshot to hide
+    private final Object removedMarker;
+
+    /**
+     * Creates an empty map with no snapshot behind it.
+     */
+    public SnapshotBackedMap() {
+        this.loader = key -> null;
+        this.snapshotKeys = Collections::emptyList;
+        this.snapshotSize = () -> 0;
+        this.removedMarker = null;
+    }
+
+    /**
+     * @param loader       builds the snapshot's value for a key, or returns null if it has none
+     * @param snapshotKeys lists every key in the snapshot, for iteration
+     * @param snapshotSize counts the keys in the snapshot without listing them
+     */
+    public SnapshotBackedMap(Function<? super K, ? extends V> loader,
+                             Supplier<? extends Iterable<? extends K>> snapshotKeys, IntSupplier snapshotSize) {
+        this.loader = loader;
+        this.snapshotKeys = snapshotKeys;
+        this.snapshotSize = snapshotSize;
+        this.removedMarker = REMOVED;
+    }
+
+    /**
+     * Returns the stored value for the key, loading it from the snapshot if it hasn't been yet.
+     * May be REMOVED, or null if the key is in neither.
+     */
+    private Object current(Object key) {
+        Object value = entries.get(key);
+        if (value != null) {
+            return value;
+        }
+        @SuppressWarnings("unchecked")
+        K typedKey = (K) key;
+        V loaded = loader.apply(typedKey);
+        if (loaded == null) {
+            return null;
+        }
+        // Another thread may have loaded or replaced it meanwhile; theirs wins
+        Object previous = entries.putIfAbsent(typedKey, loaded);
+        return previous != null ? previous : loaded;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V unwrap(Object value) {
+        return value == REMOVED ? null : (V) value;
+    }
+
+    /**
+     * Returns whether the key's snapshot entry has been loaded, or replaced or removed since.
+     */
+    public boolean isLoaded(K key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Passes every entry held in memory to the action, without loading anything else.
+     */
+    public void forEachLoaded(BiConsumer<? super K, ? super V> action) {
+        entries.forEach((key, value) -> {
+            if (value != REMOVED) {
+                action.accept(key, unwrap(value));
+            }
+        });
+    }
+
+    private void loadAll() {
+        for (K key : snapshotKeys.get()) {
+            current(key);
+        }
+    }
+
+    @Override
+    public V get(Object key) {
+        return key == null ? null : unwrap(current(key));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        current(key);
+        return unwrap(entries.put(key, value));
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        current(key);
+        Object[] previous = new Object[1];
+        entries.compute(key, (k, existing) -> {
+            if (existing != null && existing != REMOVED) {
+                previous[0] = existing;
+                return existing;
+            }
+            return value;
+        });
+        return unwrap(previous[0]);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (key == null) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        K typedKey = (K) key;
+        current(key);
+        Object[] previous = new Object[1];
+        entries.computeIfPresent(typedKey, (k, existing) -> {
+            previous[0] = existing;
+            return removedMarker;
+        });
+        return unwrap(previous[0]);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (key == null || value == null) {
+            return false;
+        }
+        current(key);
+        @SuppressWarnings("unchecked")
+        K typedKey = (K) key;
+        return removedMarker == null ? entries.remove(typedKey, value) : entries.replace(typedKey, value, REMOVED);
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        current(key);
+        return entries.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        current(key);
+        Object[] previous = new Object[1];
+        entries.computeIfPresent(key, (k, existing) -> {
+            previous[0] = existing;
+            return existing == REMOVED ? REMOVED : value;
+        });
+        return unwrap(previous[0]);
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        current(key);
+        return unwrap(entries.compute(key, (k, existing) -> {
+            if (existing != null && existing != REMOVED) {
+                return existing;
+            }
+            V created = mappingFunction.apply(k);
+            return created != null ? created : existing;
+        }));
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        current(key);
+        return unwrap(entries.computeIfPresent(key, (k, existing) -> {
+            if (existing == REMOVED) {
+                return REMOVED;
+            }
+            V updated = remappingFunction.apply(k, unwrap(existing));
+            return updated != null ? updated : removedMarker;
+        }));
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        current(key);
+        return unwrap(entries.compute(key, (k, existing) -> {
+            V updated = remappingFunction.apply(k, unwrap(existing));
+            if (updated != null) {
+                return updated;
+            }
+            return existing == null ? null : removedMarker;
+        }));
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        return compute(key, (k, existing) -> existing == null ? value : remappingFunction.apply(existing, value));
+    }
+
+    @Override
+    public void clear() {
+        if (removedMarker == null) {
+            entries.clear();
+            return;
+        }
+        loadAll();
+        entries.replaceAll((key, value) -> REMOVED);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        loadAll();
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                Iterator<Entry<K, Object>> all = entries.entrySet().iterator();
+                return new Iterator<>() {
+                    private Entry<K, V> next = advance();
+                    private K last;
+
+                    private Entry<K, V> advance() {
+                        while (all.hasNext()) {
+                            Entry<K, Object> entry = all.next();
+                            if (entry.getValue() != REMOVED) {
+                                return new SimpleImmutableEntry<>(entry.getKey(), unwrap(entry.getValue()));
+                            }
+                        }
+                        return null;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next != null;
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        if (next == null) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<K, V> result = next;
+                        last = result.getKey();
+                        next = advance();
+                        return result;
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last == null) {
+                            throw new IllegalStateException();
+                        }
+                        SnapshotBackedMap.this.remove(last);
+                        last = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (Object value : entries.values()) {
+                    if (value != REMOVED) {
+                        size++;
+                    }
+                }
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Answers from the entries in memory and the snapshot's size, without loading anything.
+     */
+    @Override
+    public boolean isEmpty() {
+        int removed = 0;
+        for (Object value : entries.values()) {
+            if (value != REMOVED) {
+                return false;
+            }
+            removed++;
+        }
+        if (removed < snapshotSize.getAsInt()) {
+            // Some snapshot entry has been neither loaded nor removed
+            return false;
+        }
+        // Every marker might be for a key added and removed since, rather than one from the snapshot
+        for (K key : snapshotKeys.get()) {
+            if (!entries.containsKey(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
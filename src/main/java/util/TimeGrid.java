@@ -0,0 +1,304 @@
+package util;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+
+/**
+ * The times something takes up, as a bitset over weeks, days and 15-minute quanta. Two grids
+ * can only clash if they share a bit, so most clash checks are settled by a word-wise AND; the
+ * few that share one are then checked against the exact times, which the grid also keeps.
+ *
+ * Weeks are numbered from the one starting Monday 1969-12-29 and each takes WORDS_PER_WEEK
+ * words: bit (day * 96 + quantum) of the week is set if any of that quarter-hour is taken, with
+ * Monday as day 0. A grid only holds words for the weeks from its first to its last busy one.
+ * Times are widened to whole quanta in the bitset, so it can't tell apart activities less than
+ * 15 minutes apart; the exact check can.
+ *
+ * Grids are immutable; a timetable accumulates them in a Union. As a grid depends only on what
+ * it was compiled from, a holder can compile its grid lazily into a plain field: threads that
+ * race compile equal grids, and it doesn't matter which one is kept.
+ */
+public final class TimeGrid {
+
+    public static final int QUANTUM_MINUTES = 15;
+    private static final int QUANTA_PER_DAY = EpochMinutes.MINUTES_PER_DAY / QUANTUM_MINUTES;
+    private static final int BITS_PER_WEEK = 7 * QUANTA_PER_DAY;
+    static final int WORDS_PER_WEEK = (BITS_PER_WEEK + 63) / 64;
+    // Day 0 of week 0 is a Monday, three days before the epoch
+    private static final int EPOCH_DAY_OFFSET = 3;
+
+    private static final int MINUTES_PER_WEEK = 7 * EpochMinutes.MINUTES_PER_DAY;
+
+    /**
+     * Returned by firstCommonMinute when there is no time in common.
+     */
+    public static final long NO_MINUTE = Long.MIN_VALUE;
+
+    public static final TimeGrid EMPTY = new TimeGrid(0, new long[0], 0, 0, 0);
+
+    private final int firstWeek;
+    private final long[] words;
+    // The exact times, to the minute: count stretches of length minutes, one a week from firstStart
+    private final long firstStart;
+    private final long length;
+    private final int count;
+
+    private TimeGrid(int firstWeek, long[] words, long firstStart, long length, int count) {
+        this.firstWeek = firstWeek;
+        this.words = words;
+        this.firstStart = firstStart;
+        this.length = length;
+        this.count = count;
+    }
+
+    /**
+     * Compiles an activity that runs on the given day of every week from its start date to its
+     * end date, from its start time to its end time. An end time at or before the start time
+     * runs to midnight.
+     */
+    public static TimeGrid weekly(DayOfWeek day, long startMinute, long endMinute) {
+        long startDay = Math.floorDiv(startMinute, EpochMinutes.MINUTES_PER_DAY);
+        long endDay = Math.floorDiv(endMinute, EpochMinutes.MINUTES_PER_DAY);
+        // The first date on or after the start date that falls on the day
+        long firstDay = startDay + Math.floorMod(day.getValue() - 1 - dayOfWeek(startDay), 7);
+        if (firstDay > endDay) {
+            return EMPTY;
+        }
+        int fromMinute = EpochMinutes.minuteOfDay(startMinute);
+        int toMinute = EpochMinutes.minuteOfDay(endMinute);
+        if (toMinute <= fromMinute) {
+            toMinute = EpochMinutes.MINUTES_PER_DAY;
+        }
+        int fromQuantum = fromMinute / QUANTUM_MINUTES;
+        int toQuantum = quantumCeiling(toMinute);
+
+        int firstWeek = week(firstDay);
+        int weeks = week(endDay) - firstWeek + 1;
+        long[] words = new long[weeks * WORDS_PER_WEEK];
+        for (long d = firstDay; d <= endDay; d += 7) {
+            setDay(words, firstWeek, d, fromQuantum, toQuantum);
+        }
+        return new TimeGrid(firstWeek, words, firstDay * EpochMinutes.MINUTES_PER_DAY + fromMinute,
+                toMinute - fromMinute, (int) ((endDay - firstDay) / 7 + 1));
+    }
+
+    /**
+     * Compiles one continuous stretch of time from the start minute to the end minute.
+     */
+    public static TimeGrid range(long startMinute, long endMinute) {
+        if (endMinute <= startMinute) {
+            return EMPTY;
+        }
+        long startDay = Math.floorDiv(startMinute, EpochMinutes.MINUTES_PER_DAY);
+        // The last day with any time taken, as an end at midnight takes nothing of that day
+        long endDay = Math.floorDiv(endMinute - 1, EpochMinutes.MINUTES_PER_DAY);
+        int firstWeek = week(startDay);
+        long[] words = new long[(week(endDay) - firstWeek + 1) * WORDS_PER_WEEK];
+        for (long d = startDay; d <= endDay; d++) {
+            int from = d == startDay ? EpochMinutes.minuteOfDay(startMinute) / QUANTUM_MINUTES : 0;
+            int to = d == endDay ? quantumCeiling(EpochMinutes.minuteOfDay(endMinute - 1) + 1) : QUANTA_PER_DAY;
+            setDay(words, firstWeek, d, from, to);
+        }
+        return new TimeGrid(firstWeek, words, startMinute, endMinute - startMinute, 1);
+    }
+
+    private static int quantumCeiling(int minuteOfDay) {
+        return (minuteOfDay + QUANTUM_MINUTES - 1) / QUANTUM_MINUTES;
+    }
+
+    private static int week(long epochDay) {
+        return (int) Math.floorDiv(epochDay + EPOCH_DAY_OFFSET, 7);
+    }
+
+    private static int dayOfWeek(long epochDay) {
+        return Math.floorMod(epochDay + EPOCH_DAY_OFFSET, 7);
+    }
+
+    /**
+     * Sets quanta [from, to) of the day.
+     */
+    private static void setDay(long[] words, int firstWeek, long epochDay, int from, int to) {
+        int base = (week(epochDay) - firstWeek) * WORDS_PER_WEEK * 64 + dayOfWeek(epochDay) * QUANTA_PER_DAY;
+        int start = base + from;
+        int end = base + to;
+        while (start < end) {
+            int word = start >>> 6;
+            int bitsInWord = Math.min(end - start, 64 - (start & 63));
+            long mask = bitsInWord == 64 ? -1L : ((1L << bitsInWord) - 1) << (start & 63);
+            words[word] |= mask;
+            start += bitsInWord;
+        }
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    /**
+     * Returns whether the two take up any of the same time, to the minute.
+     */
+    public boolean intersects(TimeGrid other) {
+        return firstCommonMinute(other) != NO_MINUTE;
+    }
+
+    /**
+     * Returns the first minute the two both take up, or NO_MINUTE if there is none. The grids
+     * rule out most pairs in a few word-wise ANDs; as they only show a quarter-hour in common,
+     * a pair that shares one is then compared to the minute.
+     */
+    public long firstCommonMinute(TimeGrid other) {
+        if (!sharesQuantum(other)) {
+            return NO_MINUTE;
+        }
+        // Each side's stretches are in order and don't overlap each other, so step through both
+        int i = 0;
+        int j = 0;
+        while (i < count && j < other.count) {
+            long start = firstStart + (long) i * MINUTES_PER_WEEK;
+            long otherStart = other.firstStart + (long) j * MINUTES_PER_WEEK;
+            if (EpochMinutes.overlaps(start, start + length, otherStart, otherStart + other.length)) {
+                return Math.max(start, otherStart);
+            }
+            if (start + length <= otherStart + other.length) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return NO_MINUTE;
+    }
+
+    private boolean sharesQuantum(TimeGrid other) {
+        int from = Math.max(firstWeek, other.firstWeek);
+        int to = Math.min(firstWeek + weeks(), other.firstWeek + other.weeks());
+        for (int week = from; week < to; week++) {
+            if (firstCommonBit(words, (week - firstWeek) * WORDS_PER_WEEK,
+                    other.words, (week - other.firstWeek) * WORDS_PER_WEEK) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int weeks() {
+        return words.length / WORDS_PER_WEEK;
+    }
+
+    /**
+     * Returns the lowest bit set in both weeks, or -1 if there is none.
+     */
+    private static int firstCommonBit(long[] a, int offsetA, long[] b, int offsetB) {
+        for (int i = 0; i < WORDS_PER_WEEK; i++) {
+            long common = a[offsetA + i] & b[offsetB + i];
+            if (common != 0) {
+                return i * 64 + Long.numberOfTrailingZeros(common);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The OR of a changing set of grids, such as all the slots in a timetable. Not thread-safe.
+     *
+     * Weeks are kept as separate rows, and weeks with the same times share one row, so a union
+     * of activities that run every week of a term holds little more than one week's worth.
+     * A union only keeps the bits, so it can rule clashes out but not confirm them; a grid it
+     * intersects has to be checked against the grids that were added.
+     */
+    public static final class Union {
+        private static final long[][] NO_WEEKS = new long[0][];
+
+        private int firstWeek;
+        // Rows are shared between weeks, so a row is replaced rather than changed
+        private long[][] weeks = NO_WEEKS;
+
+        public void add(TimeGrid grid) {
+            if (grid.isEmpty()) {
+                return;
+            }
+            int gridWeeks = grid.weeks();
+            if (weeks.length == 0) {
+                firstWeek = grid.firstWeek;
+                weeks = new long[gridWeeks][];
+            } else {
+                int from = Math.min(firstWeek, grid.firstWeek);
+                int to = Math.max(firstWeek + weeks.length, grid.firstWeek + gridWeeks);
+                if (from != firstWeek || to != firstWeek + weeks.length) {
+                    long[][] grown = new long[to - from][];
+                    System.arraycopy(weeks, 0, grown, firstWeek - from, weeks.length);
+                    firstWeek = from;
+                    weeks = grown;
+                }
+            }
+
+            // Consecutive weeks usually start with the same row and gain the same times, so the
+            // row made for one week is reused for the next whenever both are the same
+            long[] lastBefore = null;
+            long[] lastAfter = null;
+            int lastOffset = -1;
+            for (int w = 0; w < gridWeeks; w++) {
+                int offset = w * WORDS_PER_WEEK;
+                int index = grid.firstWeek - firstWeek + w;
+                long[] before = weeks[index];
+                if (lastOffset >= 0 && before == lastBefore
+                        && Arrays.equals(grid.words, offset, offset + WORDS_PER_WEEK,
+                                grid.words, lastOffset, lastOffset + WORDS_PER_WEEK)) {
+                    weeks[index] = lastAfter;
+                    continue;
+                }
+                long[] after = before == null ? new long[WORDS_PER_WEEK] : before.clone();
+                boolean changed = before == null;
+                for (int i = 0; i < WORDS_PER_WEEK; i++) {
+                    long word = after[i] | grid.words[offset + i];
+                    changed |= word != after[i];
+                    after[i] = word;
+                }
+                weeks[index] = changed ? after : before;
+                lastBefore = before;
+                lastAfter = weeks[index];
+                lastOffset = offset;
+            }
+        }
+
+        /**
+         * Returns whether the grid shares a quarter-hour with any grid added.
+         */
+        public boolean intersects(TimeGrid grid) {
+            return firstCommonQuantum(grid) >= 0;
+        }
+
+        /**
+         * Returns the earliest quantum taken up by both, or -1 if there is none. Quanta are
+         * numbered from the first of week 0, BITS_PER_WEEK to a week.
+         */
+        public long firstCommonQuantum(TimeGrid grid) {
+            int from = Math.max(firstWeek, grid.firstWeek);
+            int to = Math.min(firstWeek + weeks.length, grid.firstWeek + grid.weeks());
+            for (int week = from; week < to; week++) {
+                long[] row = weeks[week - firstWeek];
+                if (row == null) {
+                    continue;
+                }
+                int bit = firstCommonBit(row, 0, grid.words, (week - grid.firstWeek) * WORDS_PER_WEEK);
+                if (bit >= 0) {
+                    return (long) week * BITS_PER_WEEK + bit;
+                }
+            }
+            return -1;
+        }
+
+        public boolean isEmpty() {
+            return weeks.length == 0;
+        }
+
+        public void clear() {
+            weeks = NO_WEEKS;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TimeGrid[weeks " + firstWeek + "-" + (firstWeek + weeks() - 1)
+                + ", " + Arrays.stream(words).map(Long::bitCount).sum() + " quanta]";
+    }
+}
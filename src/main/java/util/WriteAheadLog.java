@@ -0,0 +1,425 @@
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of opaque records, split into segment files in one directory.
+ *
+ * Records are numbered from 0 in the order they are appended. append() returns once the record
+ * is on disk. A single writer thread collects whatever records are waiting, writes them with
+ * one FileChannel write and one force, and then releases every caller in the batch (group
+ * commit). So the cost of a force is shared by however many sessions are writing, and latency
+ * stays around one force however busy the log is.
+ *
+ * Each record is framed as [length][CRC-32][payload]. A record cut short by a crash fails the
+ * length or CRC check and is dropped, together with anything after it, when the log is reopened.
+ */
+public class WriteAheadLog implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+
+    /**
+     * Receives records as they are read back from the log.
+     */
+    public interface RecordHandler {
+        void accept(long sequence, ByteBuffer payload) throws IOException;
+    }
+
+    private final Path directory;
+    private final Object lock = new Object();
+    private final Thread writer;
+
+    // Guarded by lock
+    private FileChannel channel;
+    private long segmentBytes;
+    private List<byte[]> pending = new ArrayList<>();
+    private long appendedSequence;
+    private long durableSequence;
+    private boolean rolling;
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * Opens the log in the directory, creating it if needed, and passes every complete record
+     * from the given sequence number onwards to the handler before returning.
+     */
+    public WriteAheadLog(Path directory, long fromSequence, RecordHandler handler) throws IOException {
+        this.directory = Files.createDirectories(directory);
+
+        long next = fromSequence;
+        List<Segment> segments = listSegments(directory);
+        Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        for (Segment segment : segments) {
+            if (segment.nextSequenceAfter() != null && segment.nextSequenceAfter() <= fromSequence) {
+                continue;
+            }
+            next = replaySegment(segment, fromSequence, handler, segment == last);
+        }
+
+        if (last == null || next < fromSequence) {
+            // Numbering picks up after whatever a snapshot already covers
+            last = new Segment(segmentPath(directory, fromSequence), fromSequence, null);
+            next = fromSequence;
+        }
+        this.channel = FileChannel.open(last.path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.segmentBytes = channel.size();
+        this.appendedSequence = next - 1;
+        this.durableSequence = next - 1;
+
+        this.writer = new Thread(this::writeLoop, "wal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Appends a record and waits until it is on disk.
+     *
+     * @return the record's sequence number
+     */
+    public long append(byte[] payload) throws IOException {
+        if (payload.length == 0) {
+            throw new IllegalArgumentException("Record is empty");
+        }
+        if (payload.length > MAX_RECORD_BYTES) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes is too large");
+        }
+        long sequence;
+        boolean interrupted = false;
+        try {
+            synchronized (lock) {
+                while (rolling && !closed) {
+                    interrupted |= await();
+                }
+                checkOpen();
+                pending.add(payload);
+                sequence = ++appendedSequence;
+                lock.notifyAll();
+
+                // Keep waiting if interrupted: the writer may already be persisting the record
+                while (durableSequence < sequence) {
+                    checkOpen();
+                    interrupted |= await();
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Returns the sequence number the next record will get.
+     */
+    public long nextSequence() {
+        synchronized (lock) {
+            return appendedSequence + 1;
+        }
+    }
+
+    /**
+     * Returns the size of the segment currently being written.
+     */
+    public long currentSegmentBytes() {
+        synchronized (lock) {
+            return segmentBytes;
+        }
+    }
+
+    /**
+     * Starts a new segment. Every record appended before the call is on disk in an older segment
+     * when this returns.
+     *
+     * @return the sequence number of the first record in the new segment
+     */
+    public long roll() throws IOException {
+        boolean interrupted = false;
+        synchronized (lock) {
+            while (rolling) {
+                interrupted |= await();
+            }
+            checkOpen();
+            rolling = true;
+            try {
+                while (durableSequence < appendedSequence) {
+                    checkOpen();
+                    interrupted |= await();
+                }
+                long next = appendedSequence + 1;
+                channel.close();
+                channel = FileChannel.open(segmentPath(directory, next),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                segmentBytes = 0;
+                return next;
+            } finally {
+                rolling = false;
+                lock.notifyAll();
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes segments holding only records before the sequence number, once a snapshot covers them.
+     */
+    public void deleteSegmentsBefore(long sequence) throws IOException {
+        for (Segment segment : listSegments(directory)) {
+            if (segment.nextSequenceAfter() != null && segment.nextSequenceAfter() <= sequence) {
+                Files.deleteIfExists(segment.path);
+            }
+        }
+    }
+
+    /**
+     * Reads every complete record from the sequence number onwards, across all segments, without
+     * opening the log for writing. Only records before the current segment are guaranteed stable.
+     */
+    public static long read(Path directory, long fromSequence, long toSequence, RecordHandler handler)
+            throws IOException {
+        long next = fromSequence;
+        for (Segment segment : listSegments(directory)) {
+            if (segment.firstSequence >= toSequence) {
+                break;
+            }
+            if (segment.nextSequenceAfter() != null && segment.nextSequenceAfter() <= fromSequence) {
+                continue;
+            }
+            long limit = toSequence;
+            next = replaySegment(segment, fromSequence, (sequence, payload) -> {
+                if (sequence < limit) {
+                    handler.accept(sequence, payload);
+                }
+            }, false);
+        }
+        return next;
+    }
+
+    private void writeLoop() {
+        while (true) {
+            List<byte[]> batch;
+            long batchEnd;
+            FileChannel target;
+            synchronized (lock) {
+                while (pending.isEmpty() && !closed) {
+                    await();
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+                batchEnd = appendedSequence;
+                target = channel;
+            }
+
+            try {
+                ByteBuffer buffer = frame(batch);
+                int written = buffer.remaining();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                target.force(false);
+                synchronized (lock) {
+                    segmentBytes += written;
+                    durableSequence = batchEnd;
+                    lock.notifyAll();
+                }
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    closed = true;
+                    lock.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    private static ByteBuffer frame(List<byte[]> batch) {
+        int size = 0;
+        for (byte[] payload : batch) {
+            size += HEADER_BYTES + payload.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        CRC32 crc = new CRC32();
+        for (byte[] payload : batch) {
+            crc.reset();
+            crc.update(payload);
+            buffer.putInt(payload.length);
+            buffer.putInt((int) crc.getValue());
+            buffer.put(payload);
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Reads a segment's records, returning the sequence number after the last complete one.
+     * A torn record at the end of the last segment is cut off so appends can continue after it.
+     */
+    private static long replaySegment(Segment segment, long fromSequence, RecordHandler handler,
+                                      boolean truncateTornTail) throws IOException {
+        StandardOpenOption[] options = truncateTornTail
+                ? new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ};
+        try (FileChannel in = FileChannel.open(segment.path, options)) {
+            if (in.size() > Integer.MAX_VALUE) {
+                throw new IOException("Segment " + segment.path + " is too large to replay");
+            }
+            ByteBuffer contents = ByteBuffer.allocate((int) in.size());
+            while (contents.hasRemaining() && in.read(contents) >= 0) {
+                // Read the whole segment
+            }
+            contents.flip();
+
+            long sequence = segment.firstSequence;
+            CRC32 crc = new CRC32();
+            while (contents.remaining() >= HEADER_BYTES) {
+                int start = contents.position();
+                int length = contents.getInt();
+                int expectedCrc = contents.getInt();
+                // Records are never empty, and a zero-filled tail would otherwise pass as one:
+                // the CRC-32 of no bytes is 0
+                if (length <= 0 || length > MAX_RECORD_BYTES || length > contents.remaining()) {
+                    contents.position(start);
+                    break;
+                }
+                ByteBuffer payload = contents.slice();
+                payload.limit(length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != expectedCrc) {
+                    contents.position(start);
+                    break;
+                }
+                contents.position(contents.position() + length);
+                if (sequence >= fromSequence) {
+                    handler.accept(sequence, payload.asReadOnlyBuffer());
+                }
+                sequence++;
+            }
+
+            if (contents.hasRemaining()) {
+                if (!truncateTornTail) {
+                    throw new IOException("Corrupt record " + sequence + " in " + segment.path);
+                }
+                in.truncate(contents.position());
+                in.force(true);
+            }
+            return sequence;
+        }
+    }
+
+    private static List<Segment> listSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().collect(Collectors.toList());
+        }
+        List<Segment> segments = new ArrayList<>();
+        for (int i = 0; i < paths.size(); i++) {
+            Long next = i + 1 < paths.size() ? firstSequence(paths.get(i + 1)) : null;
+            segments.add(new Segment(paths.get(i), firstSequence(paths.get(i)), next));
+        }
+        return segments;
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static Path segmentPath(Path directory, long firstSequence) {
+        // Zero-padded so segments sort by name in sequence order
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    private void checkOpen() throws IOException {
+        if (failure != null) {
+            throw new IOException("Write-ahead log failed", failure);
+        }
+        if (closed) {
+            throw new IOException("Write-ahead log is closed");
+        }
+    }
+
+    /**
+     * Waits on the lock, returning whether the wait was interrupted.
+     */
+    private boolean await() {
+        try {
+            lock.wait();
+            return false;
+        } catch (InterruptedException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Writes out anything still pending, then closes the log.
+     */
+    @Override
+    public void close() throws IOException {
+        boolean interrupted = false;
+        synchronized (lock) {
+            if (closed && failure == null) {
+                return;
+            }
+            while (durableSequence < appendedSequence && failure == null) {
+                interrupted |= await();
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            channel.close();
+        }
+    }
+
+    private static final class Segment {
+        final Path path;
+        final long firstSequence;
+        // First sequence of the following segment, or null for the newest one
+        final Long nextFirstSequence;
+
+        Segment(Path path, long firstSequence, Long nextFirstSequence) {
+            this.path = path;
+            this.firstSequence = firstSequence;
+            this.nextFirstSequence = nextFirstSequence;
+        }
+
+        Long nextSequenceAfter() {
+            return nextFirstSequence;
+        }
+    }
+}
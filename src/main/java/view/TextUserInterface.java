@@ -2,6 +2,8 @@ package view;
 
 import model.*;
 
+import java.io.InputStream;
+import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.List;
@@ -9,22 +11,54 @@ import java.util.NoSuchElementException;
 import java.util.Scanner;
 
 public class TextUserInterface implements View {
-    private final Scanner scanner = new Scanner(System.in);
+    private final Scanner scanner;
+    // Null for System.out, looked up on every use since it can be replaced after the view is made
+    private final PrintStream out;
     private static final String ANSI_RED = "\u001B[31m";
     private static final String ANSI_GREEN = "\u001B[32m";
     private static final String ANSI_YELLOW = "\u001B[33m";
     private static final String ANSI_RESET = "\u001B[0m";
 
+    public TextUserInterface() {
+        this.scanner = new Scanner(System.in);
+        this.out = null;
+    }
+
+    /**
+     * Creates an interface over other streams, such as a network connection. Output is flushed
+     * before every read, so the other side sees each prompt before it is expected to answer.
+     */
+    public TextUserInterface(InputStream in, PrintStream out) {
+        this.scanner = new Scanner(in);
+        this.out = out;
+    }
+
+    private PrintStream out() {
+        return out != null ? out : System.out;
+    }
+
+    private String readLine() {
+        out().flush();
+        return scanner.nextLine();
+    }
+
+    /**
+     * Pushes any buffered output to the other side.
+     */
+    public void flush() {
+        out().flush();
+    }
+
     @Override
     public String getInput(String prompt) {
-        System.out.print(prompt);
-        return scanner.nextLine();
+        out().print(prompt);
+        return readLine();
     }
 
     @Override
     public boolean getYesNoInput(String prompt) {
-        System.out.println(prompt + " [Y/n]");
-        String line = scanner.nextLine();
+        out().println(prompt + " [Y/n]");
+        String line = readLine();
         if (line.equalsIgnoreCase("y") || line.equalsIgnoreCase("yes")) {
             return true;
         } else if (line.equalsIgnoreCase("n") || line.equalsIgnoreCase("no")) {
@@ -35,22 +69,22 @@ public class TextUserInterface implements View {
 
     @Override
     public void displayInfo(String text) {
-        System.out.println(text);
+        out().println(text);
     }
 
     @Override
     public void displaySuccess(String text) {
-        System.out.println(ANSI_GREEN + text + ANSI_RESET);
+        out().println(ANSI_GREEN + text + ANSI_RESET);
     }
 
     @Override
     public void displayWarning(String text) {
-        System.out.println(ANSI_YELLOW + text + ANSI_RESET);
+        out().println(ANSI_YELLOW + text + ANSI_RESET);
     }
 
     @Override
     public void displayError(String text) {
-        System.out.println(ANSI_RED + text + ANSI_RESET);
+        out().println(ANSI_RED + text + ANSI_RESET);
     }
 
     @Override
@@ -62,57 +96,57 @@ public class TextUserInterface implements View {
 
     @Override
     public void displayDivider() {
-        System.out.println("-------------------------");
+        out().println("-------------------------");
     }
 
     @Override
     public void displayFAQ(FAQManager faq) {
-        System.out.println("Frequently Asked Questions");
+        out().println("Frequently Asked Questions");
         displayDivider();
         int i = 0;
         for (FAQSection section : faq.getSections()) {
-            System.out.print("[");
-            System.out.print(i++);
-            System.out.print("] ");
-            System.out.println(section.getTopic());
+            out().print("[");
+            out().print(i++);
+            out().print("] ");
+            out().println(section.getTopic());
         }
     }
 
     @Override
     public void displayFAQSection(FAQSection section) {
-        System.out.println(section.getTopic());
+        out().println(section.getTopic());
         displayDivider();
         for (FAQItem item : section.getItems()) {
-            System.out.println(item.getQuestion());
-            System.out.print("> ");
-            System.out.println(item.getAnswer());
+            out().println(item.getQuestion());
+            out().print("> ");
+            out().println(item.getAnswer());
         }
 
-        System.out.println("Subsections:");
+        out().println("Subsections:");
         int i = 0;
         for (FAQSection subsection : section.getSubsections()) {
-            System.out.print("[");
-            System.out.print(i++);
-            System.out.print("] ");
-            System.out.println(subsection.getTopic());
+            out().print("[");
+            out().print(i++);
+            out().print("] ");
+            out().println(subsection.getTopic());
         }
     }
 
     @Override
     public void displayInquiry(Inquiry inquiry) {
-        System.out.println("Inquirer: " + inquiry.getInquirerEmail());
-        System.out.println("Created at: " + inquiry.getCreatedAt());
-        System.out.println("Assigned to: " + (inquiry.getAssignedTo() == null ? "No one" : inquiry.getAssignedTo()));
-        System.out.println("Query:");
-        System.out.println(inquiry.getContent());
+        out().println("Inquirer: " + inquiry.getInquirerEmail());
+        out().println("Created at: " + inquiry.getCreatedAt());
+        out().println("Assigned to: " + (inquiry.getAssignedTo() == null ? "No one" : inquiry.getAssignedTo()));
+        out().println("Query:");
+        out().println(inquiry.getContent());
     }
 
     //todo new input methods
     @Override
     public int getIntegerInput(String prompt) {
         while (true) {
-            System.out.print(prompt);
-            String input = scanner.nextLine();
+            out().print(prompt);
+            String input = readLine();
             try {
                 return Integer.parseInt(input);
             } catch (NumberFormatException e) {
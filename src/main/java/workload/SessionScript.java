@@ -0,0 +1,147 @@
+package workload;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The steps of one scripted user session: a student logs in, then adds courses to their
+ * timetable, chooses tutorials and labs for them, and browses the FAQ.
+ *
+ * A script depends only on the seed and the session number, so a replay runs exactly the same
+ * sessions every time, whichever threads they end up on.
+ */
+public class SessionScript {
+
+    /**
+     * What a step does, named as in the audit log and ActionMetrics.
+     */
+    public enum Operation {
+        LOGIN("login"),
+        ADD_COURSE("addCourseToStudentTimetable"),
+        CHOOSE_ACTIVITY("chooseActivityForCourse"),
+        CONSULT_FAQ("consultFAQ");
+
+        private final String action;
+
+        Operation(String action) {
+            this.action = action;
+        }
+
+        public String getAction() {
+            return action;
+        }
+    }
+
+    /**
+     * One step of a session. Only the fields its operation needs are set.
+     */
+    public static class Step {
+        private final Operation operation;
+        private final String courseCode;
+        private final int activityId;
+        private final int[] faqPath;
+
+        Step(Operation operation, String courseCode, int activityId, int[] faqPath) {
+            this.operation = operation;
+            this.courseCode = courseCode;
+            this.activityId = activityId;
+            this.faqPath = faqPath;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public String getCourseCode() {
+            return courseCode;
+        }
+
+        public int getActivityId() {
+            return activityId;
+        }
+
+        /**
+         * Returns which section to open at each level of the FAQ, to be taken modulo the
+         * number of sections there. The walk stops early when it reaches a section with none.
+         */
+        public int[] getFaqPath() {
+            return faqPath;
+        }
+
+        @Override
+        public String toString() {
+            switch (operation) {
+                case ADD_COURSE:
+                    return operation.getAction() + " " + courseCode;
+                case CHOOSE_ACTIVITY:
+                    return operation.getAction() + " " + courseCode + " " + activityId;
+                case CONSULT_FAQ:
+                    return operation.getAction() + " " + Arrays.toString(faqPath)
+                            + (courseCode == null ? "" : " " + courseCode);
+                default:
+                    return operation.getAction();
+            }
+        }
+    }
+
+    // Out of 100: the rest of the steps consult the FAQ
+    private static final int ADD_COURSE_PERCENT = 30;
+    private static final int CHOOSE_ACTIVITY_PERCENT = 20;
+
+    private final int student;
+    private final List<Step> steps;
+
+    private SessionScript(int student, List<Step> steps) {
+        this.student = student;
+        this.steps = Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * Generates a session for a random one of `students` students, with `steps` steps after logging in.
+     *
+     * @param courses  how many courses there are to add
+     * @param faqDepth how many levels deep the FAQ goes
+     */
+    public static SessionScript generate(long seed, int session, int students, int courses, int faqDepth, int steps) {
+        Random random = new Random(seed * 1_000_003 + session);
+        int student = random.nextInt(students);
+        List<Step> script = new ArrayList<>(steps + 1);
+        script.add(new Step(Operation.LOGIN, null, 0, null));
+
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < steps; i++) {
+            int roll = random.nextInt(100);
+            if (roll < ADD_COURSE_PERCENT && courses > 0) {
+                String code = WorkloadGenerator.courseCode(random.nextInt(courses));
+                added.add(code);
+                script.add(new Step(Operation.ADD_COURSE, code, 0, null));
+            } else if (roll < ADD_COURSE_PERCENT + CHOOSE_ACTIVITY_PERCENT && !added.isEmpty()) {
+                int[] ids = WorkloadGenerator.CHOOSABLE_ACTIVITY_IDS;
+                script.add(new Step(Operation.CHOOSE_ACTIVITY, added.get(random.nextInt(added.size())),
+                        ids[random.nextInt(ids.length)], null));
+            } else {
+                // Go at least one level down, and sometimes stop before the bottom
+                int[] path = new int[1 + random.nextInt(Math.max(1, faqDepth))];
+                for (int d = 0; d < path.length; d++) {
+                    path[d] = random.nextInt(Integer.MAX_VALUE);
+                }
+                // A quarter of the time only items tagged with a course are wanted
+                String courseTag = courses > 0 && random.nextInt(4) == 0
+                        ? WorkloadGenerator.courseCode(random.nextInt(courses)) : null;
+                script.add(new Step(Operation.CONSULT_FAQ, courseTag, 0, path));
+            }
+        }
+        return new SessionScript(student, script);
+    }
+
+    public int getStudent() {
+        return student;
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+}
@@ -0,0 +1,184 @@
+package workload;
+
+import model.*;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates data sets of any size for sizing and load testing: courses with lectures, tutorials
+ * and labs, students with courses in their timetables, an FAQ tree, and user data for logging
+ * those students in. The same seed always generates the same data.
+ *
+ * Courses are numbered from 0 and have codes BAA0000, BAA0001 and so on; students are numbered
+ * from 0 and log in as student0 with password student0pass. Each course has a lecture (ID 1),
+ * two tutorials (IDs 2 and 3) and two labs (IDs 4 and 5) at random times in the working week.
+ */
+public class WorkloadGenerator {
+    public static final LocalDate TERM_START = LocalDate.of(2025, 1, 13);
+    public static final LocalDate TERM_END = LocalDate.of(2025, 4, 7);
+    public static final String ADMIN_EMAIL = "admin1@hindeburg.ac.nz";
+    public static final int[] CHOOSABLE_ACTIVITY_IDS = {2, 3, 4, 5};
+
+    private static final String[] VERBS = {"submit", "find", "change", "request", "view", "cancel"};
+    private static final String[] NOUNS = {"my coursework", "an extension", "my timetable", "a tutorial",
+            "exam results", "a transcript", "library access", "a lab"};
+
+    private final long seed;
+
+    public WorkloadGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns a distinct course code for each number up to 26^3 * 10,000, starting at BAA0000.
+     */
+    public static String courseCode(int n) {
+        int letters = 26 * 26 + n / 10_000;
+        return "" + (char) ('A' + letters / (26 * 26) % 26) + (char) ('A' + letters / 26 % 26)
+                + (char) ('A' + letters % 26) + String.format("%04d", n % 10_000);
+    }
+
+    public static String username(int student) {
+        return "student" + student;
+    }
+
+    public static String password(int student) {
+        return "student" + student + "pass";
+    }
+
+    public static String studentEmail(int student) {
+        return "student" + student + "@hindeburg.ac.nz";
+    }
+
+    /**
+     * Adds courses 0 to courses - 1.
+     */
+    public void addCourses(CourseManager courseManager, int courses) {
+        Random random = new Random(seed);
+        for (int c = 0; c < courses; c++) {
+            String code = courseCode(c);
+            courseManager.addCourse(code, "Course " + code, "Generated course " + c, random.nextInt(4) == 0,
+                    "Dr. Organiser", "organiser" + c % 100 + "@hindeburg.ac.nz",
+                    "Ms. Secretary", "secretary" + c % 10 + "@hindeburg.ac.nz", 1, 1, ADMIN_EMAIL);
+            // Recorded, so a clash never stops a student adding the course
+            LocalTime start = startTime(random);
+            courseManager.addActivityToCourse(code, new Lecture(1, TERM_START, start, TERM_END,
+                    start.plusMinutes(50), "Lecture Theatre " + c % 20, weekday(random), true));
+            for (int id = 2; id <= 3; id++) {
+                start = startTime(random);
+                courseManager.addActivityToCourse(code, new Tutorial(id, TERM_START, start, TERM_END,
+                        start.plusMinutes(50), "Room " + random.nextInt(50), weekday(random), 30));
+            }
+            for (int id = 4; id <= 5; id++) {
+                start = startTime(random);
+                courseManager.addActivityToCourse(code, new Lab(id, TERM_START, start, TERM_END,
+                        start.plusMinutes(110), "Lab " + random.nextInt(20), weekday(random), 20));
+            }
+        }
+    }
+
+    /**
+     * Adds coursesPerStudent different courses, out of the first `courses`, to the timetables
+     * of students 0 to students - 1, and chooses a tutorial or lab for each.
+     */
+    public EnrolmentReport addStudents(CourseManager courseManager, int students, int coursesPerStudent, int courses) {
+        Random random = new Random(seed + 1);
+        int perStudent = Math.min(coursesPerStudent, courses);
+        List<CohortEnrolment.Request> requests = new ArrayList<>(students * perStudent);
+        for (int s = 0; s < students; s++) {
+            Set<Integer> chosen = new LinkedHashSet<>();
+            while (chosen.size() < perStudent) {
+                chosen.add(random.nextInt(courses));
+            }
+            for (int c : chosen) {
+                requests.add(new CohortEnrolment.Request(studentEmail(s), courseCode(c)));
+            }
+        }
+        EnrolmentReport report = new CohortEnrolment(courseManager).enrol(requests, ADMIN_EMAIL);
+
+        for (CohortEnrolment.Request request : requests) {
+            courseManager.chooseActivityForCourse(request.getStudentEmail(), request.getCourseCode(),
+                    CHOOSABLE_ACTIVITY_IDS[random.nextInt(CHOOSABLE_ACTIVITY_IDS.length)]);
+        }
+        return report;
+    }
+
+    /**
+     * Adds an FAQ tree: `fanout` top-level topics, each with `fanout` subsections, down to
+     * `depth` levels, and itemsPerSection items in every section. One item in four is tagged
+     * with one of the first `courses` courses.
+     *
+     * @return the number of sections added
+     */
+    public int addFAQ(FAQManager faqManager, int depth, int fanout, int itemsPerSection, int courses) {
+        Random random = new Random(seed + 2);
+        int sections = 0;
+        List<FAQSection> level = new ArrayList<>();
+        for (int t = 0; t < fanout; t++) {
+            level.add(faqManager.addSection("Topic " + t));
+        }
+        for (int d = 1; d <= depth; d++) {
+            List<FAQSection> next = new ArrayList<>();
+            for (FAQSection section : level) {
+                addItems(section, itemsPerSection, courses, random);
+                sections++;
+                if (d < depth) {
+                    for (int s = 0; s < fanout; s++) {
+                        FAQSection subsection = new FAQSection(section.getTopic() + "." + s);
+                        section.addSubsection(subsection);
+                        next.add(subsection);
+                    }
+                }
+            }
+            level = next;
+        }
+        return sections;
+    }
+
+    /**
+     * Returns user data in the format of MockUserData.json for students 0 to students - 1.
+     */
+    @SuppressWarnings("unchecked")
+    public static String userData(int students) {
+        JSONArray users = new JSONArray();
+        for (int s = 0; s < students; s++) {
+            JSONObject user = new JSONObject();
+            user.put("username", username(s));
+            user.put("password", password(s));
+            user.put("email", studentEmail(s));
+            user.put("role", "Student");
+            users.add(user);
+        }
+        return users.toJSONString();
+    }
+
+    private static void addItems(FAQSection section, int items, int courses, Random random) {
+        for (int i = 0; i < items; i++) {
+            String question = "How do I " + VERBS[random.nextInt(VERBS.length)] + " "
+                    + NOUNS[random.nextInt(NOUNS.length)] + " (" + section.getTopic() + ", " + i + ")?";
+            String answer = "See the " + NOUNS[random.nextInt(NOUNS.length)] + " page of the handbook.";
+            if (courses > 0 && random.nextInt(4) == 0) {
+                section.addItem(question, answer, courseCode(random.nextInt(courses)));
+            } else {
+                section.addItem(question, answer);
+            }
+        }
+    }
+
+    private static LocalTime startTime(Random random) {
+        return LocalTime.of(9 + random.nextInt(8), random.nextBoolean() ? 0 : 30);
+    }
+
+    private static DayOfWeek weekday(Random random) {
+        return DayOfWeek.of(1 + random.nextInt(5));
+    }
+}
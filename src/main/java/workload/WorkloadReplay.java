@@ -0,0 +1,254 @@
+package workload;
+
+import external.AuthenticationService;
+import external.MockAuthenticationService;
+import model.*;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import util.ActionMetrics;
+import util.LatencyHistogram;
+import view.TextUserInterface;
+import view.View;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays scripted sessions against a store, calling SharedContext and CourseManager directly
+ * rather than going through a user interface, and reports the throughput and latency
+ * percentiles of each operation. Used to size a deployment and to compare runs before and
+ * after a change: with the same seed and options, the same data is generated and the same
+ * sessions are replayed.
+ *
+ * Usage: WorkloadReplay [--seed n] [--courses n] [--students n] [--courses-per-student n]
+ * [--faq-depth n] [--faq-fanout n] [--faq-items n] [--sessions n] [--steps n] [--threads n]
+ */
+public class WorkloadReplay {
+
+    private final SharedStore store;
+    private final AuthenticationService auth;
+    private final long seed;
+    private final int students;
+    private final int courses;
+    private final int faqDepth;
+
+    /**
+     * @param students how many students sessions are run as, numbered as by WorkloadGenerator
+     * @param courses  how many courses sessions add, numbered as by WorkloadGenerator
+     * @param faqDepth how many levels deep sessions browse the FAQ
+     */
+    public WorkloadReplay(SharedStore store, AuthenticationService auth, long seed,
+                          int students, int courses, int faqDepth) {
+        this.store = store;
+        this.auth = auth;
+        this.seed = seed;
+        this.students = students;
+        this.courses = courses;
+        this.faqDepth = faqDepth;
+    }
+
+    /**
+     * Runs sessions 0 to sessions - 1, each with `steps` steps after logging in, spread over
+     * `threads` threads.
+     */
+    public ReplayResult run(int sessions, int steps, int threads) throws InterruptedException {
+        ActionMetrics metrics = new ActionMetrics();
+        AtomicInteger nextSession = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        long begin = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                // Nothing is shown to anyone, and nothing is ever asked
+                View view = new TextUserInterface(InputStream.nullInputStream(),
+                        new PrintStream(OutputStream.nullOutputStream()));
+                for (int s = nextSession.getAndIncrement(); s < sessions; s = nextSession.getAndIncrement()) {
+                    replay(SessionScript.generate(seed, s, students, courses, faqDepth, steps), view, metrics);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.DAYS);
+        return new ReplayResult(metrics.snapshot(), System.nanoTime() - begin);
+    }
+
+    /**
+     * Runs one session, recording how long each step took and whether it succeeded.
+     */
+    public void replay(SessionScript script, View view, ActionMetrics metrics) {
+        SharedContext context = new SharedContext(view, store);
+        CourseManager courseManager = context.getCourseManager();
+        int student = script.getStudent();
+
+        for (SessionScript.Step step : script.getSteps()) {
+            long startNanos = System.nanoTime();
+            boolean succeeded;
+            switch (step.getOperation()) {
+                case LOGIN:
+                    succeeded = logIn(context, WorkloadGenerator.username(student), WorkloadGenerator.password(student));
+                    break;
+                case ADD_COURSE:
+                    succeeded = courseManager.addCourseToStudentTimetable(context.getCurrentUserEmail(),
+                            step.getCourseCode());
+                    break;
+                case CHOOSE_ACTIVITY:
+                    succeeded = courseManager.chooseActivityForCourse(context.getCurrentUserEmail(),
+                            step.getCourseCode(), step.getActivityId());
+                    break;
+                case CONSULT_FAQ:
+                    succeeded = consultFAQ(context, step.getFaqPath(), step.getCourseCode());
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation " + step.getOperation());
+            }
+            metrics.add(step.getOperation().getAction(), System.nanoTime() - startNanos, succeeded);
+            if (step.getOperation() == SessionScript.Operation.LOGIN && !succeeded) {
+                // Nothing else in the session can be done as a guest
+                return;
+            }
+        }
+    }
+
+    /**
+     * Logs in the same way GuestController does.
+     */
+    private boolean logIn(SharedContext context, String username, String password) {
+        try {
+            JSONObject result = (JSONObject) new JSONParser().parse(auth.login(username, password));
+            if (result.containsKey("error")) {
+                return false;
+            }
+            context.currentUser = new AuthenticatedUser((String) result.get("email"), (String) result.get("role"));
+            return true;
+        } catch (ParseException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Opens a section at each level of the path, reading its items, or only those tagged with
+     * the course if there is one, as InquirerController does for each page.
+     *
+     * @return false if the FAQ is empty
+     */
+    private boolean consultFAQ(SharedContext context, int[] path, String courseTag) {
+        FAQManager faqManager = context.getFAQManager();
+        List<FAQSection> sections = faqManager.getSections();
+        int read = 0;
+        for (int choice : path) {
+            if (sections.isEmpty()) {
+                break;
+            }
+            FAQSection section = sections.get(choice % sections.size());
+            List<FAQItem> items = courseTag == null ? section.getItems() : faqManager.getItemsByTag(section, courseTag);
+            read += items.size() + 1;
+            sections = section.getSubsections();
+        }
+        return read > 0;
+    }
+
+    /**
+     * Per-operation latencies from one replay, and how long it took overall.
+     */
+    public static class ReplayResult {
+        private final Map<String, LatencyHistogram.Snapshot> operations;
+        private final long elapsedNanos;
+
+        ReplayResult(Map<String, LatencyHistogram.Snapshot> operations, long elapsedNanos) {
+            this.operations = operations;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Returns a snapshot of each operation's latencies, by action name.
+         */
+        public Map<String, LatencyHistogram.Snapshot> getOperations() {
+            return operations;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double operationsPerSecond(String action) {
+            LatencyHistogram.Snapshot snapshot = operations.get(action);
+            return snapshot == null ? 0 : snapshot.getCount() / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder(String.format("%-28s %9s %10s %10s %10s %10s %7s%n",
+                    "Operation", "Count", "Ops/s", "p50", "p99", "Max", "Errors"));
+            long total = 0;
+            for (Map.Entry<String, LatencyHistogram.Snapshot> entry : operations.entrySet()) {
+                LatencyHistogram.Snapshot snapshot = entry.getValue();
+                total += snapshot.getCount();
+                report.append(String.format("%-28s %9d %10.0f %10s %10s %10s %6.1f%%%n", entry.getKey(),
+                        snapshot.getCount(), operationsPerSecond(entry.getKey()),
+                        LatencyHistogram.format(snapshot.getPercentileNanos(50)),
+                        LatencyHistogram.format(snapshot.getPercentileNanos(99)),
+                        LatencyHistogram.format(snapshot.getMaxNanos()), snapshot.getErrorRate() * 100));
+            }
+            report.append(String.format("%d operations in %.2fs (%.0f ops/s)", total, elapsedNanos / 1e9,
+                    total / (elapsedNanos / 1e9)));
+            return report.toString();
+        }
+    }
+
+    public static void main(String[] args) throws IOException, ParseException, InterruptedException {
+        long seed = 42;
+        int courses = 1_000;
+        int students = 10_000;
+        int coursesPerStudent = 4;
+        int faqDepth = 3;
+        int faqFanout = 8;
+        int faqItems = 10;
+        int sessions = 20_000;
+        int steps = 10;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            long value = Long.parseLong(args[i + 1]);
+            switch (args[i]) {
+                case "--seed": seed = value; break;
+                case "--courses": courses = (int) value; break;
+                case "--students": students = (int) value; break;
+                case "--courses-per-student": coursesPerStudent = (int) value; break;
+                case "--faq-depth": faqDepth = (int) value; break;
+                case "--faq-fanout": faqFanout = (int) value; break;
+                case "--faq-items": faqItems = (int) value; break;
+                case "--sessions": sessions = (int) value; break;
+                case "--steps": steps = (int) value; break;
+                case "--threads": threads = (int) value; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        SharedStore store = new SharedStore();
+        CourseManager courseManager = new SharedContext(new TextUserInterface(InputStream.nullInputStream(),
+                new PrintStream(OutputStream.nullOutputStream())), store).getCourseManager();
+        WorkloadGenerator generator = new WorkloadGenerator(seed);
+        long begin = System.nanoTime();
+        generator.addCourses(courseManager, courses);
+        generator.addStudents(courseManager, students, coursesPerStudent, courses);
+        int sections = generator.addFAQ(store.getFAQManager(), faqDepth, faqFanout, faqItems, courses);
+        AuthenticationService auth = new MockAuthenticationService(new StringReader(WorkloadGenerator.userData(students)));
+        System.out.printf("Generated %d courses, %d students and %d FAQ sections in %.2fs (seed %d)%n",
+                courses, students, sections, (System.nanoTime() - begin) / 1e9, seed);
+
+        ReplayResult result = new WorkloadReplay(store, auth, seed, students, courses, faqDepth)
+                .run(sessions, steps, threads);
+        System.out.printf("Replayed %d sessions of %d steps on %d threads%n", sessions, steps, threads);
+        System.out.println(result);
+    }
+}
@@ -176,4 +176,26 @@ public class AddCourseSystemTest extends TUITest {
         admin.addCourse();
         assertOutputContains("Provided courseCode is invalid");
     }
+
+    @Test
+    public void testOverlappingActivityIsSkipped() throws URISyntaxException, IOException, ParseException {
+        setMockInput(
+                "CSC3334", "Compilers", "Front to back", "n",
+                "Dr. Z", "z@hindeburg.ac.nz",
+                "Ms. X", "x@hindeburg.ac.nz",
+                "1", "1",
+                "y", "1", "09:00", "10:00", "2025-03-26", "2025-04-30", "Room 42", "MONDAY",
+                "y", "2", "09:30", "10:30", "2025-03-26", "2025-04-30", "Room 43", "MONDAY",
+                "n"
+        );
+
+        AdminController admin = new AdminController(context, new TextUserInterface(), new MockEmailService());
+
+        startOutputCapture();
+        admin.addCourse();
+
+        assertOutputContains("Activity added.");
+        assertOutputContains("overlaps with an existing one. Skipped.");
+        assertEquals(1, context.getCourseManager().getCourse("CSC3334").getActivities().size());
+    }
 }
@@ -451,4 +451,163 @@ public class ConsultFAQSystemTests extends TUITest {
         // Verify can continue navigation after error
         assertOutputContains("Academics");
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests searching the FAQ from the top level.
+     * Matching items from any section should be shown with the matched words marked.
+     */
+    @Test
+    public void testSearchFAQ() throws URISyntaxException, IOException, ParseException {
+        setMockInput(
+                "n",            // Don't filter by course code
+                "s",            // Search
+                "calculators",  // Search terms
+                "-1"            // Exit
+        );
+
+        view = new TextUserInterface();
+        controller = new InquirerController(context, view,
+                new MockAuthenticationService(), new MockEmailService());
+
+        startOutputCapture();
+        controller.consultFAQ();
+
+        assertOutputContains("[S] Search the FAQ");
+        assertOutputContains("[Courses]");
+        assertOutputContains("Are *calculators* allowed in MTH2002 exams?");
+        assertOutputNotContains("How do I register for classes?");
+    }
+
+    /**
+     * Tests that search results respect the course code filter.
+     */
+    @Test
+    public void testSearchFAQFilteredByCourseCode() throws URISyntaxException, IOException, ParseException {
+        setMockInput(
+                "y",            // Filter by course code
+                "CSC3001",      // Enter course code
+                "s",            // Search
+                "programming",  // Matches both a CSC3001 and an MTH2002 item
+                "-1"            // Exit
+        );
+
+        view = new TextUserInterface();
+        controller = new InquirerController(context, view,
+                new MockAuthenticationService(), new MockEmailService());
+
+        startOutputCapture();
+        controller.consultFAQ();
+
+        assertOutputContains("What *programming* language is used in CSC3001?");
+        assertOutputNotContains("Are calculators allowed in MTH2002 exams?");
+    }
+
+    /**
+     * Tests that a search with no matches says so.
+     */
+    @Test
+    public void testSearchFAQNoResults() throws URISyntaxException, IOException, ParseException {
+        setMockInput(
+                "n",            // Don't filter by course code
+                "s",            // Search
+                "parking",      // Not mentioned anywhere
+                "-1"            // Exit
+        );
+
+        view = new TextUserInterface();
+        controller = new InquirerController(context, view,
+                new MockAuthenticationService(), new MockEmailService());
+
+        startOutputCapture();
+        controller.consultFAQ();
+
+        assertOutputContains("No FAQ items match your search.");
+    }
+
+    /**
+     * Tests that the search index follows items being added to and removed from sections.
+     */
+    @Test
+    public void testSearchIndexTracksAddedAndRemovedItems() throws Exception {
+        FAQManager faqManager = context.getFAQManager();
+        FAQSection housing = faqManager.getSections().get(1).getSubsections().get(0);
+
+        housing.addItem("Is there parking near the residences?", "Parking permits are sold by Estates.");
+        List<FAQSearchResult> results = faqManager.search("parking", null, 10);
+        assertEquals(1, results.size());
+        assertSame(housing, results.get(0).getSection());
+
+        int id = results.get(0).getItem().getId();
+        assertTrue(housing.removeItem(id));
+        assertTrue(faqManager.search("parking", null, 10).isEmpty());
+
+        // Section topics are searchable too
+        assertEquals(1, faqManager.search("clubs", null, 10).size());
+    }
+
+    /**
+     * Tests listing every question for a course across all sections.
+     */
+    @Test
+    public void testShowAllQuestionsForCourse() throws URISyntaxException, IOException, ParseException {
+        // Tag a question in another branch of the tree as well
+        context.getFAQManager().getSections().get(1).getSubsections().get(0)
+                .addItem("Is there quiet study space for CSC3001 students?", "Yes, in every residence.", "CSC3001");
+
+        setMockInput(
+                "y",            // Filter by course code
+                "CSC3001",      // Enter course code
+                "a",            // Show all questions for the course
+                "-1"            // Exit
+        );
+
+        view = new TextUserInterface();
+        controller = new InquirerController(context, view,
+                new MockAuthenticationService(), new MockEmailService());
+
+        startOutputCapture();
+        controller.consultFAQ();
+
+        assertOutputContains("[A] Show all questions for CSC3001");
+        assertOutputContains("[Courses] 0 What programming language is used in CSC3001?");
+        assertOutputContains("[Courses] 2 How many credits is CSC3001 worth?");
+        assertOutputContains("[Housing] 1 Is there quiet study space for CSC3001 students?");
+        assertOutputNotContains("Are calculators allowed in MTH2002 exams?");
+    }
+
+    /**
+     * Tests that the course tag index follows items being added to and removed from sections.
+     */
+    @Test
+    public void testTagIndexTracksAddedAndRemovedItems() {
+        FAQManager faqManager = context.getFAQManager();
+        FAQSection courses = faqManager.getSections().get(0).getSubsections().get(1);
+
+        assertEquals(2, courses.getTaggedItems("CSC3001").size());
+        assertEquals(1, faqManager.getAllItemsByTag("MTH2002").size());
+
+        assertTrue(courses.removeItem(1));
+        assertTrue(courses.getTaggedItems("MTH2002").isEmpty());
+        assertTrue(faqManager.getAllItemsByTag("MTH2002").isEmpty());
+
+        courses.addItem("Is MTH2002 examined in May?", "Yes.", "MTH2002");
+        assertEquals("Is MTH2002 examined in May?", courses.getTaggedItems("MTH2002").get(0).getQuestion());
+        assertTrue(courses.getTaggedItems("ABC1234").isEmpty());
+    }
+
+    /**
+     * Tests that item IDs stay unique and stable when items are removed and added.
+     */
+    @Test
+    public void testItemIdsAreNotReused() {
+        FAQSection registration = context.getFAQManager().getSection("Academics").getSubsection("Registration");
+
+        assertTrue(registration.removeItem(0));
+        registration.addItem("Can I register late?", "Only with permission from your School.");
+
+        assertEquals("What is the registration deadline?", registration.getItem(1).getQuestion());
+        assertEquals("Can I register late?", registration.getItem(2).getQuestion());
+        assertNull(registration.getItem(0));
+        assertFalse(registration.removeItem(0));
+    }
+}
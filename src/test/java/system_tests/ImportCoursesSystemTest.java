@@ -0,0 +1,75 @@
+package system_tests;
+
+import controller.AdminStaffController;
+import external.MockAuthenticationService;
+import external.MockEmailService;
+import model.AuthenticatedUser;
+import model.SharedContext;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import view.TextUserInterface;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class ImportCoursesSystemTest extends TUITest {
+
+    private SharedContext context;
+
+    @BeforeEach
+    public void setUp() {
+        context = new SharedContext(new TextUserInterface());
+        context.currentUser = new AuthenticatedUser("admin1@hindeburg.ac.nz", "AdminStaff");
+    }
+
+    @Test
+    public void testImportCourses() throws URISyntaxException, IOException, ParseException {
+        Path file = Files.createTempFile("courses", ".csv");
+        try {
+            Files.write(file, List.of(
+                    "course,CSC3001,Advanced Systems,Design,true,Dr. A,a@hindeburg.ac.nz,Ms. B,b@hindeburg.ac.nz,1,0",
+                    "activity,CSC3001,lecture,1,MONDAY,2025-01-13,09:00,2025-04-07,10:00,Room 1,true",
+                    "course,CSC3002,Compilers,Parsing,true,Dr. A,a@hindeburg.ac.nz,Ms. B,b@hindeburg.ac.nz,0,0",
+                    "activity,CSC3002,lecture,1,MONDAY,2025-01-13,09:30,2025-04-07,10:30,Room 1,true",
+                    "course,CSC300,Broken,Bad code,true,Dr. C,c@hindeburg.ac.nz,Ms. B,b@hindeburg.ac.nz,0,0"
+            ), StandardCharsets.UTF_8);
+            setMockInput(file.toString());
+
+            AdminStaffController admin = new AdminStaffController(context, new TextUserInterface(),
+                    new MockAuthenticationService(), new MockEmailService());
+            startOutputCapture();
+            admin.importCourses();
+
+            assertOutputContains("Line 5: course code 'CSC300' is invalid.");
+            assertOutputContains("CSC3002 Lecture (Recorded) #1: Room 1 is already booked at that time for "
+                    + "CSC3001 Lecture (Recorded) #1");
+            assertOutputContains("2 of 3 courses imported.");
+            assertOutputContains("Courses Created - 2 courses");
+            assertOutputContains("Confirmation emails sent to 1 course organisers.");
+            assertNotNull(context.getCourseManager().getCourse("CSC3001"));
+            assertEquals(1, context.getCourseManager().getCourse("CSC3001").getActivities().size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testImportMissingFile() throws URISyntaxException, IOException, ParseException {
+        setMockInput("no-such-file.csv");
+
+        AdminStaffController admin = new AdminStaffController(context, new TextUserInterface(),
+                new MockAuthenticationService(), new MockEmailService());
+        startOutputCapture();
+        admin.importCourses();
+
+        assertOutputContains("Could not import courses");
+    }
+}
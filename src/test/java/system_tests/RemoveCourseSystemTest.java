@@ -5,15 +5,24 @@ import controller.AdminStaffController;
 import external.MockAuthenticationService;
 import external.MockEmailService;
 import model.AuthenticatedUser;
+import model.Lecture;
 import model.SharedContext;
 import org.json.simple.parser.ParseException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import view.TextUserInterface;
+import util.AuditLog;
 import view.View;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.net.URISyntaxException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -79,6 +88,24 @@ public class RemoveCourseSystemTest extends TUITest {
         assertOutputContains("removed successfully");
     }
 
+    @Test
+    public void testAddAndRemoveAreAuditedOnce() throws Exception {
+        StringWriter out = new StringWriter();
+        AuditLog previous = AuditLog.install(new AuditLog(out));
+        try {
+            testRemoveCourse();
+            assertTrue(AuditLog.installed().flush(5, TimeUnit.SECONDS));
+        } finally {
+            AuditLog.install(previous).close();
+        }
+
+        List<String> lines = out.toString().lines().collect(Collectors.toList());
+        assertEquals(1, lines.stream().filter(line -> line.contains("\"action\":\"addCourse\"")
+                && line.contains("\"SUCCESS\"")).count(), String.join("\n", lines));
+        assertEquals(1, lines.stream().filter(line -> line.contains("\"action\":\"removeCourse\"")
+                && line.contains("\"SUCCESS\"")).count(), String.join("\n", lines));
+    }
+
     @Test
     public void testRemoveNonexistentCourse() throws URISyntaxException, IOException, ParseException {
         setMockInput("NON9999"); // non-existent course
@@ -92,4 +119,27 @@ public class RemoveCourseSystemTest extends TUITest {
         admin.removeCourse();
         assertOutputContains("Course not found");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRemoveCourseClearsEnrolledTimetables() throws URISyntaxException, IOException, ParseException {
+        // Add a course with one lecture and enrol a student on it
+        testAddCourse();
+        context.getCourseManager().addActivityToCourse("CSC4001", new Lecture(1,
+                LocalDate.of(2025, 1, 13), LocalTime.of(9, 0),
+                LocalDate.of(2025, 4, 7), LocalTime.of(10, 0),
+                "Room 1", DayOfWeek.MONDAY, true));
+        context.getCourseManager().addCourseToStudentTimetable("student1@hindeburg.ac.nz", "CSC4001");
+        assertTrue(context.getTimetable("student1@hindeburg.ac.nz").hasSlotsForCourse("CSC4001"));
+        assertTrue(context.getEnrolledStudents("CSC4001").contains("student1@hindeburg.ac.nz"));
+
+        setMockInput("CSC4001");
+        AdminStaffController admin = new AdminStaffController(context, new TextUserInterface(), new MockAuthenticationService(), new MockEmailService());
+
+        startOutputCapture();
+        admin.removeCourse();
+        assertOutputContains("removed successfully");
+        assertOutputContains("Email from noreply@hindeburg.ac.nz to student1@hindeburg.ac.nz");
+        assertFalse(context.getTimetable("student1@hindeburg.ac.nz").hasSlotsForCourse("CSC4001"));
+        assertTrue(context.getEnrolledStudents("CSC4001").isEmpty());
+    }
+}
@@ -0,0 +1,35 @@
+package system_tests;
+
+import controller.MenuController;
+import external.MockAuthenticationService;
+import external.MockEmailService;
+import model.SharedContext;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Test;
+import view.TextUserInterface;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+public class ViewMetricsSystemTest extends TUITest {
+
+    @Test
+    public void testViewMetricsFromAdminMenu() throws URISyntaxException, IOException, ParseException {
+        SharedContext context = new SharedContext(new TextUserInterface());
+        loginAsAdminStaff(context);
+        context.getCourseManager().addCourseToStudentTimetable("student1@hindeburg.ac.nz", "XYZ9999");
+
+        // View metrics, then exit
+        setMockInput("6", "-1");
+        MenuController menus = new MenuController(context, new TextUserInterface(),
+                new MockAuthenticationService(), new MockEmailService());
+        startOutputCapture();
+        menus.mainMenu();
+
+        assertOutputContains("VIEW_METRICS");
+        assertOutputContains("=== Action Metrics ===");
+        assertOutputContains("p99");
+        assertOutputContains("login");
+        assertOutputContains("addCourseToStudentTimetable");
+    }
+}
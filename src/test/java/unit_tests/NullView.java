@@ -0,0 +1,63 @@
+package unit_tests;
+
+import model.FAQManager;
+import model.FAQSection;
+import model.Inquiry;
+import view.View;
+
+/**
+ * A View that discards all output and answers every prompt with a fixed value,
+ * for tests that drive the model directly and do not care about what is shown.
+ */
+public class NullView implements View {
+    @Override
+    public String getInput(String prompt) {
+        return "";
+    }
+
+    @Override
+    public int getIntegerInput(String prompt) {
+        return -1;
+    }
+
+    @Override
+    public boolean getYesNoInput(String prompt) {
+        return false;
+    }
+
+    @Override
+    public void displayInfo(String text) {
+    }
+
+    @Override
+    public void displaySuccess(String text) {
+    }
+
+    @Override
+    public void displayWarning(String text) {
+    }
+
+    @Override
+    public void displayError(String text) {
+    }
+
+    @Override
+    public void displayException(Exception e) {
+    }
+
+    @Override
+    public void displayDivider() {
+    }
+
+    @Override
+    public void displayFAQ(FAQManager faq) {
+    }
+
+    @Override
+    public void displayFAQSection(FAQSection section) {
+    }
+
+    @Override
+    public void displayInquiry(Inquiry inquiry) {
+    }
+}
@@ -0,0 +1,125 @@
+package unit_tests;
+
+import org.junit.jupiter.api.Test;
+import util.ActionMetrics;
+import util.LatencyHistogram;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ActionMetrics and LatencyHistogram classes.
+ */
+public class TestActionMetrics {
+
+    private static void assertWithinPercent(long expected, long actual, double percent) {
+        assertTrue(Math.abs(actual - expected) <= expected * percent / 100,
+                "expected about " + expected + " but was " + actual);
+    }
+
+    /**
+     * Tests that percentiles are accurate to a few percent across very different latencies.
+     */
+    @Test
+    public void testPercentilesAreAccurate() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1us, 2us, ... 1000us
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000L, false);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertWithinPercent(500_000, snapshot.getPercentileNanos(50), 3.2);
+        assertWithinPercent(990_000, snapshot.getPercentileNanos(99), 3.2);
+        assertEquals(1_000_000, snapshot.getMaxNanos());
+        assertEquals(500_500, snapshot.getMeanNanos());
+
+        // Small and very large values are both kept
+        histogram.record(7, false);
+        histogram.record(3_600_000_000_000L, false);
+        snapshot = histogram.snapshot();
+        assertEquals(7, snapshot.getPercentileNanos(0.01));
+        assertEquals(3_600_000_000_000L, snapshot.getPercentileNanos(100));
+    }
+
+    /**
+     * Tests that failures are counted towards each action's error rate.
+     */
+    @Test
+    public void testCountsErrorsPerAction() {
+        ActionMetrics metrics = new ActionMetrics();
+        metrics.add("login", 1_000, true);
+        metrics.add("login", 2_000, true);
+        metrics.add("login", 3_000, false);
+        metrics.add("login", 4_000, true);
+        metrics.add("sendEmail", 5_000, false);
+
+        Map<String, LatencyHistogram.Snapshot> snapshots = metrics.snapshot();
+        assertEquals(List.of("login", "sendEmail"), new ArrayList<>(snapshots.keySet()));
+        assertEquals(4, snapshots.get("login").getCount());
+        assertEquals(1, snapshots.get("login").getErrors());
+        assertEquals(0.25, snapshots.get("login").getErrorRate(), 1e-9);
+        assertEquals(1.0, snapshots.get("sendEmail").getErrorRate(), 1e-9);
+    }
+
+    /**
+     * Tests that nothing is lost when many threads record at once.
+     */
+    @Test
+    public void testConcurrentRecording() throws Exception {
+        ActionMetrics metrics = new ActionMetrics();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        metrics.add(i % 2 == 0 ? "addCourse" : "removeCourse", i, i % 10 != 0);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        LatencyHistogram.Snapshot added = metrics.snapshot().get("addCourse");
+        assertEquals(40_000, added.getCount());
+        assertEquals(8_000, added.getErrors());
+        assertEquals(9_998, added.getMaxNanos());
+    }
+
+    /**
+     * Tests that the report lists every action and can be written to a file.
+     */
+    @Test
+    public void testWritesReport() throws Exception {
+        ActionMetrics metrics = new ActionMetrics();
+        metrics.add("addCourseToStudentTimetable", 1_500_000, true);
+        metrics.add("addCourseToStudentTimetable", 2_500_000, false);
+
+        Path file = Files.createTempDirectory("metrics").resolve("metrics.txt");
+        try {
+            metrics.writeTo(file);
+            List<String> lines = Files.readAllLines(file);
+            assertEquals(2, lines.size());
+            assertTrue(lines.get(0).contains("p99"));
+            assertTrue(lines.get(1).startsWith("addCourseToStudentTimetable"));
+            assertTrue(lines.get(1).contains("50.0%"));
+            assertTrue(lines.get(1).contains("2.50ms"));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(file.getParent());
+        }
+    }
+}
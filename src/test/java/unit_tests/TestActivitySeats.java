@@ -0,0 +1,164 @@
+package unit_tests;
+
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ActivitySeats class and the capacity checks in CourseManager.
+ */
+public class TestActivitySeats {
+
+    private static final LocalDate TERM_START = LocalDate.of(2025, 1, 13);
+    private static final LocalDate TERM_END = LocalDate.of(2025, 4, 7);
+    private static final String REGISTRY = "registry@hindeburg.ac.nz";
+
+    private SharedStore store;
+    private CourseManager courseManager;
+
+    @BeforeEach
+    public void setUp() {
+        store = new SharedStore();
+        courseManager = new SharedContext(new NullView(), store).getCourseManager();
+        courseManager.addCourse("SEA1001", "Seats", "A course", false,
+                "Dr. A", "a@hindeburg.ac.nz", "Ms. B", "b@hindeburg.ac.nz", 1, 1, REGISTRY);
+        courseManager.addActivityToCourse("SEA1001", new Tutorial(1, TERM_START, LocalTime.of(9, 0),
+                TERM_END, LocalTime.of(10, 0), "Room 1", DayOfWeek.MONDAY, 2));
+        courseManager.addActivityToCourse("SEA1001", new Lab(2, TERM_START, LocalTime.of(14, 0),
+                TERM_END, LocalTime.of(16, 0), "Lab 1", DayOfWeek.TUESDAY, 100));
+    }
+
+    private static String studentEmail(int i) {
+        return "student" + i + "@hindeburg.ac.nz";
+    }
+
+    private void enrol(String studentEmail) {
+        assertTrue(courseManager.addCourseToStudentTimetable(studentEmail, "SEA1001"));
+    }
+
+    private ActivitySeats.Seats seats(int activityId) {
+        return store.getSeats().of(courseManager.getCourse("SEA1001"), activityId);
+    }
+
+    private boolean isChosen(String studentEmail, int activityId) {
+        return store.getTimetable(studentEmail).getActivityStatus("SEA1001", activityId) == TimeSlotStatus.CHOSEN;
+    }
+
+    /**
+     * Tests that a full tutorial isn't chosen, that the student is put on its waitlist in
+     * order, and that choosing it again doesn't take another seat.
+     */
+    @Test
+    public void testFullActivityWaitlistsStudents() {
+        for (int i = 0; i < 4; i++) {
+            enrol(studentEmail(i));
+        }
+        assertTrue(courseManager.chooseActivityForCourse(studentEmail(0), "SEA1001", 1));
+        assertTrue(courseManager.chooseActivityForCourse(studentEmail(0), "SEA1001", 1));
+        assertTrue(courseManager.chooseActivityForCourse(studentEmail(1), "SEA1001", 1));
+        assertFalse(courseManager.chooseActivityForCourse(studentEmail(2), "SEA1001", 1));
+        assertFalse(courseManager.chooseActivityForCourse(studentEmail(3), "SEA1001", 1));
+
+        ActivitySeats.Seats seats = seats(1);
+        assertEquals(2, seats.getTaken());
+        assertEquals(0, seats.getFree());
+        assertFalse(isChosen(studentEmail(2), 1));
+        assertEquals(1, seats.waitlistPosition(studentEmail(2)));
+        assertEquals(2, seats.waitlistPosition(studentEmail(3)));
+        assertEquals(0, seats.waitlistPosition(studentEmail(0)));
+        assertNull(seats(3));
+    }
+
+    /**
+     * Tests that a student leaving the course passes their seat to the first student waiting,
+     * and that a student who leaves while waiting loses their place.
+     */
+    @Test
+    public void testLeavingPromotesFromWaitlist() {
+        for (int i = 0; i < 4; i++) {
+            enrol(studentEmail(i));
+            courseManager.chooseActivityForCourse(studentEmail(i), "SEA1001", 1);
+        }
+        store.removeCourseFromTimetable(studentEmail(2), "SEA1001");
+        store.removeCourseFromTimetable(studentEmail(0), "SEA1001");
+
+        ActivitySeats.Seats seats = seats(1);
+        assertTrue(isChosen(studentEmail(3), 1));
+        assertTrue(seats.getWaitlist().isEmpty());
+        assertEquals(2, seats.getTaken());
+
+        store.removeCourseFromTimetable(studentEmail(1), "SEA1001");
+        assertEquals(1, seats.getTaken());
+    }
+
+    /**
+     * Tests that the seats chosen before the course's seats are first used are counted.
+     */
+    @Test
+    public void testCountsExistingChoices() {
+        enrol(studentEmail(0));
+        enrol(studentEmail(1));
+        // Chosen straight in the timetables, as when they are loaded from a snapshot
+        store.getTimetable(studentEmail(0)).chooseActivity("SEA1001", 1);
+        store.getTimetable(studentEmail(1)).chooseActivity("SEA1001", 1);
+        store.getTimetable(studentEmail(1)).chooseActivity("SEA1001", 2);
+
+        assertEquals(2, seats(1).getTaken());
+        assertEquals(1, seats(2).getTaken());
+        enrol(studentEmail(2));
+        assertFalse(courseManager.chooseActivityForCourse(studentEmail(2), "SEA1001", 1));
+    }
+
+    /**
+     * Tests that many students choosing the same lab at once take exactly its seats, and that
+     * everyone else is waitlisted.
+     */
+    @Test
+    public void testConcurrentChoosersNeverOverfill() throws Exception {
+        int students = 2_000;
+        for (int i = 0; i < students; i++) {
+            enrol(studentEmail(i));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger chosen = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < students; i++) {
+            String email = studentEmail(i);
+            futures.add(executor.submit(() -> {
+                start.await();
+                if (courseManager.chooseActivityForCourse(email, "SEA1001", 2)) {
+                    chosen.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        ActivitySeats.Seats seats = seats(2);
+        assertEquals(100, chosen.get());
+        assertEquals(100, seats.getTaken());
+        assertEquals(students - 100, seats.getWaitlist().size());
+        int inTimetables = 0;
+        for (int i = 0; i < students; i++) {
+            if (isChosen(studentEmail(i), 2)) {
+                inTimetables++;
+            }
+        }
+        assertEquals(100, inTimetables);
+    }
+}
@@ -0,0 +1,242 @@
+package unit_tests;
+
+import model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import workload.WorkloadGenerator;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ActivitySolver class.
+ */
+public class TestActivitySolver {
+
+    private static final LocalDate TERM_START = LocalDate.of(2025, 1, 13);
+    private static final LocalDate TERM_END = LocalDate.of(2025, 4, 7);
+    private static final String REGISTRY = "registry@hindeburg.ac.nz";
+
+    private ForkJoinPool pool;
+    private SharedStore store;
+    private SharedContext context;
+    private CourseManager courseManager;
+
+    @BeforeEach
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+        store = new SharedStore();
+        context = new SharedContext(new NullView(), store);
+        courseManager = context.getCourseManager();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    private void addCourse(String code, int requiredTutorials, int requiredLabs) {
+        courseManager.addCourse(code, "Course " + code, "A course", false,
+                "Dr. A", "a@hindeburg.ac.nz", "Ms. B", "b@hindeburg.ac.nz", requiredTutorials, requiredLabs, REGISTRY);
+    }
+
+    private static LocalTime at(int hour) {
+        return LocalTime.of(hour, 0);
+    }
+
+    private void addTutorial(String code, int id, DayOfWeek day, int hour, int capacity) {
+        courseManager.addActivityToCourse(code, new Tutorial(id, TERM_START, at(hour), TERM_END, at(hour + 1),
+                "Room " + id, day, capacity));
+    }
+
+    private void addLab(String code, int id, DayOfWeek day, int hour, int capacity) {
+        courseManager.addActivityToCourse(code, new Lab(id, TERM_START, at(hour), TERM_END, at(hour + 2),
+                "Lab " + id, day, capacity));
+    }
+
+    private void enrol(String studentEmail, String... courseCodes) {
+        for (String courseCode : courseCodes) {
+            assertTrue(courseManager.addCourseToStudentTimetable(studentEmail, courseCode));
+        }
+    }
+
+    private static Set<String> chosen(AssignmentReport.StudentResult result) {
+        Set<String> chosen = new TreeSet<>();
+        for (String[] activity : result.getChosen()) {
+            chosen.add(activity[0] + "/" + activity[1]);
+        }
+        return chosen;
+    }
+
+    /**
+     * Tests that the solver finds the only clash-free choice.
+     */
+    @Test
+    public void testChoosesClashFreeActivities() {
+        addCourse("SOL1001", 1, 1);
+        addTutorial("SOL1001", 1, DayOfWeek.MONDAY, 9, 30);
+        addTutorial("SOL1001", 2, DayOfWeek.TUESDAY, 9, 30);
+        addLab("SOL1001", 3, DayOfWeek.MONDAY, 9, 30);
+        addLab("SOL1001", 4, DayOfWeek.WEDNESDAY, 14, 30);
+        addCourse("SOL1002", 1, 0);
+        addTutorial("SOL1002", 1, DayOfWeek.TUESDAY, 9, 30);
+        addTutorial("SOL1002", 2, DayOfWeek.WEDNESDAY, 15, 30);
+        enrol("solver@hindeburg.ac.nz", "SOL1001", "SOL1002");
+
+        AssignmentReport.StudentResult result = new ActivitySolver(context, pool)
+                .assign("solver@hindeburg.ac.nz", List.of());
+
+        assertEquals(AssignmentReport.Outcome.ASSIGNED, result.getOutcome());
+        // The Monday tutorial rules out the Monday lab, and the Wednesday lab rules out SOL1002's Wednesday tutorial
+        assertEquals(new TreeSet<>(List.of("SOL1001/1", "SOL1001/4", "SOL1002/1")), chosen(result));
+        Timetable timetable = store.getTimetable("solver@hindeburg.ac.nz");
+        assertEquals(2, timetable.numChosenActivities("SOL1001"));
+        assertEquals(1, timetable.numChosenActivities("SOL1002"));
+    }
+
+    /**
+     * Tests that activities already chosen are kept and counted towards the requirements, and
+     * that a student with nothing left to choose is left alone.
+     */
+    @Test
+    public void testKeepsExistingChoices() {
+        addCourse("SOL1001", 2, 0);
+        addTutorial("SOL1001", 1, DayOfWeek.MONDAY, 9, 30);
+        addTutorial("SOL1001", 2, DayOfWeek.MONDAY, 9, 30);
+        addTutorial("SOL1001", 3, DayOfWeek.TUESDAY, 9, 30);
+        enrol("keep@hindeburg.ac.nz", "SOL1001");
+        assertTrue(courseManager.chooseActivityForCourse("keep@hindeburg.ac.nz", "SOL1001", 2));
+
+        ActivitySolver solver = new ActivitySolver(context, pool);
+        AssignmentReport.StudentResult result = solver.assign("keep@hindeburg.ac.nz", List.of("SOL1001"));
+        assertEquals(AssignmentReport.Outcome.ASSIGNED, result.getOutcome());
+        assertEquals(Set.of("SOL1001/3"), chosen(result));
+
+        result = solver.assign("keep@hindeburg.ac.nz", List.of("SOL1001"));
+        assertEquals(AssignmentReport.Outcome.ALREADY_COMPLETE, result.getOutcome());
+        assertTrue(result.getChosen().isEmpty());
+    }
+
+    /**
+     * Tests that a student whose courses have no feasible choice is reported, with the reason,
+     * and has nothing chosen.
+     */
+    @Test
+    public void testReportsInfeasibleStudents() {
+        addCourse("SOL1001", 1, 0);
+        addTutorial("SOL1001", 1, DayOfWeek.MONDAY, 9, 30);
+        addCourse("LIV1001", 0, 0);
+        courseManager.addActivityToCourse("LIV1001", new Lecture(1, TERM_START, at(9), TERM_END, at(10),
+                "Lecture Theatre", DayOfWeek.MONDAY, false));
+        // The lecture first, as it can't be added once something clashes with it
+        enrol("live@hindeburg.ac.nz", "LIV1001", "SOL1001");
+        enrol("fine@hindeburg.ac.nz", "SOL1001");
+
+        AssignmentReport report = new ActivitySolver(context, pool).assignCohort(
+                List.of("live@hindeburg.ac.nz", "fine@hindeburg.ac.nz", "nobody@hindeburg.ac.nz"), REGISTRY);
+
+        assertEquals(3, report.getStudents().size());
+        List<AssignmentReport.StudentResult> infeasible = report.getInfeasible();
+        assertEquals(1, infeasible.size());
+        assertEquals("live@hindeburg.ac.nz", infeasible.get(0).getStudentEmail());
+        assertTrue(infeasible.get(0).getReason().contains("SOL1001 needs 1 tutorial"), infeasible.get(0).getReason());
+        assertEquals(0, store.getTimetable("live@hindeburg.ac.nz").numChosenActivities("SOL1001"));
+
+        assertEquals(AssignmentReport.Outcome.ASSIGNED, report.getStudents().get(1).getOutcome());
+        assertEquals(AssignmentReport.Outcome.NOT_ENROLLED, report.getStudents().get(2).getOutcome());
+        assertEquals(AssignmentReport.Outcome.NOT_ENROLLED, new ActivitySolver(context, pool)
+                .assign("fine@hindeburg.ac.nz", List.of("LIV1001")).getOutcome());
+    }
+
+    /**
+     * Tests that no activity is given more students than its capacity, counting students who
+     * chose it themselves.
+     */
+    @Test
+    public void testRespectsCapacity() {
+        addCourse("SOL1001", 1, 0);
+        addTutorial("SOL1001", 1, DayOfWeek.MONDAY, 9, 3);
+        addTutorial("SOL1001", 2, DayOfWeek.TUESDAY, 9, 5);
+        List<String> cohort = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            cohort.add("student" + i + "@hindeburg.ac.nz");
+            enrol(cohort.get(i), "SOL1001");
+        }
+        assertTrue(courseManager.chooseActivityForCourse(cohort.get(0), "SOL1001", 1));
+
+        AssignmentReport report = new ActivitySolver(context, pool).assignCohort(cohort, REGISTRY);
+
+        assertEquals(Map.of(AssignmentReport.Outcome.ASSIGNED, 7, AssignmentReport.Outcome.ALREADY_COMPLETE, 1,
+                AssignmentReport.Outcome.INFEASIBLE, 2), report.countByOutcome());
+        Map<String, Integer> taken = new HashMap<>();
+        for (AssignmentReport.StudentResult result : report.getStudents()) {
+            for (String activity : chosen(result)) {
+                taken.merge(activity, 1, Integer::sum);
+            }
+        }
+        assertEquals(Map.of("SOL1001/1", 2, "SOL1001/2", 5), taken);
+    }
+
+    /**
+     * Tests a cohort taking six courses each: every student is either given a clash-free
+     * choice that meets each course's requirements or reported, and no activity is overfilled.
+     */
+    @Test
+    public void testSixCourseCohort() {
+        int courses = 60;
+        int students = 2_000;
+        new WorkloadGenerator(23).addCourses(courseManager, courses);
+        Random random = new Random(23);
+        List<CohortEnrolment.Request> requests = new ArrayList<>();
+        List<String> cohort = new ArrayList<>();
+        for (int s = 0; s < students; s++) {
+            cohort.add(WorkloadGenerator.studentEmail(s));
+            Set<Integer> picked = new LinkedHashSet<>();
+            while (picked.size() < 6) {
+                picked.add(random.nextInt(courses));
+            }
+            for (int c : picked) {
+                requests.add(new CohortEnrolment.Request(cohort.get(s), WorkloadGenerator.courseCode(c)));
+            }
+        }
+        new CohortEnrolment(courseManager, pool).enrol(requests, REGISTRY);
+
+        AssignmentReport report = new ActivitySolver(context, pool).assignCohort(cohort, REGISTRY);
+
+        assertEquals(students, report.getStudents().size());
+        assertTrue(report.getElapsedNanos() < 10_000_000_000L, "Took " + report);
+        assertFalse(report.getInfeasible().isEmpty(), "Some students should be left without seats: " + report);
+        Map<String, Integer> taken = new HashMap<>();
+        for (AssignmentReport.StudentResult result : report.getStudents()) {
+            if (result.getOutcome() == AssignmentReport.Outcome.INFEASIBLE) {
+                assertNotNull(result.getReason());
+                continue;
+            }
+            assertEquals(AssignmentReport.Outcome.ASSIGNED, result.getOutcome());
+            // One tutorial and one lab for each of the six courses
+            assertEquals(12, result.getChosen().size());
+            List<Activity> activities = new ArrayList<>();
+            for (String[] chosen : result.getChosen()) {
+                Course course = courseManager.getCourse(chosen[0]);
+                activities.add(course.getActivities().get(Integer.parseInt(chosen[1]) - 1));
+                taken.merge(chosen[0] + "/" + chosen[1], 1, Integer::sum);
+            }
+            for (int i = 0; i < activities.size(); i++) {
+                for (int j = 0; j < i; j++) {
+                    assertFalse(activities.get(i).getTimeGrid().intersects(activities.get(j).getTimeGrid()),
+                            result.getStudentEmail() + " has clashing activities");
+                }
+            }
+        }
+        for (Map.Entry<String, Integer> seats : taken.entrySet()) {
+            int capacity = seats.getKey().endsWith("/2") || seats.getKey().endsWith("/3") ? 30 : 20;
+            assertTrue(seats.getValue() <= capacity, seats.getKey() + " has " + seats.getValue() + " students");
+        }
+    }
+}
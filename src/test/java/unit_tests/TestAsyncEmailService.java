@@ -0,0 +1,250 @@
+package unit_tests;
+
+import external.AsyncEmailService;
+import external.EmailService;
+import external.MockEmailService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AsyncEmailService class.
+ */
+public class TestAsyncEmailService {
+
+    private AsyncEmailService asyncEmailService;
+
+    @AfterEach
+    public void tearDown() {
+        if (asyncEmailService != null) {
+            asyncEmailService.close();
+        }
+    }
+
+    /**
+     * Tests that sending returns as soon as the email is queued, and that every email is delivered in the end.
+     */
+    @Test
+    public void testSendEmailReturnsBeforeDelivery() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Set<String> recipients = ConcurrentHashMap.newKeySet();
+        asyncEmailService = new AsyncEmailService((sender, recipient, subject, content) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            recipients.add(recipient);
+            return EmailService.STATUS_SUCCESS;
+        }, 5000, 4, 64, 3);
+
+        for (int i = 0; i < 2000; i++) {
+            int status = asyncEmailService.sendEmail("noreply@hindeburg.ac.nz",
+                    "student" + i + "@hindeburg.ac.nz", "Course removed", "Content");
+            assertEquals(EmailService.STATUS_SUCCESS, status,
+                    "Queued emails should be reported as accepted");
+        }
+        assertTrue(recipients.isEmpty(), "No email should be delivered while the provider is blocked");
+
+        release.countDown();
+        assertTrue(asyncEmailService.flush(10, TimeUnit.SECONDS), "All queued emails should be delivered");
+        assertEquals(2000, recipients.size());
+
+        AsyncEmailService.DeliveryMetrics metrics = asyncEmailService.getMetrics();
+        assertEquals(2000, metrics.submitted);
+        assertEquals(2000, metrics.delivered);
+        assertEquals(0, metrics.failed);
+        assertEquals(0, metrics.inFlight);
+        assertTrue(metrics.batches < 2000, "Workers should deliver queued emails in batches");
+    }
+
+    /**
+     * Tests that an email failing with an unknown error is retried until it succeeds.
+     */
+    @Test
+    public void testUnknownErrorIsRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        asyncEmailService = new AsyncEmailService((sender, recipient, subject, content) ->
+                attempts.incrementAndGet() < 3 ? EmailService.STATUS_UNKNOWN_ERROR : EmailService.STATUS_SUCCESS,
+                100, 1, 8, 3, 10);
+
+        int status = asyncEmailService.submit("noreply@hindeburg.ac.nz", "student1@hindeburg.ac.nz",
+                "Subject", "Content").get(10, TimeUnit.SECONDS);
+
+        assertEquals(EmailService.STATUS_SUCCESS, status, "The third attempt should succeed");
+        assertEquals(3, attempts.get());
+        assertEquals(2, asyncEmailService.getMetrics().retried);
+    }
+
+    /**
+     * Tests that an email is given up on after the maximum number of attempts.
+     */
+    @Test
+    public void testGivesUpAfterMaxAttempts() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        asyncEmailService = new AsyncEmailService((sender, recipient, subject, content) -> {
+            attempts.incrementAndGet();
+            return EmailService.STATUS_UNKNOWN_ERROR;
+        }, 100, 1, 8, 3, 10);
+
+        int status = asyncEmailService.submit("noreply@hindeburg.ac.nz", "student1@hindeburg.ac.nz",
+                "Subject", "Content").get(10, TimeUnit.SECONDS);
+
+        assertEquals(EmailService.STATUS_UNKNOWN_ERROR, status);
+        assertEquals(3, attempts.get());
+        assertEquals(1, asyncEmailService.getMetrics().failed);
+    }
+
+    /**
+     * Tests that an email failing with an unknown error waits longer before each retry.
+     */
+    @Test
+    public void testRetriesBackOff() throws Exception {
+        List<Long> attemptNanos = Collections.synchronizedList(new ArrayList<>());
+        asyncEmailService = new AsyncEmailService((sender, recipient, subject, content) -> {
+            attemptNanos.add(System.nanoTime());
+            return EmailService.STATUS_UNKNOWN_ERROR;
+        }, 100, 1, 8, 3, 50);
+
+        asyncEmailService.submit("noreply@hindeburg.ac.nz", "student1@hindeburg.ac.nz",
+                "Subject", "Content").get(10, TimeUnit.SECONDS);
+
+        assertEquals(3, attemptNanos.size());
+        assertTrue(attemptNanos.get(1) - attemptNanos.get(0) >= TimeUnit.MILLISECONDS.toNanos(50),
+                "The first retry should wait the retry delay");
+        assertTrue(attemptNanos.get(2) - attemptNanos.get(1) >= TimeUnit.MILLISECONDS.toNanos(100),
+                "The second retry should wait twice as long");
+    }
+
+    /**
+     * Tests that addresses the validator rejects are reported straight away, without the email being queued.
+     */
+    @Test
+    public void testInvalidAddressIsRejectedBeforeQueueing() {
+        AtomicInteger attempts = new AtomicInteger();
+        asyncEmailService = new AsyncEmailService((sender, recipient, subject, content) -> {
+            attempts.incrementAndGet();
+            return EmailService.STATUS_SUCCESS;
+        }, 100, 1, 8, 3, 10, MockEmailService::checkAddresses);
+
+        assertEquals(EmailService.STATUS_INVALID_RECIPIENT_EMAIL, asyncEmailService.sendEmail(
+                "noreply@hindeburg.ac.nz", "not-an-email", "Subject", "Content"));
+        assertEquals(EmailService.STATUS_INVALID_SENDER_EMAIL, asyncEmailService.sendEmail(
+                null, "student1@hindeburg.ac.nz", "Subject", "Content"));
+        CompletableFuture<Integer> status = asyncEmailService.submit("noreply@hindeburg.ac.nz", "",
+                "Subject", "Content");
+
+        assertTrue(status.isDone());
+        assertEquals(EmailService.STATUS_INVALID_RECIPIENT_EMAIL, (int) status.join());
+        assertEquals(0, attempts.get());
+        AsyncEmailService.DeliveryMetrics metrics = asyncEmailService.getMetrics();
+        assertEquals(3, metrics.failed);
+        assertEquals(0, metrics.inFlight);
+    }
+
+    /**
+     * Tests that without a validator, addresses are left to the provider and its status is reported.
+     */
+    @Test
+    public void testProviderChecksAddressesByDefault() throws Exception {
+        Set<String> recipients = ConcurrentHashMap.newKeySet();
+        asyncEmailService = new AsyncEmailService((sender, recipient, subject, content) -> {
+            recipients.add(recipient);
+            return recipient.endsWith("@hindeburg.ac.nz")
+                    ? EmailService.STATUS_SUCCESS : EmailService.STATUS_INVALID_RECIPIENT_EMAIL;
+        }, 100, 1, 8, 3);
+
+        int status = asyncEmailService.submit("noreply@hindeburg.ac.nz", "student1@elsewhere.example",
+                "Subject", "Content").get(10, TimeUnit.SECONDS);
+
+        assertEquals(EmailService.STATUS_INVALID_RECIPIENT_EMAIL, status);
+        assertEquals(Set.of("student1@elsewhere.example"), recipients);
+        assertEquals(1, asyncEmailService.getMetrics().failed);
+    }
+
+    /**
+     * Tests that flush gives up at the timeout while an email is still being delivered.
+     */
+    @Test
+    public void testFlushTimesOut() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        asyncEmailService = new AsyncEmailService((sender, recipient, subject, content) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return EmailService.STATUS_SUCCESS;
+        }, 100, 1, 8, 3);
+
+        asyncEmailService.sendEmail("noreply@hindeburg.ac.nz", "a@hindeburg.ac.nz", "Subject", "Content");
+
+        assertFalse(asyncEmailService.flush(50, TimeUnit.MILLISECONDS));
+        assertEquals(1, asyncEmailService.getMetrics().inFlight);
+        release.countDown();
+        assertTrue(asyncEmailService.flush(10, TimeUnit.SECONDS));
+        assertEquals(0, asyncEmailService.getMetrics().inFlight);
+    }
+
+    /**
+     * Tests that a full queue falls back to delivering on the caller's thread and returns the real status.
+     */
+    @Test
+    public void testFullQueueDeliversOnCaller() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        asyncEmailService = new AsyncEmailService((sender, recipient, subject, content) -> {
+            if (!Thread.currentThread().getName().startsWith("email-worker")) {
+                return EmailService.STATUS_INVALID_RECIPIENT_EMAIL;
+            }
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return EmailService.STATUS_SUCCESS;
+        }, 1, 1, 1, 3);
+
+        // The first email occupies the worker, the second fills the queue
+        asyncEmailService.sendEmail("noreply@hindeburg.ac.nz", "a@hindeburg.ac.nz", "Subject", "Content");
+        Thread.sleep(200);
+        asyncEmailService.sendEmail("noreply@hindeburg.ac.nz", "b@hindeburg.ac.nz", "Subject", "Content");
+        int status = asyncEmailService.sendEmail("noreply@hindeburg.ac.nz", "c@hindeburg.ac.nz", "Subject", "Content");
+
+        assertEquals(EmailService.STATUS_INVALID_RECIPIENT_EMAIL, status,
+                "An email delivered on the caller's thread should report the provider's status");
+        assertEquals(1, asyncEmailService.getMetrics().deliveredOnCaller);
+        release.countDown();
+        assertTrue(asyncEmailService.flush(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that closing the service delivers emails that are still queued.
+     */
+    @Test
+    public void testCloseDeliversQueuedEmails() {
+        AtomicInteger delivered = new AtomicInteger();
+        asyncEmailService = new AsyncEmailService((sender, recipient, subject, content) -> {
+            delivered.incrementAndGet();
+            return EmailService.STATUS_SUCCESS;
+        }, 1000, 2, 16, 3);
+
+        for (int i = 0; i < 500; i++) {
+            asyncEmailService.sendEmail("noreply@hindeburg.ac.nz", "student" + i + "@hindeburg.ac.nz",
+                    "Subject", "Content");
+        }
+        asyncEmailService.close();
+
+        assertEquals(500, delivered.get());
+    }
+}
@@ -0,0 +1,136 @@
+package unit_tests;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.jupiter.api.Test;
+import util.AuditLog;
+
+import java.io.StringWriter;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AuditLog class.
+ */
+public class TestAuditLog {
+
+    private static List<JSONObject> parseLines(String text) throws Exception {
+        JSONParser parser = new JSONParser();
+        List<JSONObject> events = new ArrayList<>();
+        for (String line : text.split("\n")) {
+            if (!line.isEmpty()) {
+                events.add((JSONObject) parser.parse(line));
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Tests that each event is written as one JSON object with every field.
+     */
+    @Test
+    public void testWritesOneJsonObjectPerEvent() throws Exception {
+        StringWriter out = new StringWriter();
+        long before = System.currentTimeMillis();
+        try (AuditLog log = new AuditLog(out)) {
+            log.log("student@hindeburg.ac.nz", "addCourseToStudentTimetable", "CSC1001",
+                    AuditLog.Outcome.FAILURE, "Course does not exist");
+            log.log("admin@hindeburg.ac.nz", "addCourse",
+                    AuditLog.fields("code", "CSC1001", "requiresComputers", true, "labs", 2),
+                    AuditLog.Outcome.SUCCESS, null);
+            assertTrue(log.flush(5, TimeUnit.SECONDS));
+        }
+
+        List<JSONObject> events = parseLines(out.toString());
+        assertEquals(2, events.size());
+
+        JSONObject failure = events.get(0);
+        assertEquals("student@hindeburg.ac.nz", failure.get("user"));
+        assertEquals("addCourseToStudentTimetable", failure.get("action"));
+        assertEquals("CSC1001", failure.get("input"));
+        assertEquals("FAILURE", failure.get("outcome"));
+        assertEquals("Course does not exist", failure.get("detail"));
+        long timestampMillis = (Long) failure.get("timestampNanos") / 1_000_000;
+        assertTrue(Math.abs(timestampMillis - before) < 60_000);
+
+        JSONObject success = events.get(1);
+        JSONObject input = (JSONObject) success.get("input");
+        assertEquals("CSC1001", input.get("code"));
+        assertEquals(Boolean.TRUE, input.get("requiresComputers"));
+        assertEquals(Long.valueOf(2), input.get("labs"));
+        assertFalse(success.containsKey("detail"));
+    }
+
+    /**
+     * Tests that text which would break the JSON is escaped.
+     */
+    @Test
+    public void testEscapesText() throws Exception {
+        StringWriter out = new StringWriter();
+        try (AuditLog log = new AuditLog(out)) {
+            log.log(null, "searchFAQ", "say \"hi\"\\\n\tnow\u0001", AuditLog.Outcome.SUCCESS, null);
+        }
+
+        JSONObject event = parseLines(out.toString()).get(0);
+        assertNull(event.get("user"));
+        assertEquals("say \"hi\"\\\n\tnow\u0001", event.get("input"));
+    }
+
+    /**
+     * Tests that events from many threads are all written, even when the buffer fills up.
+     */
+    @Test
+    public void testKeepsEveryEventWhenBufferFills() throws Exception {
+        int threads = 8;
+        int perThread = 2_000;
+        StringWriter out = new StringWriter();
+        AuditLog log = new AuditLog(out, 16);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String user = "user" + t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        log.log(user, "action", i, AuditLog.Outcome.SUCCESS, null);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            log.close();
+        }
+
+        // Every event is there once, and each thread's events are in the order it logged them
+        Map<Object, Integer> nextByUser = new HashMap<>();
+        List<JSONObject> events = parseLines(out.toString());
+        assertEquals(threads * perThread, events.size());
+        for (JSONObject event : events) {
+            int expected = nextByUser.getOrDefault(event.get("user"), 0);
+            assertEquals(Long.valueOf(expected), event.get("input"));
+            nextByUser.put(event.get("user"), expected + 1);
+        }
+    }
+
+    /**
+     * Tests that events recorded after closing are dropped rather than blocking.
+     */
+    @Test
+    public void testDropsEventsAfterClose() throws Exception {
+        StringWriter out = new StringWriter();
+        AuditLog log = new AuditLog(out, 2);
+        log.close();
+        for (int i = 0; i < 10; i++) {
+            log.log("user", "action", i, AuditLog.Outcome.SUCCESS, null);
+        }
+        assertEquals("", out.toString());
+    }
+}
@@ -0,0 +1,181 @@
+package unit_tests;
+
+import model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CohortEnrolment class.
+ */
+public class TestCohortEnrolment {
+
+    private static final LocalDate TERM_START = LocalDate.of(2025, 1, 13);
+    private static final LocalDate TERM_END = LocalDate.of(2025, 4, 7);
+    private static final String REGISTRY = "registry@hindeburg.ac.nz";
+
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * A view that fails the test if anything is shown on it.
+     */
+    private static class SilentView extends NullView {
+        @Override
+        public void displayInfo(String text) {
+            fail("Unexpected output: " + text);
+        }
+
+        @Override
+        public void displaySuccess(String text) {
+            fail("Unexpected output: " + text);
+        }
+
+        @Override
+        public void displayWarning(String text) {
+            fail("Unexpected output: " + text);
+        }
+
+        @Override
+        public void displayError(String text) {
+            fail("Unexpected output: " + text);
+        }
+    }
+
+    private static CourseManager courseManager(SharedStore store) {
+        SharedContext context = new SharedContext(new SilentView(), store);
+        CourseManager courseManager = context.getCourseManager();
+        // A compulsory course with a recorded lecture, and one whose lecture must be attended live
+        courseManager.addCourse("CMP1001", "Compulsory", "Everyone takes this", false,
+                "Dr. A", "a@hindeburg.ac.nz", "Ms. B", "b@hindeburg.ac.nz", 1, 0, REGISTRY);
+        courseManager.addActivityToCourse("CMP1001", new Lecture(1, TERM_START, LocalTime.of(9, 0),
+                TERM_END, LocalTime.of(10, 0), "Lecture Theatre", DayOfWeek.MONDAY, true));
+        courseManager.addActivityToCourse("CMP1001", new Tutorial(2, TERM_START, LocalTime.of(11, 0),
+                TERM_END, LocalTime.of(12, 0), "Room 1", DayOfWeek.TUESDAY, 3000));
+        courseManager.addCourse("UNR1001", "Unrecorded", "Attend in person", false,
+                "Dr. A", "a@hindeburg.ac.nz", "Ms. B", "b@hindeburg.ac.nz", 0, 0, REGISTRY);
+        courseManager.addActivityToCourse("UNR1001", new Lecture(1, TERM_START, LocalTime.of(9, 0),
+                TERM_END, LocalTime.of(10, 0), "Lecture Theatre 2", DayOfWeek.MONDAY, false));
+        return courseManager;
+    }
+
+    /**
+     * Tests that a whole cohort is enrolled on a compulsory course.
+     */
+    @Test
+    public void testEnrolsCohort() {
+        SharedStore store = new SharedStore();
+        CourseManager courseManager = courseManager(store);
+        List<String> cohort = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            cohort.add("student" + i + "@hindeburg.ac.nz");
+        }
+
+        EnrolmentReport report = new CohortEnrolment(courseManager, pool).enrolCohort(cohort, "CMP1001", REGISTRY);
+
+        assertEquals(3000, report.getStudents().size());
+        assertEquals(Map.of(EnrolmentReport.Outcome.ENROLLED, 3000), report.countByOutcome());
+        assertTrue(report.getFailures().isEmpty());
+        assertEquals("student0@hindeburg.ac.nz", report.getStudents().get(0).getStudentEmail());
+        assertEquals(3000, store.getEnrolledStudents("CMP1001").size());
+        for (String student : cohort) {
+            Timetable timetable = store.getTimetable(student);
+            assertTrue(timetable.hasSlotsForCourse("CMP1001"));
+        }
+    }
+
+    /**
+     * Tests that each request gets its own result, and failed courses leave nothing behind.
+     */
+    @Test
+    public void testReportsEachOutcome() {
+        SharedStore store = new SharedStore();
+        CourseManager courseManager = courseManager(store);
+        CohortEnrolment enrolment = new CohortEnrolment(courseManager, pool);
+        enrolment.enrol(List.of(
+                new CohortEnrolment.Request("s1@hindeburg.ac.nz", "CMP1001"),
+                new CohortEnrolment.Request("s2@hindeburg.ac.nz", "UNR1001")), REGISTRY);
+
+        EnrolmentReport report = enrolment.enrol(List.of(
+                new CohortEnrolment.Request("s1@hindeburg.ac.nz", "UNR1001"),
+                new CohortEnrolment.Request("s2@hindeburg.ac.nz", "CMP1001"),
+                new CohortEnrolment.Request("s1@hindeburg.ac.nz", "CMP1001"),
+                new CohortEnrolment.Request("s3@hindeburg.ac.nz", "XYZ9999"),
+                new CohortEnrolment.Request("s3@hindeburg.ac.nz", " ")), REGISTRY);
+
+        List<EnrolmentReport.StudentResult> students = report.getStudents();
+        assertEquals(3, students.size());
+        List<EnrolmentReport.CourseResult> s1 = students.get(0).getCourses();
+        assertEquals(EnrolmentReport.Outcome.UNRECORDED_LECTURE_CLASH, s1.get(0).getOutcome());
+        assertArrayEquals(new String[]{"CMP1001", "1"}, s1.get(0).getClashes().get(0));
+        assertEquals(EnrolmentReport.Outcome.ALREADY_ENROLLED, s1.get(1).getOutcome());
+
+        EnrolmentReport.CourseResult s2 = students.get(1).getCourses().get(0);
+        assertEquals(EnrolmentReport.Outcome.ENROLLED_WITH_CLASHES, s2.getOutcome());
+        assertArrayEquals(new String[]{"UNR1001", "1"}, s2.getClashes().get(0));
+
+        List<EnrolmentReport.CourseResult> s3 = students.get(2).getCourses();
+        assertEquals(EnrolmentReport.Outcome.NO_SUCH_COURSE, s3.get(0).getOutcome());
+        assertEquals(EnrolmentReport.Outcome.INVALID_COURSE_CODE, s3.get(1).getOutcome());
+        assertEquals(2, report.getFailures().size());
+
+        assertFalse(store.getTimetable("s1@hindeburg.ac.nz").hasSlotsForCourse("UNR1001"));
+        assertFalse(store.getEnrolledStudents("UNR1001").contains("s1@hindeburg.ac.nz"));
+        assertTrue(store.getTimetable("s2@hindeburg.ac.nz").hasSlotsForCourse("CMP1001"));
+    }
+
+    /**
+     * Tests that batch enrolments are saved, without the slots of courses that were rolled back.
+     */
+    @Test
+    public void testEnrolmentsAreDurable() throws IOException {
+        Path directory = Files.createTempDirectory("cohort-enrolment");
+        try {
+            try (DurableStore durableStore = DurableStore.open(directory)) {
+                CohortEnrolment enrolment = new CohortEnrolment(courseManager(durableStore.getStore()), pool);
+                enrolment.enrol(List.of(
+                        new CohortEnrolment.Request("s1@hindeburg.ac.nz", "CMP1001"),
+                        new CohortEnrolment.Request("s1@hindeburg.ac.nz", "UNR1001"),
+                        new CohortEnrolment.Request("s2@hindeburg.ac.nz", "UNR1001")), REGISTRY);
+            }
+
+            try (DurableStore reopened = DurableStore.open(directory)) {
+                SharedStore store = reopened.getStore();
+                assertTrue(store.getTimetable("s1@hindeburg.ac.nz").hasSlotsForCourse("CMP1001"));
+                assertFalse(store.getTimetable("s1@hindeburg.ac.nz").hasSlotsForCourse("UNR1001"));
+                assertTrue(store.getTimetable("s2@hindeburg.ac.nz").hasSlotsForCourse("UNR1001"));
+                assertEquals(1, store.getEnrolledStudents("UNR1001").size());
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package unit_tests;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CourseCode class.
+ */
+public class TestCourseCode {
+
+    /**
+     * Tests that only three capital letters followed by four digits are accepted.
+     */
+    @Test
+    public void testValidation() {
+        assertTrue(CourseCode.isValid("CSC1001"));
+        assertFalse(CourseCode.isValid(null));
+        assertFalse(CourseCode.isValid(""));
+        assertFalse(CourseCode.isValid("csc1001"));
+        assertFalse(CourseCode.isValid("CSC101"));
+        assertFalse(CourseCode.isValid("CSC10011"));
+        assertFalse(CourseCode.isValid("CS11001"));
+        assertFalse(CourseCode.isValid("CSC100A"));
+        assertFalse(CourseCode.isValid(" CSC1001"));
+    }
+
+    /**
+     * Tests that the same code, however it is typed, is always the same object.
+     */
+    @Test
+    public void testCodesAreInternedInCanonicalForm() {
+        CourseCode code = CourseCode.of("TCC1001");
+        assertEquals("TCC1001", code.toString());
+        assertSame(code, CourseCode.of("TCC1001"));
+        assertSame(code, CourseCode.of(" tcc1001 "));
+        assertSame(code, CourseCode.lookup("Tcc1001"));
+        assertEquals("TCC1001".hashCode(), code.hashCode());
+
+        assertNull(CourseCode.of(null));
+        assertNull(CourseCode.of("   "));
+        assertNull(CourseCode.lookup(null));
+    }
+
+    /**
+     * Tests that looking up a badly formed code that isn't in use doesn't create it.
+     */
+    @Test
+    public void testLookupDoesNotInternBadCodes() {
+        assertNull(CourseCode.lookup("not a course code"));
+        assertNull(CourseCode.lookup("not a course code"));
+
+        // Stored codes are still found, even if they aren't well formed
+        CourseCode tag = CourseCode.of("legacy-tag");
+        assertSame(tag, CourseCode.lookup("LEGACY-TAG"));
+    }
+
+    /**
+     * Tests that looking up a well-formed code no course uses doesn't create it either.
+     */
+    @Test
+    public void testLookupDoesNotInternUnknownCodes() {
+        assertNull(CourseCode.lookup("TCZ9999"));
+        assertNull(CourseCode.lookup(" tcz9999"));
+
+        SharedContext session = new SharedContext(new NullView(), new SharedStore());
+        assertNull(session.getCourseManager().getCourse("TCZ9998"));
+        assertFalse(new FAQItem(1, "Q", "A", "TCC3001").hasTag("TCZ9997"));
+        assertNull(CourseCode.lookup("TCZ9998"));
+        assertNull(CourseCode.lookup("TCZ9997"));
+    }
+
+    /**
+     * Tests that codes sort by their text.
+     */
+    @Test
+    public void testOrdering() {
+        assertTrue(CourseCode.of("TCA1000").compareTo(CourseCode.of("TCB1000")) < 0);
+        assertEquals(0, CourseCode.of("TCA1000").compareTo(CourseCode.of("tca1000")));
+    }
+
+    /**
+     * Tests that timetables and FAQ items find a course whichever case it is typed in.
+     */
+    @Test
+    public void testLookupsIgnoreCase() {
+        Timetable timetable = new Timetable("student@hindeburg.ac.nz");
+        timetable.addTimeSlot(DayOfWeek.MONDAY, LocalDate.of(2025, 1, 13),
+                LocalTime.of(9, 0), LocalDate.of(2025, 4, 7),
+                LocalTime.of(10, 0), "TCC2001", 1, TimeSlotStatus.CHOSEN);
+        assertTrue(timetable.hasSlotsForCourse("tcc2001"));
+        assertEquals(1, timetable.numChosenActivities(" TCC2001"));
+
+        FAQItem item = new FAQItem(1, "Q", "A", "tcc2001");
+        assertEquals("TCC2001", item.getCourseTag());
+        assertTrue(item.hasTag("TCC2001"));
+        assertFalse(item.hasTag("TCC2002"));
+        assertFalse(new FAQItem(2, "Q", "A").hasTag("TCC2001"));
+    }
+}
@@ -0,0 +1,268 @@
+package unit_tests;
+
+import model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CourseImporter class.
+ */
+public class TestCourseImporter {
+
+    private static final String ADMIN = "admin1@hindeburg.ac.nz";
+
+    private Path directory;
+    private CourseManager courseManager;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("course-import");
+        SharedContext context = new SharedContext(new NullView());
+        context.currentUser = new AuthenticatedUser(ADMIN, "AdminStaff");
+        courseManager = context.getCourseManager();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        Path file = directory.resolve(name);
+        Files.write(file, List.of(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static String courseRow(String code, String organiserEmail) {
+        return "course," + code + ",Course " + code + ",\"Covers sets, maps and \"\"lists\"\"\",true,"
+                + "Dr. A," + organiserEmail + ",Ms. B,b@hindeburg.ac.nz,1,1";
+    }
+
+    /**
+     * Tests that courses and their activities are imported from CSV, in any row order.
+     */
+    @Test
+    public void testImportsCsv() throws IOException {
+        Path file = write("courses.csv",
+                "# kind,code,...",
+                courseRow("CSC1001", "a@hindeburg.ac.nz"),
+                "activity,CSC1001,lecture,1,MONDAY,2025-01-13,09:00,2025-04-07,10:00,Lecture Theatre,true",
+                "activity,CSC1001,tutorial,2,TUESDAY,2025-01-13,11:00,2025-04-07,12:00,Room 2,30",
+                "activity,MAT1001,lab,1,friday,2025-01-13,14:00,2025-04-07,16:00,Lab 1,20",
+                "",
+                courseRow("MAT1001", "a@hindeburg.ac.nz"),
+                "activity,CSC1001,tutorial,3,TUESDAY,2025-01-13,11:00,2025-04-07,12:00,Room 3,30");
+
+        CourseImporter.ImportReport report = new CourseImporter().importFile(file, courseManager, ADMIN);
+
+        assertEquals(List.of(), report.getErrors());
+        assertEquals(2, report.getCoursesRead());
+        assertEquals(2, report.getAdded().size());
+        Course course = courseManager.getCourse("CSC1001");
+        assertEquals("Covers sets, maps and \"lists\"", course.getDescription());
+        assertEquals(3, course.getActivities().size());
+        assertTrue(course.getActivities().get(0) instanceof Lecture);
+        assertEquals(30, ((Tutorial) course.getActivities().get(1)).getCapacity());
+        assertEquals(20, ((Lab) courseManager.getCourse("MAT1001").getActivities().get(0)).getCapacity());
+        assertEquals(List.of("a@hindeburg.ac.nz"), List.copyOf(report.getAddedByOrganiser().keySet()));
+    }
+
+    /**
+     * Tests that invalid courses are reported and left out, while the valid ones are still imported.
+     */
+    @Test
+    public void testRejectsInvalidCourses() throws IOException {
+        courseManager.addCourse("PHY1001", "Physics", "Existing", false, "Dr. P", "p@hindeburg.ac.nz",
+                "Ms. S", "s@hindeburg.ac.nz", 0, 0, ADMIN);
+        Path file = write("courses.csv",
+                courseRow("CSC1001", "a@hindeburg.ac.nz"),
+                courseRow("csc1002", "a@hindeburg.ac.nz"),
+                courseRow("PHY1001", "a@hindeburg.ac.nz"),
+                courseRow("CSC1001", "c@hindeburg.ac.nz"),
+                courseRow("MAT1001", "a@hindeburg.ac.nz"),
+                "activity,MAT1001,lecture,1,MONDAY,2025-01-13,10:00,2025-04-07,09:00,Room 1,true",
+                courseRow("MAT1002", "a@hindeburg.ac.nz"),
+                "activity,MAT1002,lecture,1,MONDAY,2025-01-13,09:00,2025-04-07,11:00,Room 1,true",
+                "activity,MAT1002,tutorial,2,MONDAY,2025-01-13,10:00,2025-04-07,12:00,Room 2,30",
+                courseRow("MAT1003", "a@hindeburg.ac.nz"),
+                "activity,MAT1003,tutorial,1,MONDAY,2025-01-13,09:00,2025-04-07,10:00,Room 2,30",
+                "activity,MAT1003,tutorial,1,TUESDAY,2025-01-13,09:00,2025-04-07,10:00,Room 2,30",
+                "activity,MAT1003,lab,2,MONDAY,2025-03-01,09:30,2025-04-07,10:30,room 2,30",
+                "activity,MAT1003,lab,3,MONDAY,2025-01-13,09:00,2025-04-07,10:00,Lab 1,20",
+                "activity,MAT1003,lab,4,MONDAY,2025-01-13,09:00,2025-04-07,10:00,Lab 2,0",
+                "activity,BIO1001,lecture,1,MONDAY,2025-01-13,09:00,2025-04-07,10:00,Room 1,true",
+                "timetable,CSC1001");
+
+        CourseImporter.ImportReport report = new CourseImporter().importFile(file, courseManager, ADMIN);
+
+        assertEquals(List.of("CSC1001"), report.getAdded().stream().map(Course::getCourseCode).collect(Collectors.toList()));
+        String errors = String.join("\n", report.getErrors());
+        assertTrue(errors.contains("Line 2: course code 'csc1002' is invalid."), errors);
+        assertTrue(errors.contains("Line 3: course PHY1001 already exists."), errors);
+        assertTrue(errors.contains("Line 4: course CSC1001 is already in the file (line 1)."), errors);
+        assertTrue(errors.contains("Line 6: activity starts at 10:00 but ends at 09:00."), errors);
+        assertTrue(errors.contains("Line 9: activity 2 overlaps activity 1 of course MAT1002 on MONDAY."), errors);
+        assertTrue(errors.contains("Line 12: activity ID 1 is used twice in course MAT1003."), errors);
+        assertTrue(errors.contains("Line 13: activity 2 overlaps activity 1 of course MAT1003 in Room 2 on MONDAY."), errors);
+        assertTrue(errors.contains("Line 15: a lab needs a capacity of at least 1."), errors);
+        assertTrue(errors.contains("Line 16: activity for course BIO1001, which is not in the file."), errors);
+        assertTrue(errors.contains("Line 17: expected a course or activity row."), errors);
+        assertFalse(errors.contains("Line 14"), errors);
+        assertNull(courseManager.getCourse("MAT1003"));
+        assertEquals("Physics", courseManager.getCourse("PHY1001").getName());
+    }
+
+    /**
+     * Tests that activities booked into a room that is already in use are still imported, and
+     * reported, whether the room is used by an existing course or one earlier in the file.
+     */
+    @Test
+    public void testReportsRoomClashes() throws IOException {
+        courseManager.addCourse("PHY1001", "Physics", "Existing", false, "Dr. P", "p@hindeburg.ac.nz",
+                "Ms. S", "s@hindeburg.ac.nz", 0, 0, ADMIN);
+        courseManager.addActivityToCourse("PHY1001", new Lecture(1, LocalDate.of(2025, 1, 13), LocalTime.of(9, 0),
+                LocalDate.of(2025, 4, 7), LocalTime.of(10, 0), "Room 1", DayOfWeek.MONDAY, true));
+        Path file = write("courses.csv",
+                courseRow("CSC1001", "a@hindeburg.ac.nz"),
+                "activity,CSC1001,lecture,1,MONDAY,2025-01-13,09:30,2025-04-07,10:30,Room 1,true",
+                "activity,CSC1001,tutorial,2,TUESDAY,2025-01-13,11:00,2025-04-07,12:00,Room 2,30",
+                courseRow("MAT1001", "a@hindeburg.ac.nz"),
+                "activity,MAT1001,tutorial,1,TUESDAY,2025-01-13,11:30,2025-04-07,12:30,room 2,30",
+                "activity,MAT1001,lab,2,TUESDAY,2025-01-13,14:00,2025-04-07,15:00,Room 2,20");
+
+        CourseImporter.ImportReport report = new CourseImporter().importFile(file, courseManager, ADMIN);
+
+        assertEquals(List.of(), report.getErrors());
+        assertEquals(2, report.getAdded().size());
+        assertEquals(2, courseManager.getCourse("MAT1001").getActivities().size());
+        assertEquals(2, report.getRoomClashes().size(), report.getRoomClashes().toString());
+        assertTrue(report.getRoomClashes().get(0).startsWith(
+                "CSC1001 Lecture (Recorded) #1: Room 1 is already booked at that time for PHY1001 Lecture"),
+                report.getRoomClashes().get(0));
+        assertTrue(report.getRoomClashes().get(1).startsWith(
+                "MAT1001 Tutorial #1: room 2 is already booked at that time for CSC1001 Tutorial #2"),
+                report.getRoomClashes().get(1));
+        assertTrue(report.toString().contains("2 room clashes"), report.toString());
+    }
+
+    /**
+     * Tests that courses are imported from a JSON array.
+     */
+    @Test
+    public void testImportsJson() throws IOException {
+        Path file = write("courses.json", "[",
+                "{\"code\": \"CSC1001\", \"name\": \"Programming\", \"description\": \"Intro\",",
+                " \"requiresComputers\": true, \"organiserName\": \"Dr. A\", \"organiserEmail\": \"a@hindeburg.ac.nz\",",
+                " \"secretaryName\": \"Ms. B\", \"secretaryEmail\": \"b@hindeburg.ac.nz\",",
+                " \"requiredTutorials\": 1, \"requiredLabs\": 0, \"activities\": [",
+                "  {\"type\": \"lecture\", \"id\": 1, \"day\": \"MONDAY\", \"startDate\": \"2025-01-13\",",
+                "   \"startTime\": \"09:00\", \"endDate\": \"2025-04-07\", \"endTime\": \"10:00\",",
+                "   \"location\": \"Room 1\", \"recorded\": false},",
+                "  {\"type\": \"tutorial\", \"id\": 2, \"day\": \"MONDAY\", \"startDate\": \"2025-01-13\",",
+                "   \"startTime\": \"10:00\", \"endDate\": \"2025-04-07\", \"endTime\": \"11:00\",",
+                "   \"location\": \"Room 1\", \"capacity\": 25}]},",
+                "{\"code\": \"CSC1002\", \"name\": \"\", \"organiserEmail\": \"a@hindeburg.ac.nz\",",
+                " \"requiresComputers\": \"maybe\", \"requiredTutorials\": -1, \"requiredLabs\": 0}",
+                "]");
+
+        CourseImporter.ImportReport report = new CourseImporter().importFile(file, courseManager, ADMIN);
+
+        assertEquals(List.of("CSC1001"), report.getAdded().stream().map(Course::getCourseCode).collect(Collectors.toList()));
+        Course course = courseManager.getCourse("CSC1001");
+        assertTrue(course.isUnrecordedLecture(1));
+        assertEquals(25, ((Tutorial) course.getActivities().get(1)).getCapacity());
+        assertEquals(List.of(
+                "Course 2: course name is missing.",
+                "Course 2: requiresComputers should be true or false, not 'maybe'.",
+                "Course 2: requiredTutorials should be a whole number of at least 0, not '-1'."), report.getErrors());
+    }
+
+    /**
+     * Tests that files of other types, or malformed JSON, are refused.
+     */
+    @Test
+    public void testRefusesUnreadableFiles() throws IOException {
+        Path text = write("courses.txt", "course,CSC1001");
+        assertThrows(IOException.class, () -> new CourseImporter().importFile(text, courseManager, ADMIN));
+        Path json = write("courses.json", "{\"code\": ");
+        assertThrows(IOException.class, () -> new CourseImporter().importFile(json, courseManager, ADMIN));
+        assertTrue(courseManager.getAllCourses().isEmpty());
+    }
+
+    /**
+     * Tests that imported courses are saved with the rest of the store.
+     */
+    @Test
+    public void testImportedCoursesAreDurable() throws IOException {
+        int courseCount = 1200;
+        String[] lines = new String[courseCount * 2];
+        for (int i = 0; i < courseCount; i++) {
+            String code = String.format("IMP%04d", i);
+            lines[2 * i] = courseRow(code, "organiser" + (i % 3) + "@hindeburg.ac.nz");
+            lines[2 * i + 1] = "activity," + code + ",lecture,1,MONDAY,2025-01-13,09:00,2025-04-07,10:00,Room 1,true";
+        }
+        Path file = write("courses.csv", lines);
+        Path store = directory.resolve("store");
+
+        try (DurableStore durableStore = DurableStore.open(store)) {
+            SharedContext context = new SharedContext(new NullView(), durableStore.getStore());
+            CourseImporter.ImportReport report = new CourseImporter().importFile(file, context.getCourseManager(), ADMIN);
+            assertEquals(courseCount, report.getAdded().size());
+            Map<String, List<Course>> byOrganiser = report.getAddedByOrganiser();
+            assertEquals(3, byOrganiser.size());
+            assertEquals(courseCount / 3, byOrganiser.get("organiser1@hindeburg.ac.nz").size());
+        }
+
+        try (DurableStore reopened = DurableStore.open(store)) {
+            CourseManager restored = new SharedContext(new NullView(), reopened.getStore()).getCourseManager();
+            assertEquals(courseCount, restored.getAllCourses().size());
+            assertEquals(1, restored.getCourse("IMP1199").getActivities().size());
+        }
+    }
+
+    /**
+     * Tests that a catalogue of 5,000 courses imports in one go.
+     */
+    @Test
+    public void testImportsLargeCatalogue() throws IOException {
+        int courseCount = 5000;
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < courseCount; i++) {
+            String code = String.format("CAT%04d", i);
+            csv.append(courseRow(code, "organiser" + (i % 100) + "@hindeburg.ac.nz")).append('\n');
+            for (int a = 1; a <= 4; a++) {
+                csv.append("activity,").append(code).append(a == 1 ? ",lecture," : ",tutorial,").append(a)
+                        .append(String.format(",MONDAY,2025-01-13,%02d:00,2025-04-07,%02d:00,Room ", 8 + a, 9 + a)).append(a).append(a == 1 ? ",true" : ",30").append('\n');
+            }
+        }
+        Path file = directory.resolve("catalogue.csv");
+        Files.writeString(file, csv, StandardCharsets.UTF_8);
+
+        CourseImporter.ImportReport report = new CourseImporter().importFile(file, courseManager, ADMIN);
+
+        assertEquals(List.of(), report.getErrors());
+        assertEquals(courseCount, report.getAdded().size());
+        assertEquals(courseCount, courseManager.getAllCourses().size());
+        assertEquals(100, report.getAddedByOrganiser().size());
+    }
+}
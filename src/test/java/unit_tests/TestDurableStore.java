@@ -0,0 +1,448 @@
+package unit_tests;
+
+import model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the DurableStore class.
+ */
+public class TestDurableStore {
+
+    private static final LocalDate TERM_START = LocalDate.of(2025, 1, 13);
+    private static final LocalDate TERM_END = LocalDate.of(2025, 4, 7);
+    private static final String STUDENT = "student1@hindeburg.ac.nz";
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("durable-store");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static SharedContext session(SharedStore store) {
+        SharedContext session = new SharedContext(new NullView(), store);
+        session.currentUser = new AuthenticatedUser("admin1@hindeburg.ac.nz", "AdminStaff");
+        return session;
+    }
+
+    private static void addCourse(CourseManager courseManager, String code, DayOfWeek day) {
+        courseManager.addCourse(code, code + " name", "Persistent course", true,
+                "Dr. Organiser", "organiser@hindeburg.ac.nz", "Ms. Secretary", "secretary@hindeburg.ac.nz",
+                1, 1, "admin1@hindeburg.ac.nz");
+        courseManager.addActivityToCourse(code, new Lecture(1, TERM_START, LocalTime.of(9, 0),
+                TERM_END, LocalTime.of(10, 0), "Room 1", day, false));
+        courseManager.addActivityToCourse(code, new Tutorial(2, TERM_START, LocalTime.of(11, 0),
+                TERM_END, LocalTime.of(12, 0), "Room 2", day, 30));
+        courseManager.addActivityToCourse(code, new Lab(3, TERM_START, LocalTime.of(14, 0),
+                TERM_END, LocalTime.of(16, 0), "Lab 1", day, 20));
+    }
+
+    /**
+     * Makes one of every kind of change the store journals.
+     */
+    private static void makeChanges(SharedStore store) {
+        SharedContext session = session(store);
+        CourseManager courseManager = session.getCourseManager();
+        addCourse(courseManager, "CSC1001", DayOfWeek.MONDAY);
+        addCourse(courseManager, "MAT1001", DayOfWeek.TUESDAY);
+        addCourse(courseManager, "PHY1001", DayOfWeek.WEDNESDAY);
+        courseManager.addCourseToStudentTimetable(STUDENT, "CSC1001");
+        courseManager.addCourseToStudentTimetable(STUDENT, "MAT1001");
+        courseManager.addCourseToStudentTimetable(STUDENT, "PHY1001");
+        courseManager.chooseActivityForCourse(STUDENT, "CSC1001", 2);
+        session.removeCourseFromTimetable(STUDENT, "MAT1001");
+        courseManager.removeCourse("PHY1001");
+
+        FAQManager faqManager = store.getFAQManager();
+        FAQSection general = faqManager.addSection("General");
+        general.addItem("How do I log in?", "Use your university email.");
+        general.addItem("Where is the library?", "Next to the main building.", "CSC1001");
+        general.addItem("Obsolete question?", "Obsolete answer.");
+        general.removeItem(2);
+        FAQSection detached = new FAQSection("Timetables");
+        detached.addItem("Can I clash?", "Only with recorded lectures.", "CSC1001");
+        general.addSubsection(detached);
+        detached.addSubsection(new FAQSection("Clashes"));
+
+        Inquiry answered = new Inquiry("student2@hindeburg.ac.nz", "Answered", "Please help");
+        Inquiry redirected = new Inquiry("student3@hindeburg.ac.nz", "Redirected", "Who do I ask?");
+        session.addInquiry(answered);
+        session.addInquiry(redirected);
+        session.addInquiry(new Inquiry("student4@hindeburg.ac.nz", "Pending", "Still waiting"));
+        session.assignInquiry(redirected, "teacher1@hindeburg.ac.nz");
+        session.removeInquiry(answered);
+    }
+
+    /**
+     * A text form of everything in the store, for checking two stores hold the same data.
+     */
+    private static String describe(SharedStore store) {
+        StringBuilder sb = new StringBuilder();
+        CourseManager courseManager = session(store).getCourseManager();
+        courseManager.getAllCourses().stream()
+                .sorted(Comparator.comparing(Course::getCourseCode))
+                .forEach(course -> sb.append(course).append('\n'));
+        store.getAllTimetables().stream()
+                .sorted(Comparator.comparing(Timetable::getStudentEmail))
+                .forEach(timetable -> sb.append(timetable).append('\n'));
+        sb.append(store.getEnrolledStudents("CSC1001")).append(store.getEnrolledStudents("MAT1001")).append('\n');
+        describeSections(sb, store.getFAQManager().getSections(), "");
+        for (Inquiry inquiry : store.getInquiries()) {
+            sb.append(inquiry.getId()).append(' ').append(inquiry.getCreatedAt()).append(' ')
+                    .append(inquiry.getInquirerEmail()).append(' ').append(inquiry.getSubject()).append(' ')
+                    .append(inquiry.getContent()).append(' ').append(inquiry.getAssignedTo()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void describeSections(StringBuilder sb, List<FAQSection> sections, String indent) {
+        for (FAQSection section : sections) {
+            sb.append(indent).append(section.getTopic()).append('\n');
+            for (FAQItem item : section.getItems()) {
+                sb.append(indent).append(item.getId()).append(' ').append(item.getQuestion()).append(' ')
+                        .append(item.getAnswer()).append(' ').append(item.getCourseTag()).append('\n');
+            }
+            describeSections(sb, section.getSubsections(), indent + "  ");
+        }
+    }
+
+    /**
+     * Tests that every kind of change is restored when the store is reopened.
+     */
+    @Test
+    public void testRestoresChangesFromLog() throws IOException {
+        String expected;
+        try (DurableStore durableStore = DurableStore.open(directory)) {
+            makeChanges(durableStore.getStore());
+            expected = describe(durableStore.getStore());
+        }
+
+        try (DurableStore reopened = DurableStore.open(directory)) {
+            SharedStore store = reopened.getStore();
+            assertEquals(expected, describe(store));
+
+            assertNull(session(store).getCourseManager().getCourse("PHY1001"));
+            Timetable timetable = store.getTimetable(STUDENT);
+            assertTrue(timetable.hasSlotsForCourse("CSC1001"));
+            assertFalse(timetable.hasSlotsForCourse("MAT1001"));
+            assertEquals(1, timetable.numChosenActivities("CSC1001"));
+
+            FAQSection general = store.getFAQManager().getSection("General");
+            assertNull(general.getItem(2));
+            assertEquals(2, store.getFAQManager().getAllItemsByTag("CSC1001").size());
+            assertEquals("Clashes", general.getSubsection("Timetables").getSubsections().get(0).getTopic());
+            // IDs are not reused after a restart either
+            general.addItem("New question?", "New answer.");
+            assertEquals(3, general.getItems().get(2).getId());
+
+            assertEquals(2, store.getInquiries().size());
+            assertEquals("teacher1@hindeburg.ac.nz", store.getInquiries().get(0).getAssignedTo());
+        }
+    }
+
+    /**
+     * Tests that a snapshot followed by more logged changes restores the same store as the log alone.
+     */
+    @Test
+    public void testRestoresFromSnapshotAndLog() throws IOException {
+        String expected;
+        try (DurableStore durableStore = DurableStore.open(directory)) {
+            SharedStore store = durableStore.getStore();
+            makeChanges(store);
+            durableStore.compact();
+
+            FAQSection general = store.getFAQManager().getSection("General");
+            general.removeItem(0);
+            general.addItem("After the snapshot?", "Yes.", "CSC1001");
+            session(store).getCourseManager().chooseActivityForCourse(STUDENT, "CSC1001", 3);
+            session(store).addInquiry(new Inquiry("student5@hindeburg.ac.nz", "Later", "After the snapshot"));
+            expected = describe(store);
+        }
+
+        assertEquals(1, listFiles("snapshot-").size());
+        try (DurableStore reopened = DurableStore.open(directory)) {
+            assertEquals(expected, describe(reopened.getStore()));
+            assertEquals(2, reopened.getStore().getTimetable(STUDENT).numChosenActivities("CSC1001"));
+        }
+    }
+
+    /**
+     * Tests that compacting a store opened from a snapshot keeps the entries it never loaded as
+     * well as the ones changed since, and keeps that snapshot until the store is closed.
+     */
+    @Test
+    public void testCompactsOverEarlierSnapshot() throws IOException {
+        String expected;
+        try (DurableStore durableStore = DurableStore.open(directory)) {
+            SharedStore store = durableStore.getStore();
+            makeChanges(store);
+            CourseManager courseManager = session(store).getCourseManager();
+            for (int i = 0; i < 50; i++) {
+                courseManager.addCourseToStudentTimetable("other" + i + "@hindeburg.ac.nz", "CSC1001");
+            }
+            durableStore.compact();
+        }
+
+        try (DurableStore reopened = DurableStore.open(directory)) {
+            SharedStore store = reopened.getStore();
+            // Only the timetables and courses used here are read back before compacting
+            CourseManager courseManager = session(store).getCourseManager();
+            assertTrue(courseManager.addCourseToStudentTimetable("new@hindeburg.ac.nz", "MAT1001"));
+            session(store).removeCourseFromTimetable("other7@hindeburg.ac.nz", "CSC1001");
+            reopened.compact();
+            // The store still reads what it hasn't loaded from the snapshot it was opened with
+            assertEquals(2, listFiles("snapshot-").size());
+            assertTrue(store.getTimetable("other9@hindeburg.ac.nz").hasSlotsForCourse("CSC1001"));
+            expected = describe(store);
+        }
+
+        assertEquals(1, listFiles("snapshot-").size());
+        try (DurableStore reopened = DurableStore.open(directory)) {
+            SharedStore store = reopened.getStore();
+            assertEquals(expected, describe(store));
+            assertTrue(store.getTimetable("new@hindeburg.ac.nz").hasSlotsForCourse("MAT1001"));
+            assertTrue(store.getEnrolledStudents("MAT1001").contains("new@hindeburg.ac.nz"));
+            assertFalse(store.getTimetable("other7@hindeburg.ac.nz").hasSlotsForCourse("CSC1001"));
+            assertTrue(store.getTimetable("other8@hindeburg.ac.nz").hasSlotsForCourse("CSC1001"));
+            assertFalse(store.getEnrolledStudents("CSC1001").contains("other7@hindeburg.ac.nz"));
+        }
+    }
+
+    /**
+     * Tests that compaction replaces the log segments it covers, and runs on its own once
+     * the log passes the threshold.
+     */
+    @Test
+    public void testCompactsLogPastThreshold() throws Exception {
+        try (DurableStore durableStore = DurableStore.open(directory, 4096)) {
+            SharedContext session = session(durableStore.getStore());
+            for (int i = 0; i < 200; i++) {
+                session.addInquiry(new Inquiry("student" + i + "@hindeburg.ac.nz", "Question " + i, "Text " + i));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (listFiles("snapshot-").isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+
+        assertFalse(listFiles("snapshot-").isEmpty());
+        try (DurableStore reopened = DurableStore.open(directory)) {
+            List<Inquiry> inquiries = reopened.getStore().getInquiries();
+            assertEquals(200, inquiries.size());
+            assertEquals("Question 199", inquiries.get(199).getSubject());
+        }
+    }
+
+    private List<Path> listFiles(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix)
+                    && !path.getFileName().toString().endsWith(".tmp")).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Tests that a course removed while a cohort enrolment is adding it is not restored into the
+     * student's timetable when the store is reopened.
+     */
+    @Test
+    public void testCourseRemovedDuringCohortEnrolment() throws Exception {
+        String expected;
+        try (DurableStore durableStore = DurableStore.open(directory)) {
+            SharedStore store = durableStore.getStore();
+            CourseManager courseManager = session(store).getCourseManager();
+            addCourse(courseManager, "CSC1001", DayOfWeek.MONDAY);
+            addCourse(courseManager, "MAT1001", DayOfWeek.TUESDAY);
+
+            // Pauses the enrolment part-way through MAT1001, once CSC1001 is already in the
+            // timetable, until an admin removing CSC1001 is waiting for the student's lock
+            ReentrantLock studentLock = (ReentrantLock) store.timetableLock(STUDENT);
+            AtomicBoolean armed = new AtomicBoolean();
+            Thread[] remover = new Thread[1];
+            courseManager.addActivityToCourse("MAT1001", new Lecture(4, TERM_START, LocalTime.of(17, 0),
+                    TERM_END, LocalTime.of(18, 0), "Room 4", DayOfWeek.TUESDAY, true) {
+                @Override
+                public String getType() {
+                    if (armed.compareAndSet(true, false)) {
+                        remover[0] = new Thread(() -> session(store).getCourseManager().removeCourse("CSC1001"));
+                        remover[0].start();
+                        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+                        while (!studentLock.hasQueuedThreads() && System.nanoTime() < deadline) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    return super.getType();
+                }
+            });
+
+            armed.set(true);
+            new CohortEnrolment(courseManager).enrol(List.of(
+                    new CohortEnrolment.Request(STUDENT, "CSC1001"),
+                    new CohortEnrolment.Request(STUDENT, "MAT1001")), "admin1@hindeburg.ac.nz");
+            remover[0].join(TimeUnit.SECONDS.toMillis(30));
+
+            assertNull(courseManager.getCourse("CSC1001"));
+            assertFalse(store.getTimetable(STUDENT).hasSlotsForCourse("CSC1001"));
+            assertTrue(store.getTimetable(STUDENT).hasSlotsForCourse("MAT1001"));
+            expected = describe(store);
+        }
+
+        try (DurableStore reopened = DurableStore.open(directory)) {
+            SharedStore store = reopened.getStore();
+            assertEquals(expected, describe(store));
+            assertFalse(store.getTimetable(STUDENT).hasSlotsForCourse("CSC1001"));
+            assertTrue(store.getEnrolledStudents("CSC1001").isEmpty());
+        }
+    }
+
+    /**
+     * Tests that activities added by one admin while another is still adding their courses are
+     * restored along with the courses. An import journals its courses a batch at a time, which
+     * leaves a wide window between a course being visible and being journaled, and the race is
+     * run over several imports so it is all but certain to hit it.
+     */
+    @Test
+    public void testActivityAddedWhileCourseIsAddedIsRestored() throws Exception {
+        int imports = 8;
+        int courses = 500;
+        Set<String> added = ConcurrentHashMap.newKeySet();
+        try (DurableStore durableStore = DurableStore.open(directory)) {
+            SharedStore store = durableStore.getStore();
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            for (int run = 0; run < imports; run++) {
+                String prefix = "RA" + (char) ('A' + run);
+                List<String> lines = new ArrayList<>();
+                for (int i = 0; i < courses; i++) {
+                    lines.add("course," + String.format("%s%04d", prefix, i) + ",Raced course,Imported,false,"
+                            + "Dr. Organiser,organiser@hindeburg.ac.nz,Ms. Secretary,secretary@hindeburg.ac.nz,0,0");
+                }
+                Path file = Files.write(directory.resolve(prefix + ".csv"), lines, StandardCharsets.UTF_8);
+
+                Future<?> importer = executor.submit(() -> new CourseImporter()
+                        .importFile(file, session(store).getCourseManager(), "admin1@hindeburg.ac.nz"));
+                Future<?> racer = executor.submit(() -> {
+                    CourseManager courseManager = session(store).getCourseManager();
+                    // Once the last course can be seen, the batch is being journaled
+                    while (courseManager.getCourse(String.format("%s%04d", prefix, courses - 1)) == null) {
+                        Thread.onSpinWait();
+                    }
+                    for (int i = 0; i < courses; i++) {
+                        String code = String.format("%s%04d", prefix, i);
+                        if (courseManager.addActivityToCourse(code, new Lecture(1, TERM_START, LocalTime.of(9, 0),
+                                TERM_END, LocalTime.of(10, 0), "Room " + i, DayOfWeek.MONDAY, true))) {
+                            added.add(code);
+                        }
+                    }
+                    return null;
+                });
+                importer.get(60, TimeUnit.SECONDS);
+                racer.get(60, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+        }
+
+        assertEquals(imports * courses, added.size());
+        try (DurableStore reopened = DurableStore.open(directory)) {
+            CourseManager courseManager = session(reopened.getStore()).getCourseManager();
+            for (String code : added) {
+                assertEquals(1, courseManager.getCourse(code).getActivities().size(), code);
+            }
+        }
+    }
+
+    /**
+     * Tests that a process killed while sessions are writing loses none of the changes it had
+     * reported as saved.
+     */
+    @Test
+    public void testRecoversAcknowledgedChangesAfterKill() throws Exception {
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+        Process writer = new ProcessBuilder(java.toString(), "-cp", System.getProperty("java.class.path"),
+                KilledWriter.class.getName(), directory.toString())
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        Set<String> acknowledged = new HashSet<>();
+        try (BufferedReader out = new BufferedReader(
+                new InputStreamReader(writer.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while (acknowledged.size() < 2000 && (line = out.readLine()) != null) {
+                acknowledged.add(line);
+            }
+            // Mid-write: the writer threads are still appending
+            writer.destroyForcibly();
+        }
+        assertTrue(writer.waitFor(30, TimeUnit.SECONDS));
+        assertEquals(2000, acknowledged.size());
+
+        try (DurableStore recovered = DurableStore.open(directory)) {
+            Set<String> restored = new HashSet<>();
+            for (Inquiry inquiry : recovered.getStore().getInquiries()) {
+                assertTrue(restored.add(inquiry.getSubject()), "Duplicate " + inquiry.getSubject());
+            }
+            assertTrue(restored.containsAll(acknowledged));
+
+            // The recovered log can be written to again
+            recovered.getStore().addInquiry(new Inquiry("student@hindeburg.ac.nz", "After recovery", "Text"));
+        }
+        try (DurableStore reopened = DurableStore.open(directory)) {
+            List<Inquiry> inquiries = reopened.getStore().getInquiries();
+            assertEquals("After recovery", inquiries.get(inquiries.size() - 1).getSubject());
+        }
+    }
+
+    /**
+     * Run in a separate JVM by the kill test: adds inquiries from several threads forever,
+     * printing each one's subject once the store has saved it.
+     */
+    public static class KilledWriter {
+        public static void main(String[] args) throws Exception {
+            // Compact often, so the kill can also land during a compaction
+            DurableStore durableStore = DurableStore.open(Paths.get(args[0]), 64 * 1024);
+            SharedStore store = durableStore.getStore();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                Thread writer = new Thread(() -> {
+                    for (int i = 0; ; i++) {
+                        String subject = thread + "-" + i;
+                        store.addInquiry(new Inquiry("student@hindeburg.ac.nz", subject, "Killed mid-write"));
+                        synchronized (System.out) {
+                            System.out.println(subject);
+                            System.out.flush();
+                        }
+                    }
+                });
+                writer.start();
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package unit_tests;
+
+import org.junit.jupiter.api.Test;
+import util.EpochMinutes;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the EpochMinutes class.
+ */
+public class TestEpochMinutes {
+
+    /**
+     * Tests that times skipped or repeated by a daylight saving change round trip as written,
+     * as epoch minutes count wall-clock time without a zone.
+     */
+    @Test
+    public void testRoundTripAcrossDaylightSaving() {
+        ZoneId zone = ZoneId.of("Pacific/Auckland");
+        // Clocks went forward from 02:00 to 03:00, then back from 03:00 to 02:00
+        LocalDateTime skipped = LocalDateTime.of(2024, 9, 29, 2, 30);
+        LocalDateTime repeated = LocalDateTime.of(2025, 4, 6, 2, 30);
+        assertTrue(zone.getRules().getValidOffsets(skipped).isEmpty());
+        assertEquals(2, zone.getRules().getValidOffsets(repeated).size());
+
+        for (LocalDateTime time : new LocalDateTime[]{skipped, repeated}) {
+            long minute = EpochMinutes.of(time.toLocalDate(), time.toLocalTime());
+            assertEquals(time.toLocalDate(), EpochMinutes.toDate(minute));
+            assertEquals(time.toLocalTime(), EpochMinutes.toTime(minute));
+        }
+
+        // Every day is 24 hours long, including the ones the clocks change on
+        long before = EpochMinutes.of(LocalDate.of(2024, 9, 29), LocalTime.of(1, 0));
+        long after = EpochMinutes.of(LocalDate.of(2024, 9, 29), LocalTime.of(4, 0));
+        assertEquals(180, after - before);
+        assertEquals(EpochMinutes.MINUTES_PER_DAY,
+                EpochMinutes.of(LocalDate.of(2025, 4, 7), LocalTime.MIDNIGHT)
+                        - EpochMinutes.of(LocalDate.of(2025, 4, 6), LocalTime.MIDNIGHT));
+    }
+
+    /**
+     * Tests that times before 1970 round trip, including the minute before the epoch.
+     */
+    @Test
+    public void testRoundTripBeforeEpoch() {
+        long lastMinuteBefore = EpochMinutes.of(LocalDate.of(1969, 12, 31), LocalTime.of(23, 59));
+        assertEquals(-1, lastMinuteBefore);
+        assertEquals(LocalDate.of(1969, 12, 31), EpochMinutes.toDate(lastMinuteBefore));
+        assertEquals(LocalTime.of(23, 59), EpochMinutes.toTime(lastMinuteBefore));
+        assertEquals(EpochMinutes.MINUTES_PER_DAY - 1, EpochMinutes.minuteOfDay(lastMinuteBefore));
+
+        assertEquals(LocalDate.of(1970, 1, 1), EpochMinutes.toDate(0));
+        assertEquals(LocalTime.MIDNIGHT, EpochMinutes.toTime(0));
+
+        LocalDate[] dates = {LocalDate.of(1900, 1, 1), LocalDate.of(1969, 1, 1), LocalDate.of(1600, 2, 29)};
+        LocalTime[] times = {LocalTime.MIDNIGHT, LocalTime.of(0, 1), LocalTime.NOON, LocalTime.of(23, 59)};
+        for (LocalDate date : dates) {
+            for (LocalTime time : times) {
+                long minute = EpochMinutes.of(date, time);
+                assertTrue(minute < 0);
+                assertEquals(date, EpochMinutes.toDate(minute), date + " " + time);
+                assertEquals(time, EpochMinutes.toTime(minute), date + " " + time);
+            }
+        }
+    }
+
+    /**
+     * Tests that ranges which only touch don't overlap, on either side of the epoch.
+     */
+    @Test
+    public void testOverlapsIsHalfOpen() {
+        assertFalse(EpochMinutes.overlaps(-60, 0, 0, 60));
+        assertFalse(EpochMinutes.overlaps(0, 60, -60, 0));
+        assertTrue(EpochMinutes.overlaps(-60, 1, 0, 60));
+        assertTrue(EpochMinutes.overlaps(-120, 120, -1, 0));
+    }
+}
@@ -0,0 +1,120 @@
+package unit_tests;
+
+import model.FAQManager;
+import model.FAQPageLoader;
+import model.FAQSearchResult;
+import model.FAQSection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the FAQPageLoader class.
+ */
+public class TestFAQPageLoader {
+
+    private Path directory;
+    private FAQManager faqManager;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("faq-pages");
+        faqManager = new FAQManager();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private void writePage(String title, String content) throws IOException {
+        Files.writeString(directory.resolve(title + ".txt"), content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Tests that each page becomes an FAQ item under the given topic, with the file name as the question.
+     */
+    @Test
+    public void testLoadsPagesIntoSection() throws Exception {
+        writePage("HOW DO I CONFIRM MY ATTENDANCE", "Your School will contact you.\n\nRespond to any email.\n");
+        writePage("WEBCAMS FOR LOAN", "Webcams can be borrowed from the library.");
+        Files.writeString(directory.resolve("notes.md"), "not a page");
+
+        FAQPageLoader.LoadReport report = new FAQPageLoader().load(directory, faqManager, "Help Desk Articles");
+
+        assertEquals(2, report.getFilesFound());
+        assertEquals(2, report.getPagesLoaded());
+        assertEquals(0, report.getFailures());
+
+        FAQSection section = faqManager.getSections().get(0);
+        assertEquals("Help Desk Articles", section.getTopic());
+        assertEquals(2, section.getItems().size());
+        assertEquals("HOW DO I CONFIRM MY ATTENDANCE", section.getItems().get(0).getQuestion());
+        assertEquals("Your School will contact you.\n\nRespond to any email.", section.getItems().get(0).getAnswer());
+    }
+
+    /**
+     * Tests that empty pages are skipped.
+     */
+    @Test
+    public void testSkipsEmptyPages() throws Exception {
+        writePage("EMPTY", "   \n");
+        writePage("WEBCAMS FOR LOAN", "Webcams can be borrowed from the library.");
+
+        FAQPageLoader.LoadReport report = new FAQPageLoader().load(directory, faqManager, "Help Desk Articles");
+
+        assertEquals(2, report.getFilesFound());
+        assertEquals(1, report.getPagesLoaded());
+    }
+
+    /**
+     * Tests that loading into an existing topic adds to that section instead of creating another.
+     */
+    @Test
+    public void testLoadsIntoExistingSection() throws Exception {
+        faqManager.addSection("Help Desk Articles");
+        faqManager.getSections().get(0).addItem("Existing question?", "Existing answer.");
+        writePage("WEBCAMS FOR LOAN", "Webcams can be borrowed from the library.");
+
+        new FAQPageLoader().load(directory, faqManager, "Help Desk Articles");
+
+        assertEquals(1, faqManager.getSections().size());
+        List<?> items = faqManager.getSections().get(0).getItems();
+        assertEquals(2, items.size());
+        assertEquals(1, faqManager.getSections().get(0).getItems().get(1).getId());
+    }
+
+    /**
+     * Tests that several thousand pages load and are all searchable.
+     */
+    @Test
+    public void testLoadsManyPagesIntoSearchIndex() throws Exception {
+        int pageCount = 5000;
+        for (int i = 0; i < pageCount; i++) {
+            writePage("QUESTION " + i, "Answer number " + i + " mentions topic" + (i % 50) + ".");
+        }
+
+        FAQPageLoader.LoadReport report = new FAQPageLoader().load(directory, faqManager, "Help Desk Articles");
+
+        assertEquals(pageCount, report.getPagesLoaded());
+        assertTrue(report.pagesPerSecond() > 0);
+        assertEquals(pageCount, faqManager.getSearchIndex().size());
+
+        List<FAQSearchResult> results = faqManager.search("topic7", null, 1000);
+        assertEquals(pageCount / 50, results.size());
+    }
+}
@@ -0,0 +1,80 @@
+package unit_tests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.IndexedList;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the IndexedList class.
+ */
+public class TestIndexedList {
+
+    private IndexedList<Character, String> list;
+
+    @BeforeEach
+    public void setUp() {
+        // Keyed by first letter, so keys can be shared
+        list = new IndexedList<>(word -> word.charAt(0));
+        list.add("apple");
+        list.add("banana");
+        list.add("avocado");
+    }
+
+    /**
+     * Tests lookups by position and by key.
+     */
+    @Test
+    public void testGetByPositionAndKey() {
+        assertEquals(3, list.size());
+        assertEquals("banana", list.get(1));
+        assertEquals("apple", list.getByKey('a'), "A shared key should find the first element with it");
+        assertEquals("banana", list.getByKey('b'));
+        assertNull(list.getByKey('z'));
+    }
+
+    /**
+     * Tests that removing the first element with a key makes the key find the next one.
+     */
+    @Test
+    public void testRemoveMovesKeyToNextElement() {
+        assertEquals("apple", list.removeByKey('a'));
+        assertEquals("avocado", list.getByKey('a'));
+        assertEquals(List.of("banana", "avocado"), list);
+
+        list.remove("avocado");
+        assertFalse(list.containsKey('a'));
+    }
+
+    /**
+     * Tests that inserting before an element with the same key takes over the key.
+     */
+    @Test
+    public void testInsertAtFrontTakesKey() {
+        list.add(0, "apricot");
+        assertEquals("apricot", list.getByKey('a'));
+
+        list.set(0, "cherry");
+        assertEquals("apple", list.getByKey('a'));
+        assertEquals("cherry", list.getByKey('c'));
+    }
+
+    /**
+     * Tests that clearing the list, or removing through other List methods, clears the index.
+     */
+    @Test
+    public void testClearAndRemoveIfKeepIndexInStep() {
+        list.removeIf(word -> word.startsWith("b"));
+        assertNull(list.getByKey('b'));
+
+        list.clear();
+        assertTrue(list.isEmpty());
+        assertNull(list.getByKey('a'));
+
+        list.add("blueberry");
+        assertEquals("blueberry", list.getByKey('b'));
+    }
+}
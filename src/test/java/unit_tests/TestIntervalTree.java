@@ -0,0 +1,141 @@
+package unit_tests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.IntervalTree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the IntervalTree class.
+ */
+public class TestIntervalTree {
+
+    private IntervalTree<String> tree;
+
+    @BeforeEach
+    public void setUp() {
+        tree = new IntervalTree<>();
+    }
+
+    /**
+     * Tests that an empty tree finds nothing.
+     */
+    @Test
+    public void testEmptyTree() {
+        assertTrue(tree.isEmpty());
+        assertNull(tree.findFirstOverlap(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(List.of(), overlaps(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(0, tree.removeIf(value -> true));
+    }
+
+    /**
+     * Tests that intervals which only touch at an end don't overlap, as the ranges are half-open.
+     */
+    @Test
+    public void testTouchingIntervalsDoNotOverlap() {
+        tree.insert(540, 600, "09:00-10:00");
+        tree.insert(600, 660, "10:00-11:00");
+
+        assertNull(tree.findFirstOverlap(480, 540), "Ending as one starts is not an overlap");
+        assertNull(tree.findFirstOverlap(660, 720), "Starting as one ends is not an overlap");
+        assertEquals(List.of(), overlaps(660, 720));
+        assertEquals(List.of("09:00-10:00"), overlaps(599, 600));
+        assertEquals(List.of("10:00-11:00"), overlaps(600, 601));
+        assertEquals("09:00-10:00", tree.findFirstOverlap(599, 601));
+        assertEquals(List.of("09:00-10:00", "10:00-11:00"), overlaps(599, 601));
+    }
+
+    /**
+     * Tests that the earliest-starting overlap is found when a long interval covers later ones.
+     */
+    @Test
+    public void testFindFirstOverlapReturnsEarliestStart() {
+        tree.insert(100, 200, "short");
+        tree.insert(0, 1000, "long");
+        tree.insert(500, 600, "later");
+
+        assertEquals("long", tree.findFirstOverlap(550, 560));
+        assertEquals(List.of("long", "later"), overlaps(550, 560));
+        assertEquals(List.of("long", "short", "later"), overlaps(0, 1000));
+    }
+
+    /**
+     * Tests that removing the interval with the largest end lets queries past the others
+     * find nothing, so the subtree maximum ends were recomputed.
+     */
+    @Test
+    public void testRemoveIfRecomputesMaxEnd() {
+        tree.insert(0, 10_000, "long");
+        for (int i = 1; i <= 50; i++) {
+            tree.insert(i * 10L, i * 10L + 5, "short" + i);
+        }
+
+        assertEquals("long", tree.findFirstOverlap(9_000, 9_001));
+        assertEquals(1, tree.removeIf("long"::equals));
+
+        assertEquals(50, tree.size());
+        assertNull(tree.findFirstOverlap(9_000, 9_001));
+        assertEquals(List.of(), overlaps(506, 10_000));
+        assertEquals(List.of("short50"), overlaps(500, 10_000));
+        assertEquals("short1", tree.findFirstOverlap(0, 10_000));
+    }
+
+    /**
+     * Tests overlap queries against a scan of every interval, across random inserts and removals.
+     */
+    @Test
+    public void testMatchesScanAfterRemovals() {
+        Random random = new Random(42);
+        List<long[]> intervals = new ArrayList<>();
+        IntervalTree<long[]> indexed = new IntervalTree<>();
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 100; i++) {
+                long start = random.nextInt(10_000);
+                long[] interval = {start, start + 1 + random.nextInt(round % 2 == 0 ? 50 : 2_000)};
+                intervals.add(interval);
+                indexed.insert(interval[0], interval[1], interval);
+            }
+            // Removing the longest intervals changes the largest end of many subtrees
+            long cutoff = random.nextInt(2_000);
+            Predicate<long[]> longerThanCutoff = interval -> interval[1] - interval[0] > cutoff;
+            int sizeBefore = intervals.size();
+            intervals.removeIf(longerThanCutoff);
+            assertEquals(sizeBefore - intervals.size(), indexed.removeIf(longerThanCutoff));
+            assertEquals(intervals.size(), indexed.size());
+
+            for (int query = 0; query < 200; query++) {
+                long start = random.nextInt(11_000) - 500;
+                long end = start + random.nextInt(300);
+                List<long[]> expected = new ArrayList<>();
+                for (long[] interval : intervals) {
+                    if (interval[0] < end && interval[1] > start) {
+                        expected.add(interval);
+                    }
+                }
+                List<long[]> found = new ArrayList<>();
+                indexed.forEachOverlap(start, end, found::add);
+                assertEquals(expected.size(), found.size(), "Overlaps of [" + start + ", " + end + ")");
+                assertTrue(found.containsAll(expected));
+                long[] first = indexed.findFirstOverlap(start, end);
+                if (expected.isEmpty()) {
+                    assertNull(first);
+                } else {
+                    long earliest = expected.stream().mapToLong(interval -> interval[0]).min().getAsLong();
+                    assertEquals(earliest, first[0], "First overlap of [" + start + ", " + end + ")");
+                }
+            }
+        }
+    }
+
+    private List<String> overlaps(long start, long end) {
+        List<String> found = new ArrayList<>();
+        tree.forEachOverlap(start, end, found::add);
+        return found;
+    }
+}
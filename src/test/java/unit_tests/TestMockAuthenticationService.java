@@ -8,6 +8,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.net.URISyntaxException;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -214,4 +215,19 @@ public class TestMockAuthenticationService {
             parser.parse(response);
         }, "Response should be valid JSON for failed login");
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that users can be loaded from a reader instead of MockUserData.json.
+     */
+    @Test
+    public void testLoginWithUsersReadFromReader() throws IOException, ParseException {
+        MockAuthenticationService service = new MockAuthenticationService(new StringReader(
+                "[{\"username\":\"tutor\",\"password\":\"secret\",\"email\":\"tutor@hindeburg.ac.nz\",\"role\":\"TeachingStaff\"}]"));
+
+        JSONObject result = (JSONObject) parser.parse(service.login("tutor", "secret"));
+        assertEquals("tutor@hindeburg.ac.nz", result.get("email"), "Email should come from the given user data");
+
+        result = (JSONObject) parser.parse(service.login("admin1", "admin1pass"));
+        assertTrue(result.containsKey("error"), "Users from MockUserData.json should not be loaded");
+    }
+}
@@ -0,0 +1,72 @@
+package unit_tests;
+
+import external.MockAuthenticationService;
+import external.MockEmailService;
+import model.SharedStore;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.LoadTestClient;
+import server.PortalServer;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for PortalServer, driven over real localhost connections.
+ */
+public class TestPortalServer {
+
+    private PortalServer server;
+    private LoadTestClient client;
+
+    @BeforeEach
+    public void setUp() throws URISyntaxException, IOException, ParseException {
+        server = new PortalServer(0, new SharedStore(), new MockAuthenticationService(), new MockEmailService());
+        server.start();
+        client = new LoadTestClient("localhost", server.getPort());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    /**
+     * Tests that a single session can log in and exit cleanly.
+     */
+    @Test
+    public void testSingleSession() throws IOException {
+        String output = client.runSession("0", "student1", "student1pass", "-1");
+
+        assertTrue(output.contains("Logged in as student1"), output);
+        assertTrue(output.contains("Bye bye!"), output);
+    }
+
+    /**
+     * Tests that a client hanging up mid-menu ends only its own session.
+     */
+    @Test
+    public void testClientDisconnectEndsSession() throws IOException {
+        String output = client.runSession("0", "student1");
+        assertTrue(output.contains("Enter your password"), output);
+        assertFalse(output.contains("Bye bye!"), output);
+
+        // The server is still serving other sessions
+        assertTrue(client.runSession("-1").contains("Bye bye!"));
+    }
+
+    /**
+     * Tests that many sessions can run at once against the same store.
+     */
+    @Test
+    public void testConcurrentSessions() throws InterruptedException {
+        LoadTestClient.LoadTestResult result = client.run(500, 200);
+
+        assertEquals(0, result.getFailures());
+        assertEquals(500, result.getCompleted());
+    }
+}
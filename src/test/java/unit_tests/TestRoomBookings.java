@@ -0,0 +1,196 @@
+package unit_tests;
+
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the RoomBookings class and the room checks in CourseManager.
+ */
+public class TestRoomBookings {
+
+    private static final LocalDate TERM_START = LocalDate.of(2025, 1, 13);
+    private static final LocalDate TERM_END = LocalDate.of(2025, 4, 7);
+    private static final String REGISTRY = "registry@hindeburg.ac.nz";
+
+    private SharedStore store;
+    private CourseManager courseManager;
+    private List<String> warnings;
+
+    @BeforeEach
+    public void setUp() {
+        store = new SharedStore();
+        warnings = new ArrayList<>();
+        courseManager = new SharedContext(new NullView() {
+            @Override
+            public void displayWarning(String text) {
+                warnings.add(text);
+            }
+        }, store).getCourseManager();
+    }
+
+    private void addCourse(String code) {
+        courseManager.addCourse(code, "Course " + code, "A course", false,
+                "Dr. A", "a@hindeburg.ac.nz", "Ms. B", "b@hindeburg.ac.nz", 0, 0, REGISTRY);
+    }
+
+    private static Activity activity(int id, String location, DayOfWeek day, LocalTime start, LocalTime end,
+                                     LocalDate startDate, LocalDate endDate) {
+        return new ConcreteActivity(id, startDate, start, endDate, end, location, day);
+    }
+
+    private static Activity activity(int id, String location, DayOfWeek day, int startHour, int endHour) {
+        return activity(id, location, day, LocalTime.of(startHour, 0), LocalTime.of(endHour, 0), TERM_START, TERM_END);
+    }
+
+    /**
+     * Tests that an activity booked into a room that is already in use is reported when it
+     * is checked and warned about when it is added.
+     */
+    @Test
+    public void testDoubleBookingIsReported() {
+        addCourse("ROM1001");
+        addCourse("ROM1002");
+        assertTrue(courseManager.addActivityToCourse("ROM1001", activity(1, "Room 1", DayOfWeek.MONDAY, 9, 11)));
+        assertTrue(warnings.isEmpty());
+
+        Activity clashing = activity(1, " room 1 ", DayOfWeek.MONDAY, 10, 12);
+        List<RoomBookings.Booking> clashes = courseManager.findRoomClashes("ROM1002", clashing);
+        assertEquals(1, clashes.size());
+        assertEquals("ROM1001", clashes.get(0).getCourseCode().toString());
+        assertTrue(warnings.isEmpty());
+
+        assertTrue(courseManager.addActivityToCourse("ROM1002", clashing));
+        assertEquals(1, warnings.size());
+        assertTrue(warnings.get(0).contains("ROM1001"), warnings.get(0));
+        assertEquals(1, courseManager.auditRoomBookings().size());
+    }
+
+    /**
+     * Tests that back-to-back bookings, bookings on other days or in other rooms, and bookings
+     * in terms that don't overlap don't clash, and that ones sharing a single week do.
+     */
+    @Test
+    public void testOnlyOverlappingBookingsClash() {
+        addCourse("ROM1001");
+        courseManager.addActivityToCourse("ROM1001", activity(1, "Room 1", DayOfWeek.MONDAY, 9, 11));
+        courseManager.addActivityToCourse("ROM1001", activity(2, "Room 1", DayOfWeek.MONDAY, 11, 12));
+        courseManager.addActivityToCourse("ROM1001", activity(3, "Room 1", DayOfWeek.TUESDAY, 9, 11));
+        courseManager.addActivityToCourse("ROM1001", activity(4, "Room 2", DayOfWeek.MONDAY, 9, 11));
+        courseManager.addActivityToCourse("ROM1001", activity(5, "", DayOfWeek.MONDAY, 9, 11));
+        courseManager.addActivityToCourse("ROM1001", activity(6, "Room 1", DayOfWeek.MONDAY,
+                LocalTime.of(9, 0), LocalTime.of(11, 0), TERM_END.plusDays(1), TERM_END.plusWeeks(4)));
+        assertTrue(warnings.isEmpty(), warnings.toString());
+        assertTrue(courseManager.auditRoomBookings().isEmpty());
+
+        // The last Monday of the term, 2025-04-07
+        Activity lastWeek = activity(7, "Room 1", DayOfWeek.MONDAY,
+                LocalTime.of(10, 30), LocalTime.of(11, 30), TERM_END.minusDays(2), TERM_END);
+        List<RoomBookings.Booking> clashes = courseManager.findRoomClashes("ROM1001", lastWeek);
+        Set<Integer> ids = new TreeSet<>();
+        for (RoomBookings.Booking booking : clashes) {
+            ids.add(booking.getActivity().getId());
+        }
+        assertEquals(Set.of(1, 2), ids);
+    }
+
+    /**
+     * Tests that a removed course's rooms are free again.
+     */
+    @Test
+    public void testRemovedCourseFreesRooms() {
+        addCourse("ROM1001");
+        addCourse("ROM1002");
+        courseManager.addActivityToCourse("ROM1001", activity(1, "Room 1", DayOfWeek.MONDAY, 9, 11));
+        courseManager.addActivityToCourse("ROM1002", activity(1, "Room 1", DayOfWeek.MONDAY, 9, 11));
+        assertEquals(1, courseManager.auditRoomBookings().size());
+
+        assertNotNull(courseManager.removeCourse("ROM1001"));
+        assertTrue(courseManager.auditRoomBookings().isEmpty());
+        assertTrue(courseManager.findRoomClashes("ROM1003", activity(1, "Room 1", DayOfWeek.MONDAY, 9, 11))
+                .stream().allMatch(booking -> booking.getCourseCode().toString().equals("ROM1002")));
+    }
+
+    /**
+     * Tests that the audit of a large catalogue finds exactly the clashes a pairwise comparison
+     * of every room's bookings finds. Its speed is measured by RoomAuditBenchmark.
+     */
+    @Test
+    public void testAuditFindsEveryClash() {
+        int courses = 5_000;
+        int rooms = 300;
+        Random random = new Random(25);
+        for (int c = 0; c < courses; c++) {
+            String code = String.format("AUD%04d", c);
+            addCourse(code);
+            for (int id = 1; id <= 6; id++) {
+                int hour = 9 + random.nextInt(9);
+                LocalTime start = LocalTime.of(hour, 15 * random.nextInt(4));
+                // Some only run for the first or second half of term, and a few never fall on their day
+                LocalDate from = random.nextInt(4) == 0 ? TERM_START.plusWeeks(6) : TERM_START;
+                LocalDate to = random.nextInt(4) == 0 ? TERM_START.plusWeeks(6) : TERM_END;
+                courseManager.addActivityToCourse(code, activity(id, "Room " + random.nextInt(rooms),
+                        DayOfWeek.of(1 + random.nextInt(5)), start, start.plusMinutes(50 + 60 * random.nextInt(2)),
+                        from, to));
+            }
+        }
+
+        // Pairwise, room by room and day by day
+        Map<String, List<Activity>> byRoomAndDay = new HashMap<>();
+        Map<Activity, String> courseOf = new IdentityHashMap<>();
+        for (Course course : courseManager.getAllCourses()) {
+            for (Activity activity : course.getActivities()) {
+                byRoomAndDay.computeIfAbsent(activity.getLocation() + "/" + activity.getDay(),
+                        key -> new ArrayList<>()).add(activity);
+                courseOf.put(activity, course.getCourseCode());
+            }
+        }
+        Set<String> expected = new HashSet<>();
+        for (List<Activity> bookings : byRoomAndDay.values()) {
+            for (int i = 0; i < bookings.size(); i++) {
+                for (int j = 0; j < i; j++) {
+                    Activity a = bookings.get(i);
+                    Activity b = bookings.get(j);
+                    if (a.getStartTime().isBefore(b.getEndTime()) && b.getStartTime().isBefore(a.getEndTime())
+                            && !first(a).isAfter(last(b)) && !first(b).isAfter(last(a))
+                            && !first(a).isAfter(last(a)) && !first(b).isAfter(last(b))) {
+                        expected.add(pair(courseOf.get(a), a, courseOf.get(b), b));
+                    }
+                }
+            }
+        }
+
+        List<RoomBookings.Clash> clashes = courseManager.auditRoomBookings();
+
+        Set<String> found = new HashSet<>();
+        for (RoomBookings.Clash clash : clashes) {
+            found.add(pair(clash.getFirst().getCourseCode().toString(), clash.getFirst().getActivity(),
+                    clash.getSecond().getCourseCode().toString(), clash.getSecond().getActivity()));
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), clashes.size());
+        assertEquals(expected, found);
+    }
+
+    private static LocalDate first(Activity activity) {
+        return activity.getStartDate().with(TemporalAdjusters.nextOrSame(activity.getDay()));
+    }
+
+    private static LocalDate last(Activity activity) {
+        return activity.getEndDate().with(TemporalAdjusters.previousOrSame(activity.getDay()));
+    }
+
+    private static String pair(String courseA, Activity a, String courseB, Activity b) {
+        String first = courseA + "#" + a.getId();
+        String second = courseB + "#" + b.getId();
+        return first.compareTo(second) < 0 ? first + " " + second : second + " " + first;
+    }
+}
@@ -0,0 +1,138 @@
+package unit_tests;
+
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests for many sessions sharing one SharedStore.
+ */
+public class TestSharedStoreConcurrency {
+
+    private static final int STUDENTS = 1000;
+    private static final LocalDate TERM_START = LocalDate.of(2025, 1, 13);
+    private static final LocalDate TERM_END = LocalDate.of(2025, 4, 7);
+
+    private SharedStore store;
+
+    @BeforeEach
+    public void setUp() {
+        store = new SharedStore();
+        SharedContext admin = new SharedContext(new NullView(), store);
+        admin.currentUser = new AuthenticatedUser("admin1@hindeburg.ac.nz", "AdminStaff");
+        addCourse(admin, "CSC1001", DayOfWeek.MONDAY);
+        addCourse(admin, "MAT1001", DayOfWeek.TUESDAY);
+        addCourse(admin, "PHY1001", DayOfWeek.WEDNESDAY);
+    }
+
+    private static void addCourse(SharedContext admin, String code, DayOfWeek day) {
+        CourseManager courseManager = admin.getCourseManager();
+        courseManager.addCourse(code, code, "Stress test course", false,
+                "Dr. Organiser", "organiser@hindeburg.ac.nz", "Ms. Secretary", "secretary@hindeburg.ac.nz",
+                1, 0, "admin1@hindeburg.ac.nz");
+        courseManager.addActivityToCourse(code, new Lecture(1, TERM_START, LocalTime.of(9, 0),
+                TERM_END, LocalTime.of(10, 0), "Room 1", day, true));
+        // Room for every student, as seats are enforced and these tests are about consistency
+        courseManager.addActivityToCourse(code, new Tutorial(2, TERM_START, LocalTime.of(11, 0),
+                TERM_END, LocalTime.of(12, 0), "Room 2", day, STUDENTS));
+        courseManager.addActivityToCourse(code, new Tutorial(3, TERM_START, LocalTime.of(14, 0),
+                TERM_END, LocalTime.of(15, 0), "Room 3", day, STUDENTS));
+    }
+
+    private static String studentEmail(int i) {
+        return "student" + i + "@hindeburg.ac.nz";
+    }
+
+    /**
+     * Runs the task once per student, each in its own session, all released at the same moment.
+     */
+    private void runSessions(SessionTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            int student = i;
+            futures.add(executor.submit(() -> {
+                SharedContext session = new SharedContext(new NullView(), store);
+                session.currentUser = new AuthenticatedUser(studentEmail(student), "Student");
+                start.await();
+                task.run(session, student);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    private interface SessionTask {
+        void run(SharedContext session, int student) throws Exception;
+    }
+
+    /**
+     * Tests that concurrent students adding, choosing and removing courses leave every timetable
+     * and the enrolment index consistent.
+     */
+    @Test
+    public void testConcurrentStudentsKeepTimetablesConsistent() throws Exception {
+        runSessions((session, student) -> {
+            String email = studentEmail(student);
+            CourseManager courseManager = session.getCourseManager();
+            assertTrue(courseManager.addCourseToStudentTimetable(email, "CSC1001"));
+            assertTrue(courseManager.addCourseToStudentTimetable(email, "MAT1001"));
+            assertTrue(courseManager.chooseActivityForCourse(email, "CSC1001", 2 + student % 2));
+            if (student % 2 == 0) {
+                assertTrue(courseManager.addCourseToStudentTimetable(email, "PHY1001"));
+            }
+            session.addInquiry(new Inquiry(email, "Question " + student, "Stress test inquiry"));
+        });
+
+        assertEquals(STUDENTS, store.getAllTimetables().size());
+        assertEquals(STUDENTS, store.getInquiries().size());
+        assertEquals(STUDENTS, store.getEnrolledStudents("CSC1001").size());
+        assertEquals(STUDENTS, store.getEnrolledStudents("MAT1001").size());
+        assertEquals(STUDENTS / 2, store.getEnrolledStudents("PHY1001").size());
+
+        for (int i = 0; i < STUDENTS; i++) {
+            Timetable timetable = store.getTimetable(studentEmail(i));
+            assertEquals(i % 2 == 0 ? 9 : 6, timetable.getTimeSlots().size());
+            // Only the tutorial each student chose
+            assertEquals(1, timetable.numChosenActivities("CSC1001"));
+        }
+    }
+
+    /**
+     * Tests that removing a course while students are adding it never leaves stale slots behind.
+     */
+    @Test
+    public void testRemoveCourseWhileStudentsAddIt() throws Exception {
+        SharedContext admin = new SharedContext(new NullView(), store);
+        admin.currentUser = new AuthenticatedUser("admin1@hindeburg.ac.nz", "AdminStaff");
+
+        runSessions((session, student) -> {
+            if (student == STUDENTS / 2) {
+                assertNotNull(admin.getCourseManager().removeCourse("PHY1001"));
+            } else {
+                session.getCourseManager().addCourseToStudentTimetable(studentEmail(student), "PHY1001");
+            }
+        });
+
+        assertFalse(admin.getCourseManager().hasCode("PHY1001"));
+        assertTrue(store.getEnrolledStudents("PHY1001").isEmpty());
+        for (Timetable timetable : store.getAllTimetables()) {
+            assertFalse(timetable.hasSlotsForCourse("PHY1001"),
+                    "Timetable for " + timetable.getStudentEmail() + " still holds a removed course");
+        }
+    }
+}
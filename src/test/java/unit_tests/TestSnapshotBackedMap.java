@@ -0,0 +1,117 @@
+package unit_tests;
+
+import org.junit.jupiter.api.Test;
+import util.SnapshotBackedMap;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SnapshotBackedMap class.
+ */
+public class TestSnapshotBackedMap {
+
+    private final Map<String, Integer> snapshot = Map.of("a", 1, "b", 2, "c", 3);
+    private final List<String> loads = new ArrayList<>();
+
+    private SnapshotBackedMap<String, Integer> newMap() {
+        return new SnapshotBackedMap<>(key -> {
+            loads.add(key);
+            return snapshot.get(key);
+        }, snapshot::keySet, snapshot::size);
+    }
+
+    /**
+     * Tests that entries are only loaded when their key is used, and only once.
+     */
+    @Test
+    public void testLoadsEntriesOnFirstUse() {
+        SnapshotBackedMap<String, Integer> map = newMap();
+        assertTrue(loads.isEmpty());
+
+        assertEquals(Integer.valueOf(2), map.get("b"));
+        assertEquals(Integer.valueOf(2), map.get("b"));
+        assertNull(map.get("missing"));
+        assertEquals(List.of("b", "missing"), loads);
+        assertTrue(map.isLoaded("b"));
+        assertFalse(map.isLoaded("a"));
+    }
+
+    /**
+     * Tests that asking whether the map is empty loads nothing, and counts removed snapshot entries.
+     */
+    @Test
+    public void testIsEmptyLoadsNothing() {
+        SnapshotBackedMap<String, Integer> map = newMap();
+        assertFalse(map.isEmpty());
+        assertTrue(loads.isEmpty());
+
+        map.put("d", 4);
+        map.remove("d");
+        map.remove("a");
+        map.remove("b");
+        assertFalse(map.isEmpty(), "c is still in the snapshot");
+        map.remove("c");
+        assertTrue(map.isEmpty());
+        assertEquals(List.of("d", "a", "b", "c"), loads);
+    }
+
+    /**
+     * Tests that a removed snapshot entry stays removed.
+     */
+    @Test
+    public void testRemovedEntriesAreNotReloaded() {
+        SnapshotBackedMap<String, Integer> map = newMap();
+        assertEquals(Integer.valueOf(1), map.remove("a"));
+        assertNull(map.get("a"));
+        assertFalse(map.containsKey("a"));
+        assertEquals(Set.of("b", "c"), map.keySet());
+        assertEquals(2, map.size());
+
+        assertNull(map.putIfAbsent("a", 10));
+        assertEquals(Integer.valueOf(10), map.get("a"));
+    }
+
+    /**
+     * Tests that updates see the snapshot's value for keys not yet loaded.
+     */
+    @Test
+    public void testUpdatesSeeSnapshotValues() {
+        SnapshotBackedMap<String, Integer> map = newMap();
+        assertEquals(Integer.valueOf(1), map.putIfAbsent("a", 10));
+        assertEquals(Integer.valueOf(12), map.merge("b", 10, Integer::sum));
+        assertEquals(Integer.valueOf(3), map.computeIfAbsent("c", key -> 30));
+        assertEquals(Integer.valueOf(4), map.computeIfAbsent("d", key -> 4));
+        assertNull(map.computeIfPresent("c", (key, value) -> null));
+        assertEquals(Map.of("a", 1, "b", 12, "d", 4), new HashMap<>(map));
+    }
+
+    /**
+     * Tests that forEachLoaded only visits entries already in memory.
+     */
+    @Test
+    public void testForEachLoadedSkipsUnloadedEntries() {
+        SnapshotBackedMap<String, Integer> map = newMap();
+        map.get("a");
+        map.remove("b");
+        map.put("d", 4);
+
+        Map<String, Integer> visited = new HashMap<>();
+        map.forEachLoaded(visited::put);
+        assertEquals(Map.of("a", 1, "d", 4), visited);
+    }
+
+    /**
+     * Tests that a map with no snapshot behaves like an ordinary map.
+     */
+    @Test
+    public void testEmptyMapWithoutSnapshot() {
+        SnapshotBackedMap<String, Integer> map = new SnapshotBackedMap<>();
+        assertTrue(map.isEmpty());
+        map.put("a", 1);
+        assertEquals(Integer.valueOf(1), map.remove("a"));
+        assertFalse(map.isLoaded("a"));
+        assertTrue(map.isEmpty());
+    }
+}
@@ -0,0 +1,162 @@
+package unit_tests;
+
+import model.TimeSlotStatus;
+import model.Timetable;
+import org.junit.jupiter.api.Test;
+import util.EpochMinutes;
+import util.TimeGrid;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TimeGrid class and the clash checks Timetable makes with it.
+ */
+public class TestTimeGrid {
+
+    private static final LocalDate TERM_START = LocalDate.of(2025, 1, 13);
+    private static final LocalDate TERM_END = LocalDate.of(2025, 4, 7);
+
+    private static TimeGrid weekly(DayOfWeek day, LocalDate startDate, LocalTime start,
+                                   LocalDate endDate, LocalTime end) {
+        return TimeGrid.weekly(day, EpochMinutes.of(startDate, start), EpochMinutes.of(endDate, end));
+    }
+
+    private static TimeGrid termly(DayOfWeek day, int startHour, int startMinute, int endHour, int endMinute) {
+        return weekly(day, TERM_START, LocalTime.of(startHour, startMinute), TERM_END, LocalTime.of(endHour, endMinute));
+    }
+
+    /**
+     * Tests that activities on different days of the same term don't clash.
+     */
+    @Test
+    public void testDifferentDaysDoNotClash() {
+        assertFalse(termly(DayOfWeek.MONDAY, 9, 0, 10, 0).intersects(termly(DayOfWeek.TUESDAY, 9, 0, 10, 0)));
+        assertTrue(termly(DayOfWeek.MONDAY, 9, 0, 10, 0).intersects(termly(DayOfWeek.MONDAY, 9, 30, 10, 30)));
+    }
+
+    /**
+     * Tests that activities on the same day at different times don't clash, including back to back.
+     */
+    @Test
+    public void testDifferentTimesDoNotClash() {
+        TimeGrid morning = termly(DayOfWeek.MONDAY, 9, 0, 9, 50);
+        assertFalse(morning.intersects(termly(DayOfWeek.MONDAY, 14, 0, 15, 0)));
+        assertFalse(morning.intersects(termly(DayOfWeek.MONDAY, 10, 0, 10, 50)));
+        // In the same quarter-hour, but not overlapping
+        assertFalse(morning.intersects(termly(DayOfWeek.MONDAY, 9, 55, 10, 30)));
+        assertFalse(termly(DayOfWeek.MONDAY, 10, 0, 10, 50).intersects(termly(DayOfWeek.MONDAY, 10, 50, 11, 40)));
+        assertTrue(morning.intersects(termly(DayOfWeek.MONDAY, 9, 49, 10, 30)));
+    }
+
+    /**
+     * Tests that the same weekly times in terms that don't overlap don't clash.
+     */
+    @Test
+    public void testDifferentTermsDoNotClash() {
+        TimeGrid spring = termly(DayOfWeek.MONDAY, 9, 0, 10, 0);
+        TimeGrid autumn = weekly(DayOfWeek.MONDAY, LocalDate.of(2025, 9, 15), LocalTime.of(9, 0),
+                LocalDate.of(2025, 12, 8), LocalTime.of(10, 0));
+        assertFalse(spring.intersects(autumn));
+
+        // Overlapping by one week
+        TimeGrid late = weekly(DayOfWeek.MONDAY, TERM_END, LocalTime.of(9, 0),
+                LocalDate.of(2025, 6, 30), LocalTime.of(10, 0));
+        assertTrue(spring.intersects(late));
+    }
+
+    /**
+     * Tests that a one-off activity clashes only with the week it falls in.
+     */
+    @Test
+    public void testOneOffActivity() {
+        LocalDate wednesday = LocalDate.of(2025, 2, 5);
+        TimeGrid exam = weekly(DayOfWeek.WEDNESDAY, wednesday, LocalTime.of(13, 0), wednesday, LocalTime.of(15, 0));
+        assertFalse(exam.isEmpty());
+        assertTrue(exam.intersects(termly(DayOfWeek.WEDNESDAY, 14, 0, 15, 0)));
+        assertFalse(exam.intersects(weekly(DayOfWeek.WEDNESDAY, LocalDate.of(2025, 2, 12), LocalTime.of(14, 0),
+                TERM_END, LocalTime.of(15, 0))));
+
+        // Never held, as the day isn't in its date range
+        assertTrue(weekly(DayOfWeek.MONDAY, wednesday, LocalTime.of(13, 0), wednesday, LocalTime.of(15, 0)).isEmpty());
+    }
+
+    /**
+     * Tests that a continuous range covers every day it spans, across midnight.
+     */
+    @Test
+    public void testRange() {
+        TimeGrid overnight = TimeGrid.range(EpochMinutes.of(LocalDate.of(2025, 1, 14), LocalTime.of(22, 0)),
+                EpochMinutes.of(LocalDate.of(2025, 1, 15), LocalTime.of(2, 0)));
+        assertTrue(overnight.intersects(termly(DayOfWeek.TUESDAY, 23, 0, 23, 30)));
+        assertTrue(overnight.intersects(termly(DayOfWeek.WEDNESDAY, 1, 0, 1, 30)));
+        assertFalse(overnight.intersects(termly(DayOfWeek.WEDNESDAY, 2, 0, 3, 0)));
+        assertFalse(overnight.intersects(termly(DayOfWeek.TUESDAY, 9, 0, 10, 0)));
+    }
+
+    /**
+     * Tests that a union holds every grid added to it, however far apart their weeks.
+     */
+    @Test
+    public void testUnion() {
+        TimeGrid.Union union = new TimeGrid.Union();
+        assertFalse(union.intersects(termly(DayOfWeek.MONDAY, 9, 0, 10, 0)));
+
+        TimeGrid autumn = weekly(DayOfWeek.FRIDAY, LocalDate.of(2025, 9, 15), LocalTime.of(9, 0),
+                LocalDate.of(2025, 12, 8), LocalTime.of(10, 0));
+        union.add(autumn);
+        union.add(termly(DayOfWeek.MONDAY, 9, 0, 10, 0));
+        union.add(weekly(DayOfWeek.SUNDAY, LocalDate.of(2024, 1, 7), LocalTime.of(12, 0),
+                LocalDate.of(2024, 1, 7), LocalTime.of(13, 0)));
+
+        assertTrue(union.intersects(autumn));
+        assertTrue(union.intersects(termly(DayOfWeek.MONDAY, 9, 45, 11, 0)));
+        assertTrue(union.intersects(TimeGrid.range(EpochMinutes.of(LocalDate.of(2024, 1, 7), LocalTime.of(12, 30)),
+                EpochMinutes.of(LocalDate.of(2024, 1, 7), LocalTime.of(12, 45)))));
+        assertFalse(union.intersects(termly(DayOfWeek.FRIDAY, 9, 0, 10, 0)));
+
+        union.clear();
+        assertTrue(union.isEmpty());
+        assertFalse(union.intersects(autumn));
+    }
+
+    /**
+     * Tests that a timetable only reports clashes with activities held at the same time of the same day.
+     */
+    @Test
+    public void testTimetableChecksWeeklyClashes() {
+        Timetable timetable = new Timetable("grid@hindeburg.ac.nz");
+        timetable.addTimeSlot(DayOfWeek.MONDAY, TERM_START, LocalTime.of(9, 0), TERM_END, LocalTime.of(10, 0),
+                "TGR1001", 1, TimeSlotStatus.CHOSEN);
+        timetable.addTimeSlot(DayOfWeek.TUESDAY, TERM_START, LocalTime.of(11, 0), TERM_END, LocalTime.of(12, 0),
+                "TGR1002", 2, TimeSlotStatus.UNCHOSEN);
+
+        long start = EpochMinutes.of(TERM_START, LocalTime.of(9, 30));
+        long end = EpochMinutes.of(TERM_END, LocalTime.of(10, 30));
+        assertArrayEquals(new String[]{"TGR1001", "1"}, timetable.checkConflicts(DayOfWeek.MONDAY, start, end));
+        assertNull(timetable.checkConflicts(DayOfWeek.TUESDAY, start, end));
+        assertNull(timetable.checkConflicts(DayOfWeek.MONDAY, EpochMinutes.of(TERM_START, LocalTime.of(11, 0)),
+                EpochMinutes.of(TERM_END, LocalTime.of(12, 0))));
+
+        // Taken as one continuous stretch, the whole term clashes with both, and the earlier is reported
+        assertArrayEquals(new String[]{"TGR1001", "1"},
+                timetable.checkConflicts(TERM_START, LocalTime.of(0, 0), TERM_END, LocalTime.of(23, 0)));
+
+        // Sharing the 10:45 quarter-hour with a slot isn't a clash unless the minutes overlap
+        timetable.addTimeSlot(DayOfWeek.FRIDAY, TERM_START, LocalTime.of(10, 0), TERM_END, LocalTime.of(10, 50),
+                "TGR1003", 3, TimeSlotStatus.UNCHOSEN);
+        assertNull(timetable.checkConflicts(DayOfWeek.FRIDAY, EpochMinutes.of(TERM_START, LocalTime.of(10, 50)),
+                EpochMinutes.of(TERM_END, LocalTime.of(11, 40))));
+        assertArrayEquals(new String[]{"TGR1003", "3"}, timetable.checkConflicts(DayOfWeek.FRIDAY,
+                EpochMinutes.of(TERM_START, LocalTime.of(10, 45)), EpochMinutes.of(TERM_END, LocalTime.of(11, 40))));
+        timetable.removeSlotsForCourse("TGR1003");
+
+        timetable.removeSlotsForCourse("TGR1001");
+        assertNull(timetable.checkConflicts(DayOfWeek.MONDAY, start, end));
+        assertArrayEquals(new String[]{"TGR1002", "2"},
+                timetable.checkConflicts(TERM_START, LocalTime.of(0, 0), TERM_END, LocalTime.of(23, 0)));
+    }
+}
@@ -0,0 +1,115 @@
+package unit_tests;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that timetables share their slots rather than each holding copies.
+ */
+public class TestTimetableFootprint {
+
+    private static final LocalDate TERM_START = LocalDate.of(2025, 1, 13);
+    private static final LocalDate TERM_END = LocalDate.of(2025, 4, 7);
+    private static final int ACTIVITIES_PER_COURSE = 30;
+
+    private static void addCourse(Timetable timetable, int course) {
+        String code = String.format("TFP%04d", course);
+        for (int a = 0; a < ACTIVITIES_PER_COURSE; a++) {
+            LocalTime start = LocalTime.of(9 + (course + a) % 8, 0);
+            timetable.addTimeSlot(DayOfWeek.of(1 + a % 5), TERM_START, start, TERM_END, start.plusMinutes(50),
+                    code, a, a == 0 ? TimeSlotStatus.CHOSEN : TimeSlotStatus.UNCHOSEN);
+        }
+    }
+
+    /**
+     * Tests that two students taking the same course hold the same slot objects, each with
+     * their own chosen state.
+     */
+    @Test
+    public void testSlotsAreShared() {
+        SharedStore store = new SharedStore();
+        Timetable first = store.getOrCreateTimetable("first@hindeburg.ac.nz");
+        Timetable second = store.getOrCreateTimetable("second@hindeburg.ac.nz");
+        addCourse(first, 0);
+        addCourse(second, 0);
+
+        List<TimeSlot> firstSlots = first.getTimeSlots();
+        List<TimeSlot> secondSlots = second.getTimeSlots();
+        assertEquals(ACTIVITIES_PER_COURSE, firstSlots.size());
+        for (int i = 0; i < firstSlots.size(); i++) {
+            assertSame(firstSlots.get(i), secondSlots.get(i));
+        }
+
+        assertTrue(first.chooseActivity("TFP0000", 7));
+        assertTrue(first.isChosen(firstSlots.get(7)));
+        assertFalse(second.isChosen(secondSlots.get(7)), "Choosing should not affect other timetables");
+        assertEquals(2, first.numChosenActivities("TFP0000"));
+        assertEquals(1, second.numChosenActivities("TFP0000"));
+    }
+
+    /**
+     * Tests that separate stores don't share slots, and that a removed course's slots aren't
+     * reused if its code is added again.
+     */
+    @Test
+    public void testSlotsBelongToTheirStore() {
+        SharedStore store = new SharedStore();
+        Timetable timetable = store.getOrCreateTimetable("first@hindeburg.ac.nz");
+        addCourse(timetable, 0);
+        Timetable elsewhere = new SharedStore().getOrCreateTimetable("first@hindeburg.ac.nz");
+        addCourse(elsewhere, 0);
+        assertNotSame(timetable.getTimeSlots().get(0), elsewhere.getTimeSlots().get(0));
+
+        CourseManager courseManager = new SharedContext(new NullView(), store).getCourseManager();
+        courseManager.addCourse("TFP0001", "Removed", "A course", false,
+                "Dr. A", "a@hindeburg.ac.nz", "Ms. B", "b@hindeburg.ac.nz", 0, 0, "registry@hindeburg.ac.nz");
+        Activity lecture = new Lecture(1, TERM_START, LocalTime.of(9, 0), TERM_END, LocalTime.of(10, 0),
+                "Room 1", DayOfWeek.MONDAY, true);
+        courseManager.addActivityToCourse("TFP0001", lecture);
+        assertTrue(courseManager.addCourseToStudentTimetable("first@hindeburg.ac.nz", "TFP0001"));
+        TimeSlot removed = store.getTimetable("first@hindeburg.ac.nz").getTimeSlots().get(ACTIVITIES_PER_COURSE);
+        assertNotNull(courseManager.removeCourse("TFP0001"));
+
+        courseManager.addCourse("TFP0001", "Added again", "A course", false,
+                "Dr. A", "a@hindeburg.ac.nz", "Ms. B", "b@hindeburg.ac.nz", 0, 0, "registry@hindeburg.ac.nz");
+        courseManager.addActivityToCourse("TFP0001", lecture);
+        assertTrue(courseManager.addCourseToStudentTimetable("second@hindeburg.ac.nz", "TFP0001"));
+        TimeSlot added = store.getTimetable("second@hindeburg.ac.nz").getTimeSlots().get(0);
+        assertEquals(removed.getStartMinute(), added.getStartMinute());
+        assertNotSame(removed, added);
+    }
+
+    /**
+     * Tests a course with more slots than fit in one word of the timetable's bitsets.
+     */
+    @Test
+    public void testCourseWithManySlots() {
+        Timetable timetable = new Timetable("many@hindeburg.ac.nz");
+        for (int a = 0; a < 150; a++) {
+            LocalTime start = LocalTime.of(8, 0).plusMinutes(5 * a);
+            timetable.addTimeSlot(DayOfWeek.MONDAY, TERM_START, start, TERM_START, start.plusMinutes(5),
+                    "TFP9999", a, TimeSlotStatus.UNCHOSEN);
+        }
+        assertEquals(150, timetable.getTimeSlots().size());
+
+        assertTrue(timetable.chooseActivity("TFP9999", 130));
+        assertTrue(timetable.chooseActivity("TFP9999", 3));
+        assertFalse(timetable.chooseActivity("TFP9999", 150));
+        assertEquals(2, timetable.numChosenActivities("TFP9999"));
+
+        LocalTime clash = LocalTime.of(8, 0).plusMinutes(5 * 140);
+        assertArrayEquals(new String[]{"TFP9999", "140"},
+                timetable.checkConflicts(TERM_START, clash, TERM_START, clash.plusMinutes(5)));
+
+        timetable.removeSlotsForCourse("TFP9999");
+        assertTrue(timetable.getTimeSlots().isEmpty());
+        assertFalse(timetable.hasSlotsForCourse("TFP9999"));
+    }
+}
@@ -0,0 +1,124 @@
+package unit_tests;
+
+import model.TimeSlot;
+import model.TimeSlotStatus;
+import model.Timetable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a timetable's lookups by course code and activity ID, and its conflict checks,
+ * stay consistent as courses are removed and activities chosen.
+ */
+public class TestTimetableIndex {
+
+    private static final LocalDate TERM_START = LocalDate.of(2025, 1, 13);
+    private static final LocalDate TERM_END = LocalDate.of(2025, 4, 7);
+    // More than fit in one word of a course's slot bits
+    private static final int LARGE_COURSE_ACTIVITIES = 70;
+
+    private Timetable timetable;
+
+    @BeforeEach
+    public void setUp() {
+        timetable = new Timetable("student@hindeburg.ac.nz");
+        addSlot(DayOfWeek.MONDAY, LocalTime.of(9, 0), "TTI0001", 1, TimeSlotStatus.CHOSEN);
+        addSlot(DayOfWeek.MONDAY, LocalTime.of(11, 0), "TTI0001", 2, TimeSlotStatus.UNCHOSEN);
+        addSlot(DayOfWeek.TUESDAY, LocalTime.of(9, 0), "TTI0002", 1, TimeSlotStatus.UNCHOSEN);
+        for (int a = 0; a < LARGE_COURSE_ACTIVITIES; a++) {
+            timetable.addTimeSlot(DayOfWeek.WEDNESDAY, TERM_START, LocalTime.of(8, 0).plusMinutes(5L * a),
+                    TERM_END, LocalTime.of(8, 5).plusMinutes(5L * a), "TTI0003", a, TimeSlotStatus.UNCHOSEN);
+        }
+    }
+
+    private void addSlot(DayOfWeek day, LocalTime start, String courseCode, int activityId, TimeSlotStatus status) {
+        timetable.addTimeSlot(day, TERM_START, start, TERM_END, start.plusHours(1), courseCode, activityId, status);
+    }
+
+    private String[] conflictOn(LocalDate date, LocalTime start) {
+        return timetable.checkConflicts(date, start, date, start.plusMinutes(30));
+    }
+
+    /**
+     * Tests that a removed course can't be found by code or activity, and no longer conflicts,
+     * while the courses either side of it are unchanged.
+     */
+    @Test
+    public void testRemoveSlotsForCourse() {
+        LocalDate tuesday = TERM_START.plusDays(1);
+        assertArrayEquals(new String[]{"TTI0002", "1"}, conflictOn(tuesday, LocalTime.of(9, 0)));
+
+        timetable.removeSlotsForCourse("tti0002");
+
+        assertFalse(timetable.hasSlotsForCourse("TTI0002"));
+        assertNull(timetable.getActivityStatus("TTI0002", 1));
+        assertEquals(0, timetable.numChosenActivities("TTI0002"));
+        assertFalse(timetable.chooseActivity("TTI0002", 1));
+        assertNull(conflictOn(tuesday, LocalTime.of(9, 0)), "A removed course's times should be free");
+
+        assertEquals(2 + LARGE_COURSE_ACTIVITIES, timetable.getTimeSlots().size());
+        assertEquals(TimeSlotStatus.CHOSEN, timetable.getActivityStatus("TTI0001", 1));
+        assertEquals(TimeSlotStatus.UNCHOSEN, timetable.getActivityStatus("TTI0001", 2));
+        assertEquals(TimeSlotStatus.UNCHOSEN, timetable.getActivityStatus("TTI0003", 69));
+        assertArrayEquals(new String[]{"TTI0001", "1"}, conflictOn(TERM_START, LocalTime.of(9, 30)));
+        assertArrayEquals(new String[]{"TTI0003", "24"},
+                conflictOn(TERM_START.plusDays(2), LocalTime.of(10, 0)));
+
+        // Adding the course again starts it afresh
+        addSlot(DayOfWeek.TUESDAY, LocalTime.of(9, 0), "TTI0002", 1, TimeSlotStatus.UNCHOSEN);
+        assertEquals(TimeSlotStatus.UNCHOSEN, timetable.getActivityStatus("TTI0002", 1));
+        assertArrayEquals(new String[]{"TTI0002", "1"}, conflictOn(tuesday, LocalTime.of(9, 0)));
+    }
+
+    /**
+     * Tests that removing every course leaves an empty timetable with nothing to conflict with.
+     */
+    @Test
+    public void testRemoveEveryCourse() {
+        timetable.removeSlotsForCourse("TTI0001");
+        timetable.removeSlotsForCourse("TTI0003");
+        timetable.removeSlotsForCourse("TTI0002");
+        timetable.removeSlotsForCourse("TTI0002");
+
+        assertEquals(List.of(), timetable.getTimeSlots());
+        assertNull(timetable.checkConflicts(TERM_START, LocalTime.MIDNIGHT, TERM_END, LocalTime.MIDNIGHT));
+    }
+
+    /**
+     * Tests that choosing an activity, including one past the first 64 of its course, is seen by
+     * every lookup and counted once.
+     */
+    @Test
+    public void testChooseActivity() {
+        assertTrue(timetable.chooseActivity("TTI0003", 66));
+        assertTrue(timetable.chooseActivity("TTI0003", 66));
+        assertTrue(timetable.chooseActivity("TTI0003", 3));
+
+        assertEquals(2, timetable.numChosenActivities("TTI0003"));
+        assertEquals(TimeSlotStatus.CHOSEN, timetable.getActivityStatus("TTI0003", 66));
+        assertEquals(TimeSlotStatus.UNCHOSEN, timetable.getActivityStatus("TTI0003", 65));
+        assertEquals(TimeSlotStatus.UNCHOSEN, timetable.getActivityStatus("TTI0003", 67));
+        for (TimeSlot slot : timetable.getTimeSlots()) {
+            boolean chosen = slot.getCourseCode().equals("TTI0001") && slot.getActivityId() == 1
+                    || slot.getCourseCode().equals("TTI0003")
+                    && (slot.getActivityId() == 3 || slot.getActivityId() == 66);
+            assertEquals(chosen, timetable.isChosen(slot), slot.toString());
+        }
+
+        assertFalse(timetable.chooseActivity("TTI0003", LARGE_COURSE_ACTIVITIES), "No such activity");
+        assertFalse(timetable.chooseActivity("TTI9999", 1), "No such course");
+        assertEquals(1, timetable.numChosenActivities("TTI0001"));
+
+        // Removing another course keeps what was chosen
+        timetable.removeSlotsForCourse("TTI0001");
+        assertEquals(2, timetable.numChosenActivities("TTI0003"));
+        assertEquals(TimeSlotStatus.CHOSEN, timetable.getActivityStatus("TTI0003", 66));
+    }
+}
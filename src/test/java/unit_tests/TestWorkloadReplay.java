@@ -0,0 +1,163 @@
+package unit_tests;
+
+import external.MockAuthenticationService;
+import model.*;
+import org.json.simple.parser.ParseException;
+import org.junit.jupiter.api.Test;
+import util.ActionMetrics;
+import util.LatencyHistogram;
+import workload.SessionScript;
+import workload.WorkloadGenerator;
+import workload.WorkloadReplay;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the WorkloadGenerator, SessionScript and WorkloadReplay classes.
+ */
+public class TestWorkloadReplay {
+
+    private static final int COURSES = 20;
+    private static final int STUDENTS = 50;
+
+    private SharedStore generate(long seed) {
+        SharedStore store = new SharedStore();
+        CourseManager courseManager = new SharedContext(new NullView(), store).getCourseManager();
+        WorkloadGenerator generator = new WorkloadGenerator(seed);
+        generator.addCourses(courseManager, COURSES);
+        generator.addStudents(courseManager, STUDENTS, 3, COURSES);
+        generator.addFAQ(store.getFAQManager(), 3, 4, 5, COURSES);
+        return store;
+    }
+
+    /**
+     * Tests that the generated data has the requested shape.
+     */
+    @Test
+    public void testGeneratedData() {
+        SharedStore store = generate(7);
+        CourseManager courseManager = new SharedContext(new NullView(), store).getCourseManager();
+
+        assertEquals(COURSES, courseManager.getAllCourses().size());
+        assertEquals(5, courseManager.getCourse(WorkloadGenerator.courseCode(0)).getActivities().size());
+        assertEquals(STUDENTS, store.getAllTimetables().size());
+        for (Timetable timetable : store.getAllTimetables()) {
+            assertEquals(3 * 5, timetable.getTimeSlots().size(), "Each student should have three courses");
+        }
+
+        List<FAQSection> topics = store.getFAQManager().getSections();
+        assertEquals(4, topics.size());
+        FAQSection leaf = topics.get(0).getSubsections().get(0).getSubsections().get(0);
+        assertEquals(5, leaf.getItems().size());
+        assertTrue(leaf.getSubsections().isEmpty(), "The FAQ should be three levels deep");
+    }
+
+    /**
+     * Tests that the same seed generates the same data and sessions, and a different one does not.
+     */
+    @Test
+    public void testSeedMakesRunsReproducible() {
+        assertEquals(describe(generate(7)), describe(generate(7)));
+        assertNotEquals(describe(generate(7)), describe(generate(8)));
+
+        String first = SessionScript.generate(7, 3, STUDENTS, COURSES, 3, 20).getSteps().toString();
+        assertEquals(first, SessionScript.generate(7, 3, STUDENTS, COURSES, 3, 20).getSteps().toString());
+        assertNotEquals(first, SessionScript.generate(7, 4, STUDENTS, COURSES, 3, 20).getSteps().toString());
+    }
+
+    /**
+     * Tests that every session logs in first, and activities are only chosen for courses the
+     * session has added.
+     */
+    @Test
+    public void testSessionScripts() {
+        for (int session = 0; session < 100; session++) {
+            SessionScript script = SessionScript.generate(1, session, STUDENTS, COURSES, 3, 10);
+            List<SessionScript.Step> steps = script.getSteps();
+            assertEquals(11, steps.size());
+            assertEquals(SessionScript.Operation.LOGIN, steps.get(0).getOperation());
+            for (int i = 1; i < steps.size(); i++) {
+                SessionScript.Step step = steps.get(i);
+                if (step.getOperation() == SessionScript.Operation.CHOOSE_ACTIVITY) {
+                    String code = step.getCourseCode();
+                    assertTrue(steps.subList(1, i).stream().anyMatch(earlier ->
+                            earlier.getOperation() == SessionScript.Operation.ADD_COURSE
+                                    && earlier.getCourseCode().equals(code)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that a replay records every step under its operation, without errors.
+     */
+    @Test
+    public void testReplayReportsEachOperation() throws IOException, ParseException, InterruptedException {
+        SharedStore store = generate(7);
+        MockAuthenticationService auth = new MockAuthenticationService(
+                new StringReader(WorkloadGenerator.userData(STUDENTS)));
+
+        WorkloadReplay.ReplayResult result = new WorkloadReplay(store, auth, 7, STUDENTS, COURSES, 3)
+                .run(200, 10, 2);
+
+        Map<String, LatencyHistogram.Snapshot> operations = result.getOperations();
+        assertEquals(Long.valueOf(200), Long.valueOf(operations.get("login").getCount()));
+        long total = 0;
+        for (SessionScript.Operation operation : SessionScript.Operation.values()) {
+            LatencyHistogram.Snapshot snapshot = operations.get(operation.getAction());
+            assertNotNull(snapshot, operation + " should have been replayed");
+            assertEquals(Long.valueOf(0), Long.valueOf(snapshot.getErrors()), operation + " should not fail");
+            assertTrue(result.operationsPerSecond(operation.getAction()) > 0);
+            total += snapshot.getCount();
+        }
+        assertEquals(Long.valueOf(200 * 11), Long.valueOf(total));
+        assertTrue(result.toString().contains("consultFAQ"));
+    }
+
+    /**
+     * Tests that a session whose login fails stops there.
+     */
+    @Test
+    public void testFailedLoginEndsSession() throws IOException, ParseException {
+        SharedStore store = generate(7);
+        // Nobody can log in
+        MockAuthenticationService auth = new MockAuthenticationService(new StringReader("[]"));
+        ActionMetrics metrics = new ActionMetrics();
+
+        new WorkloadReplay(store, auth, 7, STUDENTS, COURSES, 3)
+                .replay(SessionScript.generate(7, 0, STUDENTS, COURSES, 3, 10), new NullView(), metrics);
+
+        assertEquals(1, metrics.snapshot().size());
+        assertEquals(Long.valueOf(1), Long.valueOf(metrics.snapshot().get("login").getErrors()));
+    }
+
+    private static String describe(SharedStore store) {
+        StringBuilder description = new StringBuilder();
+        CourseManager courseManager = new SharedContext(new NullView(), store).getCourseManager();
+        for (int c = 0; c < COURSES; c++) {
+            description.append(courseManager.viewCourse(WorkloadGenerator.courseCode(c)));
+        }
+        for (int s = 0; s < STUDENTS; s++) {
+            description.append(store.getTimetable(WorkloadGenerator.studentEmail(s)).toWorkingWeekString());
+        }
+        for (FAQSection topic : store.getFAQManager().getSections()) {
+            describe(topic, description);
+        }
+        return description.toString();
+    }
+
+    private static void describe(FAQSection section, StringBuilder description) {
+        description.append(section.getTopic());
+        for (FAQItem item : section.getItems()) {
+            description.append(item.getQuestion()).append(item.getTag());
+        }
+        for (FAQSection subsection : section.getSubsections()) {
+            describe(subsection, description);
+        }
+    }
+}
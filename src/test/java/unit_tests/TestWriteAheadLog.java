@@ -0,0 +1,218 @@
+package unit_tests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.WriteAheadLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the WriteAheadLog class.
+ */
+public class TestWriteAheadLog {
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("wal");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private List<String> reopen(long fromSequence) throws IOException {
+        List<String> records = new ArrayList<>();
+        new WriteAheadLog(directory, fromSequence, (sequence, payload) -> records.add(text(payload))).close();
+        return records;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log"))
+                    .sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Tests that records come back in order, numbered from 0, across reopening and rolling.
+     */
+    @Test
+    public void testReplaysRecordsInOrder() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, 0, (sequence, payload) -> fail())) {
+            assertEquals(0, log.append(bytes("first")));
+            assertEquals(1, log.append(bytes("second")));
+            assertEquals(2, log.roll());
+            assertEquals(2, log.append(bytes("third")));
+        }
+
+        assertEquals(List.of("first", "second", "third"), reopen(0));
+        assertEquals(List.of("third"), reopen(2));
+        assertEquals(2, segments().size());
+    }
+
+    /**
+     * Tests that a record cut short by a crash is dropped, and that appends carry on after it.
+     */
+    @Test
+    public void testTruncatesTornTail() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, 0, (sequence, payload) -> fail())) {
+            log.append(bytes("kept"));
+        }
+        Path segment = segments().get(0);
+        long intactSize = Files.size(segment);
+        // The header of a 100-byte record, followed by only part of it
+        ByteBuffer torn = ByteBuffer.allocate(20).putInt(100).putInt(12345);
+        Files.write(segment, torn.array(), StandardOpenOption.APPEND);
+
+        assertEquals(List.of("kept"), reopen(0));
+        assertEquals(intactSize, Files.size(segment));
+
+        try (WriteAheadLog log = new WriteAheadLog(directory, 0, (sequence, payload) -> { })) {
+            assertEquals(1, log.append(bytes("after crash")));
+        }
+        assertEquals(List.of("kept", "after crash"), reopen(0));
+    }
+
+    /**
+     * Tests that a zero-filled tail left by a crash is dropped rather than replayed as empty records.
+     */
+    @Test
+    public void testTruncatesZeroFilledTail() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, 0, (sequence, payload) -> fail())) {
+            log.append(bytes("kept"));
+        }
+        Path segment = segments().get(0);
+        long intactSize = Files.size(segment);
+        Files.write(segment, new byte[64], StandardOpenOption.APPEND);
+
+        assertEquals(List.of("kept"), reopen(0));
+        assertEquals(intactSize, Files.size(segment));
+
+        try (WriteAheadLog log = new WriteAheadLog(directory, 0, (sequence, payload) -> { })) {
+            assertEquals(1, log.append(bytes("after crash")));
+        }
+        assertEquals(List.of("kept", "after crash"), reopen(0));
+    }
+
+    /**
+     * Tests that empty records are refused, so a length of 0 always marks a torn tail.
+     */
+    @Test
+    public void testRejectsEmptyRecord() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, 0, (sequence, payload) -> fail())) {
+            assertThrows(IllegalArgumentException.class, () -> log.append(new byte[0]));
+        }
+    }
+
+    /**
+     * Tests that a damaged record is detected by its checksum.
+     */
+    @Test
+    public void testDropsRecordWithBadChecksum() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, 0, (sequence, payload) -> fail())) {
+            log.append(bytes("good"));
+            log.append(bytes("damaged"));
+        }
+        Path segment = segments().get(0);
+        byte[] contents = Files.readAllBytes(segment);
+        contents[contents.length - 1] ^= 1;
+        Files.write(segment, contents);
+
+        assertEquals(List.of("good"), reopen(0));
+    }
+
+    /**
+     * Tests that damage before the newest segment is reported rather than silently dropping records.
+     */
+    @Test
+    public void testRejectsCorruptionInOlderSegment() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, 0, (sequence, payload) -> fail())) {
+            log.append(bytes("old"));
+            log.roll();
+            log.append(bytes("new"));
+        }
+        Path older = segments().get(0);
+        byte[] contents = Files.readAllBytes(older);
+        contents[contents.length - 1] ^= 1;
+        Files.write(older, contents);
+
+        assertThrows(IOException.class, () -> reopen(0));
+    }
+
+    /**
+     * Tests that concurrent appends all get distinct sequence numbers and are all on disk.
+     */
+    @Test
+    public void testConcurrentAppendsAreAllDurable() throws Exception {
+        int threads = 16;
+        int perThread = 200;
+        Set<Long> sequences = ConcurrentHashMap.newKeySet();
+        try (WriteAheadLog log = new WriteAheadLog(directory, 0, (sequence, payload) -> fail())) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        sequences.add(log.append(bytes(thread + ":" + i)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+        }
+
+        assertEquals(threads * perThread, sequences.size());
+        List<String> records = reopen(0);
+        assertEquals(threads * perThread, records.size());
+        assertEquals(threads * perThread, new HashSet<>(records).size());
+    }
+
+    /**
+     * Tests that deleted segments are skipped when a snapshot covers them.
+     */
+    @Test
+    public void testDeletesSegmentsCoveredBySnapshot() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(directory, 0, (sequence, payload) -> fail())) {
+            log.append(bytes("a"));
+            long rolled = log.roll();
+            log.append(bytes("b"));
+            log.deleteSegmentsBefore(rolled);
+        }
+
+        assertEquals(1, segments().size());
+        assertEquals(List.of("b"), reopen(1));
+    }
+}